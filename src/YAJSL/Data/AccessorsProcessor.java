@@ -0,0 +1,236 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * The annotation processor generating the accessors for the classes annotated
+ * with {@link GenerateAccessors}.
+ * <p>
+ * For each annotated class a {@link FieldAccessors.Provider} is generated, mapping the
+ * names of the public getter methods (any method without arguments returning a value)
+ * and setter methods (any method named set... with one argument) of the class, including
+ * the inherited ones, to lambdas calling them directly. Getters returning primitive values
+ * are also provided as primitive getters, without boxing.
+ * <p>
+ * This class only refers to the annotations by name, so that it can be compiled and
+ * run before the rest of the library.
+ *
+ * @author Giuseppe Gallo
+ */
+@SupportedAnnotationTypes("YAJSL.Data.GenerateAccessors")
+public class AccessorsProcessor extends AbstractProcessor {
+    
+    /** The suffix of the name of the classes generated */
+    public final static String SUFFIX = "_Accessors";
+    
+    /** The name of the FieldAccessors class, as referred by the code generated */
+    private final static String ACCESSORS = "YAJSL.Data.FieldAccessors";
+
+    /**
+     * Returns the latest source version supported.
+     * 
+     * @return  the latest source version supported
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generates the accessors for the classes annotated.
+     * 
+     * @param annotations  the annotations processed
+     * @param roundEnv  the environment of the current round
+     * @return  true (the annotations are claimed by this processor)
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!element.getKind().isClass() && !element.getKind().isInterface()) continue;
+                
+                try {
+                    generate((TypeElement)element);
+                } catch (IOException ex) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot generate accessors: " + ex.getMessage(), element);
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Generates the accessors for a class.
+     * 
+     * @param type  the class
+     * @throws IOException  in case the source file cannot be written
+     */
+    private void generate(TypeElement type) throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('$', '_') + SUFFIX;
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        
+        Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+        Map<String, List<ExecutableElement>> setters = new LinkedHashMap<>();
+        Set<String> signatures = new LinkedHashSet<>();
+        
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) continue;
+            if (method.getEnclosingElement().toString().equals("java.lang.Object")) continue;
+            if (!method.getTypeParameters().isEmpty()) continue;
+            
+            String name = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID) {
+                getters.putIfAbsent(name, method);
+            } else if (method.getParameters().size() == 1 && name.startsWith("set")) {
+                String arg = erasure(method.getParameters().get(0).asType());
+                if (signatures.add(name + "(" + arg + ")")) setters.computeIfAbsent(name, k -> new ArrayList<>()).add(method);
+            }
+        }
+        
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer out = file.openWriter()) {
+            if (!packageName.isEmpty()) out.write("package " + packageName + ";\n\n");
+            out.write("/**\n * The accessors for {@link " + typeName + "}, generated by " + AccessorsProcessor.class.getName() + ".\n */\n");
+            out.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            out.write("public final class " + simpleName + " implements " + ACCESSORS + ".Provider {\n\n");
+            
+            out.write("    @Override\n");
+            out.write("    public " + ACCESSORS + ".Getter getGetter(String name) {\n");
+            out.write("        switch (name) {\n");
+            for (Map.Entry<String, ExecutableElement> e : getters.entrySet()) {
+                out.write("            case \"" + e.getKey() + "\": return object -> ((" + typeName + ")object)." + e.getKey() + "();\n");
+            }
+            out.write("            default: return null;\n");
+            out.write("        }\n");
+            out.write("    }\n\n");
+            
+            out.write("    @Override\n");
+            out.write("    public " + ACCESSORS + ".Setter getSetter(String name, Class<?> argType) {\n");
+            out.write("        switch (name) {\n");
+            for (Map.Entry<String, List<ExecutableElement>> e : setters.entrySet()) {
+                out.write("            case \"" + e.getKey() + "\":\n");
+                for (ExecutableElement method : e.getValue()) {
+                    TypeMirror argType = method.getParameters().get(0).asType();
+                    String arg = erasure(argType);
+                    String cast = argType.getKind().isPrimitive() ? box(argType.getKind()) : arg;
+                    out.write("                if (argType == " + arg + ".class) return (object, value) -> ((" + typeName + ")object)." + e.getKey() + "((" + cast + ")value);\n");
+                }
+                out.write("                return null;\n");
+            }
+            out.write("            default: return null;\n");
+            out.write("        }\n");
+            out.write("    }\n\n");
+            
+            out.write("    @Override\n");
+            out.write("    public Object getPrimitiveGetter(String name, Class<?> result) {\n");
+            out.write("        switch (name) {\n");
+            for (Map.Entry<String, ExecutableElement> e : getters.entrySet()) {
+                TypeKind kind = e.getValue().getReturnType().getKind();
+                if (!kind.isPrimitive()) continue;
+                
+                String call = "((" + typeName + ")object)." + e.getKey() + "()";
+                out.write("            case \"" + e.getKey() + "\":\n");
+                if (kind == TypeKind.BOOLEAN) {
+                    out.write("                if (result == boolean.class) return (" + ACCESSORS + ".BooleanGetter) object -> " + call + ";\n");
+                } else {
+                    if (kind != TypeKind.LONG && kind != TypeKind.FLOAT && kind != TypeKind.DOUBLE) {
+                        out.write("                if (result == int.class) return (" + ACCESSORS + ".IntGetter) object -> " + call + ";\n");
+                    }
+                    if (kind != TypeKind.FLOAT && kind != TypeKind.DOUBLE) {
+                        out.write("                if (result == long.class) return (" + ACCESSORS + ".LongGetter) object -> " + call + ";\n");
+                    }
+                    out.write("                if (result == double.class) return (" + ACCESSORS + ".DoubleGetter) object -> " + call + ";\n");
+                }
+                out.write("                return null;\n");
+            }
+            out.write("            default: return null;\n");
+            out.write("        }\n");
+            out.write("    }\n");
+            out.write("}\n");
+        }
+    }
+    
+    /**
+     * Returns the name of the erasure of a type, as used in the code generated.
+     * 
+     * @param type  the type
+     * @return  the name of the erasure of the type
+     */
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+    
+    /**
+     * Returns the name of the wrapper class of a primitive type.
+     * 
+     * @param kind  the primitive type
+     * @return  the name of the wrapper class
+     */
+    private static String box(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN: return "Boolean";
+            case BYTE: return "Byte";
+            case SHORT: return "Short";
+            case CHAR: return "Character";
+            case INT: return "Integer";
+            case LONG: return "Long";
+            case FLOAT: return "Float";
+            default: return "Double";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The asynchronous variant of the DataRecord contract, for the classes able to store
+ * and delete their objects without blocking the calling thread.
+ * <p>
+ * The default implementations simply call store/delete on the given executor: classes
+ * relying on asynchronous drivers or services can override them. The objects not implementing
+ * this interface are handled in the same way by {@link AsyncPersister}.
+ *
+ * @author Giuseppe Gallo
+ */
+public interface AsyncDataRecord extends DataRecord {
+    
+    /**
+     * Makes persistent the modifications to this object asynchronously.
+     * 
+     * @param executor  the executor to be used for blocking operations
+     * @return  the future completed when the object has been stored
+     */
+    public default CompletableFuture<Void> storeAsync(Executor executor) {
+        return run(this, false, executor);
+    }
+    
+    /**
+     * Deletes this object asynchronously.
+     * 
+     * @param executor  the executor to be used for blocking operations
+     * @return  the future completed when the object has been deleted
+     */
+    public default CompletableFuture<Void> deleteAsync(Executor executor) {
+        return run(this, true, executor);
+    }
+    
+    /**
+     * Calls store or delete on an object using the given executor.
+     * 
+     * @param record  the object to be stored or deleted
+     * @param delete  if true, the object is deleted, otherwise it is stored
+     * @param executor  the executor
+     * @return  the future completed when the object has been stored or deleted
+     */
+    public static CompletableFuture<Void> run(DataRecord record, boolean delete, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (delete) record.delete();
+                    else record.store();
+                    future.complete(null);
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        
+        return future;
+    }
+}
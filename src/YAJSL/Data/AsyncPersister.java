@@ -0,0 +1,359 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A persister which stores and deletes the objects asynchronously on an executor,
+ * so that the data managers and the components using it never block the event
+ * dispatching thread.
+ * <p>
+ * The objects implementing {@link AsyncDataRecord} are written through their asynchronous
+ * methods, the others by calling store/delete on the executor. The modifications of the same
+ * object (by identity) are written in order, one at a time; those of different objects may be
+ * written concurrently, depending on the executor: a bounded thread pool, or one virtual
+ * thread per task when running on a JDK supporting them (see {@link #newDefaultExecutor()}).
+ * <p>
+ * The futures returned by {@link #storeAsync(DataRecord)} and {@link #deleteAsync(DataRecord)}
+ * are completed on the event dispatching thread: data managers and components (e.g. the
+ * addObject and deleteSelectedObject methods of TableDataRecord) chain on them the updates
+ * of the UI, so that rows are inserted or removed only once the objects have been written.
+ * When the objects are written through the store/delete methods instead, errors are logged
+ * and reported to the error handler (if any) on the event dispatching thread.<br>
+ * Applications should call {@link #flushAll()} in their shutdown logic.
+ *
+ * @author Giuseppe Gallo
+ */
+public class AsyncPersister implements DataRecordPersister {
+    
+    /**
+     * The interface for the classes handling the errors occurred while writing the objects.
+     */
+    public static interface ErrorHandler {
+        
+        /**
+         * Handles an error occurred while writing an object (called on the event dispatching thread).
+         * 
+         * @param record  the object which could not be written
+         * @param delete  true if the object was being deleted, false if it was being stored
+         * @param ex  the exception
+         */
+        public void handleError(DataRecord record, boolean delete, Throwable ex);
+    }
+    
+    /** The persisters currently open */
+    private final static Set<AsyncPersister> PERSISTERS = Collections.newSetFromMap(new WeakHashMap<>());
+    
+    /** The executor delivering the completions on the event dispatching thread */
+    private final static Executor EDT = EventQueue::invokeLater;
+    
+    
+    /** The executor used for writing the objects */
+    private final Executor executor;
+    
+    /** The last modification requested for each object being written */
+    private final IdentityHashMap<DataRecord, CompletableFuture<Void>> pending = new IdentityHashMap<>();
+    
+    /** The handler of the errors (null = errors only logged) */
+    private volatile ErrorHandler errorHandler = null;
+    
+    
+    /**
+     * Allocates a new persister using the default executor.
+     */
+    public AsyncPersister() {
+        this(newDefaultExecutor());
+    }
+    
+    /**
+     * Allocates a new persister.
+     * 
+     * @param executor  the executor used for writing the objects
+     */
+    public AsyncPersister(Executor executor) {
+        if (executor == null) throw new IllegalArgumentException("Null executor");
+        this.executor = executor;
+        
+        synchronized (PERSISTERS) {
+            PERSISTERS.add(this);
+        }
+    }
+    
+    /**
+     * Allocates the default executor: one virtual thread per task if supported by the JDK,
+     * otherwise a thread pool bounded by the number of processors.
+     * 
+     * @return  the default executor
+     */
+    public static ExecutorService newDefaultExecutor() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        return (executor != null) ? executor : newBoundedExecutor(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Allocates an executor using a bounded pool of daemon threads.
+     * 
+     * @param threads  the maximum number of threads
+     * @return  the executor
+     */
+    public static ExecutorService newBoundedExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "AsyncPersister-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Allocates an executor starting a new virtual thread for each task.
+     * 
+     * @return  the executor (null = virtual threads not supported by the JDK)
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the executor used for writing the objects.
+     * 
+     * @return  the executor used for writing the objects
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * Sets the handler of the errors occurred while writing the objects through
+     * the DataRecordPersister methods.
+     * 
+     * @param handler  the handler of the errors (null = errors only logged)
+     */
+    public void setErrorHandler(ErrorHandler handler) {
+        errorHandler = handler;
+    }
+    
+    /**
+     * Returns the number of objects being written.
+     * 
+     * @return  the number of objects being written
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+    
+    /**
+     * Stores the given object asynchronously.
+     * 
+     * @param record  the object to be stored
+     * @return  the future completed (on the event dispatching thread) when the object has been stored
+     */
+    @Override
+    public CompletableFuture<Void> storeAsync(DataRecord record) {
+        return onEDT(submit(record, false));
+    }
+    
+    /**
+     * Deletes the given object asynchronously.
+     * 
+     * @param record  the object to be deleted
+     * @return  the future completed (on the event dispatching thread) when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(DataRecord record) {
+        return onEDT(submit(record, true));
+    }
+
+    /**
+     * Requests the storing of the given object, without waiting for its completion.
+     * 
+     * @param record  the object to be stored
+     */
+    @Override
+    public void store(DataRecord record) {
+        report(record, false, submit(record, false));
+    }
+
+    /**
+     * Requests the deletion of the given object, without waiting for its completion.
+     * 
+     * @param record  the object to be deleted
+     */
+    @Override
+    public void delete(DataRecord record) {
+        report(record, true, submit(record, true));
+    }
+    
+    /**
+     * Waits for the completion of all the modifications requested so far
+     * (errors are reported as usual).
+     */
+    public void flush() {
+        ArrayList<CompletableFuture<Void>> futures;
+        synchronized (this) {
+            futures = new ArrayList<>(pending.values());
+        }
+        
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                /* Already reported */
+            }
+        }
+    }
+    
+    /**
+     * Waits for the completion of all the modifications requested so far to all the persisters.
+     */
+    public static void flushAll() {
+        ArrayList<AsyncPersister> persisters;
+        synchronized (PERSISTERS) {
+            persisters = new ArrayList<>(PERSISTERS);
+        }
+        
+        persisters.stream().forEach(p -> p.flush());
+    }
+    
+    /**
+     * Requests a modification of an object, after the completion of any previous one.
+     * 
+     * @param record  the object modified
+     * @param delete  if true, the object must be deleted, otherwise it must be stored
+     * @return  the future completed (on the executor) when the object has been written
+     */
+    private synchronized CompletableFuture<Void> submit(DataRecord record, boolean delete) {
+        CompletableFuture<Void> previous = pending.get(record);
+        CompletableFuture<Void> future = (previous == null)
+                ? write(record, delete)
+                : previous.handle((v, ex) -> null).thenCompose(v -> write(record, delete));
+        
+        pending.put(record, future);
+        future.whenComplete((v, ex) -> {
+            synchronized (this) {
+                if (pending.get(record) == future) pending.remove(record);
+            }
+        });
+        
+        return future;
+    }
+    
+    /**
+     * Writes an object through its asynchronous methods, or on the executor.
+     * 
+     * @param record  the object to be written
+     * @param delete  if true, the object must be deleted, otherwise it must be stored
+     * @return  the future completed when the object has been written
+     */
+    private CompletableFuture<Void> write(DataRecord record, boolean delete) {
+        if (!(record instanceof AsyncDataRecord)) return AsyncDataRecord.run(record, delete, executor);
+        
+        try {
+            AsyncDataRecord r = (AsyncDataRecord)record;
+            return delete ? r.deleteAsync(executor) : r.storeAsync(executor);
+        } catch (RuntimeException ex) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+    
+    /**
+     * Returns a future completed on the event dispatching thread with the result of another one.
+     * 
+     * @param future  the future
+     * @return  the future completed on the event dispatching thread
+     */
+    private static CompletableFuture<Void> onEDT(CompletableFuture<Void> future) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        future.whenComplete((v, ex) -> EDT.execute(() -> {
+            if (ex == null) result.complete(v);
+            else result.completeExceptionally(unwrap(ex));
+        }));
+        return result;
+    }
+    
+    /**
+     * Logs and reports to the error handler (on the event dispatching thread) any error
+     * occurred while writing an object.
+     * 
+     * @param record  the object written
+     * @param delete  true if the object is being deleted, false if it is being stored
+     * @param future  the future completed when the object has been written
+     */
+    private void report(DataRecord record, boolean delete, CompletableFuture<Void> future) {
+        future.whenComplete((v, ex) -> {
+            if (ex == null) return;
+            
+            Throwable cause = unwrap(ex);
+            Logger.getLogger(AsyncPersister.class.getName()).log(Level.SEVERE, "Error " + (delete ? "deleting" : "storing") + " object: " + record, cause);
+            
+            ErrorHandler handler = errorHandler;
+            if (handler != null) EDT.execute(() -> handler.handleError(record, delete, cause));
+        });
+    }
+    
+    /**
+     * Returns the actual cause of an exception thrown by a future.
+     * 
+     * @param ex  the exception
+     * @return  the actual cause
+     */
+    private static Throwable unwrap(Throwable ex) {
+        return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+    }
+}
@@ -0,0 +1,613 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A data manager which caches the values of the fields returned by another data manager.
+ * <p>
+ * The values are cached per (row, getter), so that the getters called several times
+ * while painting a row (value, colors, font, border, validation, ...) are actually
+ * invoked only once. The cache holds a bounded number of rows: each row is mapped
+ * to a slot by its index, so that any window of contiguous rows not larger than the
+ * capacity (e.g. the rows visible in a table) is held without collisions.<br>
+ * The values requested through getInt, getLong, getDouble and getBoolean are cached
+ * unboxed, apart from those returned by getField, so that the primitive access of the
+ * underlying data manager stays free of allocations.
+ * <p>
+ * The cached values are invalidated by setField and by the changes notified to this
+ * data manager as a DataListListener, which are then forwarded to its own listeners:
+ * this data manager must therefore be registered as a listener of the changes to the
+ * underlying data, in place of the components using it.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @param <T>  the type of DataRecord handled by this data manager.
+ * @author Giuseppe Gallo
+ */
+public class CachingDataRecordManager<T extends DataRecord> implements DataRecordManager<T>, DataListListener {
+    
+    /** The default maximum number of rows cached */
+    public final static int DEFAULT_CAPACITY = 256;
+    
+    /** The value cached in place of null */
+    private final static Object NULL = new Object();
+    
+    /** The kind of primitive value cached: none */
+    private final static byte NONE = 0;
+    
+    /** The kind of primitive value cached: int */
+    private final static byte INT = 1;
+    
+    /** The kind of primitive value cached: long */
+    private final static byte LONG = 2;
+    
+    /** The kind of primitive value cached: double */
+    private final static byte DOUBLE = 3;
+    
+    /** The kind of primitive value cached: boolean */
+    private final static byte BOOLEAN = 4;
+    
+    /** The data manager providing the values */
+    private final DataRecordManager<T> source;
+    
+    /** The mask used for mapping the rows to the slots */
+    private final int mask;
+    
+    /** The row cached in each slot (-1 = none) */
+    private final int[] slotRows;
+    
+    /** The values cached in each slot, by getter id (null = not cached) */
+    private final Object[][] slotValues;
+    
+    /** The primitive values cached in each slot (as raw bits), by getter id */
+    private final long[][] slotPrimitives;
+    
+    /** The kind of the primitive values cached in each slot, by getter id (NONE = not cached) */
+    private final byte[][] slotKinds;
+    
+    /** The ids assigned to the getters */
+    private final HashMap<String, Integer> getterIds = new HashMap<>();
+    
+    /** The number of values found in the cache */
+    private long hits = 0;
+    
+    /** The number of values not found in the cache */
+    private long misses = 0;
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+
+    
+    /**
+     * Instantiates a data manager caching the values of the given one, with the default capacity.
+     * 
+     * @param source  the data manager providing the values
+     */
+    public CachingDataRecordManager(DataRecordManager<T> source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Instantiates a data manager caching the values of the given one.
+     * 
+     * @param source  the data manager providing the values
+     * @param capacity  the maximum number of rows cached (rounded up to a power of 2)
+     */
+    public CachingDataRecordManager(DataRecordManager<T> source, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        
+        this.source = source;
+        mask = size - 1;
+        slotRows = new int[size];
+        slotValues = new Object[size][];
+        slotPrimitives = new long[size][];
+        slotKinds = new byte[size][];
+        Arrays.fill(slotRows, -1);
+    }
+    
+    /**
+     * Returns the data manager providing the values.
+     * 
+     * @return  the data manager providing the values
+     */
+    public DataRecordManager<T> getSource() {
+        return source;
+    }
+    
+    /**
+     * Returns the maximum number of rows cached.
+     * 
+     * @return  the maximum number of rows cached
+     */
+    public int getCapacity() {
+        return slotRows.length;
+    }
+    
+    /**
+     * Returns the number of values found in the cache.
+     * 
+     * @return  the number of values found in the cache
+     */
+    public long getHitCount() {
+        return hits;
+    }
+    
+    /**
+     * Returns the number of values not found in the cache.
+     * 
+     * @return  the number of values not found in the cache
+     */
+    public long getMissCount() {
+        return misses;
+    }
+    
+    /**
+     * Resets the counters of the values found and not found in the cache.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+    
+    /**
+     * Removes all the values from the cache.
+     */
+    public void invalidate() {
+        Arrays.fill(slotRows, -1);
+    }
+    
+    /**
+     * Removes from the cache the values of the object of the given index.
+     * 
+     * @param index  the index of the object
+     */
+    public void invalidate(int index) {
+        int slot = index & mask;
+        if (slotRows[slot] == index) slotRows[slot] = -1;
+    }
+    
+    /**
+     * Removes from the cache the values of the objects starting from the given index
+     * (used when the objects are shifted by an addition or removal).
+     * 
+     * @param index  the index of the first object
+     */
+    public void invalidateFrom(int index) {
+        for (int i = 0; i < slotRows.length; ++i) {
+            if (slotRows[i] >= index) slotRows[i] = -1;
+        }
+    }
+    
+    /**
+     * Returns the object at position index in the list.
+     * 
+     * @param index  the index of the object to be returned.
+     * @return  the object at position index in the list
+     */
+    @Override
+    public T get(int index) {
+        return source.get(index);
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found).
+     * 
+     * @param object  the object for which the position in the list needs to be returned.
+     * @return  the position of the given object in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(T object) {
+        return source.getIndex(object);
+    }
+
+    /**
+     * Returns the number of objects in the list handled by this data manager.
+     * 
+     * @return  the number of objects in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    /**
+     * Returns true if the object at position index in the list is available.
+     * 
+     * @param index  the index of the object
+     * @return  true if the object at position index in the list is available
+     */
+    @Override
+    public boolean isLoaded(int index) {
+        return source.isLoaded(index);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object.
+     * 
+     * @param index  the index of the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        invalidateFrom(index);
+        source.delete(index);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        invalidateFrom(index);
+        return source.deleteAsync(index);
+    }
+
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return source.getPersister();
+    }
+
+    /**
+     * Returns the value of a field for the object of the given index, using the
+     * getter method specified (cached).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        int id = getGetterId(getter);
+        int slot = prepareSlot(index);
+        
+        Object[] values = slotValues[slot];
+        if (values == null || values.length <= id) {
+            values = (values == null) ? new Object[getterIds.size()] : Arrays.copyOf(values, getterIds.size());
+            slotValues[slot] = values;
+        }
+        
+        Object value = values[id];
+        if (value != null) {
+            ++hits;
+            return (value == NULL) ? null : value;
+        }
+        
+        ++misses;
+        value = source.getField(index, getter);
+        values[id] = (value == null) ? NULL : value;
+        return value;
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (cached unboxed, null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        int id = getGetterId(getter);
+        int slot = preparePrimitives(index, id);
+        if (slotKinds[slot][id] == INT) {
+            ++hits;
+            return (int)slotPrimitives[slot][id];
+        }
+        
+        ++misses;
+        int value = source.getInt(index, getter);
+        slotPrimitives[slot][id] = value;
+        slotKinds[slot][id] = INT;
+        return value;
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (cached unboxed, null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        int id = getGetterId(getter);
+        int slot = preparePrimitives(index, id);
+        if (slotKinds[slot][id] == LONG) {
+            ++hits;
+            return slotPrimitives[slot][id];
+        }
+        
+        ++misses;
+        long value = source.getLong(index, getter);
+        slotPrimitives[slot][id] = value;
+        slotKinds[slot][id] = LONG;
+        return value;
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (cached unboxed, null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        int id = getGetterId(getter);
+        int slot = preparePrimitives(index, id);
+        if (slotKinds[slot][id] == DOUBLE) {
+            ++hits;
+            return Double.longBitsToDouble(slotPrimitives[slot][id]);
+        }
+        
+        ++misses;
+        double value = source.getDouble(index, getter);
+        slotPrimitives[slot][id] = Double.doubleToRawLongBits(value);
+        slotKinds[slot][id] = DOUBLE;
+        return value;
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (cached unboxed, null = false).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        int id = getGetterId(getter);
+        int slot = preparePrimitives(index, id);
+        if (slotKinds[slot][id] == BOOLEAN) {
+            ++hits;
+            return slotPrimitives[slot][id] != 0;
+        }
+        
+        ++misses;
+        boolean value = source.getBoolean(index, getter);
+        slotPrimitives[slot][id] = value ? 1 : 0;
+        slotKinds[slot][id] = BOOLEAN;
+        return value;
+    }
+
+    /**
+     * Sets the value of a field for the object of the given index, using the
+     * setter method specified, and removes the values of the object from the cache.
+     * 
+     * @param index  the index of the object for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        invalidate(index);
+        source.setField(index, setter, type, value);
+    }
+    
+    /**
+     * Returns the slot holding the values of the object of the given index, emptying
+     * it first if it was holding the values of another object.
+     * 
+     * @param index  the index of the object
+     * @return  the slot holding the values of the object
+     */
+    private int prepareSlot(int index) {
+        int slot = index & mask;
+        if (slotRows[slot] == index) return slot;
+        
+        if (slotValues[slot] != null) Arrays.fill(slotValues[slot], null);
+        if (slotKinds[slot] != null) Arrays.fill(slotKinds[slot], NONE);
+        slotRows[slot] = index;
+        return slot;
+    }
+    
+    /**
+     * Returns the slot holding the values of the object of the given index, making
+     * room in it for the primitive value of the given getter.
+     * 
+     * @param index  the index of the object
+     * @param id  the id of the getter
+     * @return  the slot holding the values of the object
+     */
+    private int preparePrimitives(int index, int id) {
+        int slot = prepareSlot(index);
+        
+        byte[] kinds = slotKinds[slot];
+        if (kinds == null || kinds.length <= id) {
+            int n = getterIds.size();
+            slotKinds[slot] = (kinds == null) ? new byte[n] : Arrays.copyOf(kinds, n);
+            slotPrimitives[slot] = (kinds == null) ? new long[n] : Arrays.copyOf(slotPrimitives[slot], n);
+        }
+        
+        return slot;
+    }
+    
+    /**
+     * Returns the id assigned to the given getter (assigning a new one if needed).
+     * 
+     * @param getter  the name of the getter method
+     * @return  the id assigned to the given getter
+     */
+    private int getGetterId(String getter) {
+        Integer id = getterIds.get(getter);
+        if (id != null) return id;
+        
+        id = getterIds.size();
+        getterIds.put(getter, id);
+        return id;
+    }
+
+    /**
+     * Notifies a generic change in the list of objects.
+     * 
+     * @param type  the class of the objects in the list
+     */
+    @Override
+    public void listChanged(Class<?> type) {
+        invalidate();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(type));
+    }
+
+    /**
+     * Notifies the addition of an object to a list (class-specific).
+     *
+     * @param index  the position in the list of the object added
+     * @param type  the class of the object added
+     * @param object  the object added
+     */
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        invalidateFrom(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectAdded(index, type, object));
+    }
+
+    /**
+     * Notifies the removal of an object from a list (class-specific).
+     *
+     * @param index  the position in the list of the object removed
+     * @param type  the class of the object removed
+     */
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        invalidateFrom(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectRemoved(index, type));
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        invalidate(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectChanged(index, type, object));
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        invalidateFrom(first);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsAdded(first, last, type));
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        invalidateFrom(first);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsRemoved(first, last, type));
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        for (int index : indices) invalidate(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsChanged(indices, type));
+    }
+
+    /**
+     * Adds a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+}
@@ -0,0 +1,546 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A data manager which can be safely updated from any thread while being read on
+ * the event dispatching thread.
+ * <p>
+ * The objects are held in immutable snapshots: each update (serialized by a writer lock)
+ * copies the current snapshot, applies the modification and publishes the new snapshot
+ * together with the corresponding event. The snapshots are made visible to the
+ * DataRecordManager methods and the events are notified to the listeners on the event
+ * dispatching thread, in the same order as the updates, so that the readers on the
+ * event dispatching thread always see a consistent version without locking, and the
+ * indexes in the events always refer to the version being read.<br>
+ * Updates performed on the event dispatching thread while no other update is pending
+ * are applied immediately.
+ * <p>
+ * Background threads can read the latest version through {@link #getSnapshot()}.
+ * The objects themselves are not protected: objects modified in place by background
+ * threads should be thread safe, or replaced through {@link #set(int, DataRecord)}.
+ *
+ * @param <T>  the type of DataRecord handled by this data manager.
+ * @author Giuseppe Gallo
+ */
+public class ConcurrentDataRecordManager<T extends DataRecord> implements DataRecordManager<T> {
+    
+    /** An empty snapshot */
+    private final static Object[] EMPTY = new Object[0];
+    
+    /** The type of objects notified to the listeners */
+    private final Class<?> type;
+    
+    /** The lock serializing the updates */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    /** The latest snapshot (guarded by writeLock) */
+    private Object[] current = EMPTY;
+    
+    /** The snapshot visible on the event dispatching thread */
+    private volatile Object[] visible = EMPTY;
+    
+    /** The number of snapshots published but not yet visible */
+    private final AtomicInteger pending = new AtomicInteger();
+    
+    /** The persister used for storing and deleting the objects */
+    private volatile DataRecordPersister persister = DataRecordPersister.DIRECT;
+    
+    /** The list of listeners for data change */
+    private final CopyOnWriteArrayList<DataListListener> listeners = new CopyOnWriteArrayList<>();
+
+    
+    /**
+     * Instantiates an empty data manager.
+     * 
+     * @param type  the type of objects handled by this data manager (used for notifications)
+     */
+    public ConcurrentDataRecordManager(Class<T> type) {
+        this.type = type;
+    }
+    
+    /**
+     * Instantiates a data manager holding the given objects.
+     * 
+     * @param type  the type of objects handled by this data manager (used for notifications)
+     * @param data  the initial objects
+     */
+    public ConcurrentDataRecordManager(Class<T> type, Collection<? extends T> data) {
+        this.type = type;
+        current = data.toArray();
+        visible = current;
+    }
+    
+    /**
+     * Sets the persister used for storing and deleting the objects.
+     * 
+     * @param persister  the persister used for storing and deleting the objects (null = direct)
+     */
+    public void setPersister(DataRecordPersister persister) {
+        this.persister = (persister == null) ? DataRecordPersister.DIRECT : persister;
+    }
+    
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return persister;
+    }
+    
+    /**
+     * Returns the latest version of the list of objects (immutable), including
+     * the updates not yet visible on the event dispatching thread.
+     * 
+     * @return  the latest version of the list of objects
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getSnapshot() {
+        Object[] snapshot;
+        writeLock.lock();
+        try {
+            snapshot = current;
+        } finally {
+            writeLock.unlock();
+        }
+        
+        return Collections.unmodifiableList((List<T>)(List<?>)Arrays.asList(snapshot));
+    }
+    
+    /**
+     * Adds an object at the end of the list.
+     * 
+     * @param object  the object to be added
+     */
+    public void add(T object) {
+        writeLock.lock();
+        try {
+            add(current.length, object);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Adds an object at the given position in the list.
+     * 
+     * @param index  the position at which the object must be added
+     * @param object  the object to be added
+     */
+    public void add(int index, T object) {
+        writeLock.lock();
+        try {
+            Object[] snapshot = insert(current, index, new Object[]{object});
+            publish(snapshot, l -> l.objectAdded(index, type, object));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Adds several objects at the end of the list, notifying them as a single range.
+     * 
+     * @param objects  the objects to be added
+     */
+    public void addAll(Collection<? extends T> objects) {
+        if (objects.isEmpty()) return;
+        
+        writeLock.lock();
+        try {
+            int first = current.length;
+            int last = first + objects.size() - 1;
+            Object[] snapshot = insert(current, first, objects.toArray());
+            publish(snapshot, l -> l.objectsAdded(first, last, type));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Removes the object at the given position in the list.
+     * 
+     * @param index  the position of the object to be removed
+     * @return  the object removed
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        writeLock.lock();
+        try {
+            T object = (T)current[index];
+            Object[] snapshot = new Object[current.length - 1];
+            System.arraycopy(current, 0, snapshot, 0, index);
+            System.arraycopy(current, index + 1, snapshot, index, current.length - index - 1);
+            publish(snapshot, l -> l.objectRemoved(index, type));
+            return object;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Removes the given object (by identity) from the list.
+     * 
+     * @param object  the object to be removed
+     * @return  true if the object was found in the list
+     */
+    public boolean remove(T object) {
+        writeLock.lock();
+        try {
+            int index = indexOfIdentity(current, object);
+            if (index < 0) return false;
+            
+            remove(index);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Replaces the object at the given position in the list.
+     * 
+     * @param index  the position of the object to be replaced
+     * @param object  the new object
+     * @return  the object replaced
+     */
+    @SuppressWarnings("unchecked")
+    public T set(int index, T object) {
+        writeLock.lock();
+        try {
+            T old = (T)current[index];
+            Object[] snapshot = current.clone();
+            snapshot[index] = object;
+            publish(snapshot, l -> l.objectChanged(index, type, object));
+            return old;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Replaces all the objects in the list.
+     * 
+     * @param objects  the new objects
+     */
+    public void setAll(Collection<? extends T> objects) {
+        writeLock.lock();
+        try {
+            publish(objects.toArray(), l -> l.listChanged(type));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Removes all the objects from the list.
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            publish(EMPTY, l -> l.listChanged(type));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Notifies the change of the given object (by identity), modified in place.
+     * 
+     * @param object  the object changed
+     */
+    public void changed(T object) {
+        writeLock.lock();
+        try {
+            int index = indexOfIdentity(current, object);
+            if (index < 0) return;
+            
+            publish(current, l -> l.objectChanged(index, type, object));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the object at position index in the list.
+     * 
+     * @param index  the index of the object to be returned.
+     * @return  the object at position index in the list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T)visible[index];
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found).
+     * 
+     * @param object  the object for which the position in the list needs to be returned.
+     * @return  the position of the given object in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(T object) {
+        Object[] snapshot = visible;
+        for (int i = 0; i < snapshot.length; ++i) {
+            if (snapshot[i] == object || (object != null && object.equals(snapshot[i]))) return i;
+        }
+        
+        return -1;
+    }
+
+    /**
+     * Returns the number of objects in the list handled by this data manager.
+     * 
+     * @return  the number of objects in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return visible.length;
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, and removes it from the list.
+     * 
+     * @param index  the index of the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        T object = get(index);
+        persister.delete(object);
+        remove(object);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.<p>
+     * The object is removed from the list once it has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        T object = get(index);
+        return persister.deleteAsync(object).thenRun(() -> remove(object));
+    }
+
+    /**
+     * Returns the value of a field for the object of the given index, using the
+     * getter method specified.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        T obj = get(index);
+        return FieldAccessors.getGetter(obj.getClass(), getter).get(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        T obj = get(index);
+        return FieldAccessors.getIntGetter(obj.getClass(), getter).getInt(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        T obj = get(index);
+        return FieldAccessors.getLongGetter(obj.getClass(), getter).getLong(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        T obj = get(index);
+        return FieldAccessors.getDoubleGetter(obj.getClass(), getter).getDouble(obj);
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        T obj = get(index);
+        return FieldAccessors.getBooleanGetter(obj.getClass(), getter).getBoolean(obj);
+    }
+
+    /**
+     * Sets the value of a field for the object of the given index, using the
+     * setter method specified, then stores the object and notifies its change.
+     * 
+     * @param index  the index of the object for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        T obj = get(index);
+        FieldAccessors.getSetter(obj.getClass(), setter, type).set(obj, value);
+        persister.store(obj);
+        changed(obj);
+    }
+
+    /**
+     * Adds a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        listeners.remove(l);
+    }
+    
+    /**
+     * Publishes a new snapshot together with the corresponding event (called holding the writer lock).
+     * The snapshot and the event are applied immediately when called on the event dispatching
+     * thread with no other snapshot pending, otherwise they are queued on the event dispatching thread.
+     * 
+     * @param snapshot  the new snapshot
+     * @param event  the event to be notified to the listeners
+     */
+    private void publish(Object[] snapshot, Consumer<DataListListener> event) {
+        current = snapshot;
+        
+        if (EventQueue.isDispatchThread() && pending.get() == 0) {
+            apply(snapshot, event);
+            return;
+        }
+        
+        pending.incrementAndGet();
+        EventQueue.invokeLater(() -> {
+            pending.decrementAndGet();
+            apply(snapshot, event);
+        });
+    }
+    
+    /**
+     * Makes a snapshot visible and notifies the corresponding event to the listeners
+     * (called on the event dispatching thread).
+     * 
+     * @param snapshot  the snapshot
+     * @param event  the event to be notified to the listeners
+     */
+    private void apply(Object[] snapshot, Consumer<DataListListener> event) {
+        visible = snapshot;
+        listeners.stream().forEach(event);
+    }
+    
+    /**
+     * Returns a copy of an array with other objects inserted at the given position.
+     * 
+     * @param array  the original array
+     * @param index  the position at which the objects must be inserted
+     * @param objects  the objects to be inserted
+     * @return  the new array
+     */
+    private static Object[] insert(Object[] array, int index, Object[] objects) {
+        if (index < 0 || index > array.length) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + array.length);
+        
+        Object[] result = new Object[array.length + objects.length];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(objects, 0, result, index, objects.length);
+        System.arraycopy(array, index, result, index + objects.length, array.length - index);
+        return result;
+    }
+    
+    /**
+     * Returns the position of the given object (by identity) in an array (-1 = not found).
+     * 
+     * @param array  the array
+     * @param object  the object to be found
+     * @return  the position of the given object in the array (-1 = not found)
+     */
+    private static int indexOfIdentity(Object[] array, Object object) {
+        for (int i = 0; i < array.length; ++i) {
+            if (array[i] == object) return i;
+        }
+        
+        return -1;
+    }
+}
@@ -67,4 +67,40 @@ public interface DataListListener {
      * @param object  the object changed
      */
     public void objectChanged(int index, Class<?> type, Object object);
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).<p>
+     * The default implementation notifies a generic change in the list.
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    public default void objectsAdded(int first, int last, Class<?> type) {
+        listChanged(type);
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).<p>
+     * The positions refer to the list before the removal.
+     * The default implementation notifies a generic change in the list.
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    public default void objectsRemoved(int first, int last, Class<?> type) {
+        listChanged(type);
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).<p>
+     * The default implementation notifies a generic change in the list.
+     *
+     * @param indices  the positions in the list of the objects changed (in ascending order)
+     * @param type  the class of the objects changed
+     */
+    public default void objectsChanged(int[] indices, Class<?> type) {
+        listChanged(type);
+    }
 }
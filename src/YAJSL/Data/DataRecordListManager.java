@@ -29,36 +29,31 @@
  */
 package YAJSL.Data;
 
-import YAJSL.Utils.ReflectionUtils;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * An implementation of the DataRecordManager interface which uses an
  array list as data source.
+ * <p>
+ * When the identity index is enabled, the changes to the list should be notified
+ * to this data manager (as a DataListListener) in order to keep the index current.
  * 
  * @param <T>  the type of DataRecord handled by this data manager.
  * @author Giuseppe Gallo
  */
-public class DataRecordListManager<T extends DataRecord> implements DataRecordManager<T> {
+public class DataRecordListManager<T extends DataRecord> implements DataRecordManager<T>, DataListListener {
 
     /** The data source used by this data manager */
     private final ArrayList<T> data;
     
-    /** An empty array of Objects, to be used for invoking methods with reflection */
-    private final static Object[] EMPTY_OBJECT_ARRAY = new Object[]{};
+    /** The index of the positions of the objects (null = disabled) */
+    private IdentityIndex<T> identityIndex = null;
     
-    /** An empty array of Classes, to be used for invoking methods with reflection */
-    private final static Class[] EMPTY_CLASS_ARRAY = new Class[]{};
-    
-    /** The map of known getter methods */
-    private final HashMap<String, Method> getters = new HashMap<>();
-    
-    /** The map of known setter methods */
-    private final HashMap<String, Method> setters = new HashMap<>();
+    /** The persister used for storing and deleting the objects */
+    private DataRecordPersister persister = DataRecordPersister.DIRECT;
     
     
     /**
@@ -89,7 +84,130 @@ public class DataRecordListManager<T extends DataRecord> implements DataRecordMa
      */
     @Override
     public int getIndex(T object) {
-        return (data == null) ? -1 : data.indexOf(object);
+        if (data == null) return -1;
+        return (identityIndex == null) ? data.indexOf(object) : identityIndex.indexOf(object);
+    }
+    
+    /**
+     * Enables or disables the identity index, used for determining in logarithmic
+     * time the position of the objects in the list.<p>
+     * When enabled, the positions are determined by object identity rather than by equality.
+     * 
+     * @param enabled  if true, the identity index is enabled
+     */
+    public void setIdentityIndexEnabled(boolean enabled) {
+        identityIndex = (enabled) ? new IdentityIndex<>(data) : null;
+    }
+    
+    /**
+     * Returns true if the identity index is enabled.
+     * 
+     * @return  true if the identity index is enabled
+     */
+    public boolean isIdentityIndexEnabled() {
+        return identityIndex != null;
+    }
+
+    /**
+     * Sets the persister used for storing and deleting the objects.
+     * 
+     * @param persister  the persister used for storing and deleting the objects (null = direct)
+     */
+    public void setPersister(DataRecordPersister persister) {
+        this.persister = (persister == null) ? DataRecordPersister.DIRECT : persister;
+    }
+    
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return persister;
+    }
+
+    /**
+     * Notifies a generic change in the list of objects.
+     * 
+     * @param type  the class of the objects in the list
+     */
+    @Override
+    public void listChanged(Class<?> type) {
+        if (identityIndex != null) identityIndex.reset(data);
+    }
+
+    /**
+     * Notifies the addition of an object to a list (class-specific).
+     *
+     * @param index  the position in the list of the object added
+     * @param type  the class of the object added
+     * @param object  the object added
+     */
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        if (identityIndex != null) identityIndex.added(index);
+    }
+
+    /**
+     * Notifies the removal of an object from a list (class-specific).
+     *
+     * @param index  the position in the list of the object removed
+     * @param type  the class of the object removed
+     */
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        if (identityIndex != null) identityIndex.removed(index, null);
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        // The object may have been replaced by a new instance (e.g. with set)
+        if (identityIndex != null) identityIndex.replaced(index);
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        if (identityIndex != null) identityIndex.added(first, last - first + 1);
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        if (identityIndex != null) identityIndex.removed(first, last - first + 1);
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        // The objects may have been replaced by new instances (e.g. with set)
+        if (identityIndex == null) return;
+        for (int index : indices) identityIndex.replaced(index);
     }
     
     /**
@@ -115,15 +233,90 @@ public class DataRecordListManager<T extends DataRecord> implements DataRecordMa
     @SuppressWarnings("UseSpecificCatch")
     public Object getField(int index, String getter) throws Exception {
         T obj = data.get(index);
-        Method method = getters.get(getter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(obj.getClass(), getter, EMPTY_CLASS_ARRAY);
-            getters.put(getter, method);
+        try {
+            return FieldAccessors.getGetter(obj.getClass(), getter).get(obj);
+        } catch (Exception ex) {
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        T obj = data.get(index);
+        try {
+            return FieldAccessors.getIntGetter(obj.getClass(), getter).getInt(obj);
+        } catch (Exception ex) {
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+            throw ex;
         }
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        T obj = data.get(index);
         try {
-            return method.invoke(obj, EMPTY_OBJECT_ARRAY);
+            return FieldAccessors.getLongGetter(obj.getClass(), getter).getLong(obj);
         } catch (Exception ex) {
-            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + method.getName(), ex);
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        T obj = data.get(index);
+        try {
+            return FieldAccessors.getDoubleGetter(obj.getClass(), getter).getDouble(obj);
+        } catch (Exception ex) {
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        T obj = data.get(index);
+        try {
+            return FieldAccessors.getBooleanGetter(obj.getClass(), getter).getBoolean(obj);
+        } catch (Exception ex) {
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
             throw ex;
         }
     }
@@ -142,18 +335,13 @@ public class DataRecordListManager<T extends DataRecord> implements DataRecordMa
     @SuppressWarnings("UseSpecificCatch")
     public void setField(int index, String setter, Class type, Object value) throws Exception {
         T obj = data.get(index);
-        Method method = setters.get(setter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(obj.getClass(), setter, new Class[]{type});
-            setters.put(setter, method);
-        }
         try {
-            method.invoke(obj, new Object[]{value});
+            FieldAccessors.getSetter(obj.getClass(), setter, type).set(obj, value);
         } catch (Exception ex) {
-            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + method.getName(), ex);
+            Logger.getLogger(DataRecordListManager.class.getName()).log(Level.SEVERE, "Error calling method: " + setter, ex);
             throw ex;
         }
-        obj.store();
+        persister.store(obj);
     }
 
     /**
@@ -164,6 +352,18 @@ public class DataRecordListManager<T extends DataRecord> implements DataRecordMa
      */
     @Override
     public void delete(int index) throws Exception {
-        data.get(index).delete();
+        persister.delete(data.get(index));
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        return persister.deleteAsync(data.get(index));
     }    
 }
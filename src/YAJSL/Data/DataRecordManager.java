@@ -29,6 +29,8 @@
  */
 package YAJSL.Data;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The common interface for all Data Managers to be used for handling lists of DataRecord.
  * 
@@ -59,6 +61,18 @@ public interface DataRecordManager<T extends DataRecord> {
      * @return  the number of objects in the list handled by this data manager
      */
     public int size();
+    
+    /**
+     * Returns true if the object at position index in the list is available
+     * (false if it is still being loaded).<p>
+     * The default implementation returns true.
+     * 
+     * @param index  the index of the object
+     * @return  true if the object at position index in the list is available
+     */
+    public default boolean isLoaded(int index) {
+        return true;
+    }
 
     /**
      * Performs any action needed to effectively delete the object.
@@ -68,6 +82,36 @@ public interface DataRecordManager<T extends DataRecord> {
      */
     public void delete(int index) throws Exception;
     
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.<p>
+     * Data managers writing through an asynchronous persister complete the future on the
+     * event dispatching thread; the default implementation calls delete in the calling
+     * thread and returns a future already completed.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    public default CompletableFuture<Void> deleteAsync(int index) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            delete(index);
+            future.complete(null);
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+    
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    public default DataRecordPersister getPersister() {
+        return DataRecordPersister.DIRECT;
+    }
+    
     /**
      * Returns the value of a field for the object of the given index, using the
      * getter method specified.
@@ -79,6 +123,65 @@ public interface DataRecordManager<T extends DataRecord> {
      */
     public Object getField(int index, String getter) throws Exception;
     
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0).<p>
+     * The default implementation converts the value returned by getField.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    public default int getInt(int index, String getter) throws Exception {
+        Object value = getField(index, getter);
+        return (value == null) ? 0 : ((Number)value).intValue();
+    }
+    
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0).<p>
+     * The default implementation converts the value returned by getField.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    public default long getLong(int index, String getter) throws Exception {
+        Object value = getField(index, getter);
+        return (value == null) ? 0L : ((Number)value).longValue();
+    }
+    
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0).<p>
+     * The default implementation converts the value returned by getField.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    public default double getDouble(int index, String getter) throws Exception {
+        Object value = getField(index, getter);
+        return (value == null) ? 0D : ((Number)value).doubleValue();
+    }
+    
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false).<p>
+     * The default implementation converts the value returned by getField.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    public default boolean getBoolean(int index, String getter) throws Exception {
+        return Boolean.TRUE.equals(getField(index, getter));
+    }
+    
     /**
      * Sets the value of a field for the object of the given index, using the
      * setter method specified.
@@ -0,0 +1,112 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The interface for the classes taking care of making persistent the modifications
+ * to the objects handled by the data managers.
+ *
+ * @author Giuseppe Gallo
+ */
+public interface DataRecordPersister {
+    
+    /** The persister calling store/delete directly on the objects, in the calling thread */
+    public final static DataRecordPersister DIRECT = new DataRecordPersister() {
+        @Override
+        public void store(DataRecord record) throws Exception {
+            record.store();
+        }
+
+        @Override
+        public void delete(DataRecord record) throws Exception {
+            record.delete();
+        }
+    };
+    
+    /**
+     * Makes persistent the modifications to the given object.
+     * 
+     * @param record  the object to be stored
+     * @throws Exception  in case of any problem
+     */
+    public void store(DataRecord record) throws Exception;
+
+    /**
+     * Effectively deletes the given object.
+     * 
+     * @param record  the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    public void delete(DataRecord record) throws Exception;
+    
+    /**
+     * Makes persistent the modifications to the given object, returning a future
+     * completed when they have been written.<p>
+     * Asynchronous persisters complete the future on the event dispatching thread; the
+     * default implementation calls store in the calling thread and returns a future
+     * already completed.
+     * 
+     * @param record  the object to be stored
+     * @return  the future completed when the object has been stored
+     */
+    public default CompletableFuture<Void> storeAsync(DataRecord record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            store(record);
+            future.complete(null);
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+    
+    /**
+     * Effectively deletes the given object, returning a future completed when it
+     * has been deleted.<p>
+     * Asynchronous persisters complete the future on the event dispatching thread; the
+     * default implementation calls delete in the calling thread and returns a future
+     * already completed.
+     * 
+     * @param record  the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    public default CompletableFuture<Void> deleteAsync(DataRecord record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            delete(record);
+            future.complete(null);
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+}
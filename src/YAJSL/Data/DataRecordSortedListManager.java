@@ -29,13 +29,14 @@
  */
 package YAJSL.Data;
 
-import YAJSL.Utils.ReflectionUtils;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An implementation of the DataRecordManager interface which uses an
@@ -46,27 +47,27 @@ import java.util.LinkedList;
  */
 public class DataRecordSortedListManager<T extends DataRecord> implements DataRecordManager<T>, DataListListener {
 
-    /** An empty array of Objects, to be used for invoking methods with reflection */
-    private final static Object[] EMPTY_OBJECT_ARRAY = new Object[]{};
-    
-    /** An empty array of Classes, to be used for invoking methods with reflection */
-    private final static Class[] EMPTY_CLASS_ARRAY = new Class[]{};
-    
     /** The data source used by this data manager */
     private final ArrayList<T> data;
     
-    /** The map of known getter methods */
-    private final static HashMap<String, Method> getters = new HashMap<>();
-    
-    /** The map of known setter methods */
-    private final static HashMap<String, Method> setters = new HashMap<>();
-    
     /** The comparator to be used for sorting data */
     private final Comparator<T> comparator;
     
     /** The sorted data */
     private ArrayList<T> sorted;
     
+    /** The objects in the data source, in the order last notified (used for identifying the objects removed) */
+    private ArrayList<T> known;
+    
+    /** The index of the positions of the objects in the sorted data (always maintained, used for locating the objects changed) */
+    private final IdentityIndex<T> identityIndex;
+    
+    /** If true, getIndex determines the positions by identity through the index */
+    private boolean identityLookup = false;
+    
+    /** The persister used for storing and deleting the objects */
+    private DataRecordPersister persister = DataRecordPersister.DIRECT;
+    
     /** The list of listeners for data change */
     private LinkedList<DataListListener> listeners = null;
 
@@ -83,10 +84,13 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
         
         if (data == null) {
             sorted = new ArrayList<>(0);
+            known = new ArrayList<>(0);
         } else {
             sorted = new ArrayList<>(data);
+            known = new ArrayList<>(data);
             Collections.sort(sorted, comparator);
         }
+        identityIndex = new IdentityIndex<>(sorted);
     }
     
     /**
@@ -108,7 +112,49 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
      */
     @Override
     public int getIndex(T object) {
-        return (sorted == null) ? -1 : sorted.indexOf(object);
+        if (sorted == null) return -1;
+        return (identityLookup) ? identityIndex.indexOf(object) : sorted.indexOf(object);
+    }
+    
+    /**
+     * Enables or disables the identity index, used for determining in logarithmic
+     * time the position of the objects in the sorted list.<p>
+     * When enabled, the positions are determined by object identity rather than by equality.<br>
+     * The index itself is always maintained, as it is needed for locating the objects changed:
+     * this setting only affects the lookups made through getIndex.
+     * 
+     * @param enabled  if true, the identity index is enabled
+     */
+    public void setIdentityIndexEnabled(boolean enabled) {
+        identityLookup = enabled;
+    }
+    
+    /**
+     * Returns true if the identity index is enabled.
+     * 
+     * @return  true if the identity index is enabled
+     */
+    public boolean isIdentityIndexEnabled() {
+        return identityLookup;
+    }
+
+    /**
+     * Sets the persister used for storing and deleting the objects.
+     * 
+     * @param persister  the persister used for storing and deleting the objects (null = direct)
+     */
+    public void setPersister(DataRecordPersister persister) {
+        this.persister = (persister == null) ? DataRecordPersister.DIRECT : persister;
+    }
+    
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return persister;
     }
     
     /**
@@ -129,14 +175,17 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
     @Override
     public void listChanged(Class type) {
         sorted = new ArrayList<>(data);
+        known = new ArrayList<>(data);
         Collections.sort(sorted, comparator);
+        identityIndex.reset(sorted);
         
         if (listeners == null) return;
         listeners.stream().forEach(l -> l.listChanged(type));
     }
 
     /**
-     * Notifies the addition of an object to a list (class-specific).
+     * Notifies the addition of an object to a list (class-specific).<p>
+     * The object is inserted in its sorted position, which is then notified to the listeners.
      *
      * @param index  the position in the list of the object added
      * @param type  the class of the object added
@@ -144,26 +193,41 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
      */
     @Override
     public void objectAdded(int index, Class type, Object object) {
-        sorted.add(data.get(index));
-        Collections.sort(sorted, comparator);
+        T obj = data.get(index);
+        known.add(index, obj);
+        
+        int pos = findInsertionPoint(obj);
+        sorted.add(pos, obj);
+        identityIndex.added(pos);
         
         if (listeners == null) return;
-        listeners.stream().forEach(l -> l.listChanged(type));
+        listeners.stream().forEach(l -> l.objectAdded(pos, type, obj));
     }
 
     /**
-     * Notifies the removal of an object from a list (class-specific).
+     * Notifies the removal of an object from a list (class-specific).<p>
+     * The object is removed from its sorted position, which is then notified to the listeners.
      *
      * @param index  the position in the list of the object removed
      * @param type  the class of the object removed
      */
     @Override
     public void objectRemoved(int index, Class type) {
-        listChanged(type);
+        T obj = known.remove(index);
+        
+        int pos = findPosition(obj);
+        if (pos < 0) return;
+        sorted.remove(pos);
+        identityIndex.removed(pos, obj);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectRemoved(pos, type));
     }
 
     /**
-     * Notifies the change of an object in a list (class-specific).
+     * Notifies the change of an object in a list (class-specific).<p>
+     * The object is moved to its new sorted position (if needed) and the change is then
+     * notified to the listeners either as a change in place or as a removal followed by an addition.
      *
      * @param index  the position in the list of the object changed
      * @param type  the class of the object changed
@@ -171,10 +235,231 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
      */
     @Override
     public void objectChanged(int index, Class type, Object object) {
-        Collections.sort(sorted, comparator);
+        T obj = known.get(index);
+        
+        int pos = indexOfIdentity(obj);
+        if (pos < 0) return;
+        
+        int size = sorted.size();
+        if ((pos == 0 || comparator.compare(sorted.get(pos - 1), obj) <= 0) &&
+            (pos == size - 1 || comparator.compare(obj, sorted.get(pos + 1)) <= 0)) {
+            
+            if (listeners == null) return;
+            listeners.stream().forEach(l -> l.objectChanged(pos, type, obj));
+            return;
+        }
+        
+        sorted.remove(pos);
+        int newPos = findInsertionPoint(obj);
+        identityIndex.removed(pos, obj);
+        sorted.add(newPos, obj);
+        identityIndex.added(newPos);
         
         if (listeners == null) return;
-        listeners.stream().forEach(l -> l.listChanged(type));
+        listeners.stream().forEach(l -> {
+            l.objectRemoved(pos, type);
+            l.objectAdded(newPos, type, obj);
+        });
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).<p>
+     * The objects are merged in their sorted positions: if these are contiguous the addition
+     * is notified to the listeners as a range, otherwise as a generic change in the list.
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        int count = last - first + 1;
+        if (count <= 0) return;
+        
+        List<T> added = new ArrayList<>(data.subList(first, last + 1));
+        known.addAll(first, added);
+        Collections.sort(added, comparator);
+        
+        ArrayList<T> merged = new ArrayList<>(sorted.size() + count);
+        int firstPos = -1;
+        int lastPos = -1;
+        boolean contiguous = true;
+        int i = 0;
+        int j = 0;
+        
+        while (j < count) {
+            T obj = added.get(j);
+            if (i < sorted.size() && comparator.compare(sorted.get(i), obj) <= 0) {
+                merged.add(sorted.get(i++));
+                continue;
+            }
+            
+            int pos = merged.size();
+            if (firstPos < 0) firstPos = pos;
+            else if (pos != lastPos + 1) contiguous = false;
+            lastPos = pos;
+            merged.add(obj);
+            ++j;
+        }
+        merged.addAll(sorted.subList(i, sorted.size()));
+        sorted = merged;
+        identityIndex.reset(sorted);
+        
+        if (listeners == null) return;
+        if (!contiguous) {
+            listeners.stream().forEach(l -> l.listChanged(type));
+            return;
+        }
+        
+        int from = firstPos;
+        int to = lastPos;
+        listeners.stream().forEach(l -> l.objectsAdded(from, to, type));
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).<p>
+     * The objects are removed from their sorted positions: if these are contiguous the removal
+     * is notified to the listeners as a range, otherwise as a generic change in the list.
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        if (last < first) return;
+        
+        List<T> range = known.subList(first, last + 1);
+        IdentityHashMap<T, Integer> removed = new IdentityHashMap<>();
+        range.stream().forEach(o -> removed.merge(o, 1, Integer::sum));
+        range.clear();
+        
+        ArrayList<T> kept = new ArrayList<>(sorted.size());
+        int firstPos = -1;
+        int lastPos = -1;
+        boolean contiguous = true;
+        
+        for (int i = 0; i < sorted.size(); ++i) {
+            T obj = sorted.get(i);
+            Integer n = removed.get(obj);
+            if (n == null) {
+                kept.add(obj);
+                continue;
+            }
+            
+            if (n == 1) removed.remove(obj);
+            else removed.put(obj, n - 1);
+            
+            if (firstPos < 0) firstPos = i;
+            else if (i != lastPos + 1) contiguous = false;
+            lastPos = i;
+        }
+        if (firstPos < 0) return;
+        
+        sorted = kept;
+        identityIndex.reset(sorted);
+        
+        if (listeners == null) return;
+        if (!contiguous) {
+            listeners.stream().forEach(l -> l.listChanged(type));
+            return;
+        }
+        
+        int from = firstPos;
+        int to = lastPos;
+        listeners.stream().forEach(l -> l.objectsRemoved(from, to, type));
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).<p>
+     * If all the objects keep their sorted positions the changes are notified to the listeners
+     * in a single event, otherwise the data is sorted again and a generic change in the list is notified.
+     *
+     * @param indices  the positions in the list of the objects changed (in ascending order)
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        if (indices.length == 0) return;
+        
+        int[] changed = new int[indices.length];
+        int n = 0;
+        boolean inPlace = true;
+        int size = sorted.size();
+        
+        for (int index : indices) {
+            T obj = known.get(index);
+            int pos = identityIndex.indexOf(obj);
+            if (pos < 0) continue;
+            changed[n++] = pos;
+            
+            if ((pos > 0 && comparator.compare(sorted.get(pos - 1), obj) > 0) ||
+                (pos < size - 1 && comparator.compare(obj, sorted.get(pos + 1)) > 0)) {
+                inPlace = false;
+                break;
+            }
+        }
+        
+        if (!inPlace) {
+            Collections.sort(sorted, comparator);
+            identityIndex.reset(sorted);
+            if (listeners == null) return;
+            listeners.stream().forEach(l -> l.listChanged(type));
+            return;
+        }
+        
+        if (n == 0 || listeners == null) return;
+        int[] result = Arrays.copyOf(changed, n);
+        Arrays.sort(result);
+        listeners.stream().forEach(l -> l.objectsChanged(result, type));
+    }
+
+    /**
+     * Returns the position at which the given object needs to be inserted in the
+     * sorted list (after any object considered equal by the comparator).
+     * 
+     * @param object  the object to be inserted
+     * @return  the position at which the given object needs to be inserted in the sorted list
+     */
+    private int findInsertionPoint(T object) {
+        int low = 0;
+        int high = sorted.size();
+        
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(sorted.get(mid), object) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        
+        return low;
+    }
+    
+    /**
+     * Returns the position of the given object in the sorted list (-1 = not found),
+     * assuming that its sort key has not changed since it was inserted.
+     * 
+     * @param object  the object to be found
+     * @return  the position of the given object in the sorted list (-1 = not found)
+     */
+    private int findPosition(T object) {
+        int pos = findInsertionPoint(object) - 1;
+        
+        while (pos >= 0 && comparator.compare(sorted.get(pos), object) == 0) {
+            if (sorted.get(pos) == object) return pos;
+            --pos;
+        }
+        
+        return indexOfIdentity(object);
+    }
+    
+    /**
+     * Returns the position of the given object in the sorted list by identity (-1 = not found).
+     * 
+     * @param object  the object to be found
+     * @return  the position of the given object in the sorted list (-1 = not found)
+     */
+    private int indexOfIdentity(T object) {
+        return identityIndex.indexOf(object);
     }
 
     /**
@@ -208,12 +493,67 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
     @Override
     public Object getField(int index, String getter) throws Exception {
         T obj = sorted.get(index);
-        Method method = getters.get(getter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(obj.getClass(), getter, EMPTY_CLASS_ARRAY);
-            getters.put(getter, method);
-        }
-        return method.invoke(obj, EMPTY_OBJECT_ARRAY);
+        return FieldAccessors.getGetter(obj.getClass(), getter).get(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        T obj = sorted.get(index);
+        return FieldAccessors.getIntGetter(obj.getClass(), getter).getInt(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        T obj = sorted.get(index);
+        return FieldAccessors.getLongGetter(obj.getClass(), getter).getLong(obj);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        T obj = sorted.get(index);
+        return FieldAccessors.getDoubleGetter(obj.getClass(), getter).getDouble(obj);
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        T obj = sorted.get(index);
+        return FieldAccessors.getBooleanGetter(obj.getClass(), getter).getBoolean(obj);
     }
     
     /**
@@ -229,13 +569,8 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
     @Override
     public void setField(int index, String setter, Class type, Object value) throws Exception {
         T obj = sorted.get(index);
-        Method method = setters.get(setter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(obj.getClass(), setter, new Class[]{type});
-            setters.put(setter, method);
-        }
-        method.invoke(obj, new Object[]{value});
-        obj.store();
+        FieldAccessors.getSetter(obj.getClass(), setter, type).set(obj, value);
+        persister.store(obj);
     }
 
     /**
@@ -246,6 +581,18 @@ public class DataRecordSortedListManager<T extends DataRecord> implements DataRe
      */
     @Override
     public void delete(int index) throws Exception {
-        sorted.get(index).delete();
+        persister.delete(sorted.get(index));
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        return persister.deleteAsync(sorted.get(index));
     }    
 }
@@ -0,0 +1,688 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import YAJSL.Utils.ReflectionUtils;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The engine used by the data managers for accessing the fields of the objects
+ * through their getter and setter methods.
+ * <p>
+ * Each (class, getter) and (class, setter, type) pair is resolved only once and
+ * compiled into a direct functional accessor, so that no reflective invocation
+ * is performed when the fields are actually accessed.<br>
+ * The accessors are shared by all data managers and can be safely retrieved
+ * and used from several threads.
+ * <p>
+ * For the classes annotated with {@link GenerateAccessors} (or extending an annotated
+ * class) the accessors are first looked up in the {@link Provider} generated at compile
+ * time, which calls the methods directly; the methods not found in the provider are
+ * resolved through reflection.
+ *
+ * @author Giuseppe Gallo
+ */
+public final class FieldAccessors {
+
+    /**
+     * A compiled getter method.
+     */
+    public static interface Getter {
+        /**
+         * Returns the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be returned
+         * @return  the value of the field for the given object
+         * @throws Exception  in case of any problem
+         */
+        public Object get(Object object) throws Exception;
+    }
+
+    /**
+     * A compiled setter method.
+     */
+    public static interface Setter {
+        /**
+         * Sets the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be set
+         * @param value  the value to be set for the field
+         * @throws Exception  in case of any problem
+         */
+        public void set(Object object, Object value) throws Exception;
+    }
+
+    /**
+     * A compiled getter method returning an int value.
+     */
+    public static interface IntGetter {
+        /**
+         * Returns the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be returned
+         * @return  the value of the field for the given object
+         * @throws Exception  in case of any problem
+         */
+        public int getInt(Object object) throws Exception;
+    }
+
+    /**
+     * A compiled getter method returning a long value.
+     */
+    public static interface LongGetter {
+        /**
+         * Returns the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be returned
+         * @return  the value of the field for the given object
+         * @throws Exception  in case of any problem
+         */
+        public long getLong(Object object) throws Exception;
+    }
+
+    /**
+     * A compiled getter method returning a double value.
+     */
+    public static interface DoubleGetter {
+        /**
+         * Returns the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be returned
+         * @return  the value of the field for the given object
+         * @throws Exception  in case of any problem
+         */
+        public double getDouble(Object object) throws Exception;
+    }
+
+    /**
+     * A compiled getter method returning a boolean value.
+     */
+    public static interface BooleanGetter {
+        /**
+         * Returns the value of the field for the given object.
+         *
+         * @param object  the object for which the field must be returned
+         * @return  the value of the field for the given object
+         * @throws Exception  in case of any problem
+         */
+        public boolean getBoolean(Object object) throws Exception;
+    }
+
+    /**
+     * The accessors generated at compile time for a class annotated with {@link GenerateAccessors}.
+     * The provider of a class is named as the class (with '$' replaced by '_' for nested classes)
+     * followed by "_Accessors", in the same package.
+     */
+    public static interface Provider {
+        /**
+         * Returns the getter with the given name.
+         *
+         * @param name  the name of the getter method
+         * @return  the getter with the given name (null = not provided)
+         */
+        public Getter getGetter(String name);
+
+        /**
+         * Returns the setter with the given name and type of argument.
+         *
+         * @param name  the name of the setter method
+         * @param argType  the type of the argument for the setter method
+         * @return  the setter with the given name and type of argument (null = not provided)
+         */
+        public Setter getSetter(String name, Class<?> argType);
+
+        /**
+         * Returns the primitive getter with the given name and type of result, for the getters
+         * returning a primitive value which can be widened to the type of result.
+         *
+         * @param name  the name of the getter method
+         * @param result  the type of result (int, long, double or boolean)
+         * @return  the IntGetter, LongGetter, DoubleGetter or BooleanGetter with the given name (null = not provided)
+         */
+        public Object getPrimitiveGetter(String name, Class<?> result);
+    }
+
+    /**
+     * The accessors already compiled for a class.
+     */
+    private static class ClassAccessors {
+
+        /** The accessors generated at compile time (null = none) */
+        private final Provider provider;
+
+        /** The getters organized by name */
+        private final ConcurrentHashMap<String, Getter> getters = new ConcurrentHashMap<>();
+
+        /** The setters organized by type of argument and name */
+        private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Setter>> setters = new ConcurrentHashMap<>();
+
+        /** The primitive getters organized by type of result and name */
+        private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>> primitiveGetters = new ConcurrentHashMap<>();
+
+        /**
+         * Allocates the accessors for a class.
+         *
+         * @param provider  the accessors generated at compile time (null = none)
+         */
+        private ClassAccessors(Provider provider) {
+            this.provider = provider;
+        }
+    }
+
+
+    /** An empty array of Classes, to be used for looking up getter methods */
+    private final static Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[]{};
+
+    /** The lookup used for compiling the accessors */
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** The generic type of the compiled getters */
+    private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /** The generic type of the compiled setters */
+    private final static MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** The accessors already compiled, organized by class */
+    private final static ClassValue<ClassAccessors> ACCESSORS = new ClassValue<ClassAccessors>() {
+        @Override
+        protected ClassAccessors computeValue(Class<?> type) {
+            return new ClassAccessors(findProvider(type));
+        }
+    };
+
+
+    /**
+     * Prevents the instantiation of this class.
+     */
+    private FieldAccessors() {
+    }
+
+    /**
+     * Returns the compiled getter with the given name for the given class.
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @return  the compiled getter with the given name for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    public static Getter getGetter(Class<?> type, String name) throws NoSuchMethodException {
+        ClassAccessors accessors = ACCESSORS.get(type);
+        ConcurrentHashMap<String, Getter> getters = accessors.getters;
+
+        Getter getter = getters.get(name);
+        if (getter != null) return getter;
+
+        if (accessors.provider != null) {
+            getter = accessors.provider.getGetter(name);
+            if (getter != null) {
+                Getter prev = getters.putIfAbsent(name, getter);
+                return (prev == null) ? getter : prev;
+            }
+        }
+
+        Method method = ReflectionUtils.getMethod(type, name, EMPTY_CLASS_ARRAY);
+        if (method == null) throw new NoSuchMethodException(type.getName() + "." + name + "()");
+
+        getter = compileGetter(method);
+        Getter prev = getters.putIfAbsent(name, getter);
+        return (prev == null) ? getter : prev;
+    }
+
+    /**
+     * Returns the compiled setter with the given name and type of argument for the given class.
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the setter method
+     * @param argType  the type of the argument for the setter method
+     * @return  the compiled setter with the given name and type of argument for the given class
+     * @throws NoSuchMethodException  in case the setter method cannot be found
+     */
+    public static Setter getSetter(Class<?> type, String name, Class<?> argType) throws NoSuchMethodException {
+        ClassAccessors accessors = ACCESSORS.get(type);
+        ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Setter>> byType = accessors.setters;
+
+        ConcurrentHashMap<String, Setter> setters = byType.get(argType);
+        if (setters == null) {
+            setters = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Setter> prev = byType.putIfAbsent(argType, setters);
+            if (prev != null) setters = prev;
+        }
+
+        Setter setter = setters.get(name);
+        if (setter != null) return setter;
+
+        if (accessors.provider != null) {
+            setter = accessors.provider.getSetter(name, argType);
+            if (setter != null) {
+                Setter prev = setters.putIfAbsent(name, setter);
+                return (prev == null) ? setter : prev;
+            }
+        }
+
+        Method method = ReflectionUtils.getMethod(type, name, new Class<?>[]{argType});
+        if (method == null) throw new NoSuchMethodException(type.getName() + "." + name + "(" + argType.getName() + ")");
+
+        setter = compileSetter(method);
+        Setter prev = setters.putIfAbsent(name, setter);
+        return (prev == null) ? setter : prev;
+    }
+
+    /**
+     * Returns the compiled int getter with the given name for the given class.<p>
+     * Getters returning byte, short, char or int are linked without boxing; getters
+     * returning any other Number are converted (null = 0).
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @return  the compiled int getter with the given name for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    public static IntGetter getIntGetter(Class<?> type, String name) throws NoSuchMethodException {
+        return (IntGetter) getPrimitiveGetter(type, name, int.class);
+    }
+
+    /**
+     * Returns the compiled long getter with the given name for the given class.<p>
+     * Getters returning byte, short, char, int or long are linked without boxing; getters
+     * returning any other Number are converted (null = 0).
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @return  the compiled long getter with the given name for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    public static LongGetter getLongGetter(Class<?> type, String name) throws NoSuchMethodException {
+        return (LongGetter) getPrimitiveGetter(type, name, long.class);
+    }
+
+    /**
+     * Returns the compiled double getter with the given name for the given class.<p>
+     * Getters returning any primitive number are linked without boxing; getters
+     * returning any other Number are converted (null = 0).
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @return  the compiled double getter with the given name for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    public static DoubleGetter getDoubleGetter(Class<?> type, String name) throws NoSuchMethodException {
+        return (DoubleGetter) getPrimitiveGetter(type, name, double.class);
+    }
+
+    /**
+     * Returns the compiled boolean getter with the given name for the given class.<p>
+     * Getters returning boolean are linked without boxing; getters returning
+     * Boolean are converted (null = false).
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @return  the compiled boolean getter with the given name for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    public static BooleanGetter getBooleanGetter(Class<?> type, String name) throws NoSuchMethodException {
+        return (BooleanGetter) getPrimitiveGetter(type, name, boolean.class);
+    }
+
+    /**
+     * Returns the value of a field for the given object.
+     *
+     * @param object  the object for which the field must be returned
+     * @param getter  the name of the getter method
+     * @return  the value of the field for the given object
+     * @throws Exception  in case of any problem
+     */
+    public static Object get(Object object, String getter) throws Exception {
+        return getGetter(object.getClass(), getter).get(object);
+    }
+
+    /**
+     * Sets the value of a field for the given object.
+     *
+     * @param object  the object for which the field must be set
+     * @param setter  the name of the setter method
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem
+     */
+    public static void set(Object object, String setter, Class<?> type, Object value) throws Exception {
+        getSetter(object.getClass(), setter, type).set(object, value);
+    }
+
+    /**
+     * Returns the accessors generated at compile time for a class, or for the nearest
+     * superclass annotated with {@link GenerateAccessors}.
+     *
+     * @param type  the class of the objects
+     * @return  the accessors generated at compile time (null = none)
+     */
+    private static Provider findProvider(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (!c.isAnnotationPresent(GenerateAccessors.class)) continue;
+
+            String name = c.getName();
+            int dot = name.lastIndexOf('.');
+            name = name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + "_Accessors";
+
+            try {
+                Class<?> provider = Class.forName(name, true, c.getClassLoader());
+                return (Provider) provider.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError ex) {
+                Logger.getLogger(FieldAccessors.class.getName()).log(Level.WARNING, "Cannot load generated accessors: " + name, ex);
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compiles a getter method.
+     *
+     * @param method  the getter method
+     * @return  the compiled getter
+     */
+    private static Getter compileGetter(Method method) {
+        Class<?> ret = method.getReturnType();
+
+        if (isLinkable(method) && ret != void.class) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP, "get", MethodType.methodType(Getter.class), GETTER_TYPE,
+                        LOOKUP.unreflect(method),
+                        MethodType.methodType(MethodType.methodType(ret).wrap().returnType(), method.getDeclaringClass()));
+                return (Getter) site.getTarget().invoke();
+            } catch (Throwable ex) {
+                Logger.getLogger(FieldAccessors.class.getName()).log(Level.FINE, "Cannot compile getter: " + method, ex);
+            }
+        }
+
+        final MethodHandle handle = unreflect(method).asType(GETTER_TYPE);
+        return (Object object) -> {
+            try {
+                return handle.invokeExact(object);
+            } catch (Exception | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled primitive getter with the given name and type of result for the given class.
+     *
+     * @param type  the class of the objects
+     * @param name  the name of the getter method
+     * @param result  the type of result (int, long, double or boolean)
+     * @return  the compiled primitive getter with the given name and type of result for the given class
+     * @throws NoSuchMethodException  in case the getter method cannot be found
+     */
+    private static Object getPrimitiveGetter(Class<?> type, String name, Class<?> result) throws NoSuchMethodException {
+        ClassAccessors accessors = ACCESSORS.get(type);
+        ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>> byResult = accessors.primitiveGetters;
+
+        ConcurrentHashMap<String, Object> getters = byResult.get(result);
+        if (getters == null) {
+            getters = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Object> prev = byResult.putIfAbsent(result, getters);
+            if (prev != null) getters = prev;
+        }
+
+        Object getter = getters.get(name);
+        if (getter != null) return getter;
+
+        if (accessors.provider != null) {
+            getter = accessors.provider.getPrimitiveGetter(name, result);
+            if (getter == null) {
+                Getter generic = accessors.provider.getGetter(name);
+                if (generic != null) getter = convertGetter(generic, result);
+            }
+            
+            if (getter != null) {
+                Object prev = getters.putIfAbsent(name, getter);
+                return (prev == null) ? getter : prev;
+            }
+        }
+
+        Method method = ReflectionUtils.getMethod(type, name, EMPTY_CLASS_ARRAY);
+        if (method == null) throw new NoSuchMethodException(type.getName() + "." + name + "()");
+
+        getter = compilePrimitiveGetter(method, result);
+        Object prev = getters.putIfAbsent(name, getter);
+        return (prev == null) ? getter : prev;
+    }
+
+    /**
+     * Compiles a getter method into a primitive getter.
+     *
+     * @param method  the getter method
+     * @param result  the type of result (int, long, double or boolean)
+     * @return  the compiled primitive getter
+     */
+    private static Object compilePrimitiveGetter(Method method, Class<?> result) {
+        Class<?> ret = method.getReturnType();
+        Class<?> iface =
+                (result == int.class) ? IntGetter.class :
+                (result == long.class) ? LongGetter.class :
+                (result == double.class) ? DoubleGetter.class :
+                BooleanGetter.class;
+        String name =
+                (result == int.class) ? "getInt" :
+                (result == long.class) ? "getLong" :
+                (result == double.class) ? "getDouble" :
+                "getBoolean";
+
+        if (!isWidenable(ret, result)) return convertGetter(compileGetter(method), result);
+
+        MethodType samType = MethodType.methodType(result, Object.class);
+
+        if (isLinkable(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP, name, MethodType.methodType(iface), samType,
+                        LOOKUP.unreflect(method),
+                        MethodType.methodType(result, method.getDeclaringClass()));
+                return site.getTarget().invoke();
+            } catch (Throwable ex) {
+                Logger.getLogger(FieldAccessors.class.getName()).log(Level.FINE, "Cannot compile getter: " + method, ex);
+            }
+        }
+
+        final MethodHandle handle = unreflect(method).asType(samType);
+        if (result == int.class) {
+            return (IntGetter) (Object object) -> {
+                try {
+                    return (int) handle.invokeExact(object);
+                } catch (Exception | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } else if (result == long.class) {
+            return (LongGetter) (Object object) -> {
+                try {
+                    return (long) handle.invokeExact(object);
+                } catch (Exception | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } else if (result == double.class) {
+            return (DoubleGetter) (Object object) -> {
+                try {
+                    return (double) handle.invokeExact(object);
+                } catch (Exception | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } else {
+            return (BooleanGetter) (Object object) -> {
+                try {
+                    return (boolean) handle.invokeExact(object);
+                } catch (Exception | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+
+    /**
+     * Wraps a generic getter into a primitive getter, converting the values returned.
+     *
+     * @param getter  the generic getter
+     * @param result  the type of result (int, long, double or boolean)
+     * @return  the primitive getter
+     */
+    private static Object convertGetter(final Getter getter, Class<?> result) {
+        if (result == int.class) {
+            return (IntGetter) (Object object) -> {
+                Object value = getter.get(object);
+                return (value == null) ? 0 : ((Number)value).intValue();
+            };
+        } else if (result == long.class) {
+            return (LongGetter) (Object object) -> {
+                Object value = getter.get(object);
+                return (value == null) ? 0L : ((Number)value).longValue();
+            };
+        } else if (result == double.class) {
+            return (DoubleGetter) (Object object) -> {
+                Object value = getter.get(object);
+                return (value == null) ? 0D : ((Number)value).doubleValue();
+            };
+        } else {
+            return (BooleanGetter) (Object object) -> Boolean.TRUE.equals(getter.get(object));
+        }
+    }
+
+    /**
+     * Returns true if a primitive type can be converted into another one without boxing.
+     *
+     * @param from  the type to be converted
+     * @param to  the type of result (int, long, double or boolean)
+     * @return  true if a primitive type can be converted into another one without boxing
+     */
+    private static boolean isWidenable(Class<?> from, Class<?> to) {
+        if (from == to) return true;
+        if (!from.isPrimitive() || from == boolean.class || from == void.class || to == boolean.class) return false;
+
+        boolean toInt = (from == byte.class || from == short.class || from == char.class);
+        if (to == int.class) return toInt;
+        if (to == long.class) return toInt || from == int.class;
+        return true;
+    }
+
+    /**
+     * Compiles a setter method.
+     *
+     * @param method  the setter method
+     * @return  the compiled setter
+     */
+    private static Setter compileSetter(Method method) {
+        Class<?> arg = method.getParameterTypes()[0];
+
+        if (isLinkable(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP, "set", MethodType.methodType(Setter.class), SETTER_TYPE,
+                        LOOKUP.unreflect(method),
+                        MethodType.methodType(void.class, method.getDeclaringClass(), MethodType.methodType(arg).wrap().returnType()));
+                return (Setter) site.getTarget().invoke();
+            } catch (Throwable ex) {
+                Logger.getLogger(FieldAccessors.class.getName()).log(Level.FINE, "Cannot compile setter: " + method, ex);
+            }
+        }
+
+        final MethodHandle handle = unreflect(method).asType(SETTER_TYPE);
+        return (Object object, Object value) -> {
+            try {
+                handle.invokeExact(object, value);
+            } catch (Exception | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    /**
+     * Returns true if a method can be linked directly by a compiled accessor.<p>
+     * This requires the method and its class to be public and the class to be
+     * visible from the class loader of this class.
+     *
+     * @param method  the method
+     * @return  true if a method can be linked directly by a compiled accessor
+     */
+    private static boolean isLinkable(Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(owner.getModifiers())) {
+            return false;
+        }
+
+        try {
+            return Class.forName(owner.getName(), false, FieldAccessors.class.getClassLoader()) == owner;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a method handle for the given method, making it accessible if needed.
+     *
+     * @param method  the method
+     * @return  a method handle for the given method
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException ex) {
+            try {
+                method.setAccessible(true);
+                return LOOKUP.unreflect(method);
+            } catch (IllegalAccessException | RuntimeException ex2) {
+                throw new IllegalStateException("Cannot access method: " + method, ex2);
+            }
+        }
+    }
+}
@@ -0,0 +1,631 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * A data manager which shows the objects of another data manager accepted by a predicate.
+ * <p>
+ * The positions in the source of the objects accepted are held in a sorted position map,
+ * updated incrementally by the changes notified to this data manager as a DataListListener:
+ * only the objects affected by each change are evaluated, and the change is then forwarded
+ * to its own listeners with the filtered positions (e.g. a source object changed so that it
+ * is no more accepted is notified as removed). This data manager must therefore be registered
+ * as a listener of the changes to the underlying data, in place of the components using it.
+ * <p>
+ * When the predicate is changed all the objects are evaluated again: for lists not smaller
+ * than the parallel threshold the evaluation is performed in parallel, so the predicate
+ * must be thread safe (the objects are retrieved from the source on the calling thread).<br>
+ * Objects not loaded by the source (null) are never accepted: they are evaluated when their
+ * loading is notified.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @param <T>  the type of DataRecord handled by this data manager.
+ * @author Giuseppe Gallo
+ */
+public class FilteredDataRecordManager<T extends DataRecord> implements DataRecordManager<T>, DataListListener {
+    
+    /** The default minimum number of objects evaluated in parallel */
+    public final static int DEFAULT_PARALLEL_THRESHOLD = 10000;
+    
+    /** The data manager providing the objects */
+    private final DataRecordManager<T> source;
+    
+    /** The predicate accepting the objects (null = all) */
+    private Predicate<? super T> predicate;
+    
+    /** The positions in the source of the objects accepted (sorted) */
+    private int[] positions = new int[16];
+    
+    /** The number of objects accepted */
+    private int count = 0;
+    
+    /** The class of the objects handled (null = not known yet) */
+    private Class<?> type;
+    
+    /** The minimum number of objects evaluated in parallel */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+
+    
+    /**
+     * Instantiates a data manager showing the objects of the given one accepted by the predicate.
+     * The class of the objects used for notifications is taken from the first object of
+     * the source, or from the first notification received.
+     * 
+     * @param source  the data manager providing the objects
+     * @param predicate  the predicate accepting the objects (null = all)
+     */
+    public FilteredDataRecordManager(DataRecordManager<T> source, Predicate<? super T> predicate) {
+        this(null, source, predicate);
+    }
+    
+    /**
+     * Instantiates a data manager showing the objects of the given one accepted by the predicate.
+     * 
+     * @param type  the type of objects handled by this data manager (used for notifications)
+     * @param source  the data manager providing the objects
+     * @param predicate  the predicate accepting the objects (null = all)
+     */
+    public FilteredDataRecordManager(Class<T> type, DataRecordManager<T> source, Predicate<? super T> predicate) {
+        this.type = type;
+        this.source = source;
+        this.predicate = predicate;
+        filter();
+    }
+    
+    /**
+     * Returns the data manager providing the objects.
+     * 
+     * @return  the data manager providing the objects
+     */
+    public DataRecordManager<T> getSource() {
+        return source;
+    }
+    
+    /**
+     * Returns the predicate accepting the objects.
+     * 
+     * @return  the predicate accepting the objects (null = all)
+     */
+    public Predicate<? super T> getPredicate() {
+        return predicate;
+    }
+    
+    /**
+     * Sets the predicate accepting the objects, evaluates again all the objects and notifies
+     * a generic change in the list to the listeners.
+     * 
+     * @param predicate  the predicate accepting the objects (null = all)
+     */
+    public void setPredicate(Predicate<? super T> predicate) {
+        this.predicate = predicate;
+        refilter();
+    }
+    
+    /**
+     * Evaluates again all the objects (e.g. after a change in the state used by the predicate)
+     * and notifies a generic change in the list to the listeners.
+     */
+    public void refilter() {
+        filter();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(type));
+    }
+    
+    /**
+     * Sets the minimum number of objects evaluated in parallel.
+     * 
+     * @param threshold  the minimum number of objects evaluated in parallel (Integer.MAX_VALUE = never)
+     */
+    public void setParallelThreshold(int threshold) {
+        parallelThreshold = threshold;
+    }
+    
+    /**
+     * Returns the minimum number of objects evaluated in parallel.
+     * 
+     * @return  the minimum number of objects evaluated in parallel
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+    
+    /**
+     * Returns the position in the source of the object at the given position in this data manager.
+     * 
+     * @param index  the position of the object in this data manager
+     * @return  the position of the object in the source
+     */
+    public int getSourceIndex(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        return positions[index];
+    }
+    
+    /**
+     * Returns the position in this data manager of the object at the given position in the source.
+     * 
+     * @param sourceIndex  the position of the object in the source
+     * @return  the position of the object in this data manager (-1 = not accepted)
+     */
+    public int getFilteredIndex(int sourceIndex) {
+        return find(sourceIndex);
+    }
+
+    /**
+     * Returns the object at position index in the list.
+     * 
+     * @param index  the index of the object to be returned.
+     * @return  the object at position index in the list
+     */
+    @Override
+    public T get(int index) {
+        return source.get(getSourceIndex(index));
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found).
+     * 
+     * @param object  the object for which the position in the list needs to be returned.
+     * @return  the position of the given object in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(T object) {
+        int index = source.getIndex(object);
+        return (index < 0) ? -1 : find(index);
+    }
+
+    /**
+     * Returns the number of objects in the list handled by this data manager.
+     * 
+     * @return  the number of objects in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns true if the object at position index in the list has been loaded.
+     * 
+     * @param index  the index of the object
+     * @return  true if the object at position index in the list has been loaded
+     */
+    @Override
+    public boolean isLoaded(int index) {
+        return source.isLoaded(getSourceIndex(index));
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object.
+     * 
+     * @param index  the index of the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        source.delete(getSourceIndex(index));
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        return source.deleteAsync(getSourceIndex(index));
+    }
+
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return source.getPersister();
+    }
+
+    /**
+     * Returns the value of a field for the object of the given index, using the
+     * getter method specified.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        return source.getField(getSourceIndex(index), getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        return source.getInt(getSourceIndex(index), getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        return source.getLong(getSourceIndex(index), getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        return source.getDouble(getSourceIndex(index), getter);
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        return source.getBoolean(getSourceIndex(index), getter);
+    }
+
+    /**
+     * Sets the value of a field for the object of the given index, using the
+     * setter method specified.
+     * 
+     * @param index  the index of the object for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        source.setField(getSourceIndex(index), setter, type, value);
+    }
+
+    /**
+     * Notifies a generic change in the list of objects.
+     * All the objects are evaluated again.
+     * 
+     * @param type  the class of the objects in the list
+     */
+    @Override
+    public void listChanged(Class<?> type) {
+        if (type != null) this.type = type;
+        filter();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(type));
+    }
+
+    /**
+     * Notifies the addition of an object to a list (class-specific).
+     * The object is read from the source, and notified to the listeners only if accepted.
+     *
+     * @param index  the position in the list of the object added
+     * @param type  the class of the object added
+     * @param object  the object added
+     */
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        if (type != null) this.type = type;
+        int pos = lowerBound(index);
+        shift(pos, 1);
+        T current = source.get(index);
+        if (!accept(current)) return;
+        
+        insert(pos, index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectAdded(pos, type, current));
+    }
+
+    /**
+     * Notifies the removal of an object from a list (class-specific).
+     * The object is notified to the listeners only if it was accepted.
+     *
+     * @param index  the position in the list of the object removed
+     * @param type  the class of the object removed
+     */
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        if (type != null) this.type = type;
+        int pos = find(index);
+        if (pos >= 0) remove(pos, 1);
+        shift(lowerBound(index), -1);
+        
+        if (pos < 0 || listeners == null) return;
+        listeners.stream().forEach(l -> l.objectRemoved(pos, type));
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).
+     * The object is read from the source and evaluated again, and notified to the listeners
+     * as changed, added or removed depending on whether it was and is accepted.
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        if (type != null) this.type = type;
+        int pos = find(index);
+        T current = source.get(index);
+        boolean accepted = accept(current);
+        
+        if (pos >= 0 && accepted) {
+            if (listeners == null) return;
+            listeners.stream().forEach(l -> l.objectChanged(pos, type, current));
+        } else if (pos >= 0) {
+            remove(pos, 1);
+            if (listeners == null) return;
+            listeners.stream().forEach(l -> l.objectRemoved(pos, type));
+        } else if (accepted) {
+            int p = lowerBound(index);
+            insert(p, index);
+            if (listeners == null) return;
+            listeners.stream().forEach(l -> l.objectAdded(p, type, current));
+        }
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     * The objects accepted are notified to the listeners as a range.
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        if (type != null) this.type = type;
+        int pos = lowerBound(first);
+        shift(pos, last - first + 1);
+        
+        int n = 0;
+        for (int i = first; i <= last; ++i) {
+            if (accept(source.get(i))) insert(pos + n++, i);
+        }
+        
+        if (n == 0 || listeners == null) return;
+        int to = pos + n - 1;
+        listeners.stream().forEach(l -> l.objectsAdded(pos, to, type));
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     * The objects which were accepted are notified to the listeners as a range.
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        if (type != null) this.type = type;
+        int from = lowerBound(first);
+        int n = lowerBound(last + 1) - from;
+        if (n > 0) remove(from, n);
+        shift(from, -(last - first + 1));
+        
+        if (n == 0 || listeners == null) return;
+        int to = from + n - 1;
+        listeners.stream().forEach(l -> l.objectsRemoved(from, to, type));
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     * The objects are evaluated again: if all of them are still accepted or still rejected the
+     * changes are notified to the listeners in place, otherwise each change is notified separately.
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        if (type != null) this.type = type;
+        int[] changed = new int[indices.length];
+        int n = 0;
+        
+        for (int index : indices) {
+            int pos = find(index);
+            boolean accepted = accept(source.get(index));
+            if (accepted != (pos >= 0)) {
+                for (int i : indices) objectChanged(i, type, source.get(i));
+                return;
+            }
+            
+            if (accepted) changed[n++] = pos;
+        }
+        
+        if (n == 0 || listeners == null) return;
+        int[] result = (n == changed.length) ? changed : Arrays.copyOf(changed, n);
+        listeners.stream().forEach(l -> l.objectsChanged(result, type));
+    }
+
+    /**
+     * Adds a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+    
+    /**
+     * Evaluates all the objects of the source, in parallel if their number
+     * is not smaller than the parallel threshold.
+     */
+    private void filter() {
+        int n = source.size();
+        ArrayList<T> objects = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            T object = source.get(i);
+            if (type == null && object != null) type = object.getClass();
+            objects.add(object);
+        }
+        
+        if (n >= parallelThreshold) {
+            positions = IntStream.range(0, n).parallel().filter(i -> accept(objects.get(i))).toArray();
+            count = positions.length;
+        } else {
+            positions = new int[Math.max(n, 16)];
+            count = 0;
+            for (int i = 0; i < n; ++i) {
+                if (accept(objects.get(i))) positions[count++] = i;
+            }
+        }
+    }
+    
+    /**
+     * Returns true if the given object is accepted by the predicate.
+     * 
+     * @param object  the object to be evaluated (null = not loaded)
+     * @return  true if the given object is accepted by the predicate
+     */
+    private boolean accept(T object) {
+        return object != null && (predicate == null || predicate.test(object));
+    }
+    
+    /**
+     * Returns the first position in this data manager of an object whose
+     * position in the source is not lower than the given one.
+     * 
+     * @param sourceIndex  the position in the source
+     * @return  the first position of an object not lower in the source
+     */
+    private int lowerBound(int sourceIndex) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] < sourceIndex) low = mid + 1;
+            else high = mid;
+        }
+        
+        return low;
+    }
+    
+    /**
+     * Returns the position in this data manager of the object at the given position in the source.
+     * 
+     * @param sourceIndex  the position in the source
+     * @return  the position in this data manager (-1 = not accepted)
+     */
+    private int find(int sourceIndex) {
+        int pos = lowerBound(sourceIndex);
+        return (pos < count && positions[pos] == sourceIndex) ? pos : -1;
+    }
+    
+    /**
+     * Shifts the positions in the source starting from the given position in this data manager.
+     * 
+     * @param from  the first position in this data manager to be shifted
+     * @param delta  the shift to be applied to the positions in the source
+     */
+    private void shift(int from, int delta) {
+        for (int i = from; i < count; ++i) positions[i] += delta;
+    }
+    
+    /**
+     * Inserts a position in the source in the position map.
+     * 
+     * @param pos  the position in this data manager
+     * @param sourceIndex  the position in the source
+     */
+    private void insert(int pos, int sourceIndex) {
+        if (count == positions.length) positions = Arrays.copyOf(positions, Math.max(16, count * 2));
+        System.arraycopy(positions, pos, positions, pos + 1, count - pos);
+        positions[pos] = sourceIndex;
+        ++count;
+    }
+    
+    /**
+     * Removes a range of positions from the position map.
+     * 
+     * @param pos  the first position in this data manager to be removed
+     * @param n  the number of positions to be removed
+     */
+    private void remove(int pos, int n) {
+        System.arraycopy(positions, pos + n, positions, pos, count - pos - n);
+        count -= n;
+    }
+}
@@ -0,0 +1,708 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A data manager which partitions the objects of another data manager in groups, by the
+ * value of a field, and exposes the groups with their running aggregates (count, sum, minimum,
+ * maximum and average of a numeric field) as DataRecords, so that they can be displayed by
+ * any component using a data manager.
+ * <p>
+ * The group and the value of each object of the source are remembered, so that the aggregates
+ * are updated incrementally by the changes notified to this data manager as a DataListListener
+ * (this data manager must therefore be registered as a listener of the changes to the underlying
+ * data). The changes are then notified to its own listeners as changes to the groups, or as
+ * additions and removals of groups when a group is created or becomes empty.<br>
+ * The groups are listed in order of creation.<br>
+ * As in SQL, objects with a null value of the numeric field are counted in their group but
+ * skipped by the sum, minimum, maximum and average.<br>
+ * The groups are read-only: delete, setField and the store and delete methods of the
+ * groups throw an UnsupportedOperationException.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @param <T>  the type of DataRecord handled by the source data manager.
+ * @author Giuseppe Gallo
+ */
+public class GroupingDataRecordManager<T extends DataRecord> implements DataRecordManager<GroupingDataRecordManager.Group>, DataListListener {
+    
+    /**
+     * A group of objects with the same value of the grouping field, with the aggregates of
+     * the numeric field. The groups are read-only.
+     */
+    public static class Group implements DataRecord {
+        
+        /** The value of the grouping field */
+        private final Object key;
+        
+        /** The number of objects in the group */
+        private int count = 0;
+        
+        /** The number of non-null values in the group */
+        private int valueCount = 0;
+        
+        /** The sum of the values */
+        private double sum = 0;
+        
+        /** The number of occurrences of each value (for minimum and maximum) */
+        private final TreeMap<Double, int[]> values = new TreeMap<>();
+        
+        /**
+         * Instantiates an empty group.
+         * 
+         * @param key  the value of the grouping field
+         */
+        private Group(Object key) {
+            this.key = key;
+        }
+        
+        /**
+         * Returns the value of the grouping field.
+         * 
+         * @return  the value of the grouping field
+         */
+        public Object getKey() {
+            return key;
+        }
+        
+        /**
+         * Returns the number of objects in the group.
+         * 
+         * @return  the number of objects in the group
+         */
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * Returns the number of non-null values in the group.
+         * 
+         * @return  the number of non-null values in the group
+         */
+        public int getValueCount() {
+            return valueCount;
+        }
+        
+        /**
+         * Returns the sum of the non-null values.
+         * 
+         * @return  the sum of the values (0 = no values)
+         */
+        public double getSum() {
+            return sum;
+        }
+        
+        /**
+         * Returns the minimum non-null value.
+         * 
+         * @return  the minimum value (NaN = no values)
+         */
+        public double getMin() {
+            return values.isEmpty() ? Double.NaN : values.firstKey();
+        }
+        
+        /**
+         * Returns the maximum non-null value.
+         * 
+         * @return  the maximum value (NaN = no values)
+         */
+        public double getMax() {
+            return values.isEmpty() ? Double.NaN : values.lastKey();
+        }
+        
+        /**
+         * Returns the average of the non-null values.
+         * 
+         * @return  the average value (NaN = no values)
+         */
+        public double getAverage() {
+            return (valueCount == 0) ? Double.NaN : sum / valueCount;
+        }
+        
+        /**
+         * Adds a value to the aggregates.
+         * 
+         * @param value  the value to be added (NaN = null)
+         */
+        private void add(double value) {
+            ++count;
+            if (Double.isNaN(value)) return;
+            
+            ++valueCount;
+            sum += value;
+            int[] n = values.get(value);
+            if (n == null) values.put(value, new int[]{1});
+            else ++n[0];
+        }
+        
+        /**
+         * Removes a value from the aggregates.
+         * 
+         * @param value  the value to be removed (NaN = null)
+         */
+        private void remove(double value) {
+            --count;
+            if (Double.isNaN(value)) return;
+            
+            --valueCount;
+            sum = (valueCount == 0) ? 0 : sum - value;
+            int[] n = values.get(value);
+            if (n != null && --n[0] == 0) values.remove(value);
+        }
+
+        /**
+         * Not supported: the groups are read-only.
+         * 
+         * @throws Exception  always
+         */
+        @Override
+        public void store() throws Exception {
+            throw new UnsupportedOperationException("Groups are read-only");
+        }
+
+        /**
+         * Not supported: the groups are read-only.
+         * 
+         * @throws Exception  always
+         */
+        @Override
+        public void delete() throws Exception {
+            throw new UnsupportedOperationException("Groups are read-only");
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(key);
+        }
+    }
+    
+    /** The data manager providing the objects */
+    private final DataRecordManager<T> source;
+    
+    /** The name of the getter method of the grouping field */
+    private final String keyGetter;
+    
+    /** The name of the getter method of the numeric field aggregated (null = count only) */
+    private final String valueGetter;
+    
+    /** The groups, in order of creation */
+    private final ArrayList<Group> groups = new ArrayList<>();
+    
+    /** The groups by value of the grouping field */
+    private final HashMap<Object, Group> groupsByKey = new HashMap<>();
+    
+    /** The group of each object of the source */
+    private final ArrayList<Group> rowGroups = new ArrayList<>();
+    
+    /** The value of each object of the source */
+    private double[] rowValues = new double[16];
+    
+    /** The groups changed by the bulk change being processed (null = none in progress) */
+    private LinkedHashSet<Group> changedGroups = null;
+    
+    /** True if the bulk change being processed created or removed any group */
+    private boolean groupsChanged = false;
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+
+    
+    /**
+     * Instantiates a data manager grouping the objects of the given one.
+     * 
+     * @param source  the data manager providing the objects
+     * @param keyGetter  the name of the getter method of the grouping field
+     * @param valueGetter  the name of the getter method of the numeric field aggregated (null = count only)
+     */
+    public GroupingDataRecordManager(DataRecordManager<T> source, String keyGetter, String valueGetter) {
+        this.source = source;
+        this.keyGetter = keyGetter;
+        this.valueGetter = valueGetter;
+        rebuild();
+    }
+    
+    /**
+     * Returns the data manager providing the objects.
+     * 
+     * @return  the data manager providing the objects
+     */
+    public DataRecordManager<T> getSource() {
+        return source;
+    }
+    
+    /**
+     * Returns the group of the given value of the grouping field.
+     * 
+     * @param key  the value of the grouping field
+     * @return  the group of the given value (null = no objects with this value)
+     */
+    public Group getGroup(Object key) {
+        return groupsByKey.get(key);
+    }
+    
+    /**
+     * Returns the group of the object at the given position in the source.
+     * 
+     * @param sourceIndex  the position of the object in the source
+     * @return  the group of the object
+     */
+    public Group getGroupOf(int sourceIndex) {
+        return rowGroups.get(sourceIndex);
+    }
+
+    /**
+     * Returns the group at position index in the list.
+     * 
+     * @param index  the index of the group to be returned.
+     * @return  the group at position index in the list
+     */
+    @Override
+    public Group get(int index) {
+        return groups.get(index);
+    }
+
+    /**
+     * Returns the position of the given group in the list (-1 = not found).
+     * 
+     * @param group  the group for which the position in the list needs to be returned.
+     * @return  the position of the given group in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(Group group) {
+        return groups.indexOf(group);
+    }
+
+    /**
+     * Returns the number of groups.
+     * 
+     * @return  the number of groups
+     */
+    @Override
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Not supported: the groups are read-only.
+     * 
+     * @param index  the index of the group
+     * @throws Exception  always
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        throw new UnsupportedOperationException("Groups are read-only");
+    }
+
+    /**
+     * Returns the value of a field for the group of the given index, using the
+     * getter method specified.
+     * 
+     * @param index  the index of the group for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the group of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        return FieldAccessors.getGetter(Group.class, getter).get(groups.get(index));
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the group of the given index,
+     * using the getter method specified, without boxing primitive values.
+     * 
+     * @param index  the index of the group for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the group of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        return FieldAccessors.getIntGetter(Group.class, getter).getInt(groups.get(index));
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the group of the given index,
+     * using the getter method specified, without boxing primitive values.
+     * 
+     * @param index  the index of the group for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the group of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        return FieldAccessors.getLongGetter(Group.class, getter).getLong(groups.get(index));
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the group of the given index,
+     * using the getter method specified, without boxing primitive values.
+     * 
+     * @param index  the index of the group for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the group of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        return FieldAccessors.getDoubleGetter(Group.class, getter).getDouble(groups.get(index));
+    }
+
+    /**
+     * Not supported: the groups are read-only.
+     * 
+     * @param index  the index of the group for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  always
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        throw new UnsupportedOperationException("Groups are read-only");
+    }
+
+    /**
+     * Notifies a generic change in the list of objects.
+     * All the groups are computed again.
+     * 
+     * @param type  the class of the objects in the list
+     */
+    @Override
+    public void listChanged(Class<?> type) {
+        rebuild();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(Group.class));
+    }
+
+    /**
+     * Notifies the addition of an object to a list (class-specific).
+     *
+     * @param index  the position in the list of the object added
+     * @param type  the class of the object added
+     * @param object  the object added
+     */
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        insertRow(index);
+    }
+
+    /**
+     * Notifies the removal of an object from a list (class-specific).
+     *
+     * @param index  the position in the list of the object removed
+     * @param type  the class of the object removed
+     */
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        removeRow(index);
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        updateRow(index);
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     * The groups changed are notified together.
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        beginBulk();
+        for (int i = first; i <= last; ++i) insertRow(i);
+        endBulk();
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     * The groups changed are notified together.
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        beginBulk();
+        for (int i = last; i >= first; --i) removeRow(i);
+        endBulk();
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     * The groups changed are notified together.
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        beginBulk();
+        for (int index : indices) updateRow(index);
+        endBulk();
+    }
+
+    /**
+     * Adds a listener for the list of groups handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of groups handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+    
+    /**
+     * Computes again all the groups from the source.
+     */
+    private void rebuild() {
+        groups.clear();
+        groupsByKey.clear();
+        rowGroups.clear();
+        
+        int n = source.size();
+        rowGroups.ensureCapacity(n);
+        rowValues = new double[Math.max(n, 16)];
+        
+        for (int i = 0; i < n; ++i) {
+            Group group = findGroup(getKey(i));
+            double value = getValue(i);
+            group.add(value);
+            rowGroups.add(group);
+            rowValues[i] = value;
+        }
+    }
+    
+    /**
+     * Adds the object at the given position in the source to its group.
+     * 
+     * @param index  the position of the object in the source
+     */
+    private void insertRow(int index) {
+        int n = rowGroups.size();
+        if (n == rowValues.length) rowValues = Arrays.copyOf(rowValues, n * 2);
+        System.arraycopy(rowValues, index, rowValues, index + 1, n - index);
+        
+        int created = groups.size();
+        Group group = findGroup(getKey(index));
+        double value = getValue(index);
+        group.add(value);
+        rowGroups.add(index, group);
+        rowValues[index] = value;
+        
+        if (groups.size() > created) groupAdded(group);
+        else groupChanged(group);
+    }
+    
+    /**
+     * Removes the object at the given position in the source from its group.
+     * 
+     * @param index  the position of the object in the source
+     */
+    private void removeRow(int index) {
+        int n = rowGroups.size();
+        Group group = rowGroups.remove(index);
+        double value = rowValues[index];
+        System.arraycopy(rowValues, index + 1, rowValues, index, n - index - 1);
+        
+        group.remove(value);
+        groupChanged(group);
+    }
+    
+    /**
+     * Updates the group and the aggregates for the object at the given position in the source.
+     * 
+     * @param index  the position of the object in the source
+     */
+    private void updateRow(int index) {
+        Group old = rowGroups.get(index);
+        Object key = getKey(index);
+        double value = getValue(index);
+        
+        int created = groups.size();
+        Group group = (old.key == null ? key == null : old.key.equals(key)) ? old : findGroup(key);
+        if (group == old && Double.compare(value, rowValues[index]) == 0) return;
+        
+        old.remove(rowValues[index]);
+        group.add(value);
+        rowGroups.set(index, group);
+        rowValues[index] = value;
+        
+        if (groups.size() > created) groupAdded(group);
+        else if (group != old) groupChanged(group);
+        groupChanged(old);
+    }
+    
+    /**
+     * Returns the group of the given value of the grouping field, creating it if needed.
+     * 
+     * @param key  the value of the grouping field
+     * @return  the group of the given value
+     */
+    private Group findGroup(Object key) {
+        Group group = groupsByKey.get(key);
+        if (group != null) return group;
+        
+        group = new Group(key);
+        groupsByKey.put(key, group);
+        groups.add(group);
+        if (changedGroups != null) groupsChanged = true;
+        return group;
+    }
+    
+    /**
+     * Notifies the addition of a group.
+     * 
+     * @param group  the group added
+     */
+    private void groupAdded(Group group) {
+        if (changedGroups != null || listeners == null) return;
+        
+        int index = groups.indexOf(group);
+        listeners.stream().forEach(l -> l.objectAdded(index, Group.class, group));
+    }
+    
+    /**
+     * Notifies the change of a group, removing it (and notifying its removal) if empty.
+     * 
+     * @param group  the group changed
+     */
+    private void groupChanged(Group group) {
+        int index = -1;
+        
+        if (group.count == 0) {
+            index = groups.indexOf(group);
+            groups.remove(index);
+            groupsByKey.remove(group.key);
+            if (changedGroups != null) groupsChanged = true;
+        } else if (changedGroups != null) {
+            changedGroups.add(group);
+        }
+        
+        if (changedGroups != null || listeners == null) return;
+        
+        if (group.count == 0) {
+            int pos = index;
+            listeners.stream().forEach(l -> l.objectRemoved(pos, Group.class));
+        } else {
+            int pos = groups.indexOf(group);
+            listeners.stream().forEach(l -> l.objectChanged(pos, Group.class, group));
+        }
+    }
+    
+    /**
+     * Starts collecting the groups changed, to be notified together.
+     */
+    private void beginBulk() {
+        changedGroups = new LinkedHashSet<>();
+        groupsChanged = false;
+    }
+    
+    /**
+     * Notifies the groups changed since beginBulk: a generic change in the list if any group
+     * has been created or removed, otherwise the changes of the groups.
+     */
+    private void endBulk() {
+        LinkedHashSet<Group> changed = changedGroups;
+        changedGroups = null;
+        if (listeners == null) return;
+        
+        if (groupsChanged) {
+            listeners.stream().forEach(l -> l.listChanged(Group.class));
+        } else if (!changed.isEmpty()) {
+            int[] indices = changed.stream().mapToInt(g -> groups.indexOf(g)).sorted().toArray();
+            listeners.stream().forEach(l -> l.objectsChanged(indices, Group.class));
+        }
+    }
+    
+    /**
+     * Returns the value of the grouping field of the object at the given position in the source.
+     * 
+     * @param index  the position of the object in the source
+     * @return  the value of the grouping field (null in case of error)
+     */
+    private Object getKey(int index) {
+        try {
+            return source.getField(index, keyGetter);
+        } catch (Exception ex) {
+            Logger.getLogger(GroupingDataRecordManager.class.getName()).log(Level.SEVERE, "Error calling method: " + keyGetter, ex);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the value of the numeric field of the object at the given position in the source.
+     * 
+     * @param index  the position of the object in the source
+     * @return  the value of the numeric field (NaN = null, no numeric field or error)
+     */
+    private double getValue(int index) {
+        if (valueGetter == null) return Double.NaN;
+        
+        try {
+            Object value = source.getField(index, valueGetter);
+            return (value == null) ? Double.NaN : ((Number)value).doubleValue();
+        } catch (Exception ex) {
+            Logger.getLogger(GroupingDataRecordManager.class.getName()).log(Level.SEVERE, "Error calling method: " + valueGetter, ex);
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,490 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * An index mapping the objects in a list to their position, based on object identity.
+ * <p>
+ * The index mirrors the order of the list in a balanced tree (a treap) which keeps,
+ * for each object, the size of its subtree: the position of an object is its rank
+ * in the tree, so lookups, additions and removals notified by the owner of the list
+ * take O(log n) time regardless of where in the list they happen.<br>
+ * The tree is built lazily, in O(n), at the first lookup following a reset.
+ * Modifications of the list which are not notified are detected when the size
+ * of the list changes or a stale position is found, in which case the whole
+ * index is rebuilt.
+ *
+ * @param <T>  the type of objects in the list
+ * @author Giuseppe Gallo
+ */
+public class IdentityIndex<T> {
+
+    /**
+     * A node of the tree, holding an object of the list.
+     */
+    private final static class Node {
+        /** The object in the list */
+        Object object;
+
+        /** The priority of the node (parents have higher priorities than their children) */
+        final int priority;
+
+        /** The number of nodes in the subtree rooted in this node */
+        int size = 1;
+
+        /** The left child (objects preceding this one) */
+        Node left = null;
+
+        /** The right child (objects following this one) */
+        Node right = null;
+
+        /** The parent node (null = root) */
+        Node parent = null;
+
+        /** The next node holding the same object (for objects contained more than once) */
+        Node next = null;
+
+        /**
+         * Allocates a new node.
+         *
+         * @param object  the object in the list
+         * @param priority  the priority of the node
+         */
+        Node(Object object, int priority) {
+            this.object = object;
+            this.priority = priority;
+        }
+    }
+
+    /** The list being indexed */
+    private List<T> list;
+
+    /** The node holding each object of the list */
+    private final IdentityHashMap<Object, Node> nodes = new IdentityHashMap<>();
+
+    /** The root of the tree */
+    private Node root = null;
+
+    /** If true, the tree needs to be built again from the list */
+    private boolean dirty = true;
+
+    /** The seed used for generating the priorities of the nodes */
+    private int seed = 0x2545F491;
+
+    /** The right part of the tree, as left by the last split */
+    private Node splitRight = null;
+
+
+    /**
+     * Allocates a new index for the given list.
+     *
+     * @param list  the list to be indexed
+     */
+    public IdentityIndex(List<T> list) {
+        reset(list);
+    }
+
+    /**
+     * Starts indexing a new list (or the same list after a generic change).
+     *
+     * @param list  the list to be indexed
+     */
+    public final void reset(List<T> list) {
+        this.list = list;
+        nodes.clear();
+        root = null;
+        dirty = true;
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found).
+     *
+     * @param object  the object for which the position in the list needs to be returned
+     * @return  the position of the given object in the list (-1 = not found)
+     */
+    public int indexOf(Object object) {
+        if (list == null) return -1;
+
+        if (dirty || size(root) != list.size()) rebuild();
+
+        Node node = nodes.get(object);
+        if (node == null) return -1;
+
+        int pos = firstRank(node);
+        if (list.get(pos) == object) return pos;
+
+        // The list has been modified without notifying the index
+        rebuild();
+        node = nodes.get(object);
+        return (node == null) ? -1 : firstRank(node);
+    }
+
+    /**
+     * Notifies the addition of an object to the list.
+     *
+     * @param index  the position in the list of the object added
+     */
+    public void added(int index) {
+        added(index, 1);
+    }
+
+    /**
+     * Notifies the addition of several objects to the list.
+     *
+     * @param index  the position in the list of the first object added
+     * @param count  the number of objects added
+     */
+    public void added(int index, int count) {
+        if (dirty) return;
+        if (list == null || index < 0 || size(root) + count != list.size()) {
+            dirty = true;
+            return;
+        }
+
+        Node left = split(root, index);
+        Node right = splitRight;
+        root = merge(merge(left, build(index, index + count)), right);
+        if (root != null) root.parent = null;
+    }
+
+    /**
+     * Notifies the removal of an object from the list.
+     *
+     * @param index  the position in the list of the object removed
+     * @param object  the object removed (null if unknown)
+     */
+    public void removed(int index, Object object) {
+        if (dirty) return;
+        if (index < 0 || index >= size(root)) {
+            dirty = true;
+            return;
+        }
+
+        Node left = split(root, index);
+        Node node = split(splitRight, 1);
+        root = merge(left, splitRight);
+        if (root != null) root.parent = null;
+
+        unlink(node);
+        if (object != null && node.object != object) dirty = true;
+    }
+
+    /**
+     * Notifies the removal of several objects from the list.
+     *
+     * @param index  the position in the list of the first object removed
+     * @param count  the number of objects removed
+     */
+    public void removed(int index, int count) {
+        if (dirty || count <= 0) return;
+        if (index < 0 || index + count > size(root)) {
+            dirty = true;
+            return;
+        }
+
+        Node left = split(root, index);
+        Node range = split(splitRight, count);
+        root = merge(left, splitRight);
+        if (root != null) root.parent = null;
+
+        unlinkAll(range);
+    }
+
+    /**
+     * Notifies the replacement of the object at the given position of the list.
+     *
+     * @param index  the position in the list of the object replaced
+     */
+    public void replaced(int index) {
+        if (dirty) return;
+        if (list == null || index < 0 || index >= size(root) || size(root) != list.size()) {
+            dirty = true;
+            return;
+        }
+
+        Node node = nodeAt(index);
+        Object object = list.get(index);
+        if (node.object == object) return;
+
+        unlink(node);
+        node.object = object;
+        link(node);
+    }
+
+    /**
+     * Notifies that the objects starting from the given position may have been moved.<p>
+     * The part of the index following the given position is built again, in O(n - index).
+     *
+     * @param index  the position of the first object which may have been moved
+     */
+    public void moved(int index) {
+        if (dirty) return;
+        if (list == null || index < 0 || index > size(root) || size(root) != list.size()) {
+            dirty = true;
+            return;
+        }
+
+        Node left = split(root, index);
+        unlinkAll(splitRight);
+        root = merge(left, build(index, list.size()));
+        if (root != null) root.parent = null;
+    }
+
+    /**
+     * Builds again the whole tree from the list.
+     */
+    private void rebuild() {
+        nodes.clear();
+        root = build(0, list.size());
+        dirty = false;
+    }
+
+    /**
+     * Builds a tree holding the objects in the given range of the list, in O(n).
+     *
+     * @param from  the position of the first object (inclusive)
+     * @param to  the position of the last object (exclusive)
+     * @return  the root of the tree built (null = empty range)
+     */
+    private Node build(int from, int to) {
+        if (from >= to) return null;
+
+        // Builds the cartesian tree of the priorities, keeping the right spine in a stack
+        Node[] stack = new Node[to - from];
+        int top = 0;
+        for (int i = from; i < to; ++i) {
+            Node node = new Node(list.get(i), nextPriority());
+            link(node);
+
+            Node last = null;
+            while (top > 0 && stack[top - 1].priority < node.priority) last = stack[--top];
+            node.left = last;
+            if (top > 0) stack[top - 1].right = node;
+            stack[top++] = node;
+        }
+
+        Node tree = stack[0];
+        fix(tree);
+        tree.parent = null;
+        return tree;
+    }
+
+    /**
+     * Recomputes the sizes and the parents in the given subtree.
+     *
+     * @param node  the root of the subtree
+     */
+    private void fix(Node node) {
+        if (node.left != null) fix(node.left);
+        if (node.right != null) fix(node.right);
+        update(node);
+    }
+
+    /**
+     * Splits the given tree in two parts: the first part is returned, the second
+     * one is left in splitRight.
+     *
+     * @param node  the root of the tree to be split
+     * @param count  the number of nodes in the first part
+     * @return  the root of the first part (null = empty)
+     */
+    private Node split(Node node, int count) {
+        if (node == null) {
+            splitRight = null;
+            return null;
+        }
+
+        if (size(node.left) >= count) {
+            Node left = split(node.left, count);
+            node.left = splitRight;
+            update(node);
+            node.parent = null;
+            splitRight = node;
+            if (left != null) left.parent = null;
+            return left;
+        }
+
+        node.right = split(node.right, count - size(node.left) - 1);
+        update(node);
+        node.parent = null;
+        if (splitRight != null) splitRight.parent = null;
+        return node;
+    }
+
+    /**
+     * Merges two trees, the nodes of the first one preceding those of the second one.
+     *
+     * @param a  the root of the first tree (null = empty)
+     * @param b  the root of the second tree (null = empty)
+     * @return  the root of the merged tree
+     */
+    private Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    /**
+     * Updates the size of a node and the parent of its children.
+     *
+     * @param node  the node to be updated
+     */
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) node.left.parent = node;
+        if (node.right != null) node.right.parent = node;
+    }
+
+    /**
+     * Returns the number of nodes in the given subtree.
+     *
+     * @param node  the root of the subtree (null = empty)
+     * @return  the number of nodes in the given subtree
+     */
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Returns the position of the given node in the list.
+     *
+     * @param node  the node
+     * @return  the position of the given node in the list
+     */
+    private static int rank(Node node) {
+        int rank = size(node.left);
+        for (Node n = node; n.parent != null; n = n.parent) {
+            if (n == n.parent.right) rank += size(n.parent.left) + 1;
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the lowest position of the object held by the given node (which may be
+     * contained more than once in the list).
+     *
+     * @param node  the first node holding the object
+     * @return  the lowest position of the object
+     */
+    private static int firstRank(Node node) {
+        int rank = rank(node);
+        for (Node n = node.next; n != null; n = n.next) rank = Math.min(rank, rank(n));
+        return rank;
+    }
+
+    /**
+     * Returns the node at the given position.
+     *
+     * @param index  the position of the node
+     * @return  the node at the given position
+     */
+    private Node nodeAt(int index) {
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return node;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Registers a node as holding its object.
+     *
+     * @param node  the node to be registered
+     */
+    private void link(Node node) {
+        node.next = nodes.put(node.object, node);
+    }
+
+    /**
+     * Unregisters a node as holding its object.
+     *
+     * @param node  the node to be unregistered
+     */
+    private void unlink(Node node) {
+        Node first = nodes.get(node.object);
+        if (first == node) {
+            if (node.next == null) nodes.remove(node.object);
+            else nodes.put(node.object, node.next);
+        } else {
+            for (Node n = first; n != null; n = n.next) {
+                if (n.next == node) {
+                    n.next = node.next;
+                    break;
+                }
+            }
+        }
+        node.next = null;
+    }
+
+    /**
+     * Unregisters all the nodes of the given subtree.
+     *
+     * @param node  the root of the subtree (null = empty)
+     */
+    private void unlinkAll(Node node) {
+        if (node == null) return;
+        unlinkAll(node.left);
+        unlinkAll(node.right);
+        unlink(node);
+    }
+
+    /**
+     * Returns the priority for a new node (xorshift pseudo-random sequence).
+     *
+     * @return  the priority for a new node
+     */
+    private int nextPriority() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+}
@@ -0,0 +1,801 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A data manager which maintains secondary indexes on the fields of the objects of another
+ * data manager, so that the objects can be looked up by the value of a field without
+ * scanning the list.
+ * <p>
+ * Each index is identified by the name of the getter method of the field: hash indexes
+ * support lookups by equality, range indexes (whose values must be Comparable) also
+ * support lookups by range. The position of the objects found is resolved through an
+ * identity index.<br>
+ * The indexes are kept up to date by setField and by the changes notified to this data
+ * manager as a DataListListener, which are then forwarded to its own listeners: this data
+ * manager must therefore be registered as a listener of the changes to the underlying data,
+ * in place of the components using it. Objects modified without notifying their change
+ * are found by their previous values.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @param <T>  the type of DataRecord handled by this data manager.
+ * @author Giuseppe Gallo
+ */
+public class IndexedDataRecordManager<T extends DataRecord> implements DataRecordManager<T>, DataListListener {
+    
+    /**
+     * The objects with the same value in an index.
+     * 
+     * @param <T>  the type of objects
+     */
+    private static class Bucket<T> {
+        
+        /** The objects, in order of indexing */
+        private final ArrayList<T> objects = new ArrayList<>(2);
+    }
+    
+    /**
+     * The value indexed for an object, with the number of positions the object occupies.
+     */
+    private static class Key {
+        
+        /** The value indexed */
+        private Object value;
+        
+        /** The number of positions of the object in the list */
+        private int count = 1;
+        
+        /**
+         * Allocates a new key.
+         * 
+         * @param value  the value indexed
+         */
+        private Key(Object value) {
+            this.value = value;
+        }
+    }
+    
+    /**
+     * An index on a field.
+     */
+    private class Index {
+        
+        /** The name of the getter method of the field */
+        private final String getter;
+        
+        /** The objects (or buckets of objects) by non-null value */
+        private final Map<Object, Object> values;
+        
+        /** The objects (or the bucket of objects) with a null value (null = none) */
+        private Object nulls = null;
+        
+        /** The value indexed for each object */
+        private final IdentityHashMap<T, Key> keys = new IdentityHashMap<>();
+        
+        /**
+         * Instantiates an empty index.
+         * 
+         * @param getter  the name of the getter method of the field
+         * @param sorted  true for a range index
+         */
+        private Index(String getter, boolean sorted) {
+            this.getter = getter;
+            values = sorted ? new TreeMap<>() : new HashMap<>();
+        }
+        
+        /**
+         * Adds an object to the index (an object present in several positions
+         * is indexed once).
+         * 
+         * @param object  the object to be added
+         */
+        private void add(T object) {
+            Key key = keys.get(object);
+            if (key != null) {
+                ++key.count;
+                return;
+            }
+            
+            Object value = getValue(object);
+            keys.put(object, new Key(value));
+            put(value, object);
+        }
+        
+        /**
+         * Removes an object from the index (once for each position it occupies).
+         * 
+         * @param object  the object to be removed
+         */
+        private void remove(T object) {
+            Key key = keys.get(object);
+            if (key == null || --key.count > 0) return;
+            
+            keys.remove(object);
+            take(key.value, object);
+        }
+        
+        /**
+         * Updates the value indexed for an object.
+         * 
+         * @param object  the object changed
+         */
+        private void update(T object) {
+            Key key = keys.get(object);
+            if (key == null) {
+                add(object);
+                return;
+            }
+            
+            Object value = getValue(object);
+            if (value == null ? key.value == null : value.equals(key.value)) return;
+            
+            take(key.value, object);
+            key.value = value;
+            put(value, object);
+        }
+        
+        /**
+         * Returns the object (or bucket of objects) with the given value.
+         * 
+         * @param value  the value
+         * @return  the object or bucket with the given value (null = none)
+         */
+        private Object lookup(Object value) {
+            return (value == null) ? nulls : values.get(value);
+        }
+        
+        /**
+         * Adds an object under the given value.
+         * 
+         * @param value  the value
+         * @param object  the object
+         */
+        @SuppressWarnings("unchecked")
+        private void put(Object value, T object) {
+            Object old = lookup(value);
+            Object found;
+            
+            if (old == null) {
+                found = object;
+            } else if (old instanceof Bucket) {
+                ((Bucket<T>)old).objects.add(object);
+                return;
+            } else {
+                Bucket<T> bucket = new Bucket<>();
+                bucket.objects.add((T)old);
+                bucket.objects.add(object);
+                found = bucket;
+            }
+            
+            if (value == null) nulls = found;
+            else values.put(value, found);
+        }
+        
+        /**
+         * Removes an object from the given value.
+         * 
+         * @param value  the value
+         * @param object  the object
+         */
+        @SuppressWarnings("unchecked")
+        private void take(Object value, T object) {
+            Object old = lookup(value);
+            Object found = old;
+            
+            if (old == object) {
+                found = null;
+            } else if (old instanceof Bucket) {
+                ArrayList<T> objects = ((Bucket<T>)old).objects;
+                for (int i = 0; i < objects.size(); ++i) {
+                    if (objects.get(i) == object) {
+                        objects.remove(i);
+                        break;
+                    }
+                }
+                
+                if (objects.size() > 1) return;
+                found = objects.isEmpty() ? null : objects.get(0);
+            }
+            
+            if (value == null) nulls = found;
+            else if (found == null) values.remove(value);
+            else values.put(value, found);
+        }
+        
+        /**
+         * Returns the first of the objects found (an object or a bucket of objects).
+         * 
+         * @param found  the object or bucket found (null = none)
+         * @return  the first object found (null = none)
+         */
+        @SuppressWarnings("unchecked")
+        private T first(Object found) {
+            return (T)((found instanceof Bucket) ? ((Bucket<T>)found).objects.get(0) : found);
+        }
+        
+        /**
+         * Adds to a list the objects found (an object or a bucket of objects).
+         * 
+         * @param found  the object or bucket found (null = none)
+         * @param result  the list to which the objects are added
+         */
+        @SuppressWarnings("unchecked")
+        private void collect(Object found, List<T> result) {
+            if (found instanceof Bucket) result.addAll(((Bucket<T>)found).objects);
+            else if (found != null) result.add((T)found);
+        }
+        
+        /**
+         * Clears the index.
+         */
+        private void clear() {
+            values.clear();
+            nulls = null;
+            keys.clear();
+        }
+        
+        /**
+         * Returns the value of the field for an object.
+         * 
+         * @param object  the object
+         * @return  the value of the field (null in case of error)
+         */
+        private Object getValue(T object) {
+            if (object == null) return null;
+            
+            try {
+                return FieldAccessors.getGetter(object.getClass(), getter).get(object);
+            } catch (Exception ex) {
+                Logger.getLogger(IndexedDataRecordManager.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+                return null;
+            }
+        }
+    }
+    
+    /** The data manager providing the objects */
+    private final DataRecordManager<T> source;
+    
+    /** The objects of the source, by position */
+    private final ArrayList<T> rows = new ArrayList<>();
+    
+    /** The index of the positions of the objects */
+    private final IdentityIndex<T> identityIndex = new IdentityIndex<>(rows);
+    
+    /** The indexes, by name of the getter method */
+    private final HashMap<String, Index> indexes = new HashMap<>();
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+
+    
+    /**
+     * Instantiates a data manager indexing the objects of the given one.
+     * 
+     * @param source  the data manager providing the objects
+     */
+    public IndexedDataRecordManager(DataRecordManager<T> source) {
+        this.source = source;
+        reload();
+    }
+    
+    /**
+     * Returns the data manager providing the objects.
+     * 
+     * @return  the data manager providing the objects
+     */
+    public DataRecordManager<T> getSource() {
+        return source;
+    }
+    
+    /**
+     * Adds (or replaces) a hash index on a field, supporting lookups by equality.
+     * 
+     * @param getter  the name of the getter method of the field
+     */
+    public void addHashIndex(String getter) {
+        addIndex(new Index(getter, false));
+    }
+    
+    /**
+     * Adds (or replaces) a range index on a field, supporting lookups by equality and by range.
+     * The values of the field must be Comparable (null values are found by equality only).
+     * 
+     * @param getter  the name of the getter method of the field
+     */
+    public void addRangeIndex(String getter) {
+        addIndex(new Index(getter, true));
+    }
+    
+    /**
+     * Removes the index on a field.
+     * 
+     * @param getter  the name of the getter method of the field
+     */
+    public void removeIndex(String getter) {
+        indexes.remove(getter);
+    }
+    
+    /**
+     * Returns true if there is an index on a field.
+     * 
+     * @param getter  the name of the getter method of the field
+     * @return  true if there is an index on the field
+     */
+    public boolean hasIndex(String getter) {
+        return indexes.containsKey(getter);
+    }
+    
+    /**
+     * Returns an object with the given value of an indexed field.
+     * 
+     * @param getter  the name of the getter method of the field
+     * @param value  the value of the field
+     * @return  an object with the given value (null = not found)
+     */
+    public T find(String getter, Object value) {
+        Index index = getIndex(getter);
+        return index.first(index.lookup(value));
+    }
+    
+    /**
+     * Returns all the objects with the given value of an indexed field.
+     * 
+     * @param getter  the name of the getter method of the field
+     * @param value  the value of the field
+     * @return  the objects with the given value (in no particular order)
+     */
+    public List<T> findAll(String getter, Object value) {
+        Index index = getIndex(getter);
+        Object found = index.lookup(value);
+        if (found == null) return Collections.emptyList();
+        
+        ArrayList<T> result = new ArrayList<>();
+        index.collect(found, result);
+        return result;
+    }
+    
+    /**
+     * Returns all the objects with a value of an indexed field in the given range
+     * (the field must have a range index; objects with a null value are not included).
+     * 
+     * @param getter  the name of the getter method of the field
+     * @param from  the lower bound (null = unbounded)
+     * @param fromInclusive  true if the lower bound is included
+     * @param to  the upper bound (null = unbounded)
+     * @param toInclusive  true if the upper bound is included
+     * @return  the objects with a value in the given range (in order of value)
+     */
+    public List<T> findRange(String getter, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        Index index = getIndex(getter);
+        if (!(index.values instanceof TreeMap)) throw new IllegalArgumentException("No range index for method: " + getter);
+        
+        NavigableMap<Object, Object> range = (NavigableMap<Object, Object>)index.values;
+        if (from != null && to != null) range = range.subMap(from, fromInclusive, to, toInclusive);
+        else if (from != null) range = range.tailMap(from, fromInclusive);
+        else if (to != null) range = range.headMap(to, toInclusive);
+        
+        ArrayList<T> result = new ArrayList<>();
+        for (Object found : range.values()) index.collect(found, result);
+        
+        return result;
+    }
+    
+    /**
+     * Returns the position of an object with the given value of an indexed field.
+     * 
+     * @param getter  the name of the getter method of the field
+     * @param value  the value of the field
+     * @return  the position of an object with the given value (-1 = not found)
+     */
+    public int indexOf(String getter, Object value) {
+        T found = find(getter, value);
+        return (found == null) ? -1 : identityIndex.indexOf(found);
+    }
+
+    /**
+     * Returns the object at position index in the list.
+     * 
+     * @param index  the index of the object to be returned.
+     * @return  the object at position index in the list
+     */
+    @Override
+    public T get(int index) {
+        return source.get(index);
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found).
+     * 
+     * @param object  the object for which the position in the list needs to be returned.
+     * @return  the position of the given object in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(T object) {
+        int index = identityIndex.indexOf(object);
+        return (index >= 0) ? index : source.getIndex(object);
+    }
+
+    /**
+     * Returns the number of objects in the list handled by this data manager.
+     * 
+     * @return  the number of objects in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    /**
+     * Returns true if the object at position index in the list has been loaded.
+     * 
+     * @param index  the index of the object
+     * @return  true if the object at position index in the list has been loaded
+     */
+    @Override
+    public boolean isLoaded(int index) {
+        return source.isLoaded(index);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object.
+     * 
+     * @param index  the index of the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        source.delete(index);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        return source.deleteAsync(index);
+    }
+
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return source.getPersister();
+    }
+
+    /**
+     * Returns the value of a field for the object of the given index, using the
+     * getter method specified.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        return source.getField(index, getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        return source.getInt(index, getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        return source.getLong(index, getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        return source.getDouble(index, getter);
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        return source.getBoolean(index, getter);
+    }
+
+    /**
+     * Sets the value of a field for the object of the given index, using the
+     * setter method specified, and updates the indexes.
+     * 
+     * @param index  the index of the object for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        T object = rows.get(index);
+        try {
+            source.setField(index, setter, type, value);
+        } finally {
+            indexes.values().stream().forEach(i -> i.update(object));
+        }
+    }
+
+    /**
+     * Notifies a generic change in the list of objects.
+     * All the objects are indexed again.
+     * 
+     * @param type  the class of the objects in the list
+     */
+    @Override
+    public void listChanged(Class<?> type) {
+        reload();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(type));
+    }
+
+    /**
+     * Notifies the addition of an object to a list (class-specific).
+     *
+     * @param index  the position in the list of the object added
+     * @param type  the class of the object added
+     * @param object  the object added
+     */
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        T obj = source.get(index);
+        rows.add(index, obj);
+        identityIndex.added(index);
+        indexes.values().stream().forEach(i -> i.add(obj));
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectAdded(index, type, object));
+    }
+
+    /**
+     * Notifies the removal of an object from a list (class-specific).
+     *
+     * @param index  the position in the list of the object removed
+     * @param type  the class of the object removed
+     */
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        T obj = rows.remove(index);
+        identityIndex.removed(index, obj);
+        unindex(obj);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectRemoved(index, type));
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        update(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectChanged(index, type, object));
+    }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        ArrayList<T> added = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; ++i) added.add(source.get(i));
+        
+        rows.addAll(first, added);
+        identityIndex.added(first, added.size());
+        for (T obj : added) indexes.values().stream().forEach(i -> i.add(obj));
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsAdded(first, last, type));
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        List<T> removed = rows.subList(first, last + 1);
+        for (T obj : removed) unindex(obj);
+        identityIndex.removed(first, removed.size());
+        removed.clear();
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsRemoved(first, last, type));
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        for (int index : indices) update(index);
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectsChanged(indices, type));
+    }
+
+    /**
+     * Adds a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+    
+    /**
+     * Returns the index on a field.
+     * 
+     * @param getter  the name of the getter method of the field
+     * @return  the index on the field
+     */
+    private Index getIndex(String getter) {
+        Index index = indexes.get(getter);
+        if (index == null) throw new IllegalArgumentException("No index for method: " + getter);
+        return index;
+    }
+    
+    /**
+     * Adds an index, indexing all the objects.
+     * 
+     * @param index  the index to be added
+     */
+    private void addIndex(Index index) {
+        for (T obj : rows) index.add(obj);
+        indexes.put(index.getter, index);
+    }
+    
+    /**
+     * Reloads all the objects from the source and indexes them again.
+     */
+    private void reload() {
+        rows.clear();
+        int n = source.size();
+        rows.ensureCapacity(n);
+        for (int i = 0; i < n; ++i) rows.add(source.get(i));
+        identityIndex.reset(rows);
+        
+        for (Index index : indexes.values()) {
+            index.clear();
+            for (T obj : rows) index.add(obj);
+        }
+    }
+    
+    /**
+     * Updates the object at the given position (possibly replaced) in the indexes.
+     * 
+     * @param position  the position of the object changed
+     */
+    private void update(int position) {
+        T obj = source.get(position);
+        T old = rows.set(position, obj);
+        
+        if (old != obj) {
+            unindex(old);
+            identityIndex.replaced(position);
+            indexes.values().stream().forEach(i -> i.add(obj));
+        } else {
+            indexes.values().stream().forEach(i -> i.update(obj));
+        }
+    }
+    
+    /**
+     * Removes an object from the indexes.
+     * 
+     * @param object  the object to be removed
+     */
+    private void unindex(T object) {
+        if (object == null) return;
+        indexes.values().stream().forEach(i -> i.remove(object));
+    }
+}
@@ -0,0 +1,822 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A persister writing the objects to an append-only journal, made durable with group commit:
+ * the writes requested concurrently are appended together and forced to disk with a single
+ * fsync, so that each store/delete is crash safe without costing an fsync per modification.
+ * <p>
+ * The journal is a directory holding numbered log segments and a snapshot. Each entry holds
+ * the key of an object and its content (as encoded by the {@link Codec}), or marks the deletion
+ * of the object, and is protected by a CRC. When a segment exceeds the maximum size a new one
+ * is started; once enough segments are complete they are compacted in the background into the
+ * snapshot, holding only the last content of the objects not deleted.
+ * <p>
+ * At startup (e.g. in {@link YAJSL.Swing.Application#startup()}) the application calls
+ * {@link #recover(Replayer)} to replay the snapshot and the segments written by the previous
+ * runs, in order; the entries partially written by a crash are ignored.<br>
+ * The DataRecordPersister methods wait for the modification to be durable; the asynchronous
+ * ones return futures completed by the writer thread. Applications should call
+ * {@link #flushAll()} (or close the journals) in their shutdown logic.
+ *
+ * @author Giuseppe Gallo
+ */
+public class JournalPersister implements DataRecordPersister, Closeable {
+    
+    /**
+     * The interface for the classes encoding the objects written to the journal.
+     */
+    public static interface Codec {
+        
+        /**
+         * Returns the key identifying an object in the journal.
+         * 
+         * @param record  the object
+         * @return  the key identifying the object
+         */
+        public String getKey(DataRecord record);
+        
+        /**
+         * Encodes the content of an object.
+         * 
+         * @param record  the object
+         * @return  the content of the object
+         * @throws Exception  in case of any problem
+         */
+        public byte[] encode(DataRecord record) throws Exception;
+    }
+    
+    /**
+     * The interface for the classes applying the entries of the journal at recovery.
+     */
+    public static interface Replayer {
+        
+        /**
+         * Applies an entry of the journal.
+         * 
+         * @param key  the key of the object
+         * @param data  the content of the object (null = object deleted)
+         * @throws Exception  in case of any problem
+         */
+        public void replay(String key, byte[] data) throws Exception;
+    }
+    
+    /**
+     * An entry to be written to the journal.
+     */
+    private static class Entry {
+        
+        /** The operation */
+        private final byte op;
+        
+        /** The key of the object */
+        private final byte[] key;
+        
+        /** The content of the object */
+        private final byte[] data;
+        
+        /** The future completed when the entry is durable */
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        /**
+         * Allocates a new entry.
+         * 
+         * @param op  the operation
+         * @param key  the key of the object
+         * @param data  the content of the object
+         */
+        private Entry(byte op, byte[] key, byte[] data) {
+            this.op = op;
+            this.key = key;
+            this.data = data;
+        }
+    }
+    
+    /** The default maximum size of the segments */
+    public final static long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    
+    /** The default number of complete segments triggering a compaction */
+    public final static int DEFAULT_COMPACTION_SEGMENTS = 8;
+    
+    /** The journals currently open */
+    private final static Set<JournalPersister> JOURNALS = Collections.newSetFromMap(new WeakHashMap<>());
+    
+    /** The operations of the entries */
+    private final static byte OP_STORE = 1, OP_DELETE = 2, OP_SYNC = 0, OP_CLOSE = -1;
+    
+    /** The identifier of the snapshots */
+    private final static int SNAPSHOT_MAGIC = 0x59414A53;
+    
+    /** The name of the snapshot */
+    private final static String SNAPSHOT = "snapshot.dat";
+    
+    /** The extension of the segments */
+    private final static String SEGMENT_EXTENSION = ".log";
+    
+    /** The maximum size of an entry */
+    private final static int MAX_ENTRY_SIZE = Integer.MAX_VALUE - 64;
+    
+    /** The maximum number of entries written together */
+    private final static int MAX_BATCH = 4096;
+    
+    
+    /** The directory of the journal */
+    private final Path directory;
+    
+    /** The codec of the objects */
+    private final Codec codec;
+    
+    /** The maximum size of the segments */
+    private final long segmentSize;
+    
+    /** The number of complete segments triggering a compaction */
+    private final int compactionSegments;
+    
+    /** The entries waiting to be written */
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    
+    /** The thread writing the entries */
+    private final Thread writer;
+    
+    /** The executor compacting the segments */
+    private final ExecutorService compactor;
+    
+    /** True while a compaction is requested or running */
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    
+    /** The number of the first segment written by this journal (the previous ones are replayed at recovery) */
+    private final long firstSegment;
+    
+    /** The number of the segment being written */
+    private volatile long segment;
+    
+    /** The channel of the segment being written */
+    private FileChannel channel;
+    
+    /** True if the journal has been closed */
+    private volatile boolean closed = false;
+    
+    /** The statistics: entries appended, fsync calls, bytes written, compactions */
+    private final AtomicLong appends = new AtomicLong(), syncs = new AtomicLong(), bytes = new AtomicLong(), compactions = new AtomicLong();
+    
+    
+    /**
+     * Opens (or creates) a journal using the default segment size and compaction threshold.
+     * 
+     * @param directory  the directory of the journal
+     * @param codec  the codec of the objects
+     * @throws IOException  in case of any problem
+     */
+    public JournalPersister(Path directory, Codec codec) throws IOException {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_SEGMENTS);
+    }
+    
+    /**
+     * Opens (or creates) a journal.
+     * 
+     * @param directory  the directory of the journal
+     * @param codec  the codec of the objects
+     * @param segmentSize  the maximum size of the segments
+     * @param compactionSegments  the number of complete segments triggering a compaction (0 = only on request)
+     * @throws IOException  in case of any problem
+     */
+    public JournalPersister(Path directory, Codec codec, long segmentSize, int compactionSegments) throws IOException {
+        if (codec == null) throw new IllegalArgumentException("Null codec");
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.compactionSegments = compactionSegments;
+        
+        Files.createDirectories(directory);
+        Long last = listSegments(Long.MAX_VALUE).keySet().stream().reduce(Long::max).orElse(readSnapshotCoverage());
+        firstSegment = last + 1;
+        segment = firstSegment;
+        channel = openSegment(segment);
+        
+        compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Journal compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        
+        writer = new Thread(this::write, "Journal writer");
+        writer.setDaemon(true);
+        writer.start();
+        
+        synchronized (JOURNALS) {
+            JOURNALS.add(this);
+        }
+    }
+    
+    /**
+     * Returns the directory of the journal.
+     * 
+     * @return  the directory of the journal
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Replays the snapshot and the segments written before this journal was opened, in order.
+     * The entries partially written (e.g. because of a crash) or corrupted are skipped.
+     * 
+     * @param replayer  the object applying the entries
+     * @return  the number of entries replayed
+     * @throws Exception  in case of any problem
+     */
+    public long recover(Replayer replayer) throws Exception {
+        long count = 0;
+        
+        Path snapshot = directory.resolve(SNAPSHOT);
+        long covered = 0;
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = openInput(snapshot)) {
+                covered = readSnapshotHeader(in, snapshot);
+                count += replay(in, snapshot, replayer);
+            }
+        }
+        
+        for (Map.Entry<Long, Path> s : listSegments(firstSegment).entrySet()) {
+            if (s.getKey() <= covered) continue;
+            try (DataInputStream in = openInput(s.getValue())) {
+                count += replay(in, s.getValue(), replayer);
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Appends the content of the given object to the journal.
+     * 
+     * @param record  the object to be stored
+     * @return  the future completed (on the writer thread) when the entry is durable
+     */
+    public CompletableFuture<Void> storeAsync(DataRecord record) {
+        try {
+            return append(OP_STORE, codec.getKey(record), codec.encode(record));
+        } catch (Exception ex) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+    
+    /**
+     * Appends the deletion of the given object to the journal.
+     * 
+     * @param record  the object to be deleted
+     * @return  the future completed (on the writer thread) when the entry is durable
+     */
+    public CompletableFuture<Void> deleteAsync(DataRecord record) {
+        return append(OP_DELETE, codec.getKey(record), null);
+    }
+
+    /**
+     * Appends the content of the given object to the journal, waiting for it to be durable.
+     * 
+     * @param record  the object to be stored
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void store(DataRecord record) throws Exception {
+        await(storeAsync(record));
+    }
+
+    /**
+     * Appends the deletion of the given object to the journal, waiting for it to be durable.
+     * 
+     * @param record  the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(DataRecord record) throws Exception {
+        await(deleteAsync(record));
+    }
+    
+    /**
+     * Waits for all the entries appended so far to be durable.
+     * 
+     * @throws IOException  in case of any problem
+     */
+    public void flush() throws IOException {
+        if (closed) return;
+        
+        try {
+            await(append(OP_SYNC, null, null));
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Waits for all the entries appended so far to all the journals to be durable.
+     */
+    public static void flushAll() {
+        ArrayList<JournalPersister> journals;
+        synchronized (JOURNALS) {
+            journals = new ArrayList<>(JOURNALS);
+        }
+        
+        journals.stream().forEach(j -> {
+            try {
+                j.flush();
+            } catch (IOException ex) {
+                Logger.getLogger(JournalPersister.class.getName()).log(Level.SEVERE, "Error flushing journal: " + j.directory, ex);
+            }
+        });
+    }
+    
+    /**
+     * Requests the compaction of the complete segments into the snapshot, in background.
+     * 
+     * @return  the future completed when the compaction is done
+     */
+    public CompletableFuture<Void> compact() {
+        compacting.set(true);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                doCompact();
+            } catch (IOException ex) {
+                Logger.getLogger(JournalPersister.class.getName()).log(Level.SEVERE, "Error compacting journal: " + directory, ex);
+                throw new IllegalStateException(ex);
+            } finally {
+                compacting.set(false);
+            }
+        }, compactor);
+    }
+    
+    /**
+     * Waits for all the entries appended so far to be durable, then closes the journal.
+     * 
+     * @throws IOException  in case of any problem
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        
+        Entry entry = new Entry(OP_CLOSE, null, null);
+        queue.add(entry);
+        closed = true;
+        try {
+            await(entry.future);
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        } finally {
+            compactor.shutdown();
+            synchronized (JOURNALS) {
+                JOURNALS.remove(this);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of entries appended.
+     * 
+     * @return  the number of entries appended
+     */
+    public long getAppendCount() {
+        return appends.get();
+    }
+    
+    /**
+     * Returns the number of times the segments have been forced to disk
+     * (the ratio with the entries appended is the average size of the group commits).
+     * 
+     * @return  the number of times the segments have been forced to disk
+     */
+    public long getSyncCount() {
+        return syncs.get();
+    }
+    
+    /**
+     * Returns the number of bytes written to the segments.
+     * 
+     * @return  the number of bytes written to the segments
+     */
+    public long getBytesWritten() {
+        return bytes.get();
+    }
+    
+    /**
+     * Returns the number of compactions done.
+     * 
+     * @return  the number of compactions done
+     */
+    public long getCompactionCount() {
+        return compactions.get();
+    }
+    
+    /**
+     * Queues an entry to be written.
+     * 
+     * @param op  the operation
+     * @param key  the key of the object
+     * @param data  the content of the object
+     * @return  the future completed when the entry is durable
+     */
+    private CompletableFuture<Void> append(byte op, String key, byte[] data) {
+        if (closed) throw new IllegalStateException("Journal closed: " + directory);
+        
+        Entry entry = new Entry(op, (key == null) ? null : key.getBytes(StandardCharsets.UTF_8), data);
+        queue.add(entry);
+        return entry.future;
+    }
+    
+    /**
+     * Writes the queued entries, in batches forced to disk together (run by the writer thread).
+     */
+    private void write() {
+        ArrayList<Entry> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        CRC32 crc = new CRC32();
+        boolean close = false;
+        
+        while (!close) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            
+            try {
+                ((Buffer)buffer).clear();
+                int count = 0;
+                for (Entry e : batch) {
+                    if (e.op == OP_CLOSE) close = true;
+                    if (e.op != OP_STORE && e.op != OP_DELETE) continue;
+                    
+                    int size = 8 + entrySize(e.key, e.data);
+                    if (buffer.remaining() < size) {
+                        if (buffer.position() > 0) flushBuffer(buffer);
+                        if (buffer.capacity() < size) buffer = ByteBuffer.allocate(size);
+                    }
+                    putEntry(buffer, crc, e.op, e.key, e.data);
+                    ++count;
+                }
+                
+                if (buffer.position() > 0) flushBuffer(buffer);
+                if (count > 0 || close) {
+                    channel.force(false);
+                    syncs.incrementAndGet();
+                    appends.addAndGet(count);
+                }
+                
+                if (close) closeSegment();
+                else if (channel.size() >= segmentSize) rollSegment();
+                
+                batch.stream().forEach(e -> e.future.complete(null));
+            } catch (IOException | RuntimeException ex) {
+                Logger.getLogger(JournalPersister.class.getName()).log(Level.SEVERE, "Error writing journal: " + directory, ex);
+                batch.stream().forEach(e -> e.future.completeExceptionally(ex));
+            }
+            
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Writes the content of the buffer to the segment being written.
+     * 
+     * @param buffer  the buffer
+     * @throws IOException  in case of any problem
+     */
+    private void flushBuffer(ByteBuffer buffer) throws IOException {
+        // Called through Buffer, since the ByteBuffer overrides of Java 9+ do not exist on Java 8
+        ((Buffer)buffer).flip();
+        bytes.addAndGet(buffer.remaining());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        ((Buffer)buffer).clear();
+    }
+    
+    /**
+     * Completes the segment being written and starts a new one, requesting a compaction if needed.
+     * 
+     * @throws IOException  in case of any problem
+     */
+    private void rollSegment() throws IOException {
+        channel.close();
+        channel = openSegment(segment + 1);
+        ++segment;
+        
+        if (compactionSegments > 0 && !compacting.get() && listSegments(segment).size() >= compactionSegments) compact();
+    }
+    
+    /**
+     * Closes the segment being written, deleting it if empty.
+     * 
+     * @throws IOException  in case of any problem
+     */
+    private void closeSegment() throws IOException {
+        boolean empty = channel.size() == 0;
+        channel.close();
+        if (empty) Files.deleteIfExists(getSegmentPath(segment));
+    }
+    
+    /**
+     * Compacts the complete segments (and the previous snapshot) into a new snapshot (run by the compactor).
+     * 
+     * @throws IOException  in case of any problem
+     */
+    private void doCompact() throws IOException {
+        TreeMap<Long, Path> segments = listSegments(segment);
+        if (segments.isEmpty()) return;
+        
+        LinkedHashMap<String, byte[]> objects = new LinkedHashMap<>();
+        Replayer collector = (key, data) -> {
+            if (data == null) objects.remove(key);
+            else objects.put(key, data);
+        };
+        
+        Path snapshot = directory.resolve(SNAPSHOT);
+        long covered = 0;
+        try {
+            if (Files.exists(snapshot)) {
+                try (DataInputStream in = openInput(snapshot)) {
+                    covered = readSnapshotHeader(in, snapshot);
+                    replay(in, snapshot, collector);
+                }
+            }
+            for (Map.Entry<Long, Path> s : segments.entrySet()) {
+                if (s.getKey() <= covered) continue;
+                try (DataInputStream in = openInput(s.getValue())) {
+                    replay(in, s.getValue(), collector);
+                }
+            }
+        } catch (IOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+        
+        long last = segments.lastKey();
+        Path temp = directory.resolve(SNAPSHOT + ".tmp");
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(last);
+            for (Map.Entry<String, byte[]> o : objects.entrySet()) {
+                byte[] key = o.getKey().getBytes(StandardCharsets.UTF_8);
+                int size = 8 + entrySize(key, o.getValue());
+                if (buffer.remaining() < size) {
+                    ((Buffer)buffer).flip();
+                    while (buffer.hasRemaining()) out.write(buffer);
+                    buffer = ByteBuffer.allocate(Math.max(buffer.capacity(), size));
+                }
+                putEntry(buffer, crc, OP_STORE, key, o.getValue());
+            }
+            ((Buffer)buffer).flip();
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(true);
+        }
+        
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path s : segments.values()) Files.deleteIfExists(s);
+        compactions.incrementAndGet();
+    }
+    
+    /**
+     * Replays the entries of a stream, stopping at the first one partially written or corrupted.
+     * 
+     * @param in  the stream
+     * @param file  the file read
+     * @param replayer  the object applying the entries
+     * @return  the number of entries replayed
+     * @throws Exception  in case of any problem
+     */
+    private static long replay(DataInputStream in, Path file, Replayer replayer) throws Exception {
+        CRC32 crc = new CRC32();
+        byte[] body = new byte[256];
+        long count = 0;
+        
+        while (true) {
+            int size;
+            long checksum;
+            try {
+                size = in.readInt();
+                checksum = in.readInt() & 0xFFFFFFFFL;
+                if (size < 5 || size > MAX_ENTRY_SIZE) throw new EOFException();
+                if (body.length < size) body = new byte[Math.max(size, body.length * 2)];
+                in.readFully(body, 0, size);
+            } catch (EOFException ex) {
+                /* End of the file, or entry partially written */
+                return count;
+            }
+            
+            crc.reset();
+            crc.update(body, 0, size);
+            if (crc.getValue() != checksum) {
+                Logger.getLogger(JournalPersister.class.getName()).log(Level.WARNING, "Corrupted entry in journal: " + file);
+                return count;
+            }
+            
+            ByteBuffer entry = ByteBuffer.wrap(body, 0, size);
+            byte op = entry.get();
+            int keySize = entry.getInt();
+            if (keySize < 0 || keySize > size - 5) {
+                Logger.getLogger(JournalPersister.class.getName()).log(Level.WARNING, "Corrupted entry in journal: " + file);
+                return count;
+            }
+            String key = new String(body, 5, keySize, StandardCharsets.UTF_8);
+            byte[] data = (op == OP_DELETE) ? null : Arrays.copyOfRange(body, 5 + keySize, size);
+            replayer.replay(key, data);
+            ++count;
+        }
+    }
+    
+    /**
+     * Returns the size of the body of an entry.
+     * 
+     * @param key  the key of the object
+     * @param data  the content of the object
+     * @return  the size of the body of the entry
+     */
+    private static int entrySize(byte[] key, byte[] data) {
+        return 5 + key.length + ((data == null) ? 0 : data.length);
+    }
+    
+    /**
+     * Writes an entry to a buffer: size, CRC, operation, size of the key, key and content.
+     * 
+     * @param buffer  the buffer
+     * @param crc  the CRC calculator
+     * @param op  the operation
+     * @param key  the key of the object
+     * @param data  the content of the object
+     */
+    private static void putEntry(ByteBuffer buffer, CRC32 crc, byte op, byte[] key, byte[] data) {
+        int start = buffer.position();
+        buffer.putInt(entrySize(key, data)).putInt(0).put(op).putInt(key.length).put(key);
+        if (data != null) buffer.put(data);
+        
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start + 8, buffer.position() - start - 8);
+        buffer.putInt(start + 4, (int)crc.getValue());
+    }
+    
+    /**
+     * Reads the header of the snapshot.
+     * 
+     * @param in  the stream of the snapshot
+     * @param file  the snapshot
+     * @return  the number of the last segment included in the snapshot
+     * @throws IOException  in case the snapshot is not valid
+     */
+    private static long readSnapshotHeader(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a journal snapshot: " + file);
+        return in.readLong();
+    }
+    
+    /**
+     * Returns the number of the last segment included in the snapshot.
+     * 
+     * @return  the number of the last segment included in the snapshot (0 = no snapshot)
+     * @throws IOException  in case of any problem
+     */
+    private long readSnapshotCoverage() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (!Files.exists(snapshot)) return 0;
+        
+        try (DataInputStream in = openInput(snapshot)) {
+            return readSnapshotHeader(in, snapshot);
+        }
+    }
+    
+    /**
+     * Returns the segments in the directory preceding the given one, by number.
+     * 
+     * @param before  the number of the first segment excluded
+     * @return  the segments in the directory preceding the given one
+     * @throws IOException  in case of any problem
+     */
+    private TreeMap<Long, Path> listSegments(long before) throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    long n = Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+                    if (n < before) segments.put(n, f);
+                } catch (NumberFormatException ex) {
+                    /* Not a segment */
+                }
+            }
+        }
+        return segments;
+    }
+    
+    /**
+     * Returns the path of a segment.
+     * 
+     * @param n  the number of the segment
+     * @return  the path of the segment
+     */
+    private Path getSegmentPath(long n) {
+        return directory.resolve(String.format("%016d", n) + SEGMENT_EXTENSION);
+    }
+    
+    /**
+     * Opens a new segment for writing.
+     * 
+     * @param n  the number of the segment
+     * @return  the channel of the segment
+     * @throws IOException  in case of any problem
+     */
+    private FileChannel openSegment(long n) throws IOException {
+        return FileChannel.open(getSegmentPath(n), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+    
+    /**
+     * Opens a file of the journal for reading.
+     * 
+     * @param file  the file
+     * @return  the stream
+     * @throws IOException  in case of any problem
+     */
+    private static DataInputStream openInput(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+    
+    /**
+     * Waits for the completion of a future, rethrowing its exception.
+     * 
+     * @param future  the future
+     * @throws Exception  in case of any problem
+     */
+    private static void await(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception)cause;
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A view loading the children of its parent lazily, in background, through a {@link ChildLoader}
+ * rather than through ViewParent.getChildren.
+ * <p>
+ * The children are loaded only when the parent is set (e.g. when it is selected) or prefetched
+ * (e.g. when a level is expanded), and are delivered on the event dispatching thread: while
+ * the children of a new parent are being loaded the view is empty, while the children of the
+ * same parent are being reloaded the view keeps showing the previous ones. The sets of children
+ * already loaded are kept in a bounded cache (least recently used first out) keyed by parent, so
+ * that going back to a recent parent is immediate.
+ * <p>
+ * Several levels (e.g. master, detail and sub-detail) are obtained by chaining lazy views, each one
+ * having as parent the object selected in the level above: each level only holds the children of
+ * its current parent and of the parents in its cache.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @param <P>  the type of the parent objects
+ * @param <C>  the type of data handled by this view
+ * @author Giuseppe Gallo
+ */
+public class LazyView<P extends View.ViewParent<?>, C extends View.ViewChild> extends View<P, C> {
+    
+    /**
+     * The loader of the children of the parents.
+     *
+     * @param <P>  the type of the parent objects
+     * @param <C>  the type of the children
+     */
+    public static interface ChildLoader<P, C> {
+        
+        /**
+         * Loads the children of a parent (called in background).
+         * 
+         * @param parent  the parent
+         * @return  the children of the parent
+         * @throws Exception  in case of any problem
+         */
+        public Collection<C> loadChildren(P parent) throws Exception;
+    }
+    
+    /** The default maximum number of parents whose children are cached */
+    public final static int DEFAULT_CACHE_SIZE = 16;
+    
+    /** The loader of the children */
+    private final ChildLoader<P, C> loader;
+    
+    /** The executor used for loading the children */
+    private final Executor executor;
+    
+    /** The children already loaded, by parent (in order of access) */
+    private final LinkedHashMap<Object, List<C>> cache;
+    
+    /** The generation of the loading requested for each parent being loaded */
+    private final HashMap<Object, Integer> loading = new HashMap<>();
+    
+    /** The generation of the next loading requested (for discarding stale children) */
+    private int generation = 0;
+    
+    /** The parent whose children are currently shown (null = none) */
+    private Object shownParent = null;
+
+    
+    /**
+     * Allocates a new LazyView instance with the default cache size and executor.
+     * 
+     * @param type  the type of objects handled by this view
+     * @param loader  the loader of the children
+     */
+    public LazyView(Class<?> type, ChildLoader<P, C> loader) {
+        this(type, loader, DEFAULT_CACHE_SIZE, null);
+    }
+    
+    /**
+     * Allocates a new LazyView instance.
+     * 
+     * @param type  the type of objects handled by this view
+     * @param loader  the loader of the children
+     * @param cacheSize  the maximum number of parents whose children are cached
+     * @param executor  the executor used for loading the children (null = a background thread)
+     */
+    public LazyView(Class<?> type, ChildLoader<P, C> loader, int cacheSize, Executor executor) {
+        super(type);
+        if (cacheSize < 1) throw new IllegalArgumentException("Invalid cache size: " + cacheSize);
+        
+        this.loader = loader;
+        this.executor = (executor != null) ? executor : newDefaultExecutor();
+        cache = new LinkedHashMap<Object, List<C>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, List<C>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+    
+    /**
+     * Allocates the default executor, loading the children in a single background thread
+     * ended when idle, so that no thread is left behind once this instance is discarded.
+     * 
+     * @return  the default executor
+     */
+    private static ExecutorService newDefaultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "LazyView");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Requests the loading in background of the children of a parent, unless already
+     * loaded or being loaded, without showing them (e.g. when a level is expanded).
+     * 
+     * @param parent  the parent
+     */
+    public void prefetch(P parent) {
+        if (parent != null && !cache.containsKey(parent)) request(parent);
+    }
+    
+    /**
+     * Returns true if the children of the given parent have been loaded (and are still cached).
+     * 
+     * @param parent  the parent
+     * @return  true if the children of the given parent have been loaded
+     */
+    public boolean isLoaded(P parent) {
+        return cache.containsKey(parent);
+    }
+    
+    /**
+     * Returns true if the children of the current parent are being loaded.
+     * 
+     * @return  true if the children of the current parent are being loaded
+     */
+    public boolean isLoading() {
+        return parent != null && loading.containsKey(parent);
+    }
+    
+    /**
+     * Discards the children of a parent, which will be loaded again when needed
+     * (immediately if it is the current parent).
+     * 
+     * @param parent  the parent
+     */
+    public void invalidate(P parent) {
+        cache.remove(parent);
+        loading.remove(parent);
+        if (parent != null && parent == this.parent) reloadChildren();
+    }
+    
+    /**
+     * Discards the children of all the parents, which will be loaded again when needed
+     * (immediately for the current parent).
+     */
+    public void invalidateAll() {
+        cache.clear();
+        loading.clear();
+        if (parent != null) reloadChildren();
+    }
+
+    /**
+     * Notifies the change of an object in a list (class-specific).<p>
+     * A change in the parent discards its children, which are loaded again.
+     *
+     * @param index  the position in the list of the object changed
+     * @param type  the class of the object changed
+     * @param object  the object changed
+     */
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        if (object != null && object == parent) {
+            cache.remove(parent);
+            loading.remove(parent);
+        }
+        
+        super.objectChanged(index, type, object);
+    }
+
+    /**
+     * Shows the children of the current parent if already loaded, otherwise requests
+     * their loading (keeping the children shown if they belong to the same parent).
+     */
+    @Override
+    protected void reloadChildren() {
+        if (parent != null && !cache.containsKey(parent)) {
+            request(getParent());
+            if (shownParent == parent) return;
+        }
+        
+        shownParent = parent;
+        super.reloadChildren();
+    }
+
+    /**
+     * Returns the children of the parent, to be shown by this view.
+     * 
+     * @return  the children of the parent if loaded, an empty list otherwise (null = no parent)
+     */
+    @Override
+    protected Collection<C> getChildren() {
+        if (parent == null) return null;
+        
+        List<C> children = cache.get(parent);
+        return (children != null) ? children : Collections.emptyList();
+    }
+    
+    /**
+     * Requests the loading in background of the children of a parent, unless already requested.
+     * 
+     * @param p  the parent
+     */
+    private void request(P p) {
+        if (loading.containsKey(p)) return;
+        
+        final int gen = ++generation;
+        loading.put(p, gen);
+        
+        executor.execute(() -> {
+            try {
+                Collection<C> children = loader.loadChildren(p);
+                List<C> list = (children == null) ? new ArrayList<>() : new ArrayList<>(children);
+                EventQueue.invokeLater(() -> childrenLoaded(gen, p, list));
+            } catch (Exception ex) {
+                Logger.getLogger(LazyView.class.getName()).log(Level.SEVERE, "Error loading children of " + p, ex);
+                EventQueue.invokeLater(() -> {
+                    Integer g = loading.get(p);
+                    if (g != null && g == gen) loading.remove(p);
+                });
+            }
+        });
+    }
+    
+    /**
+     * Stores the children just loaded and shows them if they belong to the current parent.
+     * 
+     * @param gen  the generation of the loading
+     * @param p  the parent
+     * @param children  the children loaded
+     */
+    private void childrenLoaded(int gen, P p, List<C> children) {
+        Integer g = loading.get(p);
+        if (g == null || g != gen) return;
+        
+        loading.remove(p);
+        cache.put(p, children);
+        
+        if (p == parent) {
+            shownParent = parent;
+            super.reloadChildren();
+        }
+    }
+}
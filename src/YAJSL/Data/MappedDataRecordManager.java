@@ -0,0 +1,1012 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+/**
+ * A data manager holding its records in a memory-mapped file, with a fixed layout
+ * declared by a {@link RecordLayout}.
+ * <p>
+ * The file is made of a header followed by the records, each one using the same number
+ * of bytes; it is mapped in segments (of at most 1 GB) only when accessed, so that opening
+ * a file is immediate and uses little heap whatever its size. The records are materialized
+ * on access as flyweights ({@link Record}), only referring to their position in the file:
+ * their fields are read from and written to the file in place. The deleted records are
+ * chained in a free list (in order of position) and reused by the next additions, the last
+ * one first. Each position has a generation, incremented when its record is deleted, so that
+ * a flyweight of a deleted record cannot access the record later added in its place.
+ * <p>
+ * The fields are accessed by the DataRecordManager methods using as getter and setter names
+ * either the names of the fields or the usual method names (e.g. "getName", "isActive" and
+ * "setName" for the fields "name" and "active"), so that the records can be shown by the
+ * usual components. The changes made through this data manager and its records (added,
+ * deleted, set, stored) are notified to its listeners.<br>
+ * The modifications are written to disk by the operating system; {@link #flush()} (or
+ * storing the records with sync on store enabled) forces them to disk.<br>
+ * This class is not thread safe and is meant to be used on the event dispatching thread.
+ *
+ * @author Giuseppe Gallo
+ */
+public class MappedDataRecordManager implements DataRecordManager<MappedDataRecordManager.Record>, Closeable {
+    
+    /**
+     * A record of the file, referring to its position in the file (flyweight).
+     * The fields are read from and written to the file in place; accessing them once the
+     * record has been deleted throws an IllegalStateException.
+     */
+    public final class Record implements DataRecord {
+        
+        /** The position of the record in the file */
+        private final long slot;
+        
+        /** The generation of the position when the record was materialized */
+        private final int generation;
+        
+        /**
+         * Allocates a new record.
+         * 
+         * @param slot  the position of the record in the file
+         */
+        private Record(long slot) {
+            this.slot = slot;
+            generation = getGeneration(slot);
+        }
+        
+        /**
+         * Returns the position of the record in the file (stable until the record is deleted).
+         * 
+         * @return  the position of the record in the file
+         */
+        public long getSlot() {
+            return slot;
+        }
+        
+        /**
+         * Returns true if the record has been deleted.
+         * 
+         * @return  true if the record has been deleted
+         */
+        public boolean isDeleted() {
+            return !isCurrent();
+        }
+        
+        /**
+         * Returns the value of an int field.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public int getInt(String field) {
+            return (int)readLong(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Returns the value of a long field.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public long getLong(String field) {
+            return readLong(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Returns the value of a double field.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public double getDouble(String field) {
+            return readDouble(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Returns the value of a boolean field.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public boolean getBoolean(String field) {
+            return readBoolean(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Returns the value of a String field.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public String getString(String field) {
+            return readString(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Returns the value of a field, as an object.
+         * 
+         * @param field  the name of the field
+         * @return  the value of the field
+         */
+        public Object get(String field) {
+            return read(checked(), getLayoutField(field));
+        }
+        
+        /**
+         * Sets the value of an int field.
+         * 
+         * @param field  the name of the field
+         * @param value  the value of the field
+         */
+        public void setInt(String field, int value) {
+            write(checked(), getLayoutField(field), value);
+        }
+        
+        /**
+         * Sets the value of a long field.
+         * 
+         * @param field  the name of the field
+         * @param value  the value of the field
+         */
+        public void setLong(String field, long value) {
+            write(checked(), getLayoutField(field), value);
+        }
+        
+        /**
+         * Sets the value of a double field.
+         * 
+         * @param field  the name of the field
+         * @param value  the value of the field
+         */
+        public void setDouble(String field, double value) {
+            write(checked(), getLayoutField(field), value);
+        }
+        
+        /**
+         * Sets the value of a boolean field.
+         * 
+         * @param field  the name of the field
+         * @param value  the value of the field
+         */
+        public void setBoolean(String field, boolean value) {
+            write(checked(), getLayoutField(field), value);
+        }
+        
+        /**
+         * Sets the value of a field (of any type).
+         * 
+         * @param field  the name of the field
+         * @param value  the value of the field
+         */
+        public void set(String field, Object value) {
+            write(checked(), getLayoutField(field), value);
+        }
+
+        /**
+         * Notifies the change of the record, whose fields have already been written in place,
+         * forcing it to disk if sync on store is enabled.
+         */
+        @Override
+        public void store() {
+            if (isCurrent()) stored(slot);
+        }
+
+        /**
+         * Deletes the record, releasing its position in the file.
+         */
+        @Override
+        public void delete() {
+            if (!isCurrent()) return;
+            
+            int index = getPosition(slot);
+            release(slot);
+            notifyRemoved(index);
+        }
+        
+        /**
+         * Returns true if the record is still in use (its position has not been released since).
+         * 
+         * @return  true if the record is still in use
+         */
+        private boolean isCurrent() {
+            return isLive(slot) && getGeneration(slot) == generation;
+        }
+        
+        /**
+         * Returns the position of the record in the file, checking that it is still in use.
+         * 
+         * @return  the position of the record in the file
+         */
+        private long checked() {
+            if (!isCurrent()) throw new IllegalStateException("Record deleted: " + slot);
+            return slot;
+        }
+        
+        /**
+         * Returns the data manager holding the record.
+         * 
+         * @return  the data manager holding the record
+         */
+        private MappedDataRecordManager getManager() {
+            return MappedDataRecordManager.this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Record) && ((Record)obj).slot == slot && ((Record)obj).generation == generation
+                    && ((Record)obj).getManager() == getManager();
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(slot);
+        }
+
+        @Override
+        public String toString() {
+            return "Record[" + slot + "]";
+        }
+    }
+    
+    /** The identifier of the files */
+    private final static int MAGIC = 0x59414D44;
+    
+    /** The version of the format of the files */
+    private final static int VERSION = 2;
+    
+    /** The size of the header of the files */
+    private final static int HEADER_SIZE = 64;
+    
+    /** The offsets of the fields of the header */
+    private final static int H_MAGIC = 0, H_VERSION = 4, H_RECORD_SIZE = 8, H_SIGNATURE = 12,
+            H_CAPACITY = 16, H_HIGH_WATER = 24, H_FREE_HEAD = 32, H_FREE_COUNT = 40;
+    
+    /** The offset of the generation in the header of the records */
+    private final static int R_GENERATION = 4;
+    
+    /** The maximum size of the segments mapped */
+    private final static long SEGMENT_BYTES = 1L << 30;
+    
+    /** The minimum number of records allocated in the file */
+    private final static long MIN_CAPACITY = 1024;
+    
+    /** The length marking a null String */
+    private final static int NULL_STRING = 0xFFFF;
+    
+    /** The channel of the file */
+    private final FileChannel channel;
+    
+    /** The layout of the records */
+    private final RecordLayout layout;
+    
+    /** The number of bytes used by each record */
+    private final int recordSize;
+    
+    /** The number of records per segment */
+    private final long recordsPerSegment;
+    
+    /** The header of the file */
+    private final MappedByteBuffer header;
+    
+    /** The segments of the file already mapped (null = not mapped) */
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+    
+    /** The number of records allocated in the file */
+    private long capacity;
+    
+    /** The number of records used so far (in use or free) */
+    private long highWater;
+    
+    /** The positions of the free records, in ascending order */
+    private long[] free = new long[16];
+    
+    /** The number of free records */
+    private int freeCount = 0;
+    
+    /** The fields, by name of field, getter and setter */
+    private final HashMap<String, RecordLayout.Field> accessors = new HashMap<>();
+    
+    /** The encoder of the String fields */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    
+    /** The decoder of the String fields */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    
+    /** If true, the records are forced to disk when stored */
+    private boolean syncOnStore = false;
+    
+    /** True if the file has been closed */
+    private boolean closed = false;
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+
+    
+    /**
+     * Opens (or creates) a file of records with the given layout.
+     * 
+     * @param file  the file
+     * @param layout  the layout of the records
+     * @throws IOException  in case the file cannot be opened, or does not match the layout
+     */
+    public MappedDataRecordManager(Path file, RecordLayout layout) throws IOException {
+        this.layout = layout;
+        recordSize = layout.getRecordSize();
+        recordsPerSegment = Math.max(1, SEGMENT_BYTES / recordSize);
+        
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            boolean created = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            
+            if (created) {
+                header.putInt(H_MAGIC, MAGIC);
+                header.putInt(H_VERSION, VERSION);
+                header.putInt(H_RECORD_SIZE, recordSize);
+                header.putInt(H_SIGNATURE, layout.getSignature());
+                header.putLong(H_FREE_HEAD, -1);
+                writeHeader();
+            } else if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a record file: " + file);
+            } else if (header.getInt(H_RECORD_SIZE) != recordSize || header.getInt(H_SIGNATURE) != layout.getSignature()) {
+                throw new IOException("The file does not match the layout: " + file);
+            }
+            
+            capacity = header.getLong(H_CAPACITY);
+            highWater = header.getLong(H_HIGH_WATER);
+            loadFreeList(header.getLong(H_FREE_HEAD), (int)header.getLong(H_FREE_COUNT));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        
+        for (RecordLayout.Field f : layout.getFields()) {
+            String name = f.getName();
+            String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            accessors.put(name, f);
+            accessors.put("get" + suffix, f);
+            accessors.put("set" + suffix, f);
+            if (f.getType() == RecordLayout.Type.BOOLEAN) accessors.put("is" + suffix, f);
+        }
+    }
+    
+    /**
+     * Returns the layout of the records.
+     * 
+     * @return  the layout of the records
+     */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Sets whether the records are forced to disk when stored.
+     * 
+     * @param sync  if true, the records are forced to disk when stored
+     */
+    public void setSyncOnStore(boolean sync) {
+        syncOnStore = sync;
+    }
+    
+    /**
+     * Returns true if the records are forced to disk when stored.
+     * 
+     * @return  true if the records are forced to disk when stored
+     */
+    public boolean isSyncOnStore() {
+        return syncOnStore;
+    }
+    
+    /**
+     * Adds a new record (with all fields set to zero, false or null) at the first free position
+     * in the file, and notifies its addition to the listeners.
+     * 
+     * @return  the record added
+     */
+    public Record add() {
+        long slot = allocate();
+        Record record = new Record(slot);
+        
+        int index = getPosition(slot);
+        if (listeners != null) listeners.stream().forEach(l -> l.objectAdded(index, Record.class, record));
+        return record;
+    }
+    
+    /**
+     * Forces all the modifications to disk.
+     */
+    public void flush() {
+        checkOpen();
+        header.force();
+        segments.stream().filter(s -> s != null).forEach(s -> s.force());
+    }
+    
+    /**
+     * Forces all the modifications to disk and closes the file.
+     * 
+     * @throws IOException  in case of any problem
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        
+        flush();
+        closed = true;
+        segments.clear();
+        channel.close();
+    }
+
+    /**
+     * Returns the record at position index in the list.
+     * 
+     * @param index  the index of the record to be returned.
+     * @return  the record at position index in the list
+     */
+    @Override
+    public Record get(int index) {
+        return new Record(getSlot(index));
+    }
+
+    /**
+     * Returns the position of the given record in the list (-1 = not found).
+     * 
+     * @param record  the record for which the position in the list needs to be returned.
+     * @return  the position of the given record in the list (-1 = not found)
+     */
+    @Override
+    public int getIndex(Record record) {
+        if (record == null || record.getManager() != this || !record.isCurrent()) return -1;
+        return getPosition(record.slot);
+    }
+
+    /**
+     * Returns the number of records in the list handled by this data manager.
+     * 
+     * @return  the number of records in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return (int)(highWater - freeCount);
+    }
+
+    /**
+     * Deletes the record of the given index, releasing its position in the file.
+     * 
+     * @param index  the index of the record to be deleted
+     */
+    @Override
+    public void delete(int index) {
+        release(getSlot(index));
+        notifyRemoved(index);
+    }
+
+    /**
+     * Returns the value of a field for the record of the given index.
+     * 
+     * @param index  the index of the record for which the field must be returned
+     * @param getter  the name of the getter method (or of the field)
+     * @return  the value of a field for the record of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        return read(getSlot(index), getAccessor(getter));
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the record of the given index,
+     * read directly from the file.
+     * 
+     * @param index  the index of the record for which the field must be returned
+     * @param getter  the name of the getter method (or of the field)
+     * @return  the value of the field for the record of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        RecordLayout.Field f = getAccessor(getter);
+        if (f.getType() == RecordLayout.Type.DOUBLE) return (int)readDouble(getSlot(index), f);
+        if (f.getType() == RecordLayout.Type.INT || f.getType() == RecordLayout.Type.LONG) return (int)readLong(getSlot(index), f);
+        return DataRecordManager.super.getInt(index, getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the record of the given index,
+     * read directly from the file.
+     * 
+     * @param index  the index of the record for which the field must be returned
+     * @param getter  the name of the getter method (or of the field)
+     * @return  the value of the field for the record of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        RecordLayout.Field f = getAccessor(getter);
+        if (f.getType() == RecordLayout.Type.DOUBLE) return (long)readDouble(getSlot(index), f);
+        if (f.getType() == RecordLayout.Type.INT || f.getType() == RecordLayout.Type.LONG) return readLong(getSlot(index), f);
+        return DataRecordManager.super.getLong(index, getter);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the record of the given index,
+     * read directly from the file.
+     * 
+     * @param index  the index of the record for which the field must be returned
+     * @param getter  the name of the getter method (or of the field)
+     * @return  the value of the field for the record of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        RecordLayout.Field f = getAccessor(getter);
+        if (f.getType() == RecordLayout.Type.DOUBLE) return readDouble(getSlot(index), f);
+        if (f.getType() == RecordLayout.Type.INT || f.getType() == RecordLayout.Type.LONG) return readLong(getSlot(index), f);
+        return DataRecordManager.super.getDouble(index, getter);
+    }
+
+    /**
+     * Returns the value of a boolean field for the record of the given index,
+     * read directly from the file.
+     * 
+     * @param index  the index of the record for which the field must be returned
+     * @param getter  the name of the getter method (or of the field)
+     * @return  the value of the field for the record of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        RecordLayout.Field f = getAccessor(getter);
+        if (f.getType() == RecordLayout.Type.BOOLEAN) return readBoolean(getSlot(index), f);
+        return DataRecordManager.super.getBoolean(index, getter);
+    }
+
+    /**
+     * Sets the value of a field for the record of the given index, writing it in place,
+     * and notifies the change of the record.
+     * 
+     * @param index  the index of the record for which the field must be set
+     * @param setter  the name of the setter method (or of the field)
+     * @param type  the type of the argument for the setter method (ignored)
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        long slot = getSlot(index);
+        write(slot, getAccessor(setter), value);
+        stored(slot);
+    }
+
+    /**
+     * Adds a listener for the list of records handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of records handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+    
+    /**
+     * Returns the field of the layout with the given name.
+     * 
+     * @param name  the name of the field
+     * @return  the field of the layout with the given name
+     */
+    private RecordLayout.Field getLayoutField(String name) {
+        RecordLayout.Field f = layout.getField(name);
+        if (f == null) throw new IllegalArgumentException("No such field: " + name);
+        return f;
+    }
+    
+    /**
+     * Returns the field accessed by the given getter or setter.
+     * 
+     * @param name  the name of the getter or setter method (or of the field)
+     * @return  the field accessed
+     * @throws NoSuchMethodException  in case there is no corresponding field
+     */
+    private RecordLayout.Field getAccessor(String name) throws NoSuchMethodException {
+        RecordLayout.Field f = accessors.get(name);
+        if (f == null) throw new NoSuchMethodException("No field for method: " + name);
+        return f;
+    }
+    
+    /**
+     * Notifies the change of a record, forcing it to disk if sync on store is enabled.
+     * 
+     * @param slot  the position of the record in the file
+     */
+    private void stored(long slot) {
+        if (!isLive(slot)) return;
+        if (syncOnStore) getSegment(slot).force();
+        
+        int index = getPosition(slot);
+        if (listeners == null) return;
+        Record record = new Record(slot);
+        listeners.stream().forEach(l -> l.objectChanged(index, Record.class, record));
+    }
+    
+    /**
+     * Notifies the removal of a record.
+     * 
+     * @param index  the position in the list of the record removed
+     */
+    private void notifyRemoved(int index) {
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.objectRemoved(index, Record.class));
+    }
+    
+    /**
+     * Returns true if the record at the given position in the file is in use.
+     * 
+     * @param slot  the position of the record in the file
+     * @return  true if the record is in use
+     */
+    private boolean isLive(long slot) {
+        return !closed && slot >= 0 && slot < highWater && getSegment(slot).get(getOffset(slot)) != 0;
+    }
+    
+    /**
+     * Returns the generation of the given position in the file.
+     * 
+     * @param slot  the position of the record in the file
+     * @return  the generation of the position
+     */
+    private int getGeneration(long slot) {
+        return getSegment(slot).getInt(getOffset(slot) + R_GENERATION);
+    }
+    
+    /**
+     * Returns the position in the file of the record at the given position in the list.
+     * 
+     * @param index  the position in the list
+     * @return  the position in the file
+     */
+    private long getSlot(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        if (freeCount == 0) return index;
+        
+        // Number of free records before the one searched: free[j] - j is the number of records in use before free[j]
+        int low = 0;
+        int high = freeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (free[mid] - mid <= index) low = mid + 1;
+            else high = mid;
+        }
+        
+        return index + low;
+    }
+    
+    /**
+     * Returns the position in the list of the record at the given position in the file.
+     * 
+     * @param slot  the position in the file (of a record in use)
+     * @return  the position in the list
+     */
+    private int getPosition(long slot) {
+        int j = Arrays.binarySearch(free, 0, freeCount, slot);
+        return (int)(slot - ((j < 0) ? -j - 1 : j));
+    }
+    
+    /**
+     * Allocates a record, reusing the last free one if any (so that the free list is
+     * shortened at its end), and marks it as in use.
+     * 
+     * @return  the position of the record in the file
+     */
+    private long allocate() {
+        checkOpen();
+        
+        long slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+            if (freeCount > 0) getSegment(free[freeCount - 1]).putLong(getOffset(free[freeCount - 1]) + RecordLayout.RECORD_HEADER, -1);
+        } else {
+            slot = highWater;
+            ensureCapacity(slot + 1);
+            ++highWater;
+        }
+        
+        MappedByteBuffer segment = getSegment(slot);
+        int offset = getOffset(slot);
+        for (int i = RecordLayout.RECORD_HEADER; i < recordSize; ++i) segment.put(offset + i, (byte)0);
+        for (RecordLayout.Field f : layout.getFields()) {
+            if (f.getType() == RecordLayout.Type.STRING) segment.putShort(offset + f.getOffset(), (short)NULL_STRING);
+        }
+        segment.put(offset, (byte)1);
+        
+        writeHeader();
+        return slot;
+    }
+    
+    /**
+     * Releases a record, inserting it in the free list.
+     * 
+     * @param slot  the position of the record in the file
+     */
+    private void release(long slot) {
+        checkOpen();
+        
+        int j = -Arrays.binarySearch(free, 0, freeCount, slot) - 1;
+        if (j < 0) return;
+        
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        System.arraycopy(free, j, free, j + 1, freeCount - j);
+        free[j] = slot;
+        ++freeCount;
+        
+        MappedByteBuffer segment = getSegment(slot);
+        int offset = getOffset(slot);
+        segment.put(offset, (byte)0);
+        segment.putInt(offset + R_GENERATION, segment.getInt(offset + R_GENERATION) + 1);
+        segment.putLong(offset + RecordLayout.RECORD_HEADER, (j + 1 < freeCount) ? free[j + 1] : -1);
+        if (j > 0) getSegment(free[j - 1]).putLong(getOffset(free[j - 1]) + RecordLayout.RECORD_HEADER, slot);
+        else header.putLong(H_FREE_HEAD, slot);
+        
+        writeHeader();
+    }
+    
+    /**
+     * Loads the free list from the file.
+     * 
+     * @param head  the position of the first free record (-1 = none)
+     * @param count  the number of free records
+     * @throws IOException  in case the free list is corrupted
+     */
+    private void loadFreeList(long head, int count) throws IOException {
+        free = new long[Math.max(16, count)];
+        for (long slot = head; slot >= 0; ) {
+            if (freeCount == count || slot >= highWater) throw new IOException("Corrupted free list");
+            free[freeCount++] = slot;
+            slot = getSegment(slot).getLong(getOffset(slot) + RecordLayout.RECORD_HEADER);
+        }
+        
+        if (freeCount != count) throw new IOException("Corrupted free list");
+        Arrays.sort(free, 0, freeCount);
+    }
+    
+    /**
+     * Writes the counters to the header of the file.
+     */
+    private void writeHeader() {
+        header.putLong(H_CAPACITY, capacity);
+        header.putLong(H_HIGH_WATER, highWater);
+        header.putLong(H_FREE_COUNT, freeCount);
+        if (freeCount == 0) header.putLong(H_FREE_HEAD, -1);
+    }
+    
+    /**
+     * Extends the file so that it can hold at least the given number of records.
+     * 
+     * @param records  the number of records
+     */
+    private void ensureCapacity(long records) {
+        if (records <= capacity) return;
+        
+        long last = (capacity == 0) ? -1 : (capacity - 1) / recordsPerSegment;
+        capacity = Math.max(records, Math.max(capacity * 2, MIN_CAPACITY));
+        if (last >= 0 && last < segments.size()) segments.set((int)last, null);
+        header.putLong(H_CAPACITY, capacity);
+    }
+    
+    /**
+     * Returns the segment holding the record at the given position in the file, mapping it if needed.
+     * 
+     * @param slot  the position of the record in the file
+     * @return  the segment holding the record
+     */
+    private MappedByteBuffer getSegment(long slot) {
+        int s = (int)(slot / recordsPerSegment);
+        while (segments.size() <= s) segments.add(null);
+        
+        MappedByteBuffer segment = segments.get(s);
+        if (segment != null) return segment;
+        
+        checkOpen();
+        long first = s * recordsPerSegment;
+        long records = Math.min(recordsPerSegment, capacity - first);
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + first * recordSize, records * recordSize);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot map segment " + s, ex);
+        }
+        
+        segments.set(s, segment);
+        return segment;
+    }
+    
+    /**
+     * Returns the offset in its segment of the record at the given position in the file.
+     * 
+     * @param slot  the position of the record in the file
+     * @return  the offset of the record in its segment
+     */
+    private int getOffset(long slot) {
+        return (int)((slot % recordsPerSegment) * recordSize);
+    }
+    
+    /**
+     * Reads an int or long field.
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @return  the value of the field
+     */
+    private long readLong(long slot, RecordLayout.Field f) {
+        MappedByteBuffer segment = getSegment(slot);
+        int offset = getOffset(slot) + f.getOffset();
+        switch (f.getType()) {
+            case INT: return segment.getInt(offset);
+            case LONG: return segment.getLong(offset);
+            case DOUBLE: return (long)segment.getDouble(offset);
+            default: throw new IllegalArgumentException("Not a numeric field: " + f.getName());
+        }
+    }
+    
+    /**
+     * Reads a double field.
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @return  the value of the field
+     */
+    private double readDouble(long slot, RecordLayout.Field f) {
+        if (f.getType() != RecordLayout.Type.DOUBLE) return readLong(slot, f);
+        return getSegment(slot).getDouble(getOffset(slot) + f.getOffset());
+    }
+    
+    /**
+     * Reads a boolean field.
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @return  the value of the field
+     */
+    private boolean readBoolean(long slot, RecordLayout.Field f) {
+        if (f.getType() != RecordLayout.Type.BOOLEAN) throw new IllegalArgumentException("Not a boolean field: " + f.getName());
+        return getSegment(slot).get(getOffset(slot) + f.getOffset()) != 0;
+    }
+    
+    /**
+     * Reads a String field.
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @return  the value of the field
+     */
+    private String readString(long slot, RecordLayout.Field f) {
+        if (f.getType() != RecordLayout.Type.STRING) throw new IllegalArgumentException("Not a String field: " + f.getName());
+        
+        MappedByteBuffer segment = getSegment(slot);
+        int offset = getOffset(slot) + f.getOffset();
+        int length = segment.getShort(offset) & 0xFFFF;
+        if (length == NULL_STRING) return null;
+        
+        ByteBuffer bytes = ((ByteBuffer)segment).duplicate();
+        ((Buffer)bytes).limit(offset + 2 + length);
+        ((Buffer)bytes).position(offset + 2);
+        try {
+            return decoder.decode(bytes).toString();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * Reads a field of any type.
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @return  the value of the field
+     */
+    private Object read(long slot, RecordLayout.Field f) {
+        switch (f.getType()) {
+            case INT: return (int)readLong(slot, f);
+            case LONG: return readLong(slot, f);
+            case DOUBLE: return readDouble(slot, f);
+            case BOOLEAN: return readBoolean(slot, f);
+            default: return readString(slot, f);
+        }
+    }
+    
+    /**
+     * Writes a field of any type, converting the value (null = 0 or false for primitive fields).
+     * 
+     * @param slot  the position of the record in the file
+     * @param f  the field
+     * @param value  the value of the field
+     */
+    private void write(long slot, RecordLayout.Field f, Object value) {
+        if (!isLive(slot)) throw new IllegalStateException("Record deleted: " + slot);
+        
+        MappedByteBuffer segment = getSegment(slot);
+        int offset = getOffset(slot) + f.getOffset();
+        switch (f.getType()) {
+            case INT:
+                segment.putInt(offset, (value == null) ? 0 : ((Number)value).intValue());
+                break;
+            case LONG:
+                segment.putLong(offset, (value == null) ? 0 : ((Number)value).longValue());
+                break;
+            case DOUBLE:
+                segment.putDouble(offset, (value == null) ? 0 : ((Number)value).doubleValue());
+                break;
+            case BOOLEAN:
+                segment.put(offset, (byte)(Boolean.TRUE.equals(value) ? 1 : 0));
+                break;
+            default:
+                if (value == null) {
+                    segment.putShort(offset, (short)NULL_STRING);
+                } else {
+                    ByteBuffer bytes = ((ByteBuffer)segment).duplicate();
+                    ((Buffer)bytes).limit(offset + f.getSize());
+                    ((Buffer)bytes).position(offset + 2);
+                    encoder.reset();
+                    encoder.encode(CharBuffer.wrap(value.toString()), bytes, true);
+                    segment.putShort(offset, (short)(bytes.position() - offset - 2));
+                }
+        }
+    }
+    
+    /**
+     * Checks that the file has not been closed.
+     */
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("File closed");
+    }
+}
@@ -0,0 +1,596 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A data manager which loads the objects on demand, in pages of fixed size, from a page source.
+ * <p>
+ * Only the total number of objects is known up front: the pages are loaded in background
+ * the first time one of their objects is requested, and held in an LRU cache bounded by
+ * a maximum number of objects. Until its page has been loaded, an object is reported as
+ * not loaded (see {@link DataRecordManager#isLoaded(int)}) and its fields as null; the
+ * arrival of a page is notified to the listeners as a change of its objects.
+ * <p>
+ * A page which fails to load is not requested again until a retry delay has elapsed,
+ * doubling at each consecutive failure (from {@link #MIN_RETRY_DELAY} up to
+ * {@link #MAX_RETRY_DELAY}); the error is available through {@link #getLoadError(int)}.
+ * <p>
+ * This class is meant to be used on the event dispatching thread, where the pages
+ * loaded are also delivered.
+ *
+ * @param <T>  the type of DataRecord handled by this data manager.
+ * @author Giuseppe Gallo
+ */
+public class PagedDataRecordManager<T extends DataRecord> implements DataRecordManager<T> {
+    
+    /**
+     * The interface to be implemented by the sources of the pages of objects.
+     * 
+     * @param <T>  the type of objects provided
+     */
+    public static interface PageSource<T> {
+        
+        /**
+         * Returns the total number of objects available.
+         * 
+         * @return  the total number of objects available
+         * @throws Exception  in case of any problem
+         */
+        public int size() throws Exception;
+        
+        /**
+         * Loads a range of objects (called in a background thread).
+         * 
+         * @param first  the position of the first object to be loaded
+         * @param count  the number of objects to be loaded
+         * @return  the objects loaded
+         * @throws Exception  in case of any problem
+         */
+        public List<T> load(int first, int count) throws Exception;
+    }
+    
+    /** The default number of objects in a page */
+    public final static int DEFAULT_PAGE_SIZE = 500;
+    
+    /** The default maximum number of objects held in memory */
+    public final static int DEFAULT_MAX_RECORDS = 50000;
+    
+    /** The delay before loading again a page after its first failure (in milliseconds) */
+    public final static long MIN_RETRY_DELAY = 1000;
+    
+    /** The maximum delay before loading again a page which failed to load (in milliseconds) */
+    public final static long MAX_RETRY_DELAY = 60000;
+    
+    /**
+     * The state of a page which failed to load.
+     */
+    private static class Failure {
+        
+        /** The last error occurred */
+        private final Exception error;
+        
+        /** The number of consecutive failures */
+        private final int attempts;
+        
+        /** The time after which the page can be requested again (as in System.nanoTime) */
+        private final long retryAt;
+        
+        /**
+         * Allocates a new failure state.
+         * 
+         * @param error  the last error occurred
+         * @param attempts  the number of consecutive failures
+         */
+        private Failure(Exception error, int attempts) {
+            this.error = error;
+            this.attempts = attempts;
+            
+            long delay = MIN_RETRY_DELAY << Math.min(attempts - 1, 16);
+            retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(delay, MAX_RETRY_DELAY));
+        }
+    }
+    
+    /** The source of the pages */
+    private final PageSource<T> source;
+    
+    /** The number of objects in a page */
+    private final int pageSize;
+    
+    /** The maximum number of pages held in memory */
+    private final int maxPages;
+    
+    /** The executor loading the pages */
+    private final Executor executor;
+    
+    /** The pages loaded, in order of access */
+    private final LinkedHashMap<Integer, List<T>> pages;
+    
+    /** The pages being loaded */
+    private final HashSet<Integer> loading = new HashSet<>();
+    
+    /** The pages which failed to load */
+    private final HashMap<Integer, Failure> failures = new HashMap<>();
+    
+    /** The page accessed last (-1 = none), kept for avoiding lookups for consecutive objects */
+    private int lastPageIndex = -1;
+    
+    /** The objects of the page accessed last */
+    private List<T> lastPage = null;
+    
+    /** The total number of objects */
+    private int size = 0;
+    
+    /** The current generation of pages (incremented on refresh, for discarding stale pages) */
+    private int generation = 0;
+    
+    /** The persister used for storing and deleting the objects */
+    private DataRecordPersister persister = DataRecordPersister.DIRECT;
+    
+    /** The list of listeners for data change */
+    private LinkedList<DataListListener> listeners = null;
+    
+    /** The type of objects notified to the listeners */
+    private final Class<?> type;
+
+    
+    /**
+     * Instantiates a data manager with the default page size and memory budget,
+     * loading the pages in a dedicated background thread.
+     * 
+     * @param type  the type of objects handled by this data manager (used for notifications)
+     * @param source  the source of the pages
+     * @throws Exception  in case of any problem determining the number of objects
+     */
+    public PagedDataRecordManager(Class<T> type, PageSource<T> source) throws Exception {
+        this(type, source, DEFAULT_PAGE_SIZE, DEFAULT_MAX_RECORDS, null);
+    }
+    
+    /**
+     * Instantiates a data manager.
+     * 
+     * @param type  the type of objects handled by this data manager (used for notifications)
+     * @param source  the source of the pages
+     * @param pageSize  the number of objects in a page
+     * @param maxRecords  the maximum number of objects held in memory (at least one page is held)
+     * @param executor  the executor loading the pages (null = a dedicated background thread)
+     * @throws Exception  in case of any problem determining the number of objects
+     */
+    public PagedDataRecordManager(Class<T> type, PageSource<T> source, int pageSize, int maxRecords, Executor executor) throws Exception {
+        if (pageSize < 1) throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        
+        this.type = type;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(1, maxRecords / pageSize);
+        this.executor = (executor != null) ? executor : newDefaultExecutor();
+        
+        pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        
+        size = source.size();
+    }
+    
+    /**
+     * Allocates the default executor, loading the pages in a single background thread
+     * ended when idle, so that no thread is left behind once this instance is discarded.
+     * 
+     * @return  the default executor
+     */
+    private static ExecutorService newDefaultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "PagedDataRecordManager");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Sets the persister used for storing and deleting the objects.
+     * 
+     * @param persister  the persister used for storing and deleting the objects (null = direct)
+     */
+    public void setPersister(DataRecordPersister persister) {
+        this.persister = (persister == null) ? DataRecordPersister.DIRECT : persister;
+    }
+    
+    /**
+     * Returns the persister used for storing and deleting the objects.
+     * 
+     * @return  the persister used for storing and deleting the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return persister;
+    }
+    
+    /**
+     * Returns the number of objects in a page.
+     * 
+     * @return  the number of objects in a page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    /**
+     * Returns the number of pages currently held in memory.
+     * 
+     * @return  the number of pages currently held in memory
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+    
+    /**
+     * Returns the last error occurred loading the page of the object at the given
+     * position, if the page has not been loaded since.
+     * 
+     * @param index  the index of the object
+     * @return  the last error occurred loading the page (null = none)
+     */
+    public Exception getLoadError(int index) {
+        Failure f = failures.get(index / pageSize);
+        return (f == null) ? null : f.error;
+    }
+    
+    /**
+     * Discards all the pages loaded and determines again the total number of objects
+     * in the calling thread, notifying a generic change in the list.
+     * 
+     * @throws Exception  in case of any problem determining the number of objects
+     */
+    public void refresh() throws Exception {
+        reset(source.size());
+    }
+    
+    /**
+     * Discards all the pages loaded and determines again the total number of objects
+     * on the executor, notifying a generic change in the list on the event dispatching thread.
+     * 
+     * @return  the future completed (on the event dispatching thread) when the data manager has been refreshed
+     */
+    public CompletableFuture<Void> refreshAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        try {
+            executor.execute(() -> {
+                try {
+                    int n = source.size();
+                    EventQueue.invokeLater(() -> {
+                        reset(n);
+                        future.complete(null);
+                    });
+                } catch (Exception ex) {
+                    Logger.getLogger(PagedDataRecordManager.class.getName()).log(Level.SEVERE, "Error determining the number of objects", ex);
+                    EventQueue.invokeLater(() -> future.completeExceptionally(ex));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        
+        return future;
+    }
+    
+    /**
+     * Discards all the pages loaded and sets the total number of objects,
+     * notifying a generic change in the list.
+     * 
+     * @param n  the total number of objects
+     */
+    private void reset(int n) {
+        ++generation;
+        pages.clear();
+        loading.clear();
+        failures.clear();
+        lastPageIndex = -1;
+        lastPage = null;
+        size = n;
+        
+        if (listeners == null) return;
+        listeners.stream().forEach(l -> l.listChanged(type));
+    }
+    
+    /**
+     * Returns the object at position index in the list (null if not loaded yet,
+     * in which case the loading of its page is requested).
+     * 
+     * @param index  the index of the object to be returned.
+     * @return  the object at position index in the list (null = not loaded yet)
+     */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        
+        int p = index / pageSize;
+        List<T> page = getPage(p);
+        if (page == null) {
+            requestPage(p);
+            return null;
+        }
+        
+        int offset = index - p * pageSize;
+        return (offset < page.size()) ? page.get(offset) : null;
+    }
+    
+    /**
+     * Returns true if the object at position index in the list has been loaded
+     * (requesting the loading of its page otherwise).
+     * 
+     * @param index  the index of the object
+     * @return  true if the object at position index in the list has been loaded
+     */
+    @Override
+    public boolean isLoaded(int index) {
+        return get(index) != null;
+    }
+
+    /**
+     * Returns the position of the given object in the list (-1 = not found or not loaded).
+     * Only the pages currently held in memory are searched.
+     * 
+     * @param object  the object for which the position in the list needs to be returned.
+     * @return  the position of the given object in the list (-1 = not found or not loaded)
+     */
+    @Override
+    public int getIndex(T object) {
+        for (Map.Entry<Integer, List<T>> e : pages.entrySet()) {
+            int pos = e.getValue().indexOf(object);
+            if (pos >= 0) return e.getKey() * pageSize + pos;
+        }
+        
+        return -1;
+    }
+
+    /**
+     * Returns the number of objects in the list handled by this data manager.
+     * 
+     * @return  the number of objects in the list handled by this data manager
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, then
+     * refreshes the data manager (determining the number of objects on the executor).
+     * 
+     * @param index  the index of the object to be deleted
+     * @throws Exception  in case of any problem
+     */
+    @Override
+    public void delete(int index) throws Exception {
+        persister.delete(getLoaded(index));
+        refreshAsync();
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.<p>
+     * The data manager is refreshed on the executor once the object has been deleted.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted and the data manager refreshed
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        T obj;
+        try {
+            obj = getLoaded(index);
+        } catch (RuntimeException ex) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+        return persister.deleteAsync(obj).thenCompose(v -> refreshAsync());
+    }
+
+    /**
+     * Returns the value of a field for the object of the given index, using the
+     * getter method specified (null if the object has not been loaded yet).
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of a field for the object of the given index (null = not loaded yet)
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public Object getField(int index, String getter) throws Exception {
+        T obj = get(index);
+        return (obj == null) ? null : FieldAccessors.getGetter(obj.getClass(), getter).get(obj);
+    }
+
+    /**
+     * Sets the value of a field for the object of the given index, using the
+     * setter method specified.
+     * 
+     * @param index  the index of the object for which the field must be set
+     * @param setter  the name of the setter method to be called to set the value of the field
+     * @param type  the type of the argument for the setter method
+     * @param value  the value to be set for the field
+     * @throws Exception  in case of any problem (including the object not being loaded yet)
+     */
+    @Override
+    public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
+        T obj = getLoaded(index);
+        FieldAccessors.getSetter(obj.getClass(), setter, type).set(obj, value);
+        persister.store(obj);
+    }
+    
+    /**
+     * Returns the object at position index in the list, which must have been loaded.
+     * 
+     * @param index  the index of the object to be returned
+     * @return  the object at position index in the list
+     * @throws IllegalStateException  in case the object has not been loaded yet
+     */
+    private T getLoaded(int index) {
+        T obj = get(index);
+        if (obj == null) throw new IllegalStateException("Object not loaded yet: " + index);
+        return obj;
+    }
+    
+    /**
+     * Returns a page held in memory (null = not loaded).
+     * 
+     * @param p  the index of the page
+     * @return  the page (null = not loaded)
+     */
+    private List<T> getPage(int p) {
+        if (p == lastPageIndex) return lastPage;
+        
+        List<T> page = pages.get(p);
+        if (page != null) {
+            lastPageIndex = p;
+            lastPage = page;
+        }
+        
+        return page;
+    }
+    
+    /**
+     * Requests the loading of a page in background, unless already requested.
+     * 
+     * @param p  the index of the page
+     */
+    private void requestPage(int p) {
+        Failure failure = failures.get(p);
+        if (failure != null && System.nanoTime() - failure.retryAt < 0) return;
+        if (!loading.add(p)) return;
+        
+        final int gen = generation;
+        final int first = p * pageSize;
+        final int count = Math.min(pageSize, size - first);
+        
+        try {
+            executor.execute(() -> {
+                try {
+                    List<T> page = source.load(first, count);
+                    EventQueue.invokeLater(() -> pageLoaded(gen, p, page));
+                } catch (Exception ex) {
+                    EventQueue.invokeLater(() -> pageFailed(gen, p, ex));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pageFailed(gen, p, ex);
+        }
+    }
+    
+    /**
+     * Records the failure of the loading of a page, delaying any new request for it.
+     * 
+     * @param gen  the generation of pages at the time of the request
+     * @param p  the index of the page
+     * @param ex  the error occurred
+     */
+    private void pageFailed(int gen, int p, Exception ex) {
+        if (gen != generation) return;
+        
+        loading.remove(p);
+        Failure previous = failures.get(p);
+        Failure failure = new Failure(ex, (previous == null) ? 1 : previous.attempts + 1);
+        failures.put(p, failure);
+        
+        Logger.getLogger(PagedDataRecordManager.class.getName()).log(Level.SEVERE,
+                "Error loading page " + p + " (attempt " + failure.attempts + ")", ex);
+    }
+    
+    /**
+     * Stores a page just loaded and notifies the change of its objects.
+     * 
+     * @param gen  the generation of pages at the time of the request
+     * @param p  the index of the page
+     * @param page  the objects of the page
+     */
+    private void pageLoaded(int gen, int p, List<T> page) {
+        if (gen != generation) return;
+        
+        loading.remove(p);
+        failures.remove(p);
+        if (page == null) return;
+        
+        pages.put(p, page);
+        if (!pages.containsKey(lastPageIndex)) {
+            lastPageIndex = -1;
+            lastPage = null;
+        }
+        
+        int first = p * pageSize;
+        int count = Math.min(page.size(), size - first);
+        if (count <= 0 || listeners == null) return;
+        
+        int[] indices = new int[count];
+        for (int i = 0; i < count; ++i) indices[i] = first + i;
+        listeners.stream().forEach(l -> l.objectsChanged(indices, type));
+    }
+
+    /**
+     * Adds a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be added
+     */
+    public void addDataListListener(DataListListener l) {
+        if (listeners == null) listeners = new LinkedList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener for the list of objects handled by this data manager.
+     *
+     * @param l  the listener to be removed
+     */
+    public void removeDataListListener(DataListListener l) {
+        if (listeners != null) listeners.remove(l);
+    }
+}
@@ -0,0 +1,264 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The layout of the records held by a {@link MappedDataRecordManager}: an ordered list of
+ * named fields of fixed size, declared once and then used for reading and writing the
+ * fields in place.
+ * <p>
+ * The supported types are int, long, double, boolean and String (stored as UTF-8, with a
+ * declared maximum number of bytes: longer values are truncated). Strings can be null,
+ * primitive fields cannot.
+ *
+ * @author Giuseppe Gallo
+ */
+public class RecordLayout {
+    
+    /**
+     * The types of fields.
+     */
+    public static enum Type {
+        /** An int field (4 bytes) */
+        INT,
+        /** A long field (8 bytes) */
+        LONG,
+        /** A double field (8 bytes) */
+        DOUBLE,
+        /** A boolean field (1 byte) */
+        BOOLEAN,
+        /** A String field (2 bytes of length followed by the UTF-8 bytes) */
+        STRING
+    }
+    
+    /**
+     * A field of the layout.
+     */
+    public static class Field {
+        
+        /** The name of the field */
+        private final String name;
+        
+        /** The type of the field */
+        private final Type type;
+        
+        /** The offset of the field from the start of the record */
+        private final int offset;
+        
+        /** The number of bytes used by the field */
+        private final int size;
+        
+        /**
+         * Allocates a new field.
+         * 
+         * @param name  the name of the field
+         * @param type  the type of the field
+         * @param offset  the offset of the field from the start of the record
+         * @param size  the number of bytes used by the field
+         */
+        private Field(String name, Type type, int offset, int size) {
+            this.name = name;
+            this.type = type;
+            this.offset = offset;
+            this.size = size;
+        }
+        
+        /**
+         * Returns the name of the field.
+         * 
+         * @return  the name of the field
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the type of the field.
+         * 
+         * @return  the type of the field
+         */
+        public Type getType() {
+            return type;
+        }
+        
+        /**
+         * Returns the offset of the field from the start of the record.
+         * 
+         * @return  the offset of the field from the start of the record
+         */
+        public int getOffset() {
+            return offset;
+        }
+        
+        /**
+         * Returns the number of bytes used by the field.
+         * 
+         * @return  the number of bytes used by the field
+         */
+        public int getSize() {
+            return size;
+        }
+    }
+    
+    /**
+     * The number of bytes reserved at the start of each record (the flag marking the records
+     * in use and the generation of the position, incremented when the record is deleted)
+     */
+    public final static int RECORD_HEADER = 8;
+    
+    /** The fields, in order of declaration */
+    private final ArrayList<Field> fields = new ArrayList<>();
+    
+    /** The fields, by name */
+    private final HashMap<String, Field> fieldsByName = new HashMap<>();
+    
+    /** The number of bytes used by the fields and the record header */
+    private int size = RECORD_HEADER;
+    
+    
+    /**
+     * Adds an int field.
+     * 
+     * @param name  the name of the field
+     * @return  this layout
+     */
+    public RecordLayout addInt(String name) {
+        return add(name, Type.INT, 4);
+    }
+    
+    /**
+     * Adds a long field.
+     * 
+     * @param name  the name of the field
+     * @return  this layout
+     */
+    public RecordLayout addLong(String name) {
+        return add(name, Type.LONG, 8);
+    }
+    
+    /**
+     * Adds a double field.
+     * 
+     * @param name  the name of the field
+     * @return  this layout
+     */
+    public RecordLayout addDouble(String name) {
+        return add(name, Type.DOUBLE, 8);
+    }
+    
+    /**
+     * Adds a boolean field.
+     * 
+     * @param name  the name of the field
+     * @return  this layout
+     */
+    public RecordLayout addBoolean(String name) {
+        return add(name, Type.BOOLEAN, 1);
+    }
+    
+    /**
+     * Adds a String field.
+     * 
+     * @param name  the name of the field
+     * @param maxBytes  the maximum number of bytes of the UTF-8 encoding of the values
+     * @return  this layout
+     */
+    public RecordLayout addString(String name, int maxBytes) {
+        if (maxBytes < 1 || maxBytes > 0xFFFE) throw new IllegalArgumentException("Invalid maximum size for field " + name + ": " + maxBytes);
+        return add(name, Type.STRING, 2 + maxBytes);
+    }
+    
+    /**
+     * Returns the fields, in order of declaration.
+     * 
+     * @return  the fields (read-only)
+     */
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+    
+    /**
+     * Returns the field with the given name.
+     * 
+     * @param name  the name of the field
+     * @return  the field with the given name (null = not found)
+     */
+    public Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+    
+    /**
+     * Returns the number of bytes used by each record (at least 9, for chaining the free records).
+     * 
+     * @return  the number of bytes used by each record
+     */
+    public int getRecordSize() {
+        return Math.max(size, RECORD_HEADER + 8);
+    }
+    
+    /**
+     * Returns a signature of the layout, used for checking that a file matches it.
+     * 
+     * @return  the signature of the layout
+     */
+    public int getSignature() {
+        int h = 1;
+        for (Field f : fields) {
+            h = 31 * h + f.name.hashCode();
+            h = 31 * h + f.type.ordinal();
+            h = 31 * h + f.size;
+        }
+        
+        return h;
+    }
+    
+    /**
+     * Adds a field.
+     * 
+     * @param name  the name of the field
+     * @param type  the type of the field
+     * @param bytes  the number of bytes used by the field
+     * @return  this layout
+     */
+    private RecordLayout add(String name, Type type, int bytes) {
+        if (fieldsByName.containsKey(name)) throw new IllegalArgumentException("Duplicate field: " + name);
+        
+        Field f = new Field(name, type, size, bytes);
+        fields.add(f);
+        fieldsByName.put(name, f);
+        size += bytes;
+        return this;
+    }
+}
@@ -29,12 +29,18 @@
  */
 package YAJSL.Data;
 
-import YAJSL.Utils.ReflectionUtils;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 /**
@@ -101,30 +107,59 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
     /** The list of listeners for data change */
     protected LinkedList<DataListListener> listeners = null;
     
-    /** An empty array of Objects, to be used for invoking methods with reflection */
+    /**
+     * An empty array of Objects, to be used for invoking methods with reflection
+     * 
+     * @deprecated  fields are now accessed through {@link FieldAccessors}
+     */
+    @Deprecated
     protected final static Object[] EMPTY_OBJECT_ARRAY = new Object[]{};
     
-    /** An empty array of Classes, to be used for invoking methods with reflection */
+    /**
+     * An empty array of Classes, to be used for invoking methods with reflection
+     * 
+     * @deprecated  fields are now accessed through {@link FieldAccessors}
+     */
+    @Deprecated
     @SuppressWarnings({"rawtypes"})
     protected final static Class[] EMPTY_CLASS_ARRAY = new Class<?>[]{};
     
-    /** The map of known getter methods */
+    /**
+     * The map of known getter methods (no longer filled by this class)
+     * 
+     * @deprecated  getters are now resolved and cached by {@link FieldAccessors#getGetter(Class, String)}
+     */
+    @Deprecated
     protected final HashMap<String, Method> getters = new HashMap<>();
     
-    /** The map of known setter methods */
+    /**
+     * The map of known setter methods (no longer filled by this class)
+     * 
+     * @deprecated  setters are now resolved and cached by {@link FieldAccessors#getSetter(Class, String, Class)}
+     */
+    @Deprecated
     protected final HashMap<String, Method> setters = new HashMap<>();
 
     /** A copy of the objects used for fast access by index */
     protected ArrayList<C> objects = null;
 
+    /** The index of the positions of the objects (null = disabled) */
+    protected IdentityIndex<C> identityIndex = null;
+
     /** The parent object */
     protected ViewParent<C> parent = null;
     
     /** The type of objects handled by this view */
     protected final Class type;
     
+    /** The persister used for storing the objects */
+    private DataRecordPersister persister = DataRecordPersister.DIRECT;
+    
     /** If true, stores the objects modified in setField */
     private boolean storeEnabled = true;
+    
+    /** The name of the getter method used for matching the children when reloaded (null = identity) */
+    private String keyGetter = null;
 
     
     /**
@@ -163,6 +198,25 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
         return storeEnabled;
     }
     
+    /**
+     * Sets the persister used for storing the objects.
+     * 
+     * @param persister  the persister used for storing the objects (null = direct)
+     */
+    public void setPersister(DataRecordPersister persister) {
+        this.persister = (persister == null) ? DataRecordPersister.DIRECT : persister;
+    }
+    
+    /**
+     * Returns the persister used for storing the objects.
+     * 
+     * @return  the persister used for storing the objects
+     */
+    @Override
+    public DataRecordPersister getPersister() {
+        return persister;
+    }
+    
     /**
      * Returns the parent object used for getting/setting the children.
      * 
@@ -181,14 +235,26 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
         if (this.parent == parent) return;
         this.parent = parent;
         
-        if (parent != null) {
-            Collection<C> c = parent.getChildren(this);
-            objects = (c == null) ? null : new ArrayList<>(c);
-        } else {
-            objects = null;
-        }
-        
-        notifyListChanged(this.type);
+        reloadChildren();
+    }
+    
+    /**
+     * Sets the getter method used for matching the children when they are reloaded,
+     * for parents returning new instances of the same children (e.g. read again from a database).
+     * 
+     * @param getter  the name of the getter method returning the key of the children (null = identity)
+     */
+    public void setKeyGetter(String getter) {
+        keyGetter = getter;
+    }
+    
+    /**
+     * Returns the getter method used for matching the children when they are reloaded.
+     * 
+     * @return  the name of the getter method returning the key of the children (null = identity)
+     */
+    public String getKeyGetter() {
+        return keyGetter;
     }
     
     /**
@@ -210,7 +276,28 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
      */
     @Override
     public int getIndex(C object) {
-        return (objects == null) ? -1 : objects.indexOf(object);
+        if (objects == null) return -1;
+        return (identityIndex == null) ? objects.indexOf(object) : identityIndex.indexOf(object);
+    }
+    
+    /**
+     * Enables or disables the identity index, used for determining in logarithmic
+     * time the position of the objects in the list.<p>
+     * When enabled, the positions are determined by object identity rather than by equality.
+     * 
+     * @param enabled  if true, the identity index is enabled
+     */
+    public void setIdentityIndexEnabled(boolean enabled) {
+        identityIndex = (enabled) ? new IdentityIndex<>(objects) : null;
+    }
+    
+    /**
+     * Returns true if the identity index is enabled.
+     * 
+     * @return  true if the identity index is enabled
+     */
+    public boolean isIdentityIndexEnabled() {
+        return identityIndex != null;
     }
 
     /**
@@ -232,10 +319,36 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
     @Override
     public void delete(int index) throws Exception {
         C r = get(index);
-        objectRemoved(index, this.type);
         objects.remove(index);
+        if (identityIndex != null) identityIndex.removed(index, r);
+        notifyObjectRemoved(index);
         parent.removeChild(r);
-        parent.store();
+        persister.store(parent);
+    }
+
+    /**
+     * Performs any action needed to effectively delete the object, returning a future
+     * completed when the object has been deleted.<p>
+     * The child is removed from the view and from its parent immediately, and the future
+     * is completed when the parent has been stored.
+     * 
+     * @param index  the index of the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(int index) {
+        C r = get(index);
+        objects.remove(index);
+        if (identityIndex != null) identityIndex.removed(index, r);
+        notifyObjectRemoved(index);
+        try {
+            parent.removeChild(r);
+        } catch (Exception ex) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+        return persister.storeAsync(parent);
     }
 
     /**
@@ -250,14 +363,67 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
     @Override
     public Object getField(int index, String getter) throws Exception {
         C i = objects.get(index);
-        
-        // Try invoking the method on the CounterEntry class
-        Method method = getters.get(getter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(type, getter, EMPTY_CLASS_ARRAY);
-            getters.put(getter, method);
-        }
-        return method.invoke(i, EMPTY_OBJECT_ARRAY);
+        return FieldAccessors.getGetter(type, getter).get(i);
+    }
+
+    /**
+     * Returns the value of a numeric field as an int for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public int getInt(int index, String getter) throws Exception {
+        C i = objects.get(index);
+        return FieldAccessors.getIntGetter(type, getter).getInt(i);
+    }
+
+    /**
+     * Returns the value of a numeric field as a long for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public long getLong(int index, String getter) throws Exception {
+        C i = objects.get(index);
+        return FieldAccessors.getLongGetter(type, getter).getLong(i);
+    }
+
+    /**
+     * Returns the value of a numeric field as a double for the object of the given index,
+     * using the getter method specified (null = 0), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public double getDouble(int index, String getter) throws Exception {
+        C i = objects.get(index);
+        return FieldAccessors.getDoubleGetter(type, getter).getDouble(i);
+    }
+
+    /**
+     * Returns the value of a boolean field for the object of the given index,
+     * using the getter method specified (null = false), without boxing primitive values.
+     * 
+     * @param index  the index of the object for which the field must be returned
+     * @param getter  the name of the getter method to be called to retrieve the value of the field
+     * @return  the value of the field for the object of the given index
+     * @throws Exception  in case of any problem 
+     */
+    @Override
+    public boolean getBoolean(int index, String getter) throws Exception {
+        C i = objects.get(index);
+        return FieldAccessors.getBooleanGetter(type, getter).getBoolean(i);
     }
 
     /**
@@ -273,18 +439,11 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
     @Override
     public void setField(int index, String setter, Class<?> type, Object value) throws Exception {
         C i = objects.get(index);
-        
-        // Try invoking the method on the CounterEntry class
-        Method method = setters.get(setter);
-        if (method == null) {
-            method = ReflectionUtils.getMethod(this.type, setter, new Class<?>[]{type});
-            setters.put(setter, method);
-        }
-        method.invoke(i, new Object[]{value});
+        FieldAccessors.getSetter(this.type, setter, type).set(i, value);
         if (!i.isModified()) return;
         
         if (storeEnabled) {
-            i.store();
+            persister.store(i);
         } else {
             objectChanged(index, type, value);
         }
@@ -323,6 +482,18 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
         }        
     }
 
+    /**
+     * Notifies the removal of the object at the given position.
+     * 
+     * @param index  the position of the object removed
+     */
+    protected void notifyObjectRemoved(int index) {
+        if (listeners == null) return;
+        for (DataListListener l : listeners) {
+            l.objectRemoved(index, type);
+        }        
+    }
+
     /**
      * Notifies a change in a specific object.
      * 
@@ -348,9 +519,7 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
         if (type == this.type && object != null && ((ViewChild)object).getParent(this) == parent) {
             notifyObjectChanged((C)object);
         } else if (object == parent) {
-            Collection<C> c = parent.getChildren(this);
-            objects = (c == null) ? null : new ArrayList<>(c);
-            notifyListChanged(type);
+            reloadChildren();
         }
     }
 
@@ -392,4 +561,268 @@ public class View<P extends View.ViewParent, C extends View.ViewChild> implement
             objectChanged(0, parent.getClass(), parent);
         }
     }
+
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).<p>
+     * The children of the parent are reloaded once for the whole range.
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        if (type == this.type && parent != null) {
+            objectChanged(0, parent.getClass(), parent);
+        }
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).<p>
+     * The children of the parent are reloaded once for the whole range.
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        if (type == this.type && parent != null) {
+            objectChanged(0, parent.getClass(), parent);
+        }
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).<p>
+     * The children of the parent are reloaded once, since the objects changed may have been
+     * moved to or from the parent.
+     *
+     * @param indices  the positions in the list of the objects changed
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        if (type == this.type && parent != null) {
+            objectChanged(0, parent.getClass(), parent);
+        }
+    }
+
+    /**
+     * Notifies a change in several objects.
+     * 
+     * @param objects  the objects changed
+     */
+    public void notifyObjectsChanged(Collection<C> objects) {
+        if (listeners == null) return;
+        
+        int[] indices = objects.stream().mapToInt(o -> getIndex(o)).filter(i -> i >= 0).sorted().toArray();
+        if (indices.length == 0) return;
+        for (DataListListener l : listeners) {
+            l.objectsChanged(indices, type);
+        }        
+    }
+
+    /**
+     * Reloads the children of the parent, updating the list in place and notifying only the
+     * differences to the listeners: the children no more present are notified as removed, the
+     * new ones as added, and those replaced by a new instance with the same key as changed.
+     * The children kept are chosen so as to minimize the number of children moved (which are
+     * notified as removed and added again).<p>
+     * A generic change in the list is notified instead when no children are kept (unless the
+     * old or the new list is empty), or when the new children contain duplicate keys.
+     */
+    protected void reloadChildren() {
+        Collection<C> c = getChildren();
+        if (c == null || objects == null) {
+            replaceChildren(c);
+            return;
+        }
+        
+        List<C> children = (c instanceof List) ? (List<C>)c : new ArrayList<>(c);
+        int size = children.size();
+        
+        Map<Object, Integer> positions = (keyGetter == null) ? new IdentityHashMap<>(size) : new HashMap<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            if (positions.put(getKey(children.get(i)), i) != null) {
+                replaceChildren(children);
+                return;
+            }
+        }
+        
+        int n = objects.size();
+        int[] targets = new int[n];
+        for (int i = 0; i < n; ++i) {
+            Integer target = positions.get(getKey(objects.get(i)));
+            targets[i] = (target == null) ? -1 : target;
+        }
+        
+        boolean[] kept = getLongestIncreasing(targets);
+        int[] keptTargets = new int[n];
+        int k = 0;
+        for (int i = 0; i < n; ++i) {
+            if (kept[i]) keptTargets[k++] = targets[i];
+        }
+        
+        if (k == 0 && n > 0 && size > 0) {
+            replaceChildren(children);
+            return;
+        }
+        
+        objects.ensureCapacity(size);
+        
+        // Removes the children not kept, by ranges from the end
+        for (int i = n - 1; i >= 0; ) {
+            if (kept[i]) {
+                --i;
+                continue;
+            }
+            
+            int last = i;
+            while (i >= 0 && !kept[i]) --i;
+            removeChildren(i + 1, last);
+        }
+        
+        // Adds the children missing, by ranges, and replaces the new instances
+        int[] changed = new int[k];
+        int m = 0;
+        int j = 0;
+        for (int i = 0; i < size; ) {
+            if (j < k && keptTargets[j] == i) {
+                C child = children.get(i);
+                if (objects.get(i) != child) {
+                    objects.set(i, child);
+                    if (identityIndex != null) identityIndex.replaced(i);
+                    changed[m++] = i;
+                }
+                ++i;
+                ++j;
+            } else {
+                int first = i;
+                while (i < size && (j >= k || keptTargets[j] != i)) ++i;
+                addChildren(first, children.subList(first, i));
+            }
+        }
+        
+        if (m == 0 || listeners == null) return;
+        int[] indices = (m == changed.length) ? changed : Arrays.copyOf(changed, m);
+        for (DataListListener l : listeners) {
+            if (m == 1) l.objectChanged(indices[0], type, objects.get(indices[0]));
+            else l.objectsChanged(indices, type);
+        }
+    }
+    
+    /**
+     * Returns the children of the parent, to be shown by this view.
+     * 
+     * @return  the children of the parent (null = no parent)
+     */
+    protected Collection<C> getChildren() {
+        return (parent == null) ? null : parent.getChildren(this);
+    }
+    
+    /**
+     * Replaces all the children, notifying a generic change in the list.
+     * 
+     * @param children  the new children (null = none)
+     */
+    private void replaceChildren(Collection<C> children) {
+        if (children == null) {
+            objects = null;
+        } else if (objects == null) {
+            objects = new ArrayList<>(children);
+        } else {
+            objects.clear();
+            objects.addAll(children);
+        }
+        if (identityIndex != null) identityIndex.reset(objects);
+        
+        notifyListChanged(type);
+    }
+    
+    /**
+     * Removes a range of children, notifying their removal.
+     * 
+     * @param first  the position of the first child to be removed
+     * @param last  the position of the last child to be removed (inclusive)
+     */
+    private void removeChildren(int first, int last) {
+        List<C> range = objects.subList(first, last + 1);
+        if (identityIndex != null) identityIndex.removed(first, range.size());
+        range.clear();
+        
+        if (listeners == null) return;
+        for (DataListListener l : listeners) {
+            if (first == last) l.objectRemoved(first, type);
+            else l.objectsRemoved(first, last, type);
+        }
+    }
+    
+    /**
+     * Adds a range of children, notifying their addition.
+     * 
+     * @param index  the position of the first child to be added
+     * @param children  the children to be added
+     */
+    private void addChildren(int index, List<C> children) {
+        objects.addAll(index, children);
+        if (identityIndex != null) identityIndex.added(index, children.size());
+        
+        if (listeners == null) return;
+        int last = index + children.size() - 1;
+        for (DataListListener l : listeners) {
+            if (index == last) l.objectAdded(index, type, children.get(0));
+            else l.objectsAdded(index, last, type);
+        }
+    }
+    
+    /**
+     * Returns the key used for matching a child when the children are reloaded.
+     * 
+     * @param child  the child
+     * @return  the key of the child (the child itself if there is no key getter)
+     */
+    private Object getKey(C child) {
+        if (keyGetter == null || child == null) return child;
+        
+        try {
+            return FieldAccessors.get(child, keyGetter);
+        } catch (Exception ex) {
+            Logger.getLogger(View.class.getName()).log(Level.SEVERE, "Error calling method: " + keyGetter, ex);
+            return child;
+        }
+    }
+    
+    /**
+     * Returns the elements forming the longest strictly increasing subsequence of the
+     * non-negative values (the negative values are never part of it).
+     * 
+     * @param values  the values
+     * @return  true for the elements forming the longest increasing subsequence
+     */
+    private static boolean[] getLongestIncreasing(int[] values) {
+        int n = values.length;
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        
+        for (int i = 0; i < n; ++i) {
+            if (values[i] < 0) continue;
+            
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) low = mid + 1;
+                else high = mid;
+            }
+            
+            previous[i] = (low > 0) ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) ++length;
+        }
+        
+        boolean[] result = new boolean[n];
+        for (int i = (length > 0) ? tails[length - 1] : -1; i >= 0; i = previous[i]) result[i] = true;
+        return result;
+    }
 }
@@ -0,0 +1,500 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A persister which queues the objects to be stored or deleted and writes them
+ * in batches on a background thread (write-behind).
+ * <p>
+ * Repeated modifications of the same object (by identity) are coalesced into a single
+ * write, and a deletion supersedes any pending store of the same object.
+ * The queue is flushed when the flush interval elapses after the first pending
+ * modification, or as soon as the number of pending objects reaches the batch size.
+ * <p>
+ * The objects are written by default by calling their store/delete methods in the
+ * background thread, one at a time: any notification to the UI done by these methods
+ * must therefore be performed on the event dispatching thread, and the lists shown by
+ * the data managers should not depend on them being completed. A custom batch writer
+ * can be set for writing the objects in bulk (e.g. in a single transaction).<br>
+ * Errors are logged and reported to the error handler (if any) on the event dispatching thread;
+ * the futures returned by {@link #storeAsync(DataRecord)} and {@link #deleteAsync(DataRecord)}
+ * are completed on the event dispatching thread when the (possibly coalesced) modification
+ * has been written.
+ * <p>
+ * All the queues still open are flushed on JVM shutdown; applications should anyway call
+ * {@link #flushAll()} (or close the queues) in their shutdown logic.
+ *
+ * @author Giuseppe Gallo
+ */
+public class WriteBehindQueue implements DataRecordPersister {
+    
+    /**
+     * The interface for the classes writing a batch of objects.
+     */
+    public static interface BatchWriter {
+        
+        /**
+         * Writes a batch of objects.
+         * 
+         * @param stored  the objects to be stored
+         * @param deleted  the objects to be deleted
+         * @throws Exception  in case of any problem
+         */
+        public void write(List<DataRecord> stored, List<DataRecord> deleted) throws Exception;
+    }
+    
+    /**
+     * The interface for the classes handling the errors occurred while writing the objects.
+     */
+    public static interface ErrorHandler {
+        
+        /**
+         * Handles an error occurred while writing the objects (called on the event dispatching thread).
+         * 
+         * @param records  the objects which could not be written
+         * @param ex  the exception
+         */
+        public void handleError(List<DataRecord> records, Exception ex);
+    }
+    
+    /**
+     * A pending modification of an object.
+     */
+    private static class Entry {
+        
+        /** The object modified */
+        private final DataRecord record;
+        
+        /** If true, the object must be deleted, otherwise it must be stored */
+        private boolean delete;
+        
+        /** The futures to be completed when the object has been written (null = none) */
+        private ArrayList<CompletableFuture<Void>> futures = null;
+        
+        /**
+         * Allocates a new entry.
+         * 
+         * @param record  the object modified
+         */
+        private Entry(DataRecord record) {
+            this.record = record;
+        }
+    }
+    
+    /** The default flush interval (in milliseconds) */
+    public final static long DEFAULT_FLUSH_INTERVAL = 500;
+    
+    /** The default batch size */
+    public final static int DEFAULT_BATCH_SIZE = 100;
+    
+    /** The queues currently open */
+    private final static Set<WriteBehindQueue> QUEUES = Collections.newSetFromMap(new WeakHashMap<>());
+    
+    /** The hook flushing the queues on JVM shutdown (null = not installed yet) */
+    private static Thread shutdownHook = null;
+    
+    
+    /** The pending modifications, by object */
+    private final IdentityHashMap<DataRecord, Entry> pending = new IdentityHashMap<>();
+    
+    /** The pending modifications, in order of arrival */
+    private final ArrayDeque<Entry> order = new ArrayDeque<>();
+    
+    /** The executor writing the objects */
+    private final ScheduledThreadPoolExecutor executor;
+    
+    /** The time after which the pending modifications are written (in milliseconds) */
+    private final long flushInterval;
+    
+    /** The maximum number of objects written in a batch */
+    private final int batchSize;
+    
+    /** The next flush scheduled (null = none) */
+    private ScheduledFuture<?> scheduled = null;
+    
+    /** The thread currently used by the executor */
+    private volatile Thread worker = null;
+    
+    /** The writer of the batches (null = store/delete called on each object) */
+    private volatile BatchWriter writer = null;
+    
+    /** The handler of the errors (null = errors only logged) */
+    private volatile ErrorHandler errorHandler = null;
+    
+    /** True if the queue has been closed */
+    private boolean closed = false;
+    
+    
+    /**
+     * Allocates a new queue with the default flush interval and batch size.
+     */
+    public WriteBehindQueue() {
+        this(DEFAULT_FLUSH_INTERVAL, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Allocates a new queue.
+     * 
+     * @param flushInterval  the time after which the pending modifications are written (in milliseconds)
+     * @param batchSize  the maximum number of objects written in a batch
+     */
+    public WriteBehindQueue(long flushInterval, int batchSize) {
+        if (flushInterval < 0) throw new IllegalArgumentException("Invalid flush interval: " + flushInterval);
+        if (batchSize < 1) throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        
+        executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "WriteBehindQueue");
+            t.setDaemon(true);
+            worker = t;
+            return t;
+        });
+        executor.setKeepAliveTime(Math.max(flushInterval * 10, 10000), TimeUnit.MILLISECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        
+        register(this);
+    }
+    
+    /**
+     * Sets the writer of the batches.
+     * 
+     * @param writer  the writer of the batches (null = store/delete called on each object)
+     */
+    public void setBatchWriter(BatchWriter writer) {
+        this.writer = writer;
+    }
+    
+    /**
+     * Sets the handler of the errors occurred while writing the objects.
+     * 
+     * @param handler  the handler of the errors (null = errors only logged)
+     */
+    public void setErrorHandler(ErrorHandler handler) {
+        errorHandler = handler;
+    }
+    
+    /**
+     * Returns the time after which the pending modifications are written.
+     * 
+     * @return  the time after which the pending modifications are written (in milliseconds)
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+    
+    /**
+     * Returns the maximum number of objects written in a batch.
+     * 
+     * @return  the maximum number of objects written in a batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Returns the number of objects waiting to be written.
+     * 
+     * @return  the number of objects waiting to be written
+     */
+    public synchronized int getPendingCount() {
+        return order.size();
+    }
+
+    /**
+     * Queues the given object for being stored.<p>
+     * If the queue has been closed, the object is stored directly.
+     * 
+     * @param record  the object to be stored
+     * @throws Exception  in case of any problem (only when the queue has been closed)
+     */
+    @Override
+    public void store(DataRecord record) throws Exception {
+        if (!enqueue(record, false, null)) record.store();
+    }
+
+    /**
+     * Queues the given object for being deleted.<p>
+     * If the queue has been closed, the object is deleted directly.
+     * 
+     * @param record  the object to be deleted
+     * @throws Exception  in case of any problem (only when the queue has been closed)
+     */
+    @Override
+    public void delete(DataRecord record) throws Exception {
+        if (!enqueue(record, true, null)) record.delete();
+    }
+    
+    /**
+     * Queues the given object for being stored, returning a future completed (on the
+     * event dispatching thread) when it has been written.<p>
+     * If the queue has been closed, the object is stored directly.
+     * 
+     * @param record  the object to be stored
+     * @return  the future completed when the object has been stored
+     */
+    @Override
+    public CompletableFuture<Void> storeAsync(DataRecord record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        return enqueue(record, false, future) ? future : DataRecordPersister.super.storeAsync(record);
+    }
+    
+    /**
+     * Queues the given object for being deleted, returning a future completed (on the
+     * event dispatching thread) when it has been written.<p>
+     * If the queue has been closed, the object is deleted directly.
+     * 
+     * @param record  the object to be deleted
+     * @return  the future completed when the object has been deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(DataRecord record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        return enqueue(record, true, future) ? future : DataRecordPersister.super.deleteAsync(record);
+    }
+    
+    /**
+     * Writes all the pending modifications, waiting for their completion.
+     */
+    public void flush() {
+        if (Thread.currentThread() == worker) {
+            writePending();
+            return;
+        }
+        
+        try {
+            executor.submit(this::writePending).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            Logger.getLogger(WriteBehindQueue.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (RejectedExecutionException ex) {
+            // The executor has already been shut down: write in the calling thread
+            writePending();
+        }
+    }
+    
+    /**
+     * Writes all the pending modifications and closes the queue: any further
+     * modification will be written directly in the calling thread.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        
+        flush();
+        executor.shutdown();
+        
+        synchronized (QUEUES) {
+            QUEUES.remove(this);
+        }
+    }
+    
+    /**
+     * Writes all the pending modifications of all the queues currently open.
+     */
+    public static void flushAll() {
+        ArrayList<WriteBehindQueue> queues;
+        synchronized (QUEUES) {
+            queues = new ArrayList<>(QUEUES);
+        }
+        
+        queues.stream().forEach(q -> q.flush());
+    }
+    
+    /**
+     * Registers a new queue, installing the shutdown hook if needed.
+     * 
+     * @param queue  the queue to be registered
+     */
+    private static void register(WriteBehindQueue queue) {
+        synchronized (QUEUES) {
+            QUEUES.add(queue);
+            
+            if (shutdownHook == null) {
+                shutdownHook = new Thread(WriteBehindQueue::flushAll, "WriteBehindQueue shutdown");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+        }
+    }
+    
+    /**
+     * Queues a modification of an object, coalescing it with any pending one.
+     * 
+     * @param record  the object modified
+     * @param delete  if true, the object must be deleted, otherwise it must be stored
+     * @param future  the future to be completed when the object has been written (null = none)
+     * @return  false if the queue has been closed (nothing queued)
+     */
+    private synchronized boolean enqueue(DataRecord record, boolean delete, CompletableFuture<Void> future) {
+        if (closed) return false;
+        
+        Entry e = pending.get(record);
+        if (e == null) {
+            e = new Entry(record);
+            pending.put(record, e);
+            order.add(e);
+        }
+        e.delete = delete;
+        if (future != null) {
+            if (e.futures == null) e.futures = new ArrayList<>(1);
+            e.futures.add(future);
+        }
+        
+        if (scheduled == null) {
+            long delay = (order.size() >= batchSize) ? 0 : flushInterval;
+            scheduled = executor.schedule(this::writePending, delay, TimeUnit.MILLISECONDS);
+        } else if (order.size() == batchSize) {
+            executor.execute(this::writePending);
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Writes the pending modifications in batches, until the queue is empty.
+     */
+    private void writePending() {
+        synchronized (this) {
+            scheduled = null;
+        }
+        
+        List<Entry> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            write(batch);
+        }
+    }
+    
+    /**
+     * Removes from the queue the next batch of modifications.
+     * 
+     * @return  the next batch of modifications (empty = queue empty)
+     */
+    private synchronized List<Entry> takeBatch() {
+        int n = Math.min(batchSize, order.size());
+        ArrayList<Entry> batch = new ArrayList<>(n);
+        
+        for (int i = 0; i < n; ++i) {
+            Entry e = order.poll();
+            pending.remove(e.record);
+            batch.add(e);
+        }
+        
+        return batch;
+    }
+    
+    /**
+     * Writes a batch of modifications.
+     * 
+     * @param batch  the batch of modifications
+     */
+    private void write(List<Entry> batch) {
+        BatchWriter w = writer;
+        
+        if (w == null) {
+            for (Entry e : batch) {
+                try {
+                    if (e.delete) e.record.delete();
+                    else e.record.store();
+                    complete(e, null);
+                } catch (Exception ex) {
+                    reportError(Collections.singletonList(e.record), ex);
+                    complete(e, ex);
+                }
+            }
+            return;
+        }
+        
+        ArrayList<DataRecord> stored = new ArrayList<>(batch.size());
+        ArrayList<DataRecord> deleted = new ArrayList<>();
+        batch.stream().forEach(e -> (e.delete ? deleted : stored).add(e.record));
+        
+        try {
+            w.write(stored, deleted);
+            batch.stream().forEach(e -> complete(e, null));
+        } catch (Exception ex) {
+            ArrayList<DataRecord> records = new ArrayList<>(stored);
+            records.addAll(deleted);
+            reportError(records, ex);
+            batch.stream().forEach(e -> complete(e, ex));
+        }
+    }
+    
+    /**
+     * Completes on the event dispatching thread the futures waiting for a modification.
+     * 
+     * @param e  the modification written
+     * @param ex  the exception occurred while writing it (null = none)
+     */
+    private static void complete(Entry e, Exception ex) {
+        if (e.futures == null) return;
+        
+        ArrayList<CompletableFuture<Void>> futures = e.futures;
+        EventQueue.invokeLater(() -> futures.stream().forEach(f -> {
+            if (ex == null) f.complete(null);
+            else f.completeExceptionally(ex);
+        }));
+    }
+    
+    /**
+     * Logs an error and reports it to the error handler (if any) on the event dispatching thread.
+     * 
+     * @param records  the objects which could not be written
+     * @param ex  the exception
+     */
+    private void reportError(List<DataRecord> records, Exception ex) {
+        Logger.getLogger(WriteBehindQueue.class.getName()).log(Level.SEVERE, "Error writing " + records.size() + " object(s)", ex);
+        
+        ErrorHandler handler = errorHandler;
+        if (handler != null) {
+            EventQueue.invokeLater(() -> handler.handleError(records, ex));
+        }
+    }
+}
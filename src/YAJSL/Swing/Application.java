@@ -29,6 +29,9 @@
  */
 package YAJSL.Swing;
 
+import YAJSL.Data.AsyncPersister;
+import YAJSL.Data.JournalPersister;
+import YAJSL.Data.WriteBehindQueue;
 import YAJSL.Swing.Components.ErrorDialog;
 import YAJSL.Utils.ExtendedProperties;
 import YAJSL.Utils.Localizer;
@@ -328,19 +331,33 @@ public abstract class Application {
     public abstract Properties loadProperties() throws Exception;
     
     /**
-     * Executes the startup logic for the application.
+     * Executes the startup logic for the application.<p>
+     * Implementations persisting the objects to journals should recover them here
+     * (see {@link JournalPersister#recover(JournalPersister.Replayer)}).
      * 
      * @throws Exception  in case of any issue
      */
     public abstract void startup() throws Exception;
     
     /**
-     * Executes the shutdown logic for the application.
+     * Executes the shutdown logic for the application.<p>
+     * Implementations using write-behind queues, asynchronous persisters or journals for storing
+     * the objects should call {@link #flushStoreQueues()}.
      * 
      * @throws Exception  in case of any issue
      */
     public abstract void shutdown() throws Exception;
     
+    /**
+     * Writes all the modifications still pending in the write-behind queues, in the
+     * asynchronous persisters and in the journals, waiting for their completion.
+     */
+    protected void flushStoreQueues() {
+        WriteBehindQueue.flushAll();
+        AsyncPersister.flushAll();
+        JournalPersister.flushAll();
+    }
+    
     /**
      * Executes the logic needed just before making main window visible.
      */
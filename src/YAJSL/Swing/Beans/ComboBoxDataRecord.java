@@ -170,6 +170,36 @@ public class ComboBoxDataRecord<T extends DataRecord> extends JComboBox implemen
             fireContentsChanged(this, index + nullDelta, index + nullDelta);
         }
         
+        /**
+         * Fires the events related to the addition of a range of objects.
+         *
+         * @param first  the index of the first object added
+         * @param last  the index of the last object added (inclusive)
+         */
+        public void fireItemsAdded(int first, int last) {
+            fireIntervalAdded(this, first + nullDelta, last + nullDelta);
+        }
+
+        /**
+         * Fires the events related to the removal of a range of objects.
+         *
+         * @param first  the index of the first object removed
+         * @param last  the index of the last object removed (inclusive)
+         */
+        public void fireItemsRemoved(int first, int last) {
+            fireIntervalRemoved(this, first + nullDelta, last + nullDelta);
+        }
+
+        /**
+         * Fires the events related to the change of a range of objects.
+         *
+         * @param first  the index of the first object changed
+         * @param last  the index of the last object changed (inclusive)
+         */
+        public void fireItemsChanged(int first, int last) {
+            fireContentsChanged(this, first + nullDelta, last + nullDelta);
+        }
+        
         /**
          * Refreshes the list of objects.
          */
@@ -376,6 +406,42 @@ public class ComboBoxDataRecord<T extends DataRecord> extends JComboBox implemen
         model.fireItemChanged(index);
     }
 
+    /**
+     * Notifies the addition of a range of objects to a list (class-specific).
+     *
+     * @param first  the position in the list of the first object added
+     * @param last  the position in the list of the last object added (inclusive)
+     * @param type  the class of the objects added
+     */
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        model.fireItemsAdded(first, last);
+    }
+
+    /**
+     * Notifies the removal of a range of objects from a list (class-specific).
+     *
+     * @param first  the position in the list of the first object removed
+     * @param last  the position in the list of the last object removed (inclusive)
+     * @param type  the class of the objects removed
+     */
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        model.fireItemsRemoved(first, last);
+    }
+
+    /**
+     * Notifies the change of several objects in a list (class-specific).
+     *
+     * @param indices  the positions in the list of the objects changed (in ascending order)
+     * @param type  the class of the objects changed
+     */
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        if (indices.length == 0) return;
+        model.fireItemsChanged(indices[0], indices[indices.length - 1]);
+    }
+
     /**
      * Returns the maximum width of the elements in the list.
      *
@@ -0,0 +1,1090 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.Beans;
+
+import YAJSL.Data.DataRecordManager;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import javax.swing.RowFilter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableStringConverter;
+
+/**
+ * A RowSorter for the tables showing DataRecord objects, extracting the keys of the sort
+ * columns only once for each row.
+ * <p>
+ * When sorting, the values of each sort column are read once per row from the data manager of the
+ * model (the primitive ones into primitive arrays, without boxing) and the indexes of the rows are
+ * then sorted comparing these keys, in parallel for large tables. The keys are kept up to date
+ * with the changes to the model: the rows inserted, deleted or updated are placed in order one at a
+ * time, without sorting again the whole table.
+ * <p>
+ * The primitive columns are compared by their natural order, unless a comparator other than the
+ * default ones of {@link TableDataRecord} is set; the other columns are compared with their
+ * comparator, or by their natural order if Comparable, or as text (with a Collator) otherwise.
+ * The rows with the same keys keep the order of the model.<br>
+ * The comparators are used from several threads when sorting in parallel, so they must be thread safe.
+ * <p>
+ * The rows can be filtered with a RowFilter, as with a TableRowSorter: this class extends
+ * TableRowSorter, replacing its sorting and filtering, so that it can be used by any code
+ * expecting the sorter of a table to be a DefaultRowSorter or a TableRowSorter. A plain
+ * TableRowSorter can still be installed on a TableDataRecord with setRowSorter.
+ *
+ * @author Giuseppe Gallo
+ */
+public class RecordRowSorter extends TableRowSorter<TableModel> {
+    
+    /**
+     * The keys of a sort column, by index of row in the model.
+     */
+    private static abstract class Keys {
+        
+        /** The index of the column */
+        protected final int column;
+        
+        /** The sign applied to the comparisons (-1 = descending) */
+        protected final int sign;
+        
+        /**
+         * Allocates new keys.
+         * 
+         * @param column  the index of the column
+         * @param order  the sort order
+         */
+        protected Keys(int column, SortOrder order) {
+            this.column = column;
+            this.sign = (order == SortOrder.DESCENDING) ? -1 : 1;
+        }
+        
+        /**
+         * Compares the keys of two rows (already applying the sort order).
+         * 
+         * @param a  the index of the first row in the model
+         * @param b  the index of the second row in the model
+         * @return  the result of the comparison
+         */
+        protected abstract int compare(int a, int b);
+        
+        /**
+         * Reads the key of a row.
+         * 
+         * @param row  the index of the row in the model
+         */
+        protected abstract void load(int row);
+        
+        /**
+         * Reads the keys of all the rows.
+         * 
+         * @param size  the number of rows
+         */
+        protected void loadAll(int size) {
+            for (int row = 0; row < size; ++row) load(row);
+        }
+        
+        /**
+         * Makes space for rows inserted (the keys are then loaded separately).
+         * 
+         * @param first  the index of the first row inserted
+         * @param count  the number of rows inserted
+         * @param size  the number of rows before the insertion
+         */
+        protected abstract void insert(int first, int count, int size);
+        
+        /**
+         * Removes the keys of rows deleted.
+         * 
+         * @param first  the index of the first row deleted
+         * @param count  the number of rows deleted
+         * @param size  the number of rows before the deletion
+         */
+        protected abstract void delete(int first, int count, int size);
+    }
+    
+    /**
+     * The entry passed to the filter, referring to a row of the model.
+     */
+    private class RowEntry extends RowFilter.Entry<TableModel, Integer> {
+        
+        /** The index of the row in the model */
+        private int row;
+
+        @Override
+        public TableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public int getValueCount() {
+            return model.getColumnCount();
+        }
+
+        @Override
+        public Object getValue(int index) {
+            return model.getValueAt(row, index);
+        }
+
+        @Override
+        public String getStringValue(int index) {
+            TableStringConverter converter = getStringConverter();
+            if (converter != null) {
+                String value = converter.toString(model, row, index);
+                return (value == null) ? "" : value;
+            }
+            
+            Object value = getValue(index);
+            return (value == null) ? "" : value.toString();
+        }
+
+        @Override
+        public Integer getIdentifier() {
+            return row;
+        }
+    }
+    
+    
+    /** The default number of rows above which the rows are sorted in parallel */
+    public final static int DEFAULT_PARALLEL_THRESHOLD = 10000;
+    
+    /** The default maximum number of sort keys */
+    public final static int DEFAULT_MAX_SORT_KEYS = 3;
+    
+    /** The number of rows sorted in place by insertion */
+    private final static int INSERTION_SORT_THRESHOLD = 32;
+    
+    /** The number of rows updated together above which the table is sorted again */
+    private final static int RESORT_THRESHOLD = 64;
+    
+    
+    /** The model of the table */
+    private TableDataRecord<?>.Model<?> model;
+    
+    /** The current sort keys */
+    private List<SortKey> sortKeys = Collections.emptyList();
+    
+    /** The keys extracted for the current sort keys */
+    private Keys[] keys = new Keys[0];
+    
+    /** The indexes in the model of the rows, in the order of the view (null = unsorted) */
+    private int[] viewToModel = null;
+    
+    /** The indexes in the view of the rows, in the order of the model (null = unsorted) */
+    private int[] modelToView = null;
+    
+    /** The number of rows in the model known to this sorter */
+    private int size = 0;
+    
+    /** The number of rows in the view */
+    private int viewSize = 0;
+    
+    /** The filter of the rows (null = none) */
+    private RowFilter<? super TableModel, ? super Integer> filter = null;
+    
+    /** The entry passed to the filter */
+    private final RowEntry entry = new RowEntry();
+    
+    /** The comparators of the columns, by index */
+    private final HashMap<Integer, Comparator<?>> comparators = new HashMap<>();
+    
+    /** The columns which are not sortable, by index */
+    private final HashMap<Integer, Boolean> unsortable = new HashMap<>();
+    
+    /** The maximum number of sort keys */
+    private int maxSortKeys = DEFAULT_MAX_SORT_KEYS;
+    
+    /** If true, the rows updated are moved to their new position */
+    private boolean sortsOnUpdates = true;
+    
+    /** The number of rows above which the rows are sorted in parallel */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    
+    
+    /**
+     * Allocates a new sorter.
+     * 
+     * @param model  the model of the table
+     */
+    public RecordRowSorter(TableDataRecord<?>.Model<?> model) {
+        super(model);
+        size = model.getRowCount();
+        viewSize = size;
+    }
+    
+    /**
+     * Sets the model of the table, which must be a TableDataRecord.Model.
+     * 
+     * @param model  the model of the table
+     */
+    @Override
+    public void setModel(TableModel model) {
+        if (!(model instanceof TableDataRecord.Model)) throw new IllegalArgumentException("Not a TableDataRecord model: " + model);
+        this.model = (TableDataRecord<?>.Model<?>)model;
+        super.setModel(model);
+    }
+    
+    /**
+     * Sets the filter of the rows, filtering the rows again.
+     * 
+     * @param filter  the filter of the rows (null = all the rows are shown)
+     */
+    @Override
+    public void setRowFilter(RowFilter<? super TableModel, ? super Integer> filter) {
+        this.filter = filter;
+        sort();
+    }
+    
+    /**
+     * Returns the filter of the rows.
+     * 
+     * @return  the filter of the rows (null = none)
+     */
+    @Override
+    public RowFilter<? super TableModel, ? super Integer> getRowFilter() {
+        return filter;
+    }
+    
+    /**
+     * Sets the comparator for a column (null = natural order).
+     * 
+     * @param column  the index of the column
+     * @param comparator  the comparator
+     */
+    @Override
+    public void setComparator(int column, Comparator<?> comparator) {
+        if (comparator == null) comparators.remove(column);
+        else comparators.put(column, comparator);
+        if (isSortColumn(column)) sort();
+    }
+    
+    /**
+     * Returns the comparator for a column.
+     * 
+     * @param column  the index of the column
+     * @return  the comparator for the column (null = natural order)
+     */
+    @Override
+    public Comparator<?> getComparator(int column) {
+        return comparators.get(column);
+    }
+    
+    /**
+     * Sets if a column is sortable.
+     * 
+     * @param column  the index of the column
+     * @param sortable  true if the column is sortable
+     */
+    @Override
+    public void setSortable(int column, boolean sortable) {
+        if (sortable) unsortable.remove(column);
+        else unsortable.put(column, Boolean.TRUE);
+    }
+    
+    /**
+     * Returns true if a column is sortable.
+     * 
+     * @param column  the index of the column
+     * @return  true if the column is sortable
+     */
+    @Override
+    public boolean isSortable(int column) {
+        return !unsortable.containsKey(column);
+    }
+    
+    /**
+     * Sets the maximum number of sort keys.
+     * 
+     * @param max  the maximum number of sort keys
+     */
+    @Override
+    public void setMaxSortKeys(int max) {
+        if (max < 1) throw new IllegalArgumentException("Invalid maximum number of sort keys: " + max);
+        maxSortKeys = max;
+    }
+    
+    /**
+     * Returns the maximum number of sort keys.
+     * 
+     * @return  the maximum number of sort keys
+     */
+    @Override
+    public int getMaxSortKeys() {
+        return maxSortKeys;
+    }
+    
+    /**
+     * Sets if the rows updated are moved to their new position (true by default).
+     * 
+     * @param sorts  if true, the rows updated are moved to their new position
+     */
+    @Override
+    public void setSortsOnUpdates(boolean sorts) {
+        sortsOnUpdates = sorts;
+    }
+    
+    /**
+     * Returns true if the rows updated are moved to their new position.
+     * 
+     * @return  true if the rows updated are moved to their new position
+     */
+    @Override
+    public boolean getSortsOnUpdates() {
+        return sortsOnUpdates;
+    }
+    
+    /**
+     * Sets the number of rows above which the rows are sorted in parallel.
+     * 
+     * @param threshold  the number of rows above which the rows are sorted in parallel
+     */
+    public void setParallelThreshold(int threshold) {
+        parallelThreshold = threshold;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        if (!isSortable(column)) return;
+        
+        ArrayList<SortKey> list = new ArrayList<>(sortKeys);
+        int i = 0;
+        while (i < list.size() && list.get(i).getColumn() != column) ++i;
+        
+        if (i == 0 && !list.isEmpty()) {
+            SortOrder order = (list.get(0).getSortOrder() == SortOrder.ASCENDING) ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+            list.set(0, new SortKey(column, order));
+        } else {
+            if (i < list.size()) list.remove(i);
+            list.add(0, new SortKey(column, SortOrder.ASCENDING));
+        }
+        
+        while (list.size() > maxSortKeys) list.remove(list.size() - 1);
+        setSortKeys(list);
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        ArrayList<SortKey> list = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey k : keys) {
+                if (k == null) throw new IllegalArgumentException("Null sort key");
+                checkColumn(k.getColumn());
+                if (k.getSortOrder() != SortOrder.UNSORTED) list.add(k);
+            }
+        }
+        
+        if (list.equals(sortKeys)) return;
+        sortKeys = Collections.unmodifiableList(list);
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+    
+    /**
+     * Sorts and filters the rows again, extracting all the keys.
+     */
+    @Override
+    public void sort() {
+        int[] previous = getPreviousMapping();
+        size = model.getRowCount();
+        
+        if (sortKeys.isEmpty() && filter == null) {
+            keys = new Keys[0];
+            viewToModel = null;
+            modelToView = null;
+            viewSize = size;
+        } else {
+            keys = new Keys[sortKeys.size()];
+            for (int k = 0; k < keys.length; ++k) {
+                keys[k] = createKeys(sortKeys.get(k));
+                keys[k].loadAll(size);
+            }
+            
+            int[] view = new int[size];
+            int n = 0;
+            for (int row = 0; row < size; ++row) {
+                if (include(row)) view[n++] = row;
+            }
+            
+            viewToModel = (n == size) ? view : Arrays.copyOf(view, n);
+            viewSize = n;
+            if (keys.length > 0) sortRows(viewToModel);
+            modelToView = new int[size];
+            Arrays.fill(modelToView, -1);
+            updateModelToView(0, viewSize);
+        }
+        
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= getViewRowCount()) throw new IndexOutOfBoundsException("Invalid index: " + index);
+        return (viewToModel == null) ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= getModelRowCount()) throw new IndexOutOfBoundsException("Invalid index: " + index);
+        return (modelToView == null) ? index : (index < size) ? modelToView[index] : -1;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return (viewToModel == null) ? model.getRowCount() : viewSize;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    /**
+     * Notifies a change in the columns of the model: the comparators, the columns not sortable
+     * and the sort keys are cleared (the filter is kept).
+     */
+    @Override
+    public void modelStructureChanged() {
+        /* Called by the constructor of the superclass, before this sorter is initialized */
+        if (comparators == null) return;
+        
+        comparators.clear();
+        unsortable.clear();
+        sortKeys = Collections.emptyList();
+        sort();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        sort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        if (viewToModel == null || firstRow < 0 || firstRow > size || count <= 0) {
+            size = model.getRowCount();
+            viewSize = size;
+            if (viewToModel != null) sort();
+            return;
+        }
+        if (count > RESORT_THRESHOLD && count > size / 8) {
+            sort();
+            return;
+        }
+        
+        int[] previous = getPreviousMapping();
+        for (Keys k : keys) {
+            k.insert(firstRow, count, size);
+            for (int row = firstRow; row <= endRow; ++row) k.load(row);
+        }
+        size += count;
+        
+        int[] view = Arrays.copyOf(viewToModel, viewSize + count);
+        for (int i = 0; i < viewSize; ++i) {
+            if (view[i] >= firstRow) view[i] += count;
+        }
+        
+        int n = viewSize;
+        for (int row = firstRow; row <= endRow; ++row) {
+            if (!include(row)) continue;
+            int position = findPosition(view, n, -1, row);
+            System.arraycopy(view, position, view, position + 1, n - position);
+            view[position] = row;
+            ++n;
+        }
+        
+        viewSize = n;
+        viewToModel = view;
+        modelToView = new int[size];
+        Arrays.fill(modelToView, -1);
+        updateModelToView(0, viewSize);
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        if (viewToModel == null || firstRow < 0 || endRow >= size || count <= 0) {
+            size = model.getRowCount();
+            viewSize = size;
+            if (viewToModel != null) sort();
+            return;
+        }
+        
+        int[] previous = getPreviousMapping();
+        for (Keys k : keys) k.delete(firstRow, count, size);
+        size -= count;
+        
+        int n = 0;
+        for (int i = 0; i < viewSize; ++i) {
+            int row = viewToModel[i];
+            if (row >= firstRow && row <= endRow) continue;
+            viewToModel[n++] = (row > endRow) ? row - count : row;
+        }
+        
+        viewSize = n;
+        viewToModel = Arrays.copyOf(viewToModel, viewSize);
+        modelToView = new int[size];
+        Arrays.fill(modelToView, -1);
+        updateModelToView(0, viewSize);
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        updated(firstRow, endRow, -1);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        checkColumn(column);
+        updated(firstRow, endRow, column);
+    }
+    
+    /**
+     * Handles the update of some rows, reading again their keys and moving them to their new
+     * position (or adding them to or removing them from the view, as required by the filter).
+     * 
+     * @param firstRow  the index of the first row updated
+     * @param endRow  the index of the last row updated
+     * @param column  the column updated (-1 = all)
+     */
+    private void updated(int firstRow, int endRow, int column) {
+        if (viewToModel == null || (column >= 0 && filter == null && !isSortColumn(column))) return;
+        if (firstRow < 0 || endRow >= size || size != model.getRowCount()) {
+            sort();
+            return;
+        }
+        
+        if (sortsOnUpdates && endRow - firstRow + 1 > RESORT_THRESHOLD) {
+            sort();
+            return;
+        }
+        
+        int[] previous = sortsOnUpdates ? getPreviousMapping() : null;
+        boolean moved = false;
+        for (int row = firstRow; row <= endRow; ++row) {
+            for (Keys k : keys) k.load(row);
+            if (!sortsOnUpdates) continue;
+            
+            boolean included = include(row);
+            if (included && modelToView[row] < 0) {
+                insertInView(row);
+                moved = true;
+            } else if (!included && modelToView[row] >= 0) {
+                removeFromView(row);
+                moved = true;
+            } else if (included) {
+                moved |= reposition(row);
+            }
+        }
+        
+        if (moved) fireRowSorterChanged(previous);
+    }
+    
+    /**
+     * Moves a row to its position according to its keys.
+     * 
+     * @param row  the index of the row in the model
+     * @return  true if the row has been moved
+     */
+    private boolean reposition(int row) {
+        int from = modelToView[row];
+        int to = findPosition(viewToModel, viewSize, from, row);
+        if (to == from) return false;
+        
+        if (to < from) System.arraycopy(viewToModel, to, viewToModel, to + 1, from - to);
+        else System.arraycopy(viewToModel, from + 1, viewToModel, from, to - from);
+        viewToModel[to] = row;
+        
+        updateModelToView(Math.min(from, to), Math.max(from, to) + 1);
+        return true;
+    }
+    
+    /**
+     * Adds to the view, in its position, a row now accepted by the filter.
+     * 
+     * @param row  the index of the row in the model
+     */
+    private void insertInView(int row) {
+        int position = findPosition(viewToModel, viewSize, -1, row);
+        if (viewSize == viewToModel.length) viewToModel = Arrays.copyOf(viewToModel, Math.max(16, viewSize * 3 / 2));
+        System.arraycopy(viewToModel, position, viewToModel, position + 1, viewSize - position);
+        viewToModel[position] = row;
+        ++viewSize;
+        updateModelToView(position, viewSize);
+    }
+    
+    /**
+     * Removes from the view a row no more accepted by the filter.
+     * 
+     * @param row  the index of the row in the model
+     */
+    private void removeFromView(int row) {
+        int position = modelToView[row];
+        System.arraycopy(viewToModel, position + 1, viewToModel, position, viewSize - position - 1);
+        --viewSize;
+        modelToView[row] = -1;
+        updateModelToView(position, viewSize);
+    }
+    
+    /**
+     * Returns true if a row is accepted by the filter.
+     * 
+     * @param row  the index of the row in the model
+     * @return  true if the row is accepted by the filter (or there is no filter)
+     */
+    private boolean include(int row) {
+        if (filter == null) return true;
+        
+        entry.row = row;
+        return filter.include(entry);
+    }
+    
+    /**
+     * Returns the position at which a row must be placed among the rows sorted,
+     * ignoring the row currently at the given position.
+     * 
+     * @param view  the rows sorted
+     * @param n  the number of rows sorted
+     * @param skip  the position to be ignored (-1 = none)
+     * @param row  the index of the row in the model
+     * @return  the position (among the rows not ignored) at which the row must be placed
+     */
+    private int findPosition(int[] view, int n, int skip, int row) {
+        int low = 0;
+        int high = (skip < 0) ? n : n - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int other = view[(skip < 0 || mid < skip) ? mid : mid + 1];
+            if (compareRows(other, row) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+    
+    /**
+     * Updates the indexes in the view for a range of positions.
+     * 
+     * @param from  the first position
+     * @param to  the end of the range (excluded)
+     */
+    private void updateModelToView(int from, int to) {
+        for (int i = from; i < to; ++i) modelToView[viewToModel[i]] = i;
+    }
+    
+    /**
+     * Returns a copy of the current mapping of the rows, for the notification of the changes.
+     * 
+     * @return  a copy of the current mapping of the rows (null = unsorted and unfiltered)
+     */
+    private int[] getPreviousMapping() {
+        return (viewToModel == null) ? null : Arrays.copyOf(viewToModel, viewSize);
+    }
+    
+    /**
+     * Returns true if a column is one of the sort columns.
+     * 
+     * @param column  the index of the column
+     * @return  true if the column is one of the sort columns
+     */
+    private boolean isSortColumn(int column) {
+        for (SortKey k : sortKeys) {
+            if (k.getColumn() == column) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Checks that the index of a column is valid.
+     * 
+     * @param column  the index of the column
+     */
+    private void checkColumn(int column) {
+        if (column < 0 || column >= model.getColumnCount()) throw new IndexOutOfBoundsException("Invalid column: " + column);
+    }
+    
+    /**
+     * Compares two rows by their keys, then by their order in the model.
+     * 
+     * @param a  the index of the first row in the model
+     * @param b  the index of the second row in the model
+     * @return  the result of the comparison
+     */
+    private int compareRows(int a, int b) {
+        for (Keys k : keys) {
+            int c = k.compare(a, b);
+            if (c != 0) return c;
+        }
+        return Integer.compare(a, b);
+    }
+    
+    /**
+     * Sorts the indexes of the rows by their keys.
+     * 
+     * @param rows  the indexes of the rows
+     */
+    private void sortRows(int[] rows) {
+        int[] temp = new int[rows.length];
+        if (rows.length < parallelThreshold) mergeSort(rows, temp, 0, rows.length);
+        else ForkJoinPool.commonPool().invoke(new ParallelSort(rows, temp, 0, rows.length));
+    }
+    
+    /**
+     * Sorts a range of indexes of rows (merge sort).
+     * 
+     * @param rows  the indexes of the rows
+     * @param temp  the temporary array (of the same size)
+     * @param from  the first position of the range
+     * @param to  the end of the range (excluded)
+     */
+    private void mergeSort(int[] rows, int[] temp, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; ++i) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && compareRows(rows[j], row) > 0) {
+                    rows[j + 1] = rows[j];
+                    --j;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, temp, from, mid);
+        mergeSort(rows, temp, mid, to);
+        merge(rows, temp, from, mid, to);
+    }
+    
+    /**
+     * Merges two sorted ranges of indexes of rows.
+     * 
+     * @param rows  the indexes of the rows
+     * @param temp  the temporary array (of the same size)
+     * @param from  the first position of the first range
+     * @param mid  the first position of the second range
+     * @param to  the end of the second range (excluded)
+     */
+    private void merge(int[] rows, int[] temp, int from, int mid, int to) {
+        if (compareRows(rows[mid - 1], rows[mid]) <= 0) return;
+        
+        System.arraycopy(rows, from, temp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; ++k) {
+            if (j >= to || (i < mid && compareRows(temp[i], temp[j]) <= 0)) rows[k] = temp[i++];
+            else rows[k] = temp[j++];
+        }
+    }
+    
+    /**
+     * The merge sort of a range of indexes of rows, sorting the two halves in parallel.
+     */
+    @SuppressWarnings("serial")
+    private class ParallelSort extends RecursiveAction {
+        
+        /** The indexes of the rows */
+        private final int[] rows;
+        
+        /** The temporary array */
+        private final int[] temp;
+        
+        /** The range to be sorted */
+        private final int from, to;
+        
+        /**
+         * Allocates a new sort.
+         * 
+         * @param rows  the indexes of the rows
+         * @param temp  the temporary array (of the same size)
+         * @param from  the first position of the range
+         * @param to  the end of the range (excluded)
+         */
+        private ParallelSort(int[] rows, int[] temp, int from, int to) {
+            this.rows = rows;
+            this.temp = temp;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < parallelThreshold) {
+                mergeSort(rows, temp, from, to);
+                return;
+            }
+            
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParallelSort(rows, temp, from, mid), new ParallelSort(rows, temp, mid, to));
+            merge(rows, temp, from, mid, to);
+        }
+    }
+    
+    /**
+     * Creates the keys for a sort column.
+     * 
+     * @param key  the sort key
+     * @return  the keys for the column
+     */
+    private Keys createKeys(SortKey key) {
+        int column = key.getColumn();
+        TableDataRecord.Column col = model.getColumn(column);
+        Class<?> type = col.getDataType();
+        Comparator<?> comparator = comparators.get(column);
+        
+        if (type.isPrimitive() && (comparator == null || isDefaultComparator(comparator))) {
+            if (type == double.class || type == float.class) return new DoubleKeys(column, key.getSortOrder(), col.getMethodGet());
+            if (type != char.class) return new LongKeys(column, key.getSortOrder(), col.getMethodGet(), type == boolean.class);
+        }
+        
+        return new ObjectKeys(column, key.getSortOrder(), comparator, type);
+    }
+    
+    /**
+     * Returns true if a comparator is one of the default ones (natural order) for primitive types.
+     * 
+     * @param comparator  the comparator
+     * @return  true if the comparator is one of the default ones for primitive types
+     */
+    private static boolean isDefaultComparator(Comparator<?> comparator) {
+        return comparator == TableDataRecord.COMPARATOR_LONG || comparator == TableDataRecord.COMPARATOR_INT ||
+                comparator == TableDataRecord.COMPARATOR_SHORT || comparator == TableDataRecord.COMPARATOR_BYTE ||
+                comparator == TableDataRecord.COMPARATOR_CHAR || comparator == TableDataRecord.COMPARATOR_BOOLEAN ||
+                comparator == TableDataRecord.COMPARATOR_DOUBLE || comparator == TableDataRecord.COMPARATOR_FLOAT;
+    }
+    
+    /**
+     * Returns the data manager of the model.
+     * 
+     * @return  the data manager of the model
+     */
+    private DataRecordManager<?> getDataManager() {
+        return model.getDataRecordManager();
+    }
+    
+    /**
+     * The keys of an integer (or boolean) column.
+     */
+    private class LongKeys extends Keys {
+        
+        /** The name of the getter method */
+        private final String getter;
+        
+        /** True if the column is boolean */
+        private final boolean bool;
+        
+        /** The keys */
+        private long[] values = new long[size];
+        
+        /**
+         * Allocates new keys.
+         * 
+         * @param column  the index of the column
+         * @param order  the sort order
+         * @param getter  the name of the getter method
+         * @param bool  true if the column is boolean
+         */
+        private LongKeys(int column, SortOrder order, String getter, boolean bool) {
+            super(column, order);
+            this.getter = getter;
+            this.bool = bool;
+        }
+
+        @Override
+        protected int compare(int a, int b) {
+            return sign * Long.compare(values[a], values[b]);
+        }
+
+        @Override
+        protected void load(int row) {
+            try {
+                DataRecordManager<?> dm = getDataManager();
+                values[row] = bool ? (dm.getBoolean(row, getter) ? 1 : 0) : dm.getLong(row, getter);
+            } catch (Exception ex) {
+                Logger.getLogger(RecordRowSorter.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+                values[row] = 0;
+            }
+        }
+
+        @Override
+        protected void insert(int first, int count, int size) {
+            if (values.length < size + count) values = Arrays.copyOf(values, Math.max(size + count, values.length * 3 / 2));
+            System.arraycopy(values, first, values, first + count, size - first);
+        }
+
+        @Override
+        protected void delete(int first, int count, int size) {
+            System.arraycopy(values, first + count, values, first, size - first - count);
+        }
+    }
+    
+    /**
+     * The keys of a decimal column.
+     */
+    private class DoubleKeys extends Keys {
+        
+        /** The name of the getter method */
+        private final String getter;
+        
+        /** The keys */
+        private double[] values = new double[size];
+        
+        /**
+         * Allocates new keys.
+         * 
+         * @param column  the index of the column
+         * @param order  the sort order
+         * @param getter  the name of the getter method
+         */
+        private DoubleKeys(int column, SortOrder order, String getter) {
+            super(column, order);
+            this.getter = getter;
+        }
+
+        @Override
+        protected int compare(int a, int b) {
+            return sign * Double.compare(values[a], values[b]);
+        }
+
+        @Override
+        protected void load(int row) {
+            try {
+                values[row] = getDataManager().getDouble(row, getter);
+            } catch (Exception ex) {
+                Logger.getLogger(RecordRowSorter.class.getName()).log(Level.SEVERE, "Error calling method: " + getter, ex);
+                values[row] = 0;
+            }
+        }
+
+        @Override
+        protected void insert(int first, int count, int size) {
+            if (values.length < size + count) values = Arrays.copyOf(values, Math.max(size + count, values.length * 3 / 2));
+            System.arraycopy(values, first, values, first + count, size - first);
+        }
+
+        @Override
+        protected void delete(int first, int count, int size) {
+            System.arraycopy(values, first + count, values, first, size - first - count);
+        }
+    }
+    
+    /**
+     * The keys of a column of objects (or compared with a specific comparator).
+     */
+    private class ObjectKeys extends Keys {
+        
+        /** The comparator (null = natural order of the keys) */
+        private final Comparator<Object> comparator;
+        
+        /** The collator used for comparing the text of the values (null = values compared as they are) */
+        private final Collator collator;
+        
+        /** The keys */
+        private Object[] values = new Object[size];
+        
+        /**
+         * Allocates new keys.
+         * 
+         * @param column  the index of the column
+         * @param order  the sort order
+         * @param comparator  the comparator (null = default)
+         * @param type  the type of the column
+         */
+        @SuppressWarnings("unchecked")
+        private ObjectKeys(int column, SortOrder order, Comparator<?> comparator, Class<?> type) {
+            super(column, order);
+            this.comparator = (Comparator<Object>)comparator;
+            this.collator = (comparator == null && !(Comparable.class.isAssignableFrom(type) && type != String.class)) ? Collator.getInstance() : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected int compare(int a, int b) {
+            Object x = values[a];
+            Object y = values[b];
+            
+            int c = (x == null) ? ((y == null) ? 0 : -1) : (y == null) ? 1 :
+                    (comparator != null) ? comparator.compare(x, y) :
+                    ((Comparable<Object>)x).compareTo(y);
+            return sign * c;
+        }
+
+        @Override
+        protected void load(int row) {
+            Object value = model.getValueAt(row, column);
+            if (value != null && collator != null) value = collator.getCollationKey(value.toString());
+            values[row] = value;
+        }
+
+        @Override
+        protected void loadAll(int size) {
+            if (collator == null || size < parallelThreshold) {
+                super.loadAll(size);
+                return;
+            }
+            
+            // The values are read on this thread, the collation keys are calculated in parallel
+            for (int row = 0; row < size; ++row) values[row] = model.getValueAt(row, column);
+            ThreadLocal<Collator> collators = ThreadLocal.withInitial(() -> (Collator)collator.clone());
+            IntStream.range(0, size).parallel().forEach(row -> {
+                if (values[row] != null) values[row] = collators.get().getCollationKey(values[row].toString());
+            });
+        }
+
+        @Override
+        protected void insert(int first, int count, int size) {
+            if (values.length < size + count) values = Arrays.copyOf(values, Math.max(size + count, values.length * 3 / 2));
+            System.arraycopy(values, first, values, first + count, size - first);
+        }
+
+        @Override
+        protected void delete(int first, int count, int size) {
+            System.arraycopy(values, first + count, values, first, size - first - count);
+            Arrays.fill(values, size - count, size, null);
+        }
+    }
+}
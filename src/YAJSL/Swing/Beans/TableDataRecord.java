@@ -44,18 +44,25 @@ import YAJSL.Utils.Localizer.LocaleChangeListener;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Font;
+import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractCellEditor;
@@ -70,16 +77,20 @@ import javax.swing.RowSorter;
 import javax.swing.SortOrder;
 import javax.swing.border.Border;
 import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 import YAJSL.Data.DataRecord;
 import YAJSL.Data.DataRecordManager;
+import YAJSL.Data.DataRecordPersister;
 import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 
 /**
@@ -256,6 +267,24 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         /** The thickness of the border for the renderer */
         protected final int borderThickness;
 
+        /** The maximum number of entries kept in each cache of the renderer */
+        private static final int MAX_CACHED = 256;
+
+        /** The borders already created, by color */
+        private final HashMap<Color, Border> borders = new HashMap<>();
+
+        /** The shaded versions of the background colors of non-editable cells, by original color */
+        private final HashMap<Color, Color> shadedColors = new HashMap<>();
+
+        /** The versions of the background colors blended with the selection background, by original color */
+        private final HashMap<Color, Color> selectedColors = new HashMap<>();
+
+        /** The shading used for the colors in shadedColors */
+        private int shading = 0;
+
+        /** The selection background used for the colors in selectedColors */
+        private Color selectionBackground = null;
+
 
         /**
          * Allocates a new renderer.
@@ -289,14 +318,14 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
                         dataType == Integer.class || dataType == int.class ||
                         dataType == Short.class || dataType == short.class ||
                         dataType == Byte.class || dataType == byte.class
-                        ) className = "YAJSL.Swing.RenderersAndEditors.CellRendererInteger";
+                        ) className = "YAJSL.Swing.RenderersAndEditors.CellRendererIntegerLabel";
                 else if (
                         dataType == Float.class || dataType == float.class ||
                         dataType == Double.class || dataType == double.class
-                        ) className = "YAJSL.Swing.RenderersAndEditors.CellRendererNumber";
+                        ) className = "YAJSL.Swing.RenderersAndEditors.CellRendererNumberLabel";
                 else if (Color.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellRendererColor";
                 else if (Icon.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellRendererIcon";
-                else if (Date.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellRendererDate";
+                else if (Date.class.isAssignableFrom(dataType) || isDateType(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellRendererDate";
                 else if (Listable.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellRendererListable";
 
                 if (className != null) properties.setProperty(Column.PROP_CLASS, className);
@@ -312,73 +341,181 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         public final Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
             if (!(table instanceof TableDataRecord)) return getRendererComponent();
 
-            TableDataRecord tab = (TableDataRecord)table;
-            DataRecordManager dm = tab.getModel().dm;
-            int index = table.convertRowIndexToModel(row);
-            Column col = tab.getModel().getColumn(table.convertColumnIndexToModel(column));
+            return prepare((TableDataRecord)table, value, false, isSelected, row, column);
+        }
+
+        /**
+         * Returns the component used for rendering a cell of a primitive column,
+         * reading the value directly from the data manager (without boxing it).
+         *
+         * @param table  the table in which this renderer is used
+         * @param isSelected  true if the cell is selected
+         * @param row  the index of the row shown (in the table)
+         * @param column  the index of the column shown (in the table)
+         * @return  the component used for rendering the cell
+         */
+        private Component getPrimitiveRendererComponent(TableDataRecord<?> table, boolean isSelected, int row, int column) {
+            return prepare(table, null, true, isSelected, row, column);
+        }
+
+        /**
+         * Prepares the component used for rendering a cell.
+         *
+         * @param tab  the table in which this renderer is used
+         * @param value  the value to be shown (ignored if primitive is true)
+         * @param primitive  if true, the value is read directly from the data manager
+         * @param isSelected  true if the cell is selected
+         * @param row  the index of the row shown (in the table)
+         * @param column  the index of the column shown (in the table)
+         * @return  the component used for rendering the cell
+         */
+        private Component prepare(TableDataRecord<?> tab, Object value, boolean primitive, boolean isSelected, int row, int column) {
+            DataRecordManager<?> dm = tab.getModel().dm;
+            int index = tab.convertRowIndexToModel(row);
+            Column col = tab.getModel().getColumn(tab.convertColumnIndexToModel(column));
             boolean isOdd = (row % 2 != 0);
 
+            if (!dm.isLoaded(index)) {
+                preparePlaceholder(tab, col, isOdd, isSelected);
+                return getRendererComponent();
+            }
+
             try {
-                updateBackground(tab, dm, index, col, isOdd, isSelected);
-                updateForeground(tab, dm, index, col, isSelected);
-                updateBorderColor(dm, index, col);
-                updateFont(dm, index, col);
+                RowStyle style = tab.getRowStyle(row, index);
+                updateBackground(tab, style, col, isOdd, isSelected);
+                updateForeground(tab, style, col, isSelected);
+                updateBorderColor(style, col);
+                updateFont(style, col);
 
             } catch (Exception ex) {
                 Logger.getLogger(Renderer.class.getName()).log(Level.SEVERE, null, ex);
             }
 
-            setRendererValue(value);
+            if (!primitive) {
+                setRendererValue(value);
+                return getRendererComponent();
+            }
+
+            try {
+                setRendererValue(dm, index, col.methodGet, col.dataType);
+            } catch (Exception ex) {
+                Logger.getLogger(Renderer.class.getName()).log(Level.SEVERE, null, ex);
+                setRendererValue(null);
+            }
 
             return getRendererComponent();
         }
 
+        /**
+         * Prepares the renderer for a row whose object has not been loaded yet,
+         * using only the attributes of the column.
+         *
+         * @param table  the table in which this renderer is used
+         * @param col  the information about the column
+         * @param isOdd  true if the index of the row shown is odd (in the table)
+         * @param isSelected  true if the row is selected
+         */
+        private void preparePlaceholder(TableDataRecord<?> table, Column col, boolean isOdd, boolean isSelected) {
+            Color color = (isOdd) ? col.backgroundOdd : col.backgroundEven;
+            if (color == null) color = table.getBackground();
+            if (isSelected) color = getSelectedColor(table.selectionBackground, color);
+
+            setRendererEditable(false);
+            setRendererBackground(color);
+            setRendererForeground((isSelected) ? table.selectionForeground : table.getForeground());
+            setRendererBorderColor(null);
+            setRendererPlaceholder();
+        }
+
         /**
          * Updates the background color of the renderer.
          *
          * @param table  the table in which this renderer is used
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          * @param isOdd  true if the index of the row shown is odd (in the table)
          * @param isSelected  true if the row is selected
          *
          * @throws Exception  in case of any issue
          */
-        private void updateBackground(TableDataRecord table, DataRecordManager dm, int index, Column col, boolean isOdd, boolean isSelected) throws Exception {
+        private void updateBackground(TableDataRecord<?> table, RowStyle style, Column col, boolean isOdd, boolean isSelected) throws Exception {
             Color color = null;
 
-            if (col.methodBackground != null) color = (Color)dm.getField(index, col.methodBackground);
+            if (col.methodBackground != null) color = (Color)style.getField(col.methodBackground);
             if (color == null) color = (isOdd) ? col.backgroundOdd : col.backgroundEven;
             if (color == null) color = table.getBackground();
 
-            boolean editable = col.isCellEditable(dm, index);
-            if (!editable && col.nonEditableShading > 0) color = ColorUtils.applyShading(color, col.nonEditableShading);
+            boolean editable = col.isCellEditable(style);
+            if (!editable && col.nonEditableShading > 0) color = getShadedColor(color, col.nonEditableShading);
 
-            if (isSelected) color = ColorUtils.blend(table.selectionBackground, color, 0.2f);
+            if (isSelected) color = getSelectedColor(table.selectionBackground, color);
 
             setRendererEditable(editable);
             setRendererBackground(color);
         }
 
+        /**
+         * Returns the shaded version of a background color, calculating it only the first time.
+         *
+         * @param color  the background color
+         * @param shading  the shading factor
+         * @return  the shaded color
+         */
+        private Color getShadedColor(Color color, int shading) {
+            if (shading != this.shading || shadedColors.size() >= MAX_CACHED) {
+                shadedColors.clear();
+                this.shading = shading;
+            }
+
+            Color shaded = shadedColors.get(color);
+            if (shaded == null) {
+                shaded = ColorUtils.applyShading(color, shading);
+                shadedColors.put(color, shaded);
+            }
+
+            return shaded;
+        }
+
+        /**
+         * Returns the version of a background color blended with the selection background,
+         * calculating it only the first time.
+         *
+         * @param selection  the selection background
+         * @param color  the background color
+         * @return  the blended color
+         */
+        private Color getSelectedColor(Color selection, Color color) {
+            if (!selection.equals(selectionBackground) || selectedColors.size() >= MAX_CACHED) {
+                selectedColors.clear();
+                selectionBackground = selection;
+            }
+
+            Color selected = selectedColors.get(color);
+            if (selected == null) {
+                selected = ColorUtils.blend(selection, color, 0.2f);
+                selectedColors.put(color, selected);
+            }
+
+            return selected;
+        }
+
         /**
          * Updates the foreground color of the renderer.
          *
          * @param table  the table in which this renderer is used
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          * @param isSelected  true if the row is selected
          *
          * @throws Exception  in case of any issue
          */
-        private void updateForeground(TableDataRecord table, DataRecordManager dm, int index, Column col, boolean isSelected) throws Exception {
+        private void updateForeground(TableDataRecord<?> table, RowStyle style, Column col, boolean isSelected) throws Exception {
             Color color = null;
 
             if (isSelected) {
                 color = table.selectionForeground;
             } else {
-                if (col.methodForeground != null) color = (Color)dm.getField(index, col.methodForeground);
+                if (col.methodForeground != null) color = (Color)style.getField(col.methodForeground);
                 if (color == null) color = table.getForeground();
             }
 
@@ -388,28 +525,26 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         /**
          * Updates the color of the border of the renderer.
          *
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          *
          * @throws Exception  in case of any issue
          */
-        private void updateBorderColor(DataRecordManager dm, int index, Column col) throws Exception {
+        private void updateBorderColor(RowStyle style, Column col) throws Exception {
             Color color = null;
 
-            if (col.mandatory) {
-                Object value = dm.getField(index, col.methodGet);
+            if (col.mandatory && !col.dataType.isPrimitive()) {
+                Object value = style.getField(col.methodGet);
                 if (value == null || ((value instanceof String) && ((String)value).isEmpty())) {
                     color = col.borderMissing;
                 }
             }
 
             if (col.methodValidate != null) {
-                boolean valid = (boolean)dm.getField(index, col.methodValidate);
-                if (!valid) color = col.borderInvalid;
+                if (!style.getBoolean(col.methodValidate)) color = col.borderInvalid;
             }
 
-            if (color == null) color = (col.methodBorder == null) ? null : (Color)dm.getField(index, col.methodBorder);
+            if (color == null) color = (col.methodBorder == null) ? null : (Color)style.getField(col.methodBorder);
 
             setRendererBorderColor(color);
         }
@@ -417,14 +552,13 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         /**
          * Updates the font of the renderer.
          *
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          *
          * @throws Exception  in case of any issue
          */
-        private void updateFont(DataRecordManager dm, int index, Column col) throws Exception {
-            Font font = (col.methodFont == null) ? null : (Font)dm.getField(index, col.methodFont);
+        private void updateFont(RowStyle style, Column col) throws Exception {
+            Font font = (col.methodFont == null) ? null : (Font)style.getField(col.methodFont);
             if (font != null) setRendererFont(font);
         }
 
@@ -447,14 +581,25 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             if (borderThickness <= 0) return;
 
             JComponent comp = getRendererComponent();
+            Border border = (color == null) ? null : getLineBorder(color);
+            if (comp.getBorder() != border) comp.setBorder(border);
+        }
 
-            if (color == null) {
-                comp.setBorder(null);
-                return;
+        /**
+         * Returns the line border of the given color, creating it only the first time.
+         *
+         * @param color  the color of the border
+         * @return  the line border of the given color
+         */
+        protected Border getLineBorder(Color color) {
+            Border border = borders.get(color);
+            if (border == null) {
+                if (borders.size() >= MAX_CACHED) borders.clear();
+                border = javax.swing.BorderFactory.createLineBorder(color, borderThickness);
+                borders.put(color, border);
             }
 
-            Border border = javax.swing.BorderFactory.createLineBorder(color, borderThickness);
-            comp.setBorder(border);
+            return border;
         }
 
         /**
@@ -481,6 +626,41 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
          */
         protected abstract void setRendererValue(Object value);
 
+        /**
+         * Returns true if the renderer can read directly the values of the given primitive type
+         * (see {@link #setRendererValue(DataRecordManager, int, String, Class)}).
+         * The default implementation returns false.
+         *
+         * @param type  the primitive type of the values
+         * @return  true if the renderer can read directly the values of the given primitive type
+         */
+        protected boolean isPrimitiveSupported(Class<?> type) {
+            return false;
+        }
+
+        /**
+         * Sets the renderer for showing an object which has not been loaded yet.
+         * The default implementation shows a null value.
+         */
+        protected void setRendererPlaceholder() {
+            setRendererValue(null);
+        }
+
+        /**
+         * Sets the value to be shown by the renderer for a primitive column, reading it
+         * directly from the data manager (e.g. through getDouble to avoid boxing).
+         * The default implementation reads the value through getField.
+         *
+         * @param dm  the data manager used by the table
+         * @param index  the actual index of the underlying DataRecord object
+         * @param getter  the name of the getter method for the column
+         * @param type  the primitive type of the column
+         * @throws Exception  in case of any issue
+         */
+        protected void setRendererValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+            setRendererValue(dm.getField(index, getter));
+        }
+
         /**
          * Adjusts the component attributes depending on the cell being editable or not.
          *
@@ -568,6 +748,10 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
                         dataType == Float.class || dataType == float.class ||
                         dataType == Double.class || dataType == double.class
                         ) className = "YAJSL.Swing.RenderersAndEditors.CellEditorNumber";
+                else if (isDateType(dataType)) {
+                    className = "YAJSL.Swing.RenderersAndEditors.CellEditorDate";
+                    if (properties.getProperty("type") == null) properties.setProperty("type", dataType.getName());
+                }
                 else if (DataRecord.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellEditorComboBoxDataRecord";
                 else if (Listable.class.isAssignableFrom(dataType)) className = "YAJSL.Swing.RenderersAndEditors.CellEditorComboBoxListable";
 
@@ -584,23 +768,62 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
             if (!(table instanceof TableDataRecord)) return getEditorComponent();
 
-            TableDataRecord tab = (TableDataRecord)table;
-            DataRecordManager dm = tab.getModel().dm;
-            int index = table.convertRowIndexToModel(row);
-            Column col = tab.getModel().getColumn(table.convertColumnIndexToModel(column));
+            return prepare((TableDataRecord)table, value, false, isSelected, row, column);
+        }
+
+        /**
+         * Returns the component used for editing a cell of a primitive column,
+         * reading the value directly from the data manager (without boxing it).
+         *
+         * @param table  the table in which this editor is used
+         * @param isSelected  true if the cell is selected
+         * @param row  the index of the row edited (in the table)
+         * @param column  the index of the column edited (in the table)
+         * @return  the component used for editing the cell
+         */
+        private Component getPrimitiveEditorComponent(TableDataRecord<?> table, boolean isSelected, int row, int column) {
+            return prepare(table, null, true, isSelected, row, column);
+        }
+
+        /**
+         * Prepares the component used for editing a cell.
+         *
+         * @param tab  the table in which this editor is used
+         * @param value  the value to be edited (ignored if primitive is true)
+         * @param primitive  if true, the value is read directly from the data manager
+         * @param isSelected  true if the cell is selected
+         * @param row  the index of the row edited (in the table)
+         * @param column  the index of the column edited (in the table)
+         * @return  the component used for editing the cell
+         */
+        private Component prepare(TableDataRecord<?> tab, Object value, boolean primitive, boolean isSelected, int row, int column) {
+            DataRecordManager<?> dm = tab.getModel().dm;
+            int index = tab.convertRowIndexToModel(row);
+            Column col = tab.getModel().getColumn(tab.convertColumnIndexToModel(column));
             boolean isOdd = (row % 2 != 0);
 
             try {
-                updateBackground(tab, dm, index, col, isOdd, isSelected);
-                updateForeground(tab, dm, index, col, isSelected);
-                updateBorderColor(dm, index, col);
-                updateFont(dm, index, col);
+                RowStyle style = tab.getRowStyle(row, index);
+                updateBackground(tab, style, col, isOdd, isSelected);
+                updateForeground(tab, style, col, isSelected);
+                updateBorderColor(style, col);
+                updateFont(style, col);
 
             } catch (Exception ex) {
                 Logger.getLogger(Renderer.class.getName()).log(Level.SEVERE, null, ex);
             }
 
-            setEditorValue(value);
+            if (!primitive) {
+                setEditorValue(value);
+                return getEditorComponent();
+            }
+
+            try {
+                setEditorValue(dm, index, col.methodGet, col.dataType);
+            } catch (Exception ex) {
+                Logger.getLogger(Editor.class.getName()).log(Level.SEVERE, null, ex);
+                setEditorValue(null);
+            }
 
             return getEditorComponent();
         }
@@ -609,18 +832,17 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
          * Updates the background color of the editor.
          *
          * @param table  the table in which this editor is used
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          * @param isOdd  true if the index of the row shown is odd (in the table)
          * @param isSelected  true if the row is selected
          *
          * @throws Exception  in case of any issue
          */
-        private void updateBackground(TableDataRecord table, DataRecordManager dm, int index, Column col, boolean isOdd, boolean isSelected) throws Exception {
+        private void updateBackground(TableDataRecord<?> table, RowStyle style, Column col, boolean isOdd, boolean isSelected) throws Exception {
             Color color = null;
 
-            if (col.methodBackground != null) color = (Color)dm.getField(index, col.methodBackground);
+            if (col.methodBackground != null) color = (Color)style.getField(col.methodBackground);
             if (color == null) color = (isOdd) ? col.backgroundOdd : col.backgroundEven;
             if (color == null) color = table.getBackground();
 
@@ -633,20 +855,19 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
          * Updates the foreground color of the editor.
          *
          * @param table  the table in which this editor is used
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          * @param isSelected  true if the row is selected
          *
          * @throws Exception  in case of any issue
          */
-        private void updateForeground(TableDataRecord table, DataRecordManager dm, int index, Column col, boolean isSelected) throws Exception {
+        private void updateForeground(TableDataRecord<?> table, RowStyle style, Column col, boolean isSelected) throws Exception {
             Color color = null;
 
             if (isSelected) {
                 color = table.selectionForeground;
             } else {
-                if (col.methodForeground != null) color = (Color)dm.getField(index, col.methodForeground);
+                if (col.methodForeground != null) color = (Color)style.getField(col.methodForeground);
                 if (color == null) color = table.getForeground();
             }
 
@@ -656,28 +877,26 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         /**
          * Updates the color of the border of the editor.
          *
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          *
          * @throws Exception  in case of any issue
          */
-        private void updateBorderColor(DataRecordManager dm, int index, Column col) throws Exception {
-            Color color = (col.methodBorder == null) ? null : (Color)dm.getField(index, col.methodBorder);
+        private void updateBorderColor(RowStyle style, Column col) throws Exception {
+            Color color = (col.methodBorder == null) ? null : (Color)style.getField(col.methodBorder);
             if (color != null) setEditorBorderColor(color);
         }
 
         /**
          * Updates the font of the editor.
          *
-         * @param dm  the data manager used by the table
-         * @param index  the actual index of the underlying DataRecord object
+         * @param style  the style snapshot of the row
          * @param col  the information about the column
          *
          * @throws Exception  in case of any issue
          */
-        private void updateFont(DataRecordManager dm, int index, Column col) throws Exception {
-            Font font = (col.methodFont == null) ? null : (Font)dm.getField(index, col.methodFont);
+        private void updateFont(RowStyle style, Column col) throws Exception {
+            Font font = (col.methodFont == null) ? null : (Font)style.getField(col.methodFont);
             if (font != null) setEditorFont(font);
         }
 
@@ -737,6 +956,33 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
          */
         protected abstract void setEditorValue(Object value);
 
+        /**
+         * Returns true if the editor can read directly the values of the given primitive type
+         * (see {@link #setEditorValue(DataRecordManager, int, String, Class)}).
+         * The default implementation returns false.
+         *
+         * @param type  the primitive type of the values
+         * @return  true if the editor can read directly the values of the given primitive type
+         */
+        protected boolean isPrimitiveSupported(Class<?> type) {
+            return false;
+        }
+
+        /**
+         * Sets the value to be shown by the editor for a primitive column, reading it
+         * directly from the data manager (e.g. through getDouble to avoid boxing).
+         * The default implementation reads the value through getField.
+         *
+         * @param dm  the data manager used by the table
+         * @param index  the actual index of the underlying DataRecord object
+         * @param getter  the name of the getter method for the column
+         * @param type  the primitive type of the column
+         * @throws Exception  in case of any issue
+         */
+        protected void setEditorValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+            setEditorValue(dm.getField(index, getter));
+        }
+
         /**
          * Returns the component used by this editor.
          *
@@ -1094,6 +1340,42 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             return label;
         }
 
+        /**
+         * Returns the unique name of this column.
+         *
+         * @return  the unique name of this column
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the type of data in this column.
+         *
+         * @return  the type of data in this column
+         */
+        public Class<?> getDataType() {
+            return dataType;
+        }
+
+        /**
+         * Returns the name of the getter method for this column.
+         *
+         * @return  the name of the getter method for this column
+         */
+        public String getMethodGet() {
+            return methodGet;
+        }
+
+        /**
+         * Returns the name of the setter method for this column (null if the column is not editable).
+         *
+         * @return  the name of the setter method for this column
+         */
+        public String getMethodSet() {
+            return methodSet;
+        }
+
         /**
          * Returns true if the cell in this column at the given row can be edited.
          *
@@ -1103,13 +1385,27 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
          * @throws Exception  in case of any issue
          */
         public boolean isCellEditable(DataRecordManager dm, int row) throws Exception {
-            if (!editable || methodSet == null) return false;
+            if (!editable || methodSet == null || !dm.isLoaded(row)) return false;
             if (methodEditable == null) return true;
 
             Boolean edit = (Boolean)dm.getField(row, methodEditable);
             return (edit == null) ? false : edit;
         }
 
+        /**
+         * Returns true if the cell in this column at the row of the given style snapshot can be edited.
+         *
+         * @param style  the style snapshot of the row
+         * @return  true if the cell in this column at the row of the given style snapshot can be edited
+         * @throws Exception  in case of any issue
+         */
+        public boolean isCellEditable(RowStyle style) throws Exception {
+            if (!editable || methodSet == null || !style.dm.isLoaded(style.index)) return false;
+            if (methodEditable == null) return true;
+
+            return style.getBoolean(methodEditable);
+        }
+
         /**
          * Returns the background color for the cell in this column at the given row.
          *
@@ -1141,6 +1437,125 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
     }
 
 
+    /**
+     * A snapshot of the values used for styling the cells of a row.<p>
+     * The methods defining colors, fonts, validation and editability usually depend on the row only,
+     * so each of them is called once and its value is shared by all the columns of the row,
+     * until the snapshot is invalidated (at each paint pass or when the row changes).<p>
+     * The snapshots are reused by the table for the following paint passes, so the values are kept
+     * in plain arrays which only grow when a row uses more methods than any row before.
+     */
+    public static class RowStyle {
+
+        /** The initial number of values which can be stored without growing the arrays */
+        private static final int INITIAL_CAPACITY = 8;
+
+        /** The data manager from which the values are read */
+        private DataRecordManager<?> dm;
+
+        /** The actual index of the underlying DataRecord object */
+        private int index;
+
+        /** The paint pass for which the snapshot is valid */
+        private int pass;
+
+        /** The names of the methods already called */
+        private String[] methods = new String[INITIAL_CAPACITY];
+
+        /** The values already read, in the same order of the methods */
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        /** The number of values already read */
+        private int count = 0;
+
+
+        /**
+         * Allocates a new style snapshot for a row.
+         *
+         * @param dm  the data manager from which the values are read
+         * @param index  the actual index of the underlying DataRecord object
+         */
+        public RowStyle(DataRecordManager<?> dm, int index) {
+            this.dm = dm;
+            this.index = index;
+        }
+
+        /**
+         * Reuses the snapshot for another row, discarding the values read so far.
+         *
+         * @param dm  the data manager from which the values are read
+         * @param index  the actual index of the underlying DataRecord object
+         * @param pass  the paint pass for which the snapshot is valid
+         */
+        private void reset(DataRecordManager<?> dm, int index, int pass) {
+            this.dm = dm;
+            this.index = index;
+            this.pass = pass;
+
+            // Releases the references, so that the values read can be garbage collected
+            for (int i = 0; i < count; i++) values[i] = null;
+            count = 0;
+        }
+
+        /**
+         * Returns true if the snapshot holds the values of the given row in the given paint pass.
+         *
+         * @param dm  the data manager from which the values are read
+         * @param index  the actual index of the underlying DataRecord object
+         * @param pass  the current paint pass
+         * @return  true if the snapshot holds the values of the given row in the given paint pass
+         */
+        private boolean isValid(DataRecordManager<?> dm, int index, int pass) {
+            return this.index == index && this.pass == pass && this.dm == dm;
+        }
+
+        /**
+         * Returns the actual index of the underlying DataRecord object.
+         *
+         * @return  the actual index of the underlying DataRecord object
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the value of a field of the row, calling its method only the first time.
+         *
+         * @param method  the name of the method returning the value
+         * @return  the value of the field
+         * @throws Exception  in case of any issue
+         */
+        public Object getField(String method) throws Exception {
+            // The method names are shared by the columns, so they are usually the same instances
+            for (int i = 0; i < count; i++) {
+                if (methods[i] == method || methods[i].equals(method)) return values[i];
+            }
+
+            Object value = dm.getField(index, method);
+
+            if (count == methods.length) {
+                methods = Arrays.copyOf(methods, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            methods[count] = method;
+            values[count++] = value;
+            return value;
+        }
+
+        /**
+         * Returns the value of a boolean field of the row, calling its method only the first time.
+         *
+         * @param method  the name of the method returning the value
+         * @return  the value of the field (false if null)
+         * @throws Exception  in case of any issue
+         */
+        public boolean getBoolean(String method) throws Exception {
+            Boolean value = (Boolean)getField(method);
+            return (value == null) ? false : value;
+        }
+    }
+
+
     /**
      * The table model used for the table.
      *
@@ -1300,6 +1715,15 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             return columns.get(column);
         }
 
+        /**
+         * Returns the data manager used by this model.
+         *
+         * @return  the data manager used by this model
+         */
+        public DataRecordManager<K> getDataRecordManager() {
+            return dm;
+        }
+
         /**
          * Returns the label of the given column.
          *
@@ -1370,6 +1794,20 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             dm.delete(index);
         }
 
+        /**
+         * Deletes the object with the given index, returning a future completed when
+         * the object has been deleted (on the event dispatching thread for asynchronous persisters).
+         *
+         * @param index  the index of the onject to be deleted
+         * @return  the future completed when the object has been deleted
+         */
+        public CompletableFuture<Void> deleteAsync(int index) {
+            int size = dm.size();
+            if (index < 0 || index >= size) return CompletableFuture.completedFuture(null);
+
+            return dm.deleteAsync(index);
+        }
+
         /**
          * Returns the object corresponding to the given row in the table (not in the model).
          *
@@ -1466,6 +1904,22 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
     /** The list of objects listening for mouse clicks in the table */
     protected final LinkedList<TableClickListenerInfo> clickListeners = new LinkedList<>();
 
+    /** The style snapshots of the rows painted or edited, by row shown modulo the length of the array */
+    private RowStyle[] rowStyles = new RowStyle[0];
+
+    /** The current paint pass, identifying the valid style snapshots */
+    private int rowStylePass = 0;
+
+
+    /**
+     * Returns true if the given type is one of the date types handled natively by the date renderers and editors.
+     *
+     * @param type  the type of data
+     * @return  true if the given type is one of the date types handled natively by the date renderers and editors
+     */
+    private static boolean isDateType(Class<?> type) {
+        return type == Date.class || type == LocalDate.class || type == LocalDateTime.class || type == Instant.class;
+    }
 
     /**
      * Allocates an object from the class name and the properties.
@@ -1732,7 +2186,7 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         setRowSelectionAllowed(true);
         setColumnSelectionAllowed(false);
 
-        setRowSorter(new TableRowSorter<>(getModel()));
+        setRowSorter(new RecordRowSorter(getModel()));
     }
 
     /**
@@ -1741,13 +2195,12 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      */
     private void initComparators() {
         Model mod = getModel();
-        TableRowSorter sorter = (TableRowSorter)getRowSorter();
 
         for (int i = 0; i < mod.getColumnCount(); ++i) {
             Column data = mod.getColumn(i);
 
             if (!data.sortable) {
-                sorter.setSortable(i, false);
+                setSortable(i, false);
                 continue;
             }
 
@@ -1763,7 +2216,7 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
                     (data.dataType.isAssignableFrom(Comparable.class)) ? COMPARATOR_COMPARABLE :
                     null;
 
-            if (comp != null) sorter.setComparator(i, comp);
+            if (comp != null) setComparator(i, comp);
         }
     }
 
@@ -1849,6 +2302,151 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         return (mod instanceof Model) ? (Model)mod : null;
     }
 
+    /**
+     * Returns the style snapshot of a row, reading its values again if needed.<p>
+     * The snapshots are held in a ring indexed by the row shown, with at least a slot for each visible row,
+     * so during a paint pass each row keeps its snapshot and no new snapshots are allocated.
+     *
+     * @param row  the index of the row shown (in the table)
+     * @param index  the actual index of the underlying DataRecord object
+     * @return  the style snapshot of the row
+     */
+    public RowStyle getRowStyle(int row, int index) {
+        DataRecordManager<?> dm = getModel().dm;
+        if (rowStyles.length == 0) ensureRowStyles(1);
+
+        int slot = ((row < 0) ? index : row) % rowStyles.length;
+        RowStyle style = rowStyles[slot];
+
+        if (style == null) {
+            style = new RowStyle(dm, index);
+            style.pass = rowStylePass;
+            rowStyles[slot] = style;
+        } else if (!style.isValid(dm, index, rowStylePass)) {
+            style.reset(dm, index, rowStylePass);
+        }
+
+        return style;
+    }
+
+    /**
+     * Discards the style snapshots of all the rows.
+     */
+    public void invalidateRowStyles() {
+        rowStylePass++;
+    }
+
+    /**
+     * Makes sure that the ring of style snapshots has at least the given number of slots.
+     *
+     * @param rows  the number of slots required
+     */
+    private void ensureRowStyles(int rows) {
+        if (rowStyles.length >= rows) return;
+
+        // The snapshots already allocated are kept, their slots are checked against the row at each use
+        rowStyles = Arrays.copyOf(rowStyles, rows);
+    }
+
+    /**
+     * Paints the table, starting a new paint pass for the style snapshots of the rows.
+     *
+     * @param g  the graphics context
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        invalidateRowStyles();
+
+        // One slot more than the rows which can be visible at the same time, as the first and last ones may be partial
+        int height = (getParent() == null) ? getHeight() : Math.min(getHeight(), getParent().getHeight());
+        ensureRowStyles(height / Math.max(1, getRowHeight()) + 2);
+
+        super.paintComponent(g);
+    }
+
+    /**
+     * Handles changes in the model, discarding the style snapshots of the rows involved.
+     *
+     * @param e  the event describing the change
+     */
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        // Called by the JTable constructor before the fields are initialized
+        if (rowStyles != null) {
+            int first = e.getFirstRow();
+            int last = e.getLastRow();
+
+            if (e.getType() == TableModelEvent.UPDATE && first >= 0 && last != Integer.MAX_VALUE) {
+                for (RowStyle style : rowStyles) {
+                    if (style != null && style.index >= first && style.index <= last) style.index = -1;
+                }
+            } else {
+                invalidateRowStyles();
+            }
+        }
+
+        super.tableChanged(e);
+    }
+
+    /**
+     * Prepares the renderer for a cell.<p>
+     * The values of primitive columns are read directly by the renderers supporting them,
+     * without going through getValueAt (and boxing the values).
+     *
+     * @param renderer  the renderer to be prepared
+     * @param row  the row of the cell to be rendered
+     * @param column  the column of the cell to be rendered
+     * @return  the component used for rendering the cell
+     */
+    @Override
+    public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+        if (!(renderer instanceof Renderer) || getModel() == null) return super.prepareRenderer(renderer, row, column);
+
+        Renderer r = (Renderer)renderer;
+        Class<?> type = getModel().getColumn(convertColumnIndexToModel(column)).dataType;
+        if (!type.isPrimitive() || !r.isPrimitiveSupported(type)) return super.prepareRenderer(renderer, row, column);
+
+        boolean isSelected = false;
+        if (!isPaintingForPrint()) {
+            isSelected = isCellSelected(row, column);
+
+            JTable.DropLocation dropLocation = getDropLocation();
+            if (dropLocation != null && !dropLocation.isInsertRow() && !dropLocation.isInsertColumn() &&
+                    dropLocation.getRow() == row && dropLocation.getColumn() == column) {
+                isSelected = true;
+            }
+        }
+
+        return r.getPrimitiveRendererComponent(this, isSelected, row, column);
+    }
+
+    /**
+     * Prepares the editor for a cell.<p>
+     * The values of primitive columns are read directly by the editors supporting them,
+     * without going through getValueAt (and boxing the values).
+     *
+     * @param editor  the editor to be prepared
+     * @param row  the row of the cell to be edited
+     * @param column  the column of the cell to be edited
+     * @return  the component used for editing the cell
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public Component prepareEditor(TableCellEditor editor, int row, int column) {
+        if (!(editor instanceof Editor) || getModel() == null) return super.prepareEditor(editor, row, column);
+
+        Editor e = (Editor)editor;
+        Class<?> type = getModel().getColumn(convertColumnIndexToModel(column)).dataType;
+        if (!type.isPrimitive() || !e.isPrimitiveSupported(type)) return super.prepareEditor(editor, row, column);
+
+        Component comp = e.getPrimitiveEditorComponent(this, isCellSelected(row, column), row, column);
+        if (comp instanceof JComponent && ((JComponent)comp).getNextFocusableComponent() == null) {
+            ((JComponent)comp).setNextFocusableComponent(this);
+        }
+
+        return comp;
+    }
+
     /**
      * Enables or disables the table (and its header).
      *
@@ -2166,10 +2764,13 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
     }
 
     /**
-     * Deletes the object currently selected.
+     * Deletes the object currently selected.<p>
+     * When the persister of the data manager writes asynchronously, the record count
+     * is updated once the object has been deleted and any error is reported to the user.
      *
-     * @throws Exception  in case of any problem when deleting the object
+     * @throws Exception  in case of any problem when deleting the object (synchronous persisters)
      */
+    @SuppressWarnings("unchecked")
     public void deleteSelectedObject() throws Exception {
         stopEditing();
         int index = getSelectionModel().getMinSelectionIndex();
@@ -2180,22 +2781,63 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             index = rs.convertRowIndexToModel(index);
         }
 
-        getModel().delete(index);
-        updateRecordCount();
+        Model<?> mod = getModel();
+        CompletableFuture<Void> future = mod.deleteAsync(index);
+        if (future.isDone()) {
+            join(future);
+            updateRecordCount();
+            return;
+        }
+
+        future.whenComplete((v, ex) -> {
+            if (ex != null) showPersistenceError(mod, "TableDataRecord.error.deleteObject", ex);
+            updateRecordCount();
+        });
     }
 
     /**
-     * Adds an object to the table and stores it.
+     * Adds an object to the table and stores it.<p>
+     * When the persister of the data manager writes asynchronously, the row is inserted,
+     * selected and edited only once the object has been stored: if storing fails the
+     * error is reported to the user and no row is added.
      *
      * @param obj  the object to be added
-     * @throws Exception  in case of any problem adding the object
+     * @throws Exception  in case of any problem adding the object (synchronous persisters)
      */
+    @SuppressWarnings("unchecked")
     public void addObject(T obj) throws Exception {
         stopEditing();
 
-        Model mod = getModel();
+        Model<?> mod = getModel();
         int index = mod.getRowCount();
-        obj.store();
+        DataRecordPersister persister = (mod.dm == null) ? DataRecordPersister.DIRECT : mod.dm.getPersister();
+        CompletableFuture<Void> future = persister.storeAsync(obj);
+        if (future.isDone()) {
+            join(future);
+            objectStored(obj, index);
+            return;
+        }
+
+        future.whenComplete((v, ex) -> {
+            if (ex != null) showPersistenceError(mod, "TableDataRecord.error.addObject", ex);
+            else objectStored(obj, -1);
+        });
+    }
+
+    /**
+     * Inserts the row of an object just stored, then selects and starts editing it.
+     *
+     * @param obj  the object stored
+     * @param index  the index of the row in the model (-1 = to be determined through the data manager)
+     */
+    @SuppressWarnings("unchecked")
+    private void objectStored(T obj, int index) {
+        Model<?> mod = getModel();
+        if (index < 0) {
+            index = (mod.dm == null) ? -1 : ((DataRecordManager<T>)mod.dm).getIndex(obj);
+            if (index < 0) index = mod.getRowCount() - 1;
+            if (index < 0) return;
+        }
         mod.fireTableRowsInserted(index, index);
 
         RowSorter rs = getRowSorter();
@@ -2210,6 +2852,38 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
         updateRecordCount();
     }
 
+    /**
+     * Waits for a future already completed, throwing the exception it failed with (if any).
+     *
+     * @param future  the future
+     * @throws Exception  the exception the future failed with
+     */
+    private static void join(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception)cause;
+            if (cause instanceof Error) throw (Error)cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Logs and shows to the user an error occurred while writing an object asynchronously.
+     *
+     * @param mod  the table model
+     * @param prefix  the prefix to be used to retrieve the error title and description
+     * @param ex  the exception
+     */
+    private void showPersistenceError(Model<?> mod, String prefix, Throwable ex) {
+        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        Logger.getLogger(TableDataRecord.class.getName()).log(Level.SEVERE, null, cause);
+        if (mod.app == null) return;
+
+        ErrorDialog.showDialog(mod.app, prefix, (cause instanceof Exception) ? (Exception)cause : new Exception(cause));
+    }
+
     /**
      * Notifies the record index update to the control panel
      */
@@ -2227,6 +2901,10 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      */
     public void sortByColumn(int column, SortOrder order) {
         RowSorter rs = getRowSorter();
+        if (rs instanceof RecordRowSorter) {
+            ((RecordRowSorter)rs).setSortKeys(Collections.singletonList(new RowSorter.SortKey(column, order)));
+            return;
+        }
         if (rs == null || !(rs instanceof DefaultRowSorter)) return;
 
    	DefaultRowSorter sorter = (DefaultRowSorter)rs;
@@ -2252,7 +2930,7 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             list.add(new RowSorter.SortKey(columns[i], order[i]));
         }
     	sorter.setSortKeys(list);
-    	sorter.sort();
+    	if (!(sorter instanceof RecordRowSorter)) sorter.sort();
     }
 
     /**
@@ -2302,6 +2980,10 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      */
     public void setComparator(int column, Comparator comparator) {
         RowSorter rs = getRowSorter();
+        if (rs instanceof RecordRowSorter) {
+            ((RecordRowSorter)rs).setComparator(column, comparator);
+            return;
+        }
         if (rs == null || !(rs instanceof DefaultRowSorter)) return;
 
         DefaultRowSorter sorter = (DefaultRowSorter)rs;
@@ -2329,13 +3011,8 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      * @param comparators  the comparators
      */
     public void setComparator(int[] columns, Comparator[] comparators) {
-        RowSorter rs = getRowSorter();
-        if (rs == null || !(rs instanceof DefaultRowSorter)) return;
-
-        DefaultRowSorter sorter = (DefaultRowSorter)rs;
-
         for (int i = 0; i < columns.length; ++i) {
-            sorter.setComparator(columns[i], comparators[i]);
+            setComparator(columns[i], comparators[i]);
         }
     }
 
@@ -2346,11 +3023,6 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      * @param comparators  the comparators
      */
     public void setComparator(String[] columns, Comparator[] comparators) {
-        RowSorter rs = getRowSorter();
-        if (rs == null || !(rs instanceof DefaultRowSorter)) return;
-
-        DefaultRowSorter sorter = (DefaultRowSorter)rs;
-
         for (int i = 0; i < columns.length; ++i) {
             String col = columns[i];
             Comparator comp = comparators[i];
@@ -2358,7 +3030,7 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
             Integer index = getColumnIndex(col);
             if (index == null) continue;
 
-            sorter.setComparator(index, comp);
+            setComparator(index, comp);
         }
     }
 
@@ -2370,6 +3042,10 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      */
     public void setSortable(int column, boolean sortable) {
         RowSorter rs = getRowSorter();
+        if (rs instanceof RecordRowSorter) {
+            ((RecordRowSorter)rs).setSortable(column, sortable);
+            return;
+        }
         if (rs == null || !(rs instanceof DefaultRowSorter)) return;
 
         DefaultRowSorter sorter = (DefaultRowSorter)rs;
@@ -2397,13 +3073,8 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      * @param sortable  the flag indicating if the columns are sortable
      */
     public void setSortable(int[] columns, boolean[] sortable) {
-        RowSorter rs = getRowSorter();
-        if (rs == null || !(rs instanceof DefaultRowSorter)) return;
-
-        DefaultRowSorter sorter = (DefaultRowSorter)rs;
-
         for (int i = 0; i < columns.length; ++i) {
-            sorter.setSortable(columns[i], sortable[i]);
+            setSortable(columns[i], sortable[i]);
         }
     }
 
@@ -2414,18 +3085,13 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
      * @param sortable  the flag indicating if the columns are sortable
      */
     public void setSortable(String[] columns, boolean[] sortable) {
-        RowSorter rs = getRowSorter();
-        if (rs == null || !(rs instanceof DefaultRowSorter)) return;
-
-        DefaultRowSorter sorter = (DefaultRowSorter)rs;
-
         for (int i = 0; i < columns.length; ++i) {
             String col = columns[i];
 
             Integer index = getColumnIndex(col);
             if (index == null) continue;
 
-            sorter.setSortable(index, sortable[i]);
+            setSortable(index, sortable[i]);
         }
     }
 
@@ -2463,27 +3129,73 @@ public class TableDataRecord<T extends DataRecord> extends JTable implements Dat
 
     @Override
     public void listChanged(Class<?> type) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> listChanged(type));
+            return;
+        }
         getModel().fireTableDataChanged();
         updateRecordCount();
     }
 
     @Override
     public void objectAdded(int index, Class<?> type, Object object) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectAdded(index, type, object));
+            return;
+        }
         getModel().fireTableRowsInserted(index, index);
         updateRecordCount();
     }
 
     @Override
     public void objectRemoved(int index, Class<?> type) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectRemoved(index, type));
+            return;
+        }
         getModel().fireTableRowsDeleted(index, index);
         updateRecordCount();
     }
 
     @Override
     public void objectChanged(int index, Class<?> type, Object object) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectChanged(index, type, object));
+            return;
+        }
         getModel().fireTableRowsUpdated(index, index);
     }
 
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectsAdded(first, last, type));
+            return;
+        }
+        getModel().fireTableRowsInserted(first, last);
+        updateRecordCount();
+    }
+
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectsRemoved(first, last, type));
+            return;
+        }
+        getModel().fireTableRowsDeleted(first, last);
+        updateRecordCount();
+    }
+
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        if (indices.length == 0) return;
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> objectsChanged(indices, type));
+            return;
+        }
+        getModel().fireTableRowsUpdated(indices[0], indices[indices.length - 1]);
+    }
+
     /**
      * Notifies the change of the object currently selected.
      *
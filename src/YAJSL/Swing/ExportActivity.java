@@ -0,0 +1,509 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing;
+
+import YAJSL.Data.DataRecordManager;
+import YAJSL.Data.Listable;
+import YAJSL.Swing.Beans.TableDataRecord;
+import YAJSL.Swing.RenderersAndEditors.CellRendererDate;
+import YAJSL.Swing.RenderersAndEditors.CellRendererNumber;
+import YAJSL.Swing.RenderersAndEditors.CellRendererNumberLabel;
+import YAJSL.Utils.DateFormatCache;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * An activity exporting what a table shows to a file (CSV, TSV or JSON): the visible
+ * columns in the order of the view, and the rows in the order of the view (sorted and filtered).
+ * <p>
+ * The rows are read one at a time from the data manager of the table through the getter methods
+ * of the columns, formatted and written through a buffered FileChannel, without copying the data.
+ * The formatting of the columns is prepared in advance from their renderers: the dates are written
+ * with the format of their renderer and the decimal numbers with the decimal digits shown by their
+ * renderer (always using '.' as decimal separator, without grouping).<br>
+ * The activity must be allocated on the event dispatching thread, where it takes a snapshot of the
+ * order of columns and rows; the data must not be modified during the export (the task disables
+ * its parent while running). The export can be cancelled, in which case the file is deleted.
+ *
+ * @author Giuseppe Gallo
+ */
+public class ExportActivity extends Task.Activity {
+    
+    /**
+     * The formats of the files.
+     */
+    public static enum Format {
+        
+        /** Comma separated values, with a header holding the names of the columns */
+        CSV,
+        
+        /** Tab separated values, with a header holding the names of the columns */
+        TSV,
+        
+        /** An array of JSON objects, with the names of the columns as keys */
+        JSON
+    }
+    
+    /**
+     * A column exported, with its formatting.
+     */
+    private static abstract class ColumnWriter {
+        
+        /** The name of the column */
+        protected final String name;
+        
+        /** The name of the getter method */
+        protected final String getter;
+        
+        /** True if the values are numbers or booleans (not quoted in JSON) */
+        protected final boolean literal;
+        
+        /**
+         * Allocates a new column.
+         * 
+         * @param col  the column of the table
+         * @param literal  true if the values are numbers or booleans (not quoted in JSON)
+         */
+        protected ColumnWriter(TableDataRecord.Column col, boolean literal) {
+            this.name = col.getName();
+            this.getter = col.getMethodGet();
+            this.literal = literal;
+        }
+        
+        /**
+         * Returns the text of the value for a row.
+         * 
+         * @param dm  the data manager
+         * @param index  the index of the row in the data manager
+         * @return  the text of the value (null = no value)
+         * @throws Exception  in case of any problem
+         */
+        protected abstract String format(DataRecordManager<?> dm, int index) throws Exception;
+    }
+    
+    /** The number of rows per step of progress */
+    private final static int ROWS_PER_STEP = 1000;
+    
+    /** The number of characters buffered before encoding them */
+    private final static int BUFFER_CHARS = 1 << 15;
+    
+    /** The size of the buffer of the channel */
+    private final static int BUFFER_BYTES = 1 << 16;
+    
+    
+    /** The file to be written */
+    private final Path file;
+    
+    /** The format of the file */
+    private final Format format;
+    
+    /** The data manager of the table */
+    private final DataRecordManager<?> dm;
+    
+    /** The columns exported, in the order of the view */
+    private final ColumnWriter[] columns;
+    
+    /** The indexes in the data manager of the rows exported, in the order of the view */
+    private final int[] rows;
+    
+    /** The charset of the file */
+    private Charset charset = StandardCharsets.UTF_8;
+    
+    /** True if the export has been cancelled */
+    private volatile boolean cancelled = false;
+    
+    
+    /**
+     * Allocates a new activity (must be called on the event dispatching thread).
+     * 
+     * @param table  the table to be exported
+     * @param file  the file to be written
+     * @param format  the format of the file
+     */
+    public ExportActivity(TableDataRecord<?> table, Path file, Format format) {
+        this.file = file;
+        this.format = format;
+        
+        dm = table.getModel().getDataRecordManager();
+        
+        columns = new ColumnWriter[table.getColumnCount()];
+        for (int i = 0; i < columns.length; ++i) {
+            TableDataRecord.Column col = table.getModel().getColumn(table.convertColumnIndexToModel(i));
+            columns[i] = createWriter(col, table.getColumnModel().getColumn(i).getCellRenderer());
+        }
+        
+        rows = new int[table.getRowCount()];
+        for (int i = 0; i < rows.length; ++i) rows[i] = table.convertRowIndexToModel(i);
+    }
+    
+    /**
+     * Sets the charset of the file (UTF-8 by default).
+     * 
+     * @param charset  the charset of the file
+     * @return  this activity
+     */
+    public ExportActivity setCharset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+    
+    /**
+     * Cancels the export (the file is deleted).
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Returns true if the export has been cancelled.
+     * 
+     * @return  true if the export has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the total number of steps for this activity (one per thousand rows).
+     *
+     * @return  the total number of steps for this activity
+     */
+    @Override
+    public int getSteps() {
+        return Math.max(1, (rows.length + ROWS_PER_STEP - 1) / ROWS_PER_STEP);
+    }
+
+    /**
+     * Exports the table.
+     *
+     * @throws Exception  in case of any issue (InterruptedException if cancelled)
+     */
+    @Override
+    public void executeSteps() throws Exception {
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CharsetEncoder encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            StringBuilder text = new StringBuilder(BUFFER_CHARS + 1024);
+            
+            writeHeader(text);
+            for (int r = 0; r < rows.length; ++r) {
+                writeRow(text, rows[r], r == 0);
+                if (text.length() >= BUFFER_CHARS) write(channel, encoder, buffer, text, false);
+                
+                if ((r + 1) % ROWS_PER_STEP == 0) {
+                    if (cancelled || Thread.currentThread().isInterrupted()) throw new InterruptedException("Export cancelled");
+                    progress(1);
+                }
+            }
+            if (format == Format.JSON) text.append((rows.length == 0) ? "]\n" : "\n]\n");
+            
+            write(channel, encoder, buffer, text, true);
+            done = true;
+        } finally {
+            if (!done) Files.deleteIfExists(file);
+        }
+    }
+    
+    /**
+     * Writes the header of the file.
+     * 
+     * @param text  the buffer of text
+     */
+    private void writeHeader(StringBuilder text) {
+        if (format == Format.JSON) {
+            text.append('[');
+            return;
+        }
+        
+        for (int c = 0; c < columns.length; ++c) {
+            if (c > 0) text.append(getDelimiter());
+            appendText(text, columns[c].name);
+        }
+        text.append('\n');
+    }
+    
+    /**
+     * Writes a row.
+     * 
+     * @param text  the buffer of text
+     * @param index  the index of the row in the data manager
+     * @param first  true if this is the first row
+     * @throws Exception  in case of any problem
+     */
+    private void writeRow(StringBuilder text, int index, boolean first) throws Exception {
+        if (format == Format.JSON) {
+            text.append(first ? "\n{" : ",\n{");
+            for (int c = 0; c < columns.length; ++c) {
+                if (c > 0) text.append(',');
+                appendJSON(text, columns[c].name);
+                text.append(':');
+                
+                String value = columns[c].format(dm, index);
+                if (value == null) text.append("null");
+                else if (columns[c].literal) text.append(value);
+                else appendJSON(text, value);
+            }
+            text.append('}');
+            return;
+        }
+        
+        for (int c = 0; c < columns.length; ++c) {
+            if (c > 0) text.append(getDelimiter());
+            String value = columns[c].format(dm, index);
+            if (value != null) appendText(text, value);
+        }
+        text.append('\n');
+    }
+    
+    /**
+     * Returns the delimiter of the fields.
+     * 
+     * @return  the delimiter of the fields
+     */
+    private char getDelimiter() {
+        return (format == Format.TSV) ? '\t' : ',';
+    }
+    
+    /**
+     * Appends a field of a CSV or TSV file, quoting (CSV) or replacing (TSV) the special characters.<p>
+     * The line breaks are always replaced by spaces, since ImportActivity reads one record per line.
+     * 
+     * @param text  the buffer of text
+     * @param value  the value of the field
+     */
+    private void appendText(StringBuilder text, String value) {
+        if (format == Format.TSV) {
+            for (int i = 0; i < value.length(); ++i) {
+                char c = value.charAt(i);
+                text.append((c == '\t' || c == '\n' || c == '\r') ? ' ' : c);
+            }
+            return;
+        }
+        
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; ++i) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"';
+        }
+        
+        if (quote) text.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"') text.append('"');
+            text.append((c == '\n' || c == '\r') ? ' ' : c);
+        }
+        if (quote) text.append('"');
+    }
+    
+    /**
+     * Appends a JSON string.
+     * 
+     * @param text  the buffer of text
+     * @param value  the string
+     */
+    private static void appendJSON(StringBuilder text, String value) {
+        text.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': text.append("\\\""); break;
+                case '\\': text.append("\\\\"); break;
+                case '\n': text.append("\\n"); break;
+                case '\r': text.append("\\r"); break;
+                case '\t': text.append("\\t"); break;
+                default:
+                    if (c < 0x20) text.append(String.format("\\u%04x", (int)c));
+                    else text.append(c);
+            }
+        }
+        text.append('"');
+    }
+    
+    /**
+     * Encodes the buffered text and writes it to the file.
+     * 
+     * @param channel  the channel of the file
+     * @param encoder  the encoder
+     * @param buffer  the buffer of the channel
+     * @param text  the buffered text (cleared)
+     * @param end  true if this is the end of the file
+     * @throws IOException  in case of any problem
+     */
+    private static void write(FileChannel channel, CharsetEncoder encoder, ByteBuffer buffer, StringBuilder text, boolean end) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, end);
+            if (result.isError()) result.throwException();
+            if (result.isUnderflow()) break;
+            drain(channel, buffer);
+        }
+        
+        if (end) {
+            while (encoder.flush(buffer).isOverflow()) drain(channel, buffer);
+            drain(channel, buffer);
+        }
+        
+        // Any character left (e.g. the first half of a surrogate pair) is kept for the next call
+        text.delete(0, chars.position());
+    }
+    
+    /**
+     * Writes the content of the buffer to the file.
+     * 
+     * @param channel  the channel of the file
+     * @param buffer  the buffer of the channel
+     * @throws IOException  in case of any problem
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        ((Buffer)buffer).flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        ((Buffer)buffer).clear();
+    }
+    
+    /**
+     * Prepares the formatting of a column, based on its type and renderer.
+     * 
+     * @param col  the column of the table
+     * @param renderer  the renderer of the column
+     * @return  the column exported
+     */
+    private static ColumnWriter createWriter(TableDataRecord.Column col, TableCellRenderer renderer) {
+        Class<?> type = col.getDataType();
+        
+        if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+            return new ColumnWriter(col, true) {
+                @Override
+                protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                    return Long.toString(dm.getLong(index, getter));
+                }
+            };
+        }
+        
+        if (type == boolean.class) {
+            return new ColumnWriter(col, true) {
+                @Override
+                protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                    return dm.getBoolean(index, getter) ? "true" : "false";
+                }
+            };
+        }
+        
+        if (type == double.class || type == float.class) {
+            DecimalFormat decimal = createDecimalFormat(renderer);
+            return new ColumnWriter(col, true) {
+                @Override
+                protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                    return formatDouble(decimal, dm.getDouble(index, getter));
+                }
+            };
+        }
+        
+        if (Number.class.isAssignableFrom(type) || Boolean.class == type) {
+            boolean integer = type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+            DecimalFormat decimal = integer ? null : createDecimalFormat(renderer);
+            return new ColumnWriter(col, true) {
+                @Override
+                protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                    Object value = dm.getField(index, getter);
+                    if (value instanceof Number && decimal != null) return formatDouble(decimal, ((Number)value).doubleValue());
+                    return (value == null) ? null : value.toString();
+                }
+            };
+        }
+        
+        if (renderer instanceof CellRendererDate) {
+            // The date formatter is thread-safe and shares the texts already shown by the renderer
+            DateFormatCache date = ((CellRendererDate)renderer).getFormatCache();
+            return new ColumnWriter(col, false) {
+                @Override
+                protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                    return date.format(dm.getField(index, getter));
+                }
+            };
+        }
+        
+        return new ColumnWriter(col, false) {
+            @Override
+            protected String format(DataRecordManager<?> dm, int index) throws Exception {
+                Object value = dm.getField(index, getter);
+                if (value instanceof Listable) return ((Listable)value).getListableText();
+                return (value == null) ? null : value.toString();
+            }
+        };
+    }
+    
+    /**
+     * Returns the format of the decimal numbers shown by a renderer.
+     * 
+     * @param renderer  the renderer
+     * @return  the format of the decimal numbers (null = shown as they are)
+     */
+    private static DecimalFormat createDecimalFormat(TableCellRenderer renderer) {
+        int digits;
+        if (renderer instanceof CellRendererNumberLabel) digits = ((CellRendererNumberLabel)renderer).getDecimalDigits();
+        else if (renderer instanceof CellRendererNumber) digits = ((CellRendererNumber)renderer).getDecimalDigits();
+        else return null;
+        
+        DecimalFormat decimal = new DecimalFormat("0", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        decimal.setGroupingUsed(false);
+        decimal.setMinimumFractionDigits(digits);
+        decimal.setMaximumFractionDigits(digits);
+        return decimal;
+    }
+    
+    /**
+     * Formats a decimal number.
+     * 
+     * @param decimal  the format of the decimal numbers (null = shown as they are)
+     * @param value  the number
+     * @return  the text of the number (null = not a finite number)
+     */
+    private static String formatDouble(DecimalFormat decimal, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return null;
+        return (decimal == null) ? Double.toString(value) : decimal.format(value);
+    }
+}
@@ -0,0 +1,692 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing;
+
+import YAJSL.Data.DataListListener;
+import YAJSL.Data.DataRecord;
+import YAJSL.Data.FieldAccessors;
+import YAJSL.Swing.Beans.TableDataRecord;
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An activity importing the records of a delimited text file (CSV, TSV, ...) into a list.
+ * <p>
+ * The file is read through a FileChannel and split into chunks at line boundaries; the
+ * chunks are parsed in parallel on a ForkJoinPool, each line producing a new record whose
+ * fields are set through the setter methods mapped to the columns of the file (the same
+ * setters used by the columns of a {@link TableDataRecord}, see {@link #mapColumns(TableDataRecord.Model)}).
+ * The records are then appended to the list on the event dispatching thread, in the order of
+ * the file, with a single notification to the listeners (e.g. the data managers and the tables
+ * using the list).<br>
+ * The progress is reported to the task as the chunks are parsed.
+ * <p>
+ * The fields can be enclosed in double quotes (doubling the quotes inside them); the
+ * quoted fields cannot contain line breaks.
+ *
+ * @param <T>  the type of DataRecord imported
+ * @author Giuseppe Gallo
+ */
+public class ImportActivity<T extends DataRecord> extends Task.Activity {
+    
+    /**
+     * The interface for the classes allocating the records imported (called concurrently).
+     * 
+     * @param <T>  the type of DataRecord allocated
+     */
+    public static interface Factory<T> {
+        
+        /**
+         * Allocates a new record.
+         * 
+         * @return  the new record
+         * @throws Exception  in case of any problem
+         */
+        public T create() throws Exception;
+    }
+    
+    /**
+     * The interface for the classes converting the text of the fields (called concurrently).
+     */
+    public static interface Parser {
+        
+        /**
+         * Converts the text of a field.
+         * 
+         * @param text  the text of the field (not empty)
+         * @return  the value of the field
+         * @throws Exception  in case the text is not valid
+         */
+        public Object parse(String text) throws Exception;
+    }
+    
+    /**
+     * A column of the file mapped to a setter method.
+     */
+    private static class Mapping {
+        
+        /** The name of the column in the header (null = by position) */
+        private final String header;
+        
+        /** The position of the column in the file */
+        private int position;
+        
+        /** The name of the setter method */
+        private final String setter;
+        
+        /** The type of the argument for the setter method */
+        private final Class<?> type;
+        
+        /** The parser of the text of the fields */
+        private final Parser parser;
+        
+        /** The compiled setter */
+        private FieldAccessors.Setter compiled = null;
+        
+        /**
+         * Allocates a new mapping.
+         * 
+         * @param header  the name of the column in the header (null = by position)
+         * @param position  the position of the column in the file
+         * @param setter  the name of the setter method
+         * @param type  the type of the argument for the setter method
+         * @param parser  the parser of the text of the fields
+         */
+        private Mapping(String header, int position, String setter, Class<?> type, Parser parser) {
+            this.header = header;
+            this.position = position;
+            this.setter = setter;
+            this.type = type;
+            this.parser = parser;
+        }
+    }
+    
+    /**
+     * The records parsed from a chunk of the file.
+     * 
+     * @param <T>  the type of DataRecord imported
+     */
+    private static class Chunk<T> {
+        
+        /** The first byte of the chunk */
+        private final long start;
+        
+        /** The end of the chunk (excluded) */
+        private final long end;
+        
+        /** The records parsed */
+        private final ArrayList<T> records = new ArrayList<>();
+        
+        /**
+         * Allocates a new chunk.
+         * 
+         * @param start  the first byte of the chunk
+         * @param end  the end of the chunk (excluded)
+         */
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+    
+    /** The default size of the chunks */
+    public final static int DEFAULT_CHUNK_SIZE = 4 << 20;
+    
+    /** The quote enclosing the fields */
+    private final static char QUOTE = '"';
+    
+    
+    /** The file to be imported */
+    private final Path file;
+    
+    /** The delimiter of the fields */
+    private final char delimiter;
+    
+    /** True if the first line of the file is a header with the names of the columns */
+    private final boolean header;
+    
+    /** The class of the records */
+    private final Class<T> type;
+    
+    /** The factory of the records */
+    private final Factory<T> factory;
+    
+    /** The list receiving the records */
+    private final List<T> target;
+    
+    /** The columns mapped */
+    private final ArrayList<Mapping> mappings = new ArrayList<>();
+    
+    /** The listeners notified of the records added */
+    private final LinkedList<DataListListener> listeners = new LinkedList<>();
+    
+    /** The charset of the file */
+    private Charset charset = StandardCharsets.UTF_8;
+    
+    /** The size of the chunks */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    
+    /** The pool parsing the chunks */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    
+    /** The number of records imported */
+    private volatile int imported = 0;
+    
+    
+    /**
+     * Allocates a new activity, using the public constructor without arguments of the records.
+     * 
+     * @param file  the file to be imported
+     * @param delimiter  the delimiter of the fields (e.g. ',' or '\t')
+     * @param header  true if the first line of the file is a header with the names of the columns
+     * @param type  the class of the records
+     * @param target  the list receiving the records
+     */
+    public ImportActivity(Path file, char delimiter, boolean header, Class<T> type, List<T> target) {
+        this(file, delimiter, header, type, () -> type.getConstructor().newInstance(), target);
+    }
+    
+    /**
+     * Allocates a new activity.
+     * 
+     * @param file  the file to be imported
+     * @param delimiter  the delimiter of the fields (e.g. ',' or '\t')
+     * @param header  true if the first line of the file is a header with the names of the columns
+     * @param type  the class of the records
+     * @param factory  the factory of the records
+     * @param target  the list receiving the records
+     */
+    public ImportActivity(Path file, char delimiter, boolean header, Class<T> type, Factory<T> factory, List<T> target) {
+        if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') throw new IllegalArgumentException("Invalid delimiter");
+        
+        this.file = file;
+        this.delimiter = delimiter;
+        this.header = header;
+        this.type = type;
+        this.factory = factory;
+        this.target = target;
+    }
+    
+    /**
+     * Maps the column of the file with the given name (in the header) to a setter method,
+     * converting the fields with the default parser for the type.
+     * 
+     * @param column  the name of the column in the header
+     * @param setter  the name of the setter method
+     * @param type  the type of the argument for the setter method
+     * @return  this activity
+     */
+    public ImportActivity<T> mapColumn(String column, String setter, Class<?> type) {
+        return mapColumn(column, setter, type, getDefaultParser(type));
+    }
+    
+    /**
+     * Maps the column of the file with the given name (in the header) to a setter method.
+     * 
+     * @param column  the name of the column in the header
+     * @param setter  the name of the setter method
+     * @param type  the type of the argument for the setter method
+     * @param parser  the parser of the text of the fields
+     * @return  this activity
+     */
+    public ImportActivity<T> mapColumn(String column, String setter, Class<?> type, Parser parser) {
+        if (!header) throw new IllegalStateException("The file has no header");
+        mappings.add(new Mapping(column, -1, setter, type, parser));
+        return this;
+    }
+    
+    /**
+     * Maps the column of the file at the given position to a setter method,
+     * converting the fields with the default parser for the type.
+     * 
+     * @param position  the position of the column in the file (starting from 0)
+     * @param setter  the name of the setter method
+     * @param type  the type of the argument for the setter method
+     * @return  this activity
+     */
+    public ImportActivity<T> mapColumn(int position, String setter, Class<?> type) {
+        return mapColumn(position, setter, type, getDefaultParser(type));
+    }
+    
+    /**
+     * Maps the column of the file at the given position to a setter method.
+     * 
+     * @param position  the position of the column in the file (starting from 0)
+     * @param setter  the name of the setter method
+     * @param type  the type of the argument for the setter method
+     * @param parser  the parser of the text of the fields
+     * @return  this activity
+     */
+    public ImportActivity<T> mapColumn(int position, String setter, Class<?> type, Parser parser) {
+        if (position < 0) throw new IllegalArgumentException("Invalid position: " + position);
+        mappings.add(new Mapping(null, position, setter, type, parser));
+        return this;
+    }
+    
+    /**
+     * Maps the columns of the file to the columns of a table with the same names (in the header),
+     * using their setter methods (or the ones corresponding to their getter methods, for the columns
+     * which are not editable) and data types. The columns of the file not found in the table are ignored,
+     * as well as the columns of the table not found in the file (which are logged); the import fails
+     * if no column of the table is found.
+     * 
+     * @param model  the model of the table
+     * @return  this activity
+     */
+    public ImportActivity<T> mapColumns(TableDataRecord<?>.Model<?> model) {
+        for (int i = 0; i < model.getColumnCount(); ++i) {
+            TableDataRecord.Column col = model.getColumn(i);
+            String setter = col.getMethodSet();
+            if (setter == null) setter = getSetterName(col.getMethodGet());
+            if (setter == null) continue;
+            
+            Parser parser = getDefaultParser(col.getDataType());
+            if (parser != null) mappings.add(new Mapping(col.getName(), -2, setter, col.getDataType(), parser));
+        }
+        return this;
+    }
+    
+    /**
+     * Adds a listener notified (on the event dispatching thread) of the records added to the list.
+     * 
+     * @param l  the listener to be added
+     * @return  this activity
+     */
+    public ImportActivity<T> addDataListListener(DataListListener l) {
+        listeners.add(l);
+        return this;
+    }
+    
+    /**
+     * Sets the charset of the file (UTF-8 by default).<p>
+     * The lines are found by scanning the bytes of the file, so the charset must encode the ASCII
+     * characters as single bytes with the same values (e.g. UTF-8 or ISO-8859-1, but not UTF-16).
+     * 
+     * @param charset  the charset of the file
+     * @return  this activity
+     * @throws IllegalArgumentException  if the charset is not ASCII-compatible
+     */
+    public ImportActivity<T> setCharset(Charset charset) {
+        String ascii = "\t\n\r \"',;|0123456789AZaz";
+        if (!charset.canEncode() || !Arrays.equals(ascii.getBytes(charset), ascii.getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Charset not ASCII-compatible: " + charset.name());
+        }
+        
+        this.charset = charset;
+        return this;
+    }
+    
+    /**
+     * Sets the size of the chunks parsed in parallel.
+     * 
+     * @param size  the size of the chunks
+     * @return  this activity
+     */
+    public ImportActivity<T> setChunkSize(int size) {
+        if (size < 1024) throw new IllegalArgumentException("Chunk size too small: " + size);
+        chunkSize = size;
+        return this;
+    }
+    
+    /**
+     * Sets the pool parsing the chunks (the common pool by default).
+     * 
+     * @param pool  the pool parsing the chunks
+     * @return  this activity
+     */
+    public ImportActivity<T> setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+    
+    /**
+     * Returns the number of records imported.
+     * 
+     * @return  the number of records imported
+     */
+    public int getImportedCount() {
+        return imported;
+    }
+
+    /**
+     * Returns the total number of steps for this activity: the number of chunks of the file.
+     *
+     * @return  the total number of steps for this activity (negative if unknown)
+     */
+    @Override
+    public int getSteps() {
+        try {
+            return (int)Math.max(1, (java.nio.file.Files.size(file) + chunkSize - 1) / chunkSize);
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Imports the file.
+     *
+     * @throws Exception  in case of any issue
+     */
+    @Override
+    public void executeSteps() throws Exception {
+        ArrayList<Chunk<T>> chunks = new ArrayList<>();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = skipBOM(channel);
+            if (header) {
+                long end = findLineEnd(channel, start, size);
+                resolveMappings(parseLine(decode(read(channel, start, end)), new ArrayList<>()));
+                start = end;
+            } else {
+                resolveMappings(null);
+            }
+            
+            while (start < size) {
+                long end = findLineEnd(channel, Math.min(size, start + chunkSize), size);
+                chunks.add(new Chunk<>(start, end));
+                start = end;
+            }
+            
+            ArrayList<ForkJoinTask<Chunk<T>>> tasks = new ArrayList<>(chunks.size());
+            for (Chunk<T> chunk : chunks) tasks.add(pool.submit(() -> parse(channel, chunk)));
+            
+            long reported = 0;
+            for (ForkJoinTask<Chunk<T>> task : tasks) {
+                Chunk<T> chunk;
+                try {
+                    chunk = task.get();
+                } catch (ExecutionException ex) {
+                    tasks.stream().forEach(t -> t.cancel(false));
+                    throw (ex.getCause() instanceof Exception) ? (Exception)ex.getCause() : ex;
+                }
+                
+                long steps = (chunk.end + chunkSize - 1) / chunkSize;
+                progress((int)(steps - reported));
+                reported = steps;
+            }
+        }
+        
+        int count = chunks.stream().mapToInt(c -> c.records.size()).sum();
+        ArrayList<T> records = new ArrayList<>(count);
+        chunks.stream().forEach(c -> records.addAll(c.records));
+        if (records.isEmpty()) return;
+        
+        Runnable append = () -> {
+            int first = target.size();
+            target.addAll(records);
+            imported = records.size();
+            listeners.stream().forEach(l -> l.objectsAdded(first, first + records.size() - 1, type));
+        };
+        
+        if (EventQueue.isDispatchThread()) {
+            append.run();
+        } else {
+            try {
+                EventQueue.invokeAndWait(append);
+            } catch (InvocationTargetException ex) {
+                throw (ex.getCause() instanceof Exception) ? (Exception)ex.getCause() : ex;
+            }
+        }
+    }
+    
+    /**
+     * Parses a chunk of the file (run by the pool).
+     * 
+     * @param channel  the channel of the file
+     * @param chunk  the chunk
+     * @return  the chunk, with the records parsed
+     * @throws Exception  in case of any problem
+     */
+    private Chunk<T> parse(FileChannel channel, Chunk<T> chunk) throws Exception {
+        String text = decode(read(channel, chunk.start, chunk.end));
+        ArrayList<String> fields = new ArrayList<>();
+        
+        int line = 0;
+        for (int pos = 0; pos < text.length(); ++line) {
+            int end = text.indexOf('\n', pos);
+            if (end < 0) end = text.length();
+            int next = end + 1;
+            if (end > pos && text.charAt(end - 1) == '\r') --end;
+            
+            if (end > pos) {
+                parseLine(text.substring(pos, end), fields);
+                T record = factory.create();
+                for (Mapping m : mappings) {
+                    String value = (m.position < fields.size()) ? fields.get(m.position) : "";
+                    if (value.isEmpty()) {
+                        if (!m.type.isPrimitive()) m.compiled.set(record, null);
+                        continue;
+                    }
+                    
+                    try {
+                        m.compiled.set(record, m.parser.parse(value));
+                    } catch (Exception ex) {
+                        throw new IOException("Invalid value \"" + value + "\" for " + m.setter + " in line " + (line + 1) + " of the chunk at byte " + chunk.start, ex);
+                    }
+                }
+                chunk.records.add(record);
+            }
+            
+            pos = next;
+        }
+        
+        return chunk;
+    }
+    
+    /**
+     * Splits a line into its fields, handling the quoted ones.
+     * 
+     * @param line  the line
+     * @param fields  the list receiving the fields (cleared before)
+     * @return  the list of fields
+     */
+    private ArrayList<String> parseLine(String line, ArrayList<String> fields) {
+        fields.clear();
+        int length = line.length();
+        int pos = 0;
+        
+        while (true) {
+            if (pos < length && line.charAt(pos) == QUOTE) {
+                StringBuilder field = new StringBuilder();
+                ++pos;
+                while (pos < length) {
+                    char c = line.charAt(pos++);
+                    if (c != QUOTE) {
+                        field.append(c);
+                    } else if (pos < length && line.charAt(pos) == QUOTE) {
+                        field.append(QUOTE);
+                        ++pos;
+                    } else {
+                        break;
+                    }
+                }
+                
+                int end = line.indexOf(delimiter, pos);
+                if (end < 0) end = length;
+                fields.add(field.append(line, pos, end).toString());
+                pos = end;
+            } else {
+                int end = line.indexOf(delimiter, pos);
+                if (end < 0) end = length;
+                fields.add(line.substring(pos, end));
+                pos = end;
+            }
+            
+            if (pos >= length) return fields;
+            ++pos;
+        }
+    }
+    
+    /**
+     * Resolves the positions of the columns mapped by name and compiles their setters.<p>
+     * The columns mapped from a table and missing in the header are skipped (and logged).
+     * 
+     * @param names  the names of the columns in the header (null = no header)
+     * @throws Exception  in case a column or setter cannot be found, or no column is mapped
+     */
+    private void resolveMappings(ArrayList<String> names) throws Exception {
+        List<String> columns = (names == null) ? null : Arrays.asList(names.stream().map(String::trim).toArray(String[]::new));
+        
+        for (java.util.Iterator<Mapping> i = mappings.iterator(); i.hasNext(); ) {
+            Mapping m = i.next();
+            if (m.header != null) {
+                int position = columns.indexOf(m.header);
+                if (position < 0 && m.position == -2) {
+                    Logger.getLogger(ImportActivity.class.getName()).log(Level.WARNING, "Column not found in {0}: {1}", new Object[] { file, m.header });
+                    i.remove();
+                    continue;
+                }
+                if (position < 0) throw new IOException("Column not found: " + m.header);
+                m.position = position;
+            }
+            
+            m.compiled = FieldAccessors.getSetter(type, m.setter, m.type);
+        }
+        
+        if (mappings.isEmpty()) throw new IOException("No column mapped in " + file);
+    }
+    
+    /**
+     * Returns the default parser for a type.
+     * 
+     * @param type  the type
+     * @return  the default parser for the type (null = none)
+     */
+    private static Parser getDefaultParser(Class<?> type) {
+        if (type == String.class || type == Object.class) return text -> text;
+        if (type == int.class || type == Integer.class) return text -> Integer.valueOf(text.trim());
+        if (type == long.class || type == Long.class) return text -> Long.valueOf(text.trim());
+        if (type == double.class || type == Double.class) return text -> Double.valueOf(text.trim());
+        if (type == float.class || type == Float.class) return text -> Float.valueOf(text.trim());
+        if (type == short.class || type == Short.class) return text -> Short.valueOf(text.trim());
+        if (type == byte.class || type == Byte.class) return text -> Byte.valueOf(text.trim());
+        if (type == boolean.class || type == Boolean.class) return text -> Boolean.valueOf(text.trim());
+        if (type == char.class || type == Character.class) return text -> text.charAt(0);
+        if (type == BigDecimal.class) return text -> new BigDecimal(text.trim());
+        if (type == BigInteger.class) return text -> new BigInteger(text.trim());
+        return null;
+    }
+    
+    /**
+     * Returns the name of the setter method corresponding to a getter method.
+     * 
+     * @param getter  the name of the getter method
+     * @return  the name of the setter method (null = none)
+     */
+    private static String getSetterName(String getter) {
+        if (getter.startsWith("get") && getter.length() > 3) return "set" + getter.substring(3);
+        if (getter.startsWith("is") && getter.length() > 2) return "set" + getter.substring(2);
+        return null;
+    }
+    
+    /**
+     * Returns the position following the byte order mark at the beginning of the file (if any).
+     * 
+     * @param channel  the channel of the file
+     * @return  the position following the byte order mark
+     * @throws IOException  in case of any problem
+     */
+    private long skipBOM(FileChannel channel) throws IOException {
+        if (!charset.equals(StandardCharsets.UTF_8)) return 0;
+        
+        byte[] bom = read(channel, 0, Math.min(3, channel.size()));
+        return (bom.length == 3 && (bom[0] & 0xFF) == 0xEF && (bom[1] & 0xFF) == 0xBB && (bom[2] & 0xFF) == 0xBF) ? 3 : 0;
+    }
+    
+    /**
+     * Returns the position following the end of the line including the given position.
+     * 
+     * @param channel  the channel of the file
+     * @param position  the position
+     * @param size  the size of the file
+     * @return  the position following the end of the line
+     * @throws IOException  in case of any problem
+     */
+    private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            ((Buffer)buffer).clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) break;
+            for (int i = 0; i < n; ++i) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += n;
+        }
+        return size;
+    }
+    
+    /**
+     * Reads a portion of the file.
+     * 
+     * @param channel  the channel of the file
+     * @param start  the first byte
+     * @param end  the end (excluded)
+     * @return  the bytes read
+     * @throws IOException  in case of any problem
+     */
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int)(end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Decodes a portion of the file.
+     * 
+     * @param bytes  the bytes
+     * @return  the text
+     */
+    private String decode(byte[] bytes) {
+        return new String(bytes, charset);
+    }
+}
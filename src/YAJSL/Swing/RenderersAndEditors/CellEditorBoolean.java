@@ -29,6 +29,7 @@
  */
 package YAJSL.Swing.RenderersAndEditors;
 
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Utils.Localizer;
 import java.awt.Color;
@@ -101,4 +102,14 @@ public class CellEditorBoolean extends TableDataRecord.Editor {
     protected void setEditorValue(Object value) {
         comp.setSelected((value instanceof Boolean) ? (Boolean)value : false);
     }
+
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type == boolean.class;
+    }
+
+    @Override
+    protected void setEditorValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        comp.setSelected(dm.getBoolean(index, getter));
+    }
 }
@@ -157,6 +157,21 @@ public class CellEditorComboBoxDataRecord extends TableDataRecord.Editor impleme
         cancelCellEditing();
     }
 
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        cancelCellEditing();
+    }
+
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        cancelCellEditing();
+    }
+
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        cancelCellEditing();
+    }
+
     @Override
     protected void setEditorValue(Object value) {
         comp.setSelectedObject((value instanceof DataRecord) ? (DataRecord)value : null);
@@ -155,6 +155,21 @@ public class CellEditorComboBoxListable extends TableDataRecord.Editor implement
         cancelCellEditing();
     }
 
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        cancelCellEditing();
+    }
+
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        cancelCellEditing();
+    }
+
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        cancelCellEditing();
+    }
+
     @Override
     protected void setEditorValue(Object value) {
         comp.setSelectedObject((value instanceof Listable) ? (Listable)value : null);
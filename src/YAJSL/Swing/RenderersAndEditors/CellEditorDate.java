@@ -0,0 +1,192 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.RenderersAndEditors;
+
+import YAJSL.Swing.Beans.TableDataRecord;
+import YAJSL.Utils.DateFormatCache;
+import YAJSL.Utils.ExtendedProperties;
+import YAJSL.Utils.Localizer;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Toolkit;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Properties;
+import javax.swing.JComponent;
+import javax.swing.JTextField;
+
+/**
+ * An editor for editing dates (Date, LocalDate, LocalDateTime or Instant).
+ * <p>
+ * The dates are formatted and parsed with the same {@link DateFormatCache} used by {@link CellRendererDate},
+ * so the text being edited matches the one shown by the renderer (with date-only patterns, the values
+ * are returned at the start of the day). Texts which cannot be parsed are refused
+ * and the editing is not stopped.
+ * <p>
+ * The following properties can be used:
+ * <ul>
+ * <li>{@code allowNull} - true if the editor needs to allow null values (empty text); true is the default</li>
+ * <li>{@code format} - (Optional) The format for the date, as a SimpleDateFormat pattern (default = "dd-MMM-yyyy")</li>
+ * <li>{@code type} - (Optional) The class name of the values edited, used when editing null values (default = the type of the column)</li>
+ * <li>{@code fontSize} - the relative size of the font to be used for the editor; by default the font is not changed</li>
+ * </ul>
+ * 
+ * @author Giuseppe Gallo
+ */
+@SuppressWarnings("serial")
+public class CellEditorDate extends TableDataRecord.Editor {
+
+    /** The property defining the class name of the values edited */
+    public final static String PROP_TYPE = "type";
+    
+    /** The component actually as an editor */
+    protected JTextField comp = new JTextField();
+    
+    /** The pattern of the dates (see SimpleDateFormat) */
+    protected final String pattern;
+    
+    /** True if null values (empty text) are allowed */
+    protected final boolean allowNull;
+    
+    /** The type of the values edited when the value is null */
+    protected final Class<?> defaultType;
+    
+    /** The formatter of the dates for the current locale */
+    private DateFormatCache formats;
+    
+    /** The type of the value being edited */
+    private Class<?> type;
+    
+    /** The value parsed from the text when the editing was stopped */
+    private Object value = null;
+    
+    
+    /**
+     * Allocates the editor using the given properties.
+     * 
+     * @param prop  the properties to be used by the editor
+     */
+    public CellEditorDate(Properties prop) {
+        super(prop);
+        
+        pattern = prop.getProperty("format", "dd-MMM-yyyy");
+        formats = DateFormatCache.getLegacyInstance(pattern, Locale.getDefault());
+        allowNull = ExtendedProperties.getBooleanPropertySilent(prop, "allowNull", true);
+        
+        String typeName = prop.getProperty(PROP_TYPE);
+        Class<?> tmpType;
+        try {
+            tmpType = (typeName == null) ? Date.class : Class.forName(typeName);
+        } catch (ClassNotFoundException ex) {
+            tmpType = Date.class;
+        }
+        defaultType = tmpType;
+        type = defaultType;
+        
+        comp.setOpaque(true);
+        
+        int tmpSize = ExtendedProperties.getIntegerPropertySilent(prop, "fontSize", -1);
+        if (tmpSize > 0) {
+            comp.setFont(comp.getFont().deriveFont((float)tmpSize));
+        }
+        
+        comp.addActionListener(e -> { stopCellEditing(); });
+    }
+    
+    @Override
+    protected JComponent getEditorComponent() {
+        return comp;
+    }
+
+    @Override
+    protected void setEditorForeground(Color color) {
+        comp.setForeground(color);
+    }
+
+    @Override
+    protected void setEditorBackground(Color color) {
+        comp.setBackground(color);
+    }
+
+    @Override
+    protected void setEditorFont(Font font) {
+        comp.setFont(font);
+    }
+
+    @Override
+    protected void updateLocalizedAttributes(Localizer loc, String prefix) {
+        formats = DateFormatCache.getLegacyInstance(pattern, loc.getLocale());
+    }
+
+    @Override
+    protected void setEditorValue(Object value) {
+        this.value = value;
+        type = (value instanceof Date) ? Date.class :
+                (value instanceof LocalDate) ? LocalDate.class :
+                (value instanceof LocalDateTime) ? LocalDateTime.class :
+                (value instanceof Instant) ? Instant.class :
+                defaultType;
+        
+        String text = formats.format(value);
+        comp.setText((text == null) ? "" : text);
+    }
+
+    @Override
+    public boolean stopCellEditing() {
+        String text = comp.getText().trim();
+        
+        if (text.isEmpty()) {
+            if (!allowNull) {
+                Toolkit.getDefaultToolkit().beep();
+                return false;
+            }
+            value = null;
+            
+        } else {
+            try {
+                value = formats.convert(formats.parse(text), type);
+            } catch (DateTimeParseException ex) {
+                Toolkit.getDefaultToolkit().beep();
+                return false;
+            }
+        }
+        
+        return super.stopCellEditing();
+    }
+
+    @Override
+    public Object getCellEditorValue() {
+        return value;
+    }
+}
@@ -30,6 +30,7 @@
 package YAJSL.Swing.RenderersAndEditors;
 
 import YAJSL.Swing.Beans.NumberField;
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Utils.ExtendedProperties;
 import YAJSL.Utils.Localizer;
@@ -135,4 +136,14 @@ public class CellEditorNumber extends TableDataRecord.Editor {
                 null;
         comp.setValue(val);
     }
+
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type != boolean.class;
+    }
+
+    @Override
+    protected void setEditorValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        comp.setValue(dm.getDouble(index, getter));
+    }
 }
@@ -30,6 +30,7 @@
 package YAJSL.Swing.RenderersAndEditors;
 
 import YAJSL.Swing.Beans.NumberSpinner;
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Swing.MousePointerManager;
 import YAJSL.Utils.ExtendedProperties;
@@ -140,6 +141,16 @@ public class CellEditorNumberSpinner extends TableDataRecord.Editor {
         comp.setValue(val);
     }
 
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type != boolean.class;
+    }
+
+    @Override
+    protected void setEditorValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        comp.setValue(dm.getDouble(index, getter));
+    }
+
     @Override
     protected void setMousePointerManager(MousePointerManager mpm) {
         mpm.add(comp);
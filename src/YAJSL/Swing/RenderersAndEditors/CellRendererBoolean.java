@@ -29,6 +29,7 @@
  */
 package YAJSL.Swing.RenderersAndEditors;
 
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Utils.Localizer;
 import java.awt.Color;
@@ -76,6 +77,16 @@ public class CellRendererBoolean extends TableDataRecord.Renderer {
         comp.setSelected(state);
     }
 
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type == boolean.class;
+    }
+
+    @Override
+    protected void setRendererValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        comp.setSelected(dm.getBoolean(index, getter));
+    }
+
     @Override
     protected void setRendererEditable(boolean editable) {
         comp.setEnabled(editable);
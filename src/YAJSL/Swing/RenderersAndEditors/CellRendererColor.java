@@ -34,6 +34,7 @@ import YAJSL.Utils.ExtendedProperties;
 import YAJSL.Utils.Localizer;
 import java.awt.Color;
 import java.awt.Font;
+import java.util.HashMap;
 import java.util.Properties;
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
@@ -52,7 +53,7 @@ public class CellRendererColor extends TableDataRecord.Renderer {
     public final static String PROP_BORDER_COLOR = "border.color";
     
     /** The component actually as a renderer */
-    protected JLabel comp = new JLabel();
+    protected JLabel comp = new RendererLabel();
     
     /** The inner border for the label */
     protected final Border in;
@@ -60,6 +61,9 @@ public class CellRendererColor extends TableDataRecord.Renderer {
     /** The current background color */
     protected Color background = null;
 
+    /** The borders already created, by background color */
+    private final HashMap<Color, Border> borders = new HashMap<>();
+
     
     /**
      * Allocates the renderer using the given properties.
@@ -88,9 +92,15 @@ public class CellRendererColor extends TableDataRecord.Renderer {
                 (value instanceof Color) ? (Color)value :
                 null;
 
-        Border out = BorderFactory.createLineBorder(background, 2);
-        comp.setBorder(BorderFactory.createCompoundBorder(out, in));
-        
+        Border border = borders.get(background);
+        if (border == null) {
+            if (borders.size() >= 256) borders.clear();
+            Border out = BorderFactory.createLineBorder(background, 2);
+            border = BorderFactory.createCompoundBorder(out, in);
+            borders.put(background, border);
+        }
+
+        comp.setBorder(border);
         comp.setBackground((color == null) ? background : color);
     }
 
@@ -29,27 +29,45 @@
  */
 package YAJSL.Swing.RenderersAndEditors;
 
+import YAJSL.Utils.DateFormatCache;
+import YAJSL.Utils.Localizer;
 import java.text.Format;
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
- * A renderer for showing dates.
+ * A renderer for showing dates (Date, LocalDate, LocalDateTime or Instant).
+ * <p>
+ * The dates are formatted through a shared {@link DateFormatCache}, which is thread-safe and keeps the texts
+ * of the dates already shown, so the renderer can also be used for exporting or printing outside of the
+ * event dispatching thread (see {@link #format(Object)}).
  * <p>
  * The following properties can be used:
  * <ul>
  * <li>{@code alignmentH} - (Optional) The horizontal alignment [leading (default), left, center, right, trailing]</li>
- * <li>{@code format} - (Optional) The format for showing the date (default = "dd-MMM-yyyy")</li>
+ * <li>{@code format} - (Optional) The format for showing the date, as a SimpleDateFormat pattern (default = "dd-MMM-yyyy")</li>
  * </ul>
  *
  * @author Giuseppe Gallo
  */
 public class CellRendererDate extends CellRendererString {
 
-    /** The date format to be used */
+    /**
+     * The date format to be used.
+     *
+     * @deprecated  SimpleDateFormat is not thread-safe and is no longer used by the renderer:
+     *              use {@link #format(Object)} or {@link #getFormatCache()} instead
+     */
+    @Deprecated
     public final Format format;
 
+    /** The pattern of the dates (see SimpleDateFormat) */
+    protected final String pattern;
+
+    /** The formatter of the dates for the current locale */
+    private volatile DateFormatCache formats;
+
     /**
      * Allocates the renderer using the given properties.
      *
@@ -58,15 +76,37 @@ public class CellRendererDate extends CellRendererString {
     public CellRendererDate(Properties prop) {
         super(prop);
 
-        String fmt = prop.getProperty("format", "dd-MMM-yyyy");
-        format = new SimpleDateFormat(fmt);
+        pattern = prop.getProperty("format", "dd-MMM-yyyy");
+        format = new SimpleDateFormat(pattern);
+        formats = DateFormatCache.getLegacyInstance(pattern, Locale.getDefault());
+    }
 
+    /**
+     * Returns the formatter of the dates for the current locale.
+     *
+     * @return  the formatter of the dates for the current locale
+     */
+    public DateFormatCache getFormatCache() {
+        return formats;
+    }
+
+    /**
+     * Formats a date as shown by the renderer (this method is thread-safe).
+     *
+     * @param value  the date to be formatted
+     * @return  the formatted text (null if the value is null or not a date)
+     */
+    public String format(Object value) {
+        return formats.format(value);
     }
 
     @Override
     protected void setRendererValue(Object value) {
-        String text = (value instanceof Date) ? format.format(value) : null;
+        comp.setText(formats.format(value));
+    }
 
-        comp.setText(text);
+    @Override
+    protected void updateLocalizedAttributes(Localizer loc, String prefix) {
+        formats = DateFormatCache.getLegacyInstance(pattern, loc.getLocale());
     }
 }
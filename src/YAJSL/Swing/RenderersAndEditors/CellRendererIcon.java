@@ -48,7 +48,7 @@ import javax.swing.JLabel;
 public class CellRendererIcon extends TableDataRecord.Renderer {
 
     /** The component actually as a renderer */
-    protected JLabel comp = new JLabel();
+    protected JLabel comp = new RendererLabel();
     
     /**
      * Allocates the renderer using the given properties.
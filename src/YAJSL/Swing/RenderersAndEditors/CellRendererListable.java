@@ -49,7 +49,7 @@ import javax.swing.JLabel;
 public class CellRendererListable extends TableDataRecord.Renderer {
 
     /** The component actually as a renderer */
-    protected JLabel comp = new JLabel();
+    protected JLabel comp = new RendererLabel();
     
     /**
      * Allocates the renderer using the given properties.
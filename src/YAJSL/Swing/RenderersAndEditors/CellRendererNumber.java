@@ -30,6 +30,7 @@
 package YAJSL.Swing.RenderersAndEditors;
 
 import YAJSL.Swing.Beans.NumberField;
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Utils.ExtendedProperties;
 import YAJSL.Utils.Localizer;
@@ -106,6 +107,15 @@ public class CellRendererNumber extends TableDataRecord.Renderer {
         if (color != null) negativeForeground = color;
     }
     
+    /**
+     * Returns the number of decimal digits shown.
+     * 
+     * @return  the number of decimal digits shown
+     */
+    public int getDecimalDigits() {
+        return comp.getDecimalDigits();
+    }
+    
     @Override
     protected JComponent getRendererComponent() {
         return comp;
@@ -124,6 +134,22 @@ public class CellRendererNumber extends TableDataRecord.Renderer {
         comp.setValue(number);
     }
 
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type != boolean.class;
+    }
+
+    @Override
+    protected void setRendererValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        double value = dm.getDouble(index, getter);
+        
+        // Avoid boxing and formatting again the same value
+        Double current = comp.getValue();
+        if (current != null && current == value) return;
+        
+        comp.setValue(value);
+    }
+
     @Override
     protected void setRendererEditable(boolean editable) {
         // Nothing to do
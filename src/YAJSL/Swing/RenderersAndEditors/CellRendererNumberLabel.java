@@ -0,0 +1,363 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.RenderersAndEditors;
+
+import YAJSL.Data.DataRecordManager;
+import YAJSL.Swing.Beans.TableDataRecord;
+import YAJSL.Utils.ExtendedProperties;
+import YAJSL.Utils.Localizer;
+import java.awt.Color;
+import java.awt.Font;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.NumberFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Properties;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+
+/**
+ * A lightweight renderer for numbers, painting the formatted text with a label.
+ * <p>
+ * The formats are shared by all the renderers with the same locale, decimal digits and grouping,
+ * integral values are formatted as long values (without converting them to double) and the texts
+ * of the values already shown are cached, so that repeated values are neither boxed nor formatted again.
+ * <p>
+ * The following properties can be used:
+ * <ul>
+ * <li>{@code groupDigits} - true if the renderer needs to use digit grouping; false is the default</li>
+ * <li>{@code min} - the minimum value allowed; by default there is no limit</li>
+ * <li>{@code max} - the maximum value allowed; by default there is no limit</li>
+ * <li>{@code decimalDigits} - the number of decimal digits shown by the renderer; 0 is the default</li>
+ * <li>{@code fontSize} - the relative size of the font to be used for the renderer; by default the font is not changed</li>
+ * <li>{@code positiveForeground} - the foreground color to be used for positive (and zero) values; by default the color is not changed</li>
+ * <li>{@code negativeForeground} - the foreground color to be used for negative values; by default the color is not changed</li>
+ * </ul>
+ * 
+ * @author Giuseppe Gallo
+ */
+public class CellRendererNumberLabel extends TableDataRecord.Renderer {
+
+    /**
+     * A direct-mapped cache of the texts of numeric values, keyed by the bits of the values.
+     */
+    private static class TextCache {
+        
+        /** The number of entries of the cache (a power of 2) */
+        private static final int SIZE = 4096;
+        
+        /** The keys of the entries */
+        private final long[] keys = new long[SIZE];
+        
+        /** The texts of the entries (null = empty entry) */
+        private final String[] texts = new String[SIZE];
+        
+        
+        /**
+         * Returns the text cached for a key.
+         * 
+         * @param key  the key
+         * @return  the text cached for the key (null = not cached)
+         */
+        public String get(long key) {
+            int i = index(key);
+            return (texts[i] != null && keys[i] == key) ? texts[i] : null;
+        }
+        
+        /**
+         * Stores the text for a key, replacing any other entry in the same position.
+         * 
+         * @param key  the key
+         * @param text  the text
+         */
+        public void put(long key, String text) {
+            int i = index(key);
+            keys[i] = key;
+            texts[i] = text;
+        }
+        
+        /**
+         * Removes all the entries.
+         */
+        public void clear() {
+            java.util.Arrays.fill(texts, null);
+        }
+        
+        /**
+         * Returns the position of a key in the cache.
+         * 
+         * @param key  the key
+         * @return  the position of the key in the cache
+         */
+        private static int index(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int)(h >>> 52) & (SIZE - 1);
+        }
+    }
+
+    /** The formats shared by all the renderers, by locale, decimal digits and grouping (used on the EDT only) */
+    private static final HashMap<String, NumberFormat> FORMATS = new HashMap<>();
+    
+    /** The component actually used as a renderer */
+    protected JLabel comp = new RendererLabel();
+    
+    /** The foreground color to be used when the value of the cell is negative */
+    protected Color negativeForeground = null;
+    
+    /** The foreground color to be used when the value of the cell is positive */
+    protected Color positiveForeground = null;
+    
+    /** The number of decimal digits shown */
+    private int decimalDigits;
+    
+    /** True if digit grouping is used */
+    protected final boolean groupingUsed;
+    
+    /** The minimum value allowed */
+    protected final double minimumValue;
+    
+    /** The maximum value allowed */
+    protected final double maximumValue;
+    
+    /** The locale currently used */
+    private Locale locale = Locale.getDefault();
+    
+    /** The format currently used */
+    private NumberFormat format;
+    
+    /** The texts of the integral values already shown */
+    private final TextCache longTexts = new TextCache();
+    
+    /** The texts of the decimal values already shown */
+    private final TextCache doubleTexts = new TextCache();
+    
+    /** The foreground color set by the table */
+    private Color foreground = null;
+    
+    /** True if the value currently shown is negative */
+    private boolean negative = false;
+    
+    
+    /**
+     * Allocates the renderer using the given properties.
+     * 
+     * @param prop  the properties to be used by the renderer
+     */
+    public CellRendererNumberLabel(Properties prop) {
+        super(prop);
+        
+        comp.setHorizontalAlignment(JLabel.RIGHT);
+        
+        minimumValue = ExtendedProperties.getDoublePropertySilent(prop, "min", Double.NEGATIVE_INFINITY);
+        maximumValue = Math.max(minimumValue, ExtendedProperties.getDoublePropertySilent(prop, "max", Double.POSITIVE_INFINITY));
+        decimalDigits = Math.max(0, ExtendedProperties.getIntegerPropertySilent(prop, "decimalDigits", 0));
+        groupingUsed = ExtendedProperties.getBooleanPropertySilent(prop, "groupDigits", false);
+
+        int tmpSize = ExtendedProperties.getIntegerPropertySilent(prop, "fontSize", -1);
+        if (tmpSize > 0) {
+            comp.setFont(comp.getFont().deriveFont((float)tmpSize));
+        }
+        
+        positiveForeground = ExtendedProperties.getColorPropertySilent(prop, "positiveForeground", null);
+        negativeForeground = ExtendedProperties.getColorPropertySilent(prop, "negativeForeground", null);
+        
+        configureFormat();
+    }
+    
+    /**
+     * Returns the format shared by all the renderers with the given attributes, allocating it only the first time.
+     * 
+     * @param locale  the locale
+     * @param decimalDigits  the number of decimal digits
+     * @param grouping  true if digit grouping is used
+     * @return  the format
+     */
+    private static NumberFormat getFormat(Locale locale, int decimalDigits, boolean grouping) {
+        String key = locale.toLanguageTag() + "/" + decimalDigits + "/" + grouping;
+        NumberFormat fmt = FORMATS.get(key);
+        
+        if (fmt == null) {
+            fmt = NumberFormat.getNumberInstance(locale);
+            fmt.setMinimumFractionDigits(decimalDigits);
+            fmt.setMaximumFractionDigits(decimalDigits);
+            fmt.setGroupingUsed(grouping);
+            FORMATS.put(key, fmt);
+        }
+        
+        return fmt;
+    }
+    
+    /**
+     * Selects the format for the current attributes, discarding the texts already cached.
+     */
+    private void configureFormat() {
+        format = getFormat(locale, decimalDigits, groupingUsed);
+        longTexts.clear();
+        doubleTexts.clear();
+    }
+    
+    /**
+     * Returns the number of decimal digits shown by the renderer.
+     * 
+     * @return  the number of decimal digits shown by the renderer
+     */
+    public int getDecimalDigits() {
+        return decimalDigits;
+    }
+    
+    /**
+     * Sets the number of decimal digits shown by the renderer.
+     * 
+     * @param decimalDigits  the number of decimal digits shown by the renderer
+     */
+    protected void setDecimalDigits(int decimalDigits) {
+        this.decimalDigits = Math.max(0, decimalDigits);
+        configureFormat();
+    }
+    
+    @Override
+    protected JComponent getRendererComponent() {
+        return comp;
+    }
+
+    @Override
+    protected void setRendererValue(Object value) {
+        if (value == null) {
+            negative = false;
+            comp.setText("");
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            showLong(((Number)value).longValue());
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            // Formatted directly, to avoid losing precision
+            negative = ((Number)value).doubleValue() < 0;
+            comp.setText(format.format(value));
+        } else if (value instanceof Number) {
+            showDouble(((Number)value).doubleValue());
+        } else {
+            negative = false;
+            comp.setText(value.toString());
+        }
+        
+        updateForeground();
+    }
+
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type != boolean.class && type != char.class;
+    }
+
+    @Override
+    protected void setRendererValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        if (type == double.class || type == float.class) showDouble(dm.getDouble(index, getter));
+        else showLong(dm.getLong(index, getter));
+        
+        updateForeground();
+    }
+    
+    /**
+     * Shows an integral value.
+     * 
+     * @param value  the value
+     */
+    protected void showLong(long value) {
+        if (value < minimumValue || value > maximumValue) {
+            showDouble(value);
+            return;
+        }
+        
+        String text = longTexts.get(value);
+        if (text == null) {
+            text = format.format(value);
+            longTexts.put(value, text);
+        }
+        
+        negative = value < 0;
+        comp.setText(text);
+    }
+    
+    /**
+     * Shows a decimal value.
+     * 
+     * @param value  the value
+     */
+    protected void showDouble(double value) {
+        if (value < minimumValue) value = minimumValue;
+        if (value > maximumValue) value = maximumValue;
+        
+        long bits = Double.doubleToLongBits(value);
+        String text = doubleTexts.get(bits);
+        if (text == null) {
+            text = format.format(value);
+            doubleTexts.put(bits, text);
+        }
+        
+        negative = value < 0;
+        comp.setText(text);
+    }
+    
+    /**
+     * Sets the foreground color of the component, depending on the sign of the value shown.
+     */
+    private void updateForeground() {
+        Color color = foreground;
+        if (positiveForeground != null && !negative) color = positiveForeground;
+        else if (negativeForeground != null && negative) color = negativeForeground;
+        
+        comp.setForeground(color);
+    }
+
+    @Override
+    protected void setRendererEditable(boolean editable) {
+        // Nothing to do
+    }
+
+    @Override
+    protected void setRendererForeground(Color color) {
+        foreground = color;
+        updateForeground();
+    }
+
+    @Override
+    protected void setRendererBackground(Color color) {
+        comp.setBackground(color);
+    }
+
+    @Override
+    protected void setRendererFont(Font font) {
+        comp.setFont(font);
+    }
+
+    @Override
+    protected void updateLocalizedAttributes(Localizer loc, String prefix) {
+        locale = loc.getLocale();
+        configureFormat();
+    }
+}
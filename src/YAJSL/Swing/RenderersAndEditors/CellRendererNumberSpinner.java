@@ -30,6 +30,7 @@
 package YAJSL.Swing.RenderersAndEditors;
 
 import YAJSL.Swing.Beans.NumberSpinner;
+import YAJSL.Data.DataRecordManager;
 import YAJSL.Swing.Beans.TableDataRecord;
 import YAJSL.Swing.MousePointerManager;
 import YAJSL.Utils.ExtendedProperties;
@@ -126,6 +127,22 @@ public class CellRendererNumberSpinner extends TableDataRecord.Renderer {
         comp.setValue(number);
     }
 
+    @Override
+    protected boolean isPrimitiveSupported(Class<?> type) {
+        return type != boolean.class;
+    }
+
+    @Override
+    protected void setRendererValue(DataRecordManager<?> dm, int index, String getter, Class<?> type) throws Exception {
+        double value = dm.getDouble(index, getter);
+        
+        // Avoid boxing and formatting again the same value
+        Double current = comp.getValue();
+        if (current != null && current == value) return;
+        
+        comp.setValue(value);
+    }
+
     @Override
     protected void setRendererEditable(boolean editable) {
         // Nothing to do
@@ -35,6 +35,7 @@ import YAJSL.Utils.ExtendedProperties;
 import YAJSL.Utils.Localizer;
 import java.awt.Color;
 import java.awt.Font;
+import java.util.HashMap;
 import java.util.Properties;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -53,7 +54,10 @@ import javax.swing.JLabel;
 public class CellRendererString extends TableDataRecord.Renderer {
 
     /** The component actually used as a renderer */
-    protected JLabel comp = new JLabel();
+    protected JLabel comp = new RendererLabel();
+
+    /** The texts of the numbers and characters already shown, by value */
+    private final HashMap<Object, String> texts = new HashMap<>();
     
     /**
      * Allocates the renderer using the given properties.
@@ -81,11 +85,29 @@ public class CellRendererString extends TableDataRecord.Renderer {
                 (value == null) ? "" :
                 (value instanceof String) ? (String)value :
                 (value instanceof Listable) ? ((Listable)value).getListableText() :
+                (value instanceof Number || value instanceof Character) ? getText(value) :
                 value.toString();
         
         comp.setText(text);
     }
 
+    /**
+     * Returns the text of an immutable value, converting it only the first time.
+     * 
+     * @param value  the value to be shown
+     * @return  the text of the value
+     */
+    private String getText(Object value) {
+        String text = texts.get(value);
+        if (text == null) {
+            if (texts.size() >= 1024) texts.clear();
+            text = value.toString();
+            texts.put(value, text);
+        }
+        
+        return text;
+    }
+
     @Override
     protected void setRendererEditable(boolean editable) {
         // Nothing to do
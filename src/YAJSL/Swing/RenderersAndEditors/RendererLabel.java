@@ -0,0 +1,117 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.RenderersAndEditors;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.basic.BasicHTML;
+
+
+/**
+ * A label used as the component of a cell renderer.
+ * <p>
+ * Like DefaultTableCellRenderer, it skips validation, repainting and most of the property change
+ * notifications, which are useless for a component that is only used for painting cells.
+ * Changes of the text are notified only when HTML is involved, so that the text of a cell can be
+ * changed without allocating any object.
+ * 
+ * @author Giuseppe Gallo
+ */
+@SuppressWarnings("serial")
+public class RendererLabel extends JLabel {
+
+    /**
+     * Allocates a new label.
+     */
+    public RendererLabel() {
+        setOpaque(true);
+    }
+
+    @Override
+    public void invalidate() {
+        // Nothing to do
+    }
+
+    @Override
+    public void validate() {
+        // Nothing to do
+    }
+
+    @Override
+    public void revalidate() {
+        // Nothing to do
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+        // Nothing to do
+    }
+
+    @Override
+    public void repaint(java.awt.Rectangle r) {
+        // Nothing to do
+    }
+
+    @Override
+    public void repaint() {
+        // Nothing to do
+    }
+
+    @Override
+    @SuppressWarnings("StringEquality")
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+        if (propertyName == "text") {
+            // The look and feel only needs to know about text changes for updating the HTML view
+            if (getClientProperty(BasicHTML.propertyKey) == null && !BasicHTML.isHTMLString((String)newValue)) return;
+            super.firePropertyChange(propertyName, oldValue, newValue);
+
+        } else if (propertyName == "labelFor" || propertyName == "displayedMnemonic") {
+            super.firePropertyChange(propertyName, oldValue, newValue);
+
+        } else if ((propertyName == "font" || propertyName == "foreground") && oldValue != newValue &&
+                getClientProperty(BasicHTML.propertyKey) != null) {
+            super.firePropertyChange(propertyName, oldValue, newValue);
+        }
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {
+        // Nothing to do
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, int oldValue, int newValue) {
+        // Nothing to do
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, char oldValue, char newValue) {
+        // Nothing to do
+    }
+}
@@ -0,0 +1,468 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Utils;
+
+import java.text.DateFormatSymbols;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe date formatter, based on java.time, caching the texts of the dates already formatted.
+ * <p>
+ * The instances are shared by pattern, locale and time zone. Each of them keeps an LRU cache of the
+ * formatted texts, keyed by epoch day (or by epoch millisecond if the pattern contains time fields),
+ * so that tables repeating the same dates format each of them only once.
+ * Dates, LocalDates, LocalDateTimes and Instants are supported, any other TemporalAccessor is
+ * formatted without caching.
+ * <p>
+ * The instances can be created from DateTimeFormatter patterns ({@link #getInstance(String, Locale)})
+ * or from SimpleDateFormat patterns ({@link #getLegacyInstance(String, Locale)}), which are translated
+ * so that they produce the same texts as SimpleDateFormat.
+ * 
+ * @author Giuseppe Gallo
+ */
+public class DateFormatCache {
+    
+    /** The maximum number of texts kept by each instance */
+    public static final int MAX_ENTRIES = 8192;
+    
+    /** The pattern letters which need a time (or a time zone) to be formatted */
+    private static final String TIME_LETTERS = "aBhKkHmsSAnNVvzOXxZ";
+    
+    /** The SimpleDateFormat pattern letters which need a time (or a time zone) to be formatted */
+    private static final String LEGACY_TIME_LETTERS = "aHkKhmsSzZX";
+    
+    /** The millis in a day */
+    private static final long MILLIS_PER_DAY = 86400000L;
+    
+    /** The shared instances, by pattern, locale and time zone */
+    private static final ConcurrentHashMap<String, DateFormatCache> INSTANCES = new ConcurrentHashMap<>();
+    
+    /** The shared instances created from SimpleDateFormat patterns, by pattern, locale and time zone */
+    private static final ConcurrentHashMap<String, DateFormatCache> LEGACY_INSTANCES = new ConcurrentHashMap<>();
+    
+    /** The formatter (thread-safe) */
+    private final DateTimeFormatter formatter;
+    
+    /** The time zone used for converting dates and instants */
+    private final ZoneId zone;
+    
+    /** The time zone used for converting dates and instants, for calculating offsets without allocating objects */
+    private final TimeZone timeZone;
+    
+    /** True if the pattern contains only date fields */
+    private final boolean dateOnly;
+    
+    /** The texts already formatted, by epoch day or millisecond (access ordered) */
+    private final LinkedHashMap<Long, String> texts = new LinkedHashMap<Long, String>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    
+    
+    /**
+     * Allocates a new instance.
+     * 
+     * @param pattern  the pattern of the dates (see DateTimeFormatter)
+     * @param locale  the locale
+     * @param zone  the time zone used for converting dates and instants
+     */
+    private DateFormatCache(String pattern, Locale locale, ZoneId zone) {
+        this(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern).toFormatter(locale), zone,
+                isDateOnly(pattern, TIME_LETTERS));
+    }
+    
+    /**
+     * Allocates a new instance.
+     * 
+     * @param formatter  the formatter
+     * @param zone  the time zone used for converting dates and instants
+     * @param dateOnly  true if the formatter uses only date fields
+     */
+    private DateFormatCache(DateTimeFormatter formatter, ZoneId zone, boolean dateOnly) {
+        this.formatter = formatter;
+        this.zone = zone;
+        this.timeZone = TimeZone.getTimeZone(zone);
+        this.dateOnly = dateOnly;
+    }
+    
+    /**
+     * Returns the shared instance for the given pattern and locale, using the default time zone.
+     * 
+     * @param pattern  the pattern of the dates (see DateTimeFormatter)
+     * @param locale  the locale
+     * @return  the shared instance
+     */
+    public static DateFormatCache getInstance(String pattern, Locale locale) {
+        return getInstance(pattern, locale, ZoneId.systemDefault());
+    }
+    
+    /**
+     * Returns the shared instance for the given pattern, locale and time zone.
+     * 
+     * @param pattern  the pattern of the dates (see DateTimeFormatter)
+     * @param locale  the locale
+     * @param zone  the time zone used for converting dates and instants
+     * @return  the shared instance
+     */
+    public static DateFormatCache getInstance(String pattern, Locale locale, ZoneId zone) {
+        String key = pattern + "|" + locale.toLanguageTag() + "|" + zone.getId();
+        return INSTANCES.computeIfAbsent(key, k -> new DateFormatCache(pattern, locale, zone));
+    }
+    
+    /**
+     * Returns the shared instance for the given SimpleDateFormat pattern and locale, using the default time zone.
+     * 
+     * @param pattern  the pattern of the dates (see SimpleDateFormat)
+     * @param locale  the locale
+     * @return  the shared instance
+     * @throws IllegalArgumentException  if the pattern is not valid
+     */
+    public static DateFormatCache getLegacyInstance(String pattern, Locale locale) {
+        return getLegacyInstance(pattern, locale, ZoneId.systemDefault());
+    }
+    
+    /**
+     * Returns the shared instance for the given SimpleDateFormat pattern, locale and time zone.
+     * 
+     * @param pattern  the pattern of the dates (see SimpleDateFormat)
+     * @param locale  the locale
+     * @param zone  the time zone used for converting dates and instants
+     * @return  the shared instance
+     * @throws IllegalArgumentException  if the pattern is not valid
+     */
+    public static DateFormatCache getLegacyInstance(String pattern, Locale locale, ZoneId zone) {
+        String key = pattern + "|" + locale.toLanguageTag() + "|" + zone.getId();
+        return LEGACY_INSTANCES.computeIfAbsent(key, k ->
+                new DateFormatCache(ofLegacyPattern(pattern, locale), zone, isDateOnly(pattern, LEGACY_TIME_LETTERS)));
+    }
+    
+    /**
+     * Checks if a pattern contains only date fields (ignoring quoted text).
+     * 
+     * @param pattern  the pattern of the dates
+     * @param timeLetters  the pattern letters which need a time (or a time zone)
+     * @return  true if the pattern contains only date fields
+     */
+    private static boolean isDateOnly(String pattern, String timeLetters) {
+        boolean quoted = false;
+        
+        for (int i = 0; i < pattern.length(); ++i) {
+            char c = pattern.charAt(i);
+            if (c == '\'') quoted = !quoted;
+            else if (!quoted && timeLetters.indexOf(c) >= 0) return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Creates a formatter producing the same texts as a SimpleDateFormat with the given pattern.<p>
+     * The pattern letters with a different meaning in DateTimeFormatter are translated: for example
+     * {@code u} (day number of the week), {@code F} (day of the week in the month) and {@code S} (milliseconds)
+     * become the corresponding fields, the text fields never use the narrow form and the numeric fields
+     * accept any number of letters. The non-letter characters are always literals, as in SimpleDateFormat.
+     * 
+     * @param pattern  the pattern of the dates (see SimpleDateFormat)
+     * @param locale  the locale
+     * @return  the formatter
+     * @throws IllegalArgumentException  if the pattern is not valid
+     */
+    public static DateTimeFormatter ofLegacyPattern(String pattern, Locale locale) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder().parseCaseInsensitive();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            
+            if (c == '\'') {
+                // Two single quotes stand for a quote, both inside and outside quoted text
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+                
+                for (++i; ; ++i) {
+                    if (i >= pattern.length()) throw new IllegalArgumentException("Unterminated quote in pattern: " + pattern);
+                    if (pattern.charAt(i) != '\'') {
+                        literal.append(pattern.charAt(i));
+                    } else if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        literal.append('\'');
+                        ++i;
+                    } else {
+                        break;
+                    }
+                }
+                ++i;
+                continue;
+            }
+            
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                literal.append(c);
+                ++i;
+                continue;
+            }
+            
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) ++count;
+            
+            if (literal.length() > 0) {
+                builder.appendLiteral(literal.toString());
+                literal.setLength(0);
+            }
+            appendLegacyField(builder, c, count, locale);
+            i += count;
+        }
+        
+        if (literal.length() > 0) builder.appendLiteral(literal.toString());
+        
+        return builder.toFormatter(locale);
+    }
+    
+    /**
+     * Appends the field of a SimpleDateFormat pattern letter to a formatter.
+     * 
+     * @param builder  the builder of the formatter
+     * @param letter  the pattern letter
+     * @param count  the number of consecutive letters
+     * @param locale  the locale
+     * @throws IllegalArgumentException  if the letter is not valid
+     */
+    private static void appendLegacyField(DateTimeFormatterBuilder builder, char letter, int count, Locale locale) {
+        switch (letter) {
+            case 'G': builder.appendText(ChronoField.ERA, getLegacyTexts(DateFormatSymbols.getInstance(locale).getEras())); break;
+            case 'y':
+            case 'Y': builder.appendPattern(repeat(letter, count)); break;
+            case 'M':
+            case 'L': builder.appendPattern(repeat(letter, Math.min(count, 4))); break;
+            case 'w': builder.appendPattern(repeat(letter, Math.min(count, 2))); break;
+            case 'W': builder.appendPattern("W"); break;
+            case 'D': appendLegacyNumber(builder, ChronoField.DAY_OF_YEAR, count, 3); break;
+            case 'd': appendLegacyNumber(builder, ChronoField.DAY_OF_MONTH, count, 2); break;
+            case 'F': appendLegacyNumber(builder, ChronoField.ALIGNED_WEEK_OF_MONTH, count, 1); break;
+            case 'E': builder.appendText(ChronoField.DAY_OF_WEEK, (count < 4) ? TextStyle.SHORT : TextStyle.FULL); break;
+            case 'u': appendLegacyNumber(builder, ChronoField.DAY_OF_WEEK, count, 1); break;
+            case 'a': builder.appendText(ChronoField.AMPM_OF_DAY, getLegacyTexts(DateFormatSymbols.getInstance(locale).getAmPmStrings())); break;
+            case 'H': appendLegacyNumber(builder, ChronoField.HOUR_OF_DAY, count, 2); break;
+            case 'k': appendLegacyNumber(builder, ChronoField.CLOCK_HOUR_OF_DAY, count, 2); break;
+            case 'K': appendLegacyNumber(builder, ChronoField.HOUR_OF_AMPM, count, 2); break;
+            case 'h': appendLegacyNumber(builder, ChronoField.CLOCK_HOUR_OF_AMPM, count, 2); break;
+            case 'm': appendLegacyNumber(builder, ChronoField.MINUTE_OF_HOUR, count, 2); break;
+            case 's': appendLegacyNumber(builder, ChronoField.SECOND_OF_MINUTE, count, 2); break;
+            case 'S': appendLegacyNumber(builder, ChronoField.MILLI_OF_SECOND, count, 3); break;
+            case 'z': builder.appendZoneText((count < 4) ? TextStyle.SHORT : TextStyle.FULL); break;
+            case 'Z': builder.appendOffset("+HHMM", "+0000"); break;
+            case 'X':
+                if (count > 3) throw new IllegalArgumentException("Invalid ISO 8601 format: length=" + count);
+                builder.appendOffset((count == 1) ? "+HHmm" : (count == 2) ? "+HHMM" : "+HH:MM", "Z");
+                break;
+            default: throw new IllegalArgumentException("Illegal pattern character '" + letter + "'");
+        }
+    }
+    
+    /**
+     * Appends a numeric field of a SimpleDateFormat pattern to a formatter, padded to the number of letters.
+     * 
+     * @param builder  the builder of the formatter
+     * @param field  the field
+     * @param count  the number of consecutive letters
+     * @param digits  the maximum number of digits of the field
+     */
+    private static void appendLegacyNumber(DateTimeFormatterBuilder builder, ChronoField field, int count, int digits) {
+        if (count == 1) builder.appendValue(field);
+        else if (count >= digits) builder.appendValue(field, count);
+        else builder.appendValue(field, count, digits, SignStyle.NOT_NEGATIVE);
+    }
+    
+    /**
+     * Returns the texts used by SimpleDateFormat for the values of a field starting from 0 (eras or AM/PM markers).
+     * 
+     * @param texts  the texts of the values
+     * @return  the texts by value
+     */
+    private static Map<Long, String> getLegacyTexts(String[] texts) {
+        HashMap<Long, String> map = new HashMap<>();
+        for (int i = 0; i < texts.length; ++i) map.put((long)i, texts[i]);
+        return map;
+    }
+    
+    /**
+     * Returns a string made of a letter repeated.
+     * 
+     * @param letter  the letter
+     * @param count  the number of repetitions
+     * @return  the string
+     */
+    private static String repeat(char letter, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, letter);
+        return new String(chars);
+    }
+    
+    /**
+     * Returns the formatter used.
+     * 
+     * @return  the formatter used
+     */
+    public DateTimeFormatter getFormatter() {
+        return formatter;
+    }
+    
+    /**
+     * Returns the time zone used for converting dates and instants.
+     * 
+     * @return  the time zone used for converting dates and instants
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    /**
+     * Returns true if the pattern contains only date fields.
+     * 
+     * @return  true if the pattern contains only date fields
+     */
+    public boolean isDateOnly() {
+        return dateOnly;
+    }
+    
+    /**
+     * Formats a value.
+     * 
+     * @param value  the value (Date, LocalDate, LocalDateTime, Instant or any other TemporalAccessor)
+     * @return  the formatted text (null if the value is null or not supported)
+     */
+    public String format(Object value) {
+        if (value instanceof Date) return formatEpochMilli(((Date)value).getTime());
+        if (value instanceof Instant) return formatEpochMilli(((Instant)value).toEpochMilli());
+        if (value instanceof LocalDate) {
+            LocalDate date = (LocalDate)value;
+            return (dateOnly) ? formatEpochDay(date.toEpochDay()) : formatter.format(date.atStartOfDay(zone));
+        }
+        if (value instanceof LocalDateTime) {
+            LocalDateTime time = (LocalDateTime)value;
+            return (dateOnly) ? formatEpochDay(time.toLocalDate().toEpochDay()) : formatter.format(time.atZone(zone));
+        }
+        if (value instanceof TemporalAccessor) return formatter.format((TemporalAccessor)value);
+        
+        return null;
+    }
+    
+    /**
+     * Formats an instant expressed in milliseconds since the epoch.
+     * 
+     * @param millis  the milliseconds since the epoch
+     * @return  the formatted text
+     */
+    public String formatEpochMilli(long millis) {
+        if (dateOnly) return formatEpochDay(Math.floorDiv(millis + timeZone.getOffset(millis), MILLIS_PER_DAY));
+        
+        synchronized (texts) {
+            String text = texts.get(millis);
+            if (text != null) return text;
+        }
+        
+        String text = formatter.format(Instant.ofEpochMilli(millis).atZone(zone));
+        synchronized (texts) {
+            texts.put(millis, text);
+        }
+        
+        return text;
+    }
+    
+    /**
+     * Formats a day expressed as days since the epoch.
+     * 
+     * @param epochDay  the days since the epoch
+     * @return  the formatted text
+     */
+    public String formatEpochDay(long epochDay) {
+        if (!dateOnly) return formatter.format(LocalDate.ofEpochDay(epochDay).atStartOfDay(zone));
+        
+        synchronized (texts) {
+            String text = texts.get(epochDay);
+            if (text != null) return text;
+        }
+        
+        String text = formatter.format(LocalDate.ofEpochDay(epochDay));
+        synchronized (texts) {
+            texts.put(epochDay, text);
+        }
+        
+        return text;
+    }
+    
+    /**
+     * Parses a text.
+     * 
+     * @param text  the text to be parsed
+     * @return  the date and time parsed (at the start of the day if the pattern contains only date fields)
+     * @throws java.time.format.DateTimeParseException  in case the text cannot be parsed
+     */
+    public LocalDateTime parse(String text) {
+        return (dateOnly) ? LocalDate.parse(text, formatter).atStartOfDay() : LocalDateTime.parse(text, formatter);
+    }
+    
+    /**
+     * Converts a date and time to the given type.
+     * 
+     * @param time  the date and time
+     * @param type  the type (Date, LocalDate, LocalDateTime or Instant)
+     * @return  the converted value (null if the time is null)
+     */
+    public Object convert(LocalDateTime time, Class<?> type) {
+        if (time == null) return null;
+        if (type == LocalDate.class) return time.toLocalDate();
+        if (type == LocalDateTime.class) return time;
+        
+        Instant instant = time.atZone(zone).toInstant();
+        return (type == Instant.class) ? instant : Date.from(instant);
+    }
+}
@@ -0,0 +1,209 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the accessors generated by AccessorsProcessor, compiling annotated classes with
+ * the processor and loading the classes generated.
+ *
+ * @author Giuseppe Gallo
+ */
+public class AccessorsProcessorTest {
+
+    /** The source of the annotated classes, nested at different depths and with overloaded setters */
+    private final static String SOURCE = String.join("\n",
+            "package sample;",
+            "",
+            "import YAJSL.Data.DataRecord;",
+            "import YAJSL.Data.GenerateAccessors;",
+            "",
+            "public class Outer {",
+            "    @GenerateAccessors",
+            "    public static class Item implements DataRecord {",
+            "        private int count;",
+            "        private long total;",
+            "        private String name;",
+            "        public int getCount() { return count; }",
+            "        public void setCount(int count) { this.count = count; }",
+            "        public void setCount(String count) { this.count = Integer.parseInt(count); }",
+            "        public long getTotal() { return total; }",
+            "        public void setTotal(long total) { this.total = total; }",
+            "        public String getName() { return name; }",
+            "        public void setName(String name) { this.name = name; }",
+            "        public boolean isNamed() { return name != null; }",
+            "        public void store() {}",
+            "        public void delete() {}",
+            "    }",
+            "",
+            "    public static class Group {",
+            "        @GenerateAccessors",
+            "        public static class Leaf implements DataRecord {",
+            "            private String label = \"leaf\";",
+            "            public String getLabel() { return label; }",
+            "            public void setLabel(String label) { this.label = label; }",
+            "            public void store() {}",
+            "            public void delete() {}",
+            "        }",
+            "    }",
+            "}",
+            "");
+
+    /** The directory of the sources and classes */
+    private Path directory;
+
+    /** The class loader of the classes compiled */
+    private URLClassLoader loader;
+
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("accessors");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (loader != null) loader.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    /**
+     * Compiles the sample classes with the processor, returning their class loader.
+     *
+     * @return  the class loader of the classes compiled
+     * @throws IOException  in case of any problem
+     */
+    private ClassLoader compile() throws IOException {
+        Path source = directory.resolve("src/sample/Outer.java");
+        Path classes = directory.resolve("classes");
+        Files.createDirectories(source.getParent());
+        Files.createDirectories(classes);
+        Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-processor", AccessorsProcessor.class.getName(),
+                    "-d", classes.toString(),
+                    "-s", classes.toString());
+            boolean success = compiler.getTask(null, files, diagnostics, options, null, files.getJavaFileObjects(source.toFile())).call();
+            for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+                assertTrue(d.toString(), d.getKind() != Diagnostic.Kind.ERROR);
+            }
+            assertTrue(success);
+        }
+
+        loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+        return loader;
+    }
+
+    @Test
+    public void testNestedClassAccessors() throws Exception {
+        ClassLoader cl = compile();
+        Class<?> item = Class.forName("sample.Outer$Item", true, cl);
+        FieldAccessors.Provider provider = (FieldAccessors.Provider) Class.forName("sample.Outer_Item" + AccessorsProcessor.SUFFIX, true, cl)
+                .getDeclaredConstructor().newInstance();
+        Object object = item.getDeclaredConstructor().newInstance();
+
+        provider.getSetter("setName", String.class).set(object, "a");
+        assertEquals("a", provider.getGetter("getName").get(object));
+        assertEquals(true, provider.getGetter("isNamed").get(object));
+        assertTrue(provider.getPrimitiveGetter("isNamed", boolean.class) instanceof FieldAccessors.BooleanGetter);
+
+        // The primitive getters are provided only for the widening conversions
+        provider.getSetter("setTotal", long.class).set(object, 7L);
+        assertNull(provider.getPrimitiveGetter("getTotal", int.class));
+        assertEquals(7L, ((FieldAccessors.LongGetter) provider.getPrimitiveGetter("getTotal", long.class)).getLong(object));
+        assertNull(provider.getPrimitiveGetter("getName", int.class));
+
+        // The generated accessors are picked up by FieldAccessors
+        assertEquals("a", FieldAccessors.get(object, "getName"));
+        assertEquals(7L, FieldAccessors.getLongGetter(item, "getTotal").getLong(object));
+    }
+
+    @Test
+    public void testOverloadedSetters() throws Exception {
+        ClassLoader cl = compile();
+        Class<?> item = Class.forName("sample.Outer$Item", true, cl);
+        FieldAccessors.Provider provider = (FieldAccessors.Provider) Class.forName("sample.Outer_Item" + AccessorsProcessor.SUFFIX, true, cl)
+                .getDeclaredConstructor().newInstance();
+        Object object = item.getDeclaredConstructor().newInstance();
+        FieldAccessors.IntGetter count = (FieldAccessors.IntGetter) provider.getPrimitiveGetter("getCount", int.class);
+
+        provider.getSetter("setCount", int.class).set(object, 3);
+        assertEquals(3, count.getInt(object));
+        provider.getSetter("setCount", String.class).set(object, "5");
+        assertEquals(5, count.getInt(object));
+        assertNull(provider.getSetter("setCount", long.class));
+        assertNull(provider.getSetter("setMissing", int.class));
+
+        FieldAccessors.set(object, "setCount", String.class, "9");
+        assertEquals(9, count.getInt(object));
+    }
+
+    @Test
+    public void testDeeplyNestedClassAccessors() throws Exception {
+        ClassLoader cl = compile();
+        Class<?> leaf = Class.forName("sample.Outer$Group$Leaf", true, cl);
+        assertNotNull(Class.forName("sample.Outer_Group_Leaf" + AccessorsProcessor.SUFFIX, true, cl));
+        Object object = leaf.getDeclaredConstructor().newInstance();
+
+        assertEquals("leaf", FieldAccessors.get(object, "getLabel"));
+        FieldAccessors.set(object, "setLabel", String.class, "b");
+        assertEquals("b", FieldAccessors.getGetter(leaf, "getLabel").get(object));
+    }
+}
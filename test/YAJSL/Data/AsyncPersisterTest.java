@@ -0,0 +1,124 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the futures returned by AsyncPersister and the managers deleting through it.
+ *
+ * @author Giuseppe Gallo
+ */
+public class AsyncPersisterTest {
+
+    /** The executor used by the persister */
+    private ExecutorService executor;
+
+    /** The persister being tested */
+    private AsyncPersister persister;
+
+
+    @Before
+    public void setUp() {
+        executor = AsyncPersister.newBoundedExecutor(4);
+        persister = new AsyncPersister(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFuturesCompleteOnEDTInOrder() throws Exception {
+        List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        TestRecord record = new TestRecord(1, "a") {
+            @Override
+            public void store() throws Exception {
+                Thread.sleep(20);
+                writes.add("store");
+            }
+
+            @Override
+            public void delete() throws Exception {
+                writes.add("delete");
+            }
+        };
+
+        persister.storeAsync(record);
+        CompletableFuture<Boolean> onEDT = persister.deleteAsync(record).thenApply(v -> EventQueue.isDispatchThread());
+
+        assertTrue(onEDT.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("store", "delete"), writes);
+    }
+
+    @Test
+    public void testFailureIsReported() throws Exception {
+        TestRecord record = new TestRecord(1, "a") {
+            @Override
+            public void store() throws Exception {
+                throw new IllegalStateException("failed");
+            }
+        };
+
+        try {
+            persister.storeAsync(record).get(5, TimeUnit.SECONDS);
+            fail("Exception expected");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testListManagerDeletesThroughPersister() throws Exception {
+        ArrayList<TestRecord> data = new ArrayList<>();
+        TestRecord record = new TestRecord(1, "a");
+        data.add(record);
+        DataRecordListManager<TestRecord> manager = new DataRecordListManager<>(data);
+        manager.setPersister(persister);
+
+        manager.deleteAsync(0).get(5, TimeUnit.SECONDS);
+        assertEquals(1, record.deleted);
+    }
+}
@@ -0,0 +1,75 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests the values cached by CachingDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class CachingDataRecordManagerTest {
+
+    @Test
+    public void testPrimitivesCachedUnboxed() throws Exception {
+        ArrayList<TestRecord> data = new ArrayList<>();
+        data.add(new TestRecord(1, "a"));
+        data.add(new TestRecord(2, "b"));
+        CachingDataRecordManager<TestRecord> manager = new CachingDataRecordManager<>(new DataRecordListManager<>(data), 4);
+
+        assertEquals(1, manager.getInt(0, "getKey"));
+        assertEquals(1, manager.getInt(0, "getKey"));
+        assertEquals(2L, manager.getLong(1, "getKey"));
+        assertEquals(2L, manager.getLong(1, "getKey"));
+        assertEquals(2, manager.getMissCount());
+        assertEquals(2, manager.getHitCount());
+
+        data.get(0).setKey(5);
+        assertEquals(1, manager.getInt(0, "getKey"));
+        manager.objectChanged(0, TestRecord.class, data.get(0));
+        assertEquals(5, manager.getInt(0, "getKey"));
+        assertEquals(5D, manager.getDouble(0, "getKey"), 0D);
+        assertEquals("a", manager.getField(0, "getName"));
+    }
+
+    @Test
+    public void testSlotReusedByAnotherRow() throws Exception {
+        ArrayList<TestRecord> data = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) data.add(new TestRecord(i, "r" + i));
+        CachingDataRecordManager<TestRecord> manager = new CachingDataRecordManager<>(new DataRecordListManager<>(data), 4);
+
+        for (int i = 0; i < 8; ++i) assertEquals(i, manager.getInt(i, "getKey"));
+        for (int i = 0; i < 8; ++i) assertEquals("r" + i, manager.getField(i, "getName"));
+        assertEquals(16, manager.getMissCount());
+    }
+}
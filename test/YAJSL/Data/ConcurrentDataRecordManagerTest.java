@@ -0,0 +1,228 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the publication of the updates of ConcurrentDataRecordManager to the event dispatching thread.
+ *
+ * @author Giuseppe Gallo
+ */
+public class ConcurrentDataRecordManagerTest {
+
+    /**
+     * A listener replaying the events on a copy of the list, checking on each event
+     * that it is received on the event dispatching thread and that the data manager
+     * shows the same version of the list.
+     */
+    private static class MirrorListener implements DataListListener {
+
+        /** The data manager */
+        private final ConcurrentDataRecordManager<TestRecord> dm;
+
+        /** The copy of the list, updated by the events */
+        private final List<Object> mirror = new ArrayList<>();
+
+        /** The number of events received */
+        private int events = 0;
+
+        /** The first error found (null = none) */
+        private Throwable error = null;
+
+        private MirrorListener(ConcurrentDataRecordManager<TestRecord> dm) {
+            this.dm = dm;
+            for (int i = 0; i < dm.size(); ++i) mirror.add(dm.get(i));
+        }
+
+        /**
+         * Applies an event to the copy of the list and compares it with the data manager.
+         *
+         * @param update  the update of the copy
+         */
+        private void check(Runnable update) {
+            if (error != null) return;
+            try {
+                assertTrue(EventQueue.isDispatchThread());
+                ++events;
+                update.run();
+                assertEquals(mirror.size(), dm.size());
+                for (int i = 0; i < mirror.size(); ++i) assertSame(mirror.get(i), dm.get(i));
+            } catch (Throwable ex) {
+                error = ex;
+            }
+        }
+
+        @Override
+        public void listChanged(Class<?> type) {
+            check(() -> {
+                mirror.clear();
+                for (int i = 0; i < dm.size(); ++i) mirror.add(dm.get(i));
+            });
+        }
+
+        @Override
+        public void objectAdded(int index, Class<?> type, Object object) {
+            check(() -> mirror.add(index, object));
+        }
+
+        @Override
+        public void objectRemoved(int index, Class<?> type) {
+            check(() -> mirror.remove(index));
+        }
+
+        @Override
+        public void objectChanged(int index, Class<?> type, Object object) {
+            check(() -> mirror.set(index, object));
+        }
+
+        @Override
+        public void objectsAdded(int first, int last, Class<?> type) {
+            check(() -> {
+                for (int i = first; i <= last; ++i) mirror.add(i, dm.get(i));
+            });
+        }
+
+        @Override
+        public void objectsRemoved(int first, int last, Class<?> type) {
+            check(() -> mirror.subList(first, last + 1).clear());
+        }
+
+        @Override
+        public void objectsChanged(int[] indices, Class<?> type) {
+            check(() -> {
+                for (int index : indices) mirror.set(index, dm.get(index));
+            });
+        }
+    }
+
+    @Test
+    public void testUpdateOnEDTIsImmediate() throws Exception {
+        ConcurrentDataRecordManager<TestRecord> dm = new ConcurrentDataRecordManager<>(TestRecord.class,
+                Arrays.asList(new TestRecord(1, "a"), new TestRecord(2, "b")));
+        RecordingListener listener = new RecordingListener();
+        dm.addDataListListener(listener);
+
+        EventQueue.invokeAndWait(() -> {
+            TestRecord c = new TestRecord(3, "c");
+            dm.add(1, c);
+            assertEquals(3, dm.size());
+            assertSame(c, dm.get(1));
+            assertEquals(Arrays.asList("added 1 c(3)"), listener.take());
+        });
+    }
+
+    @Test
+    public void testBackgroundUpdatesAreNotifiedOnEDTInOrder() throws Exception {
+        ConcurrentDataRecordManager<TestRecord> dm = new ConcurrentDataRecordManager<>(TestRecord.class);
+        MirrorListener mirror = new MirrorListener(dm);
+        dm.addDataListListener(mirror);
+        RecordingListener listener = new RecordingListener();
+        dm.addDataListListener(listener);
+
+        int writers = 4;
+        int steps = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; ++w) {
+            int writer = w;
+            Thread t = new Thread(() -> {
+                Random random = new Random(writer);
+                List<TestRecord> own = new ArrayList<>();
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int seq = 0; seq < steps; ++seq) {
+                    int action = random.nextInt(10);
+                    if (action < 6 || own.isEmpty()) {
+                        TestRecord r = new TestRecord(writer * steps + seq, "w" + writer);
+                        own.add(r);
+                        dm.add(r);
+                    } else if (action < 8) {
+                        dm.remove(own.remove(random.nextInt(own.size())));
+                    } else if (action < 9) {
+                        dm.changed(own.get(random.nextInt(own.size())));
+                    } else {
+                        List<TestRecord> range = Arrays.asList(new TestRecord(writer * steps + seq, "r" + writer));
+                        own.addAll(range);
+                        dm.addAll(range);
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+
+        // The event dispatching thread keeps reading and updating while the writers run
+        start.countDown();
+        for (int i = 0; i < 200; ++i) {
+            EventQueue.invokeLater(() -> {
+                for (int j = 0; j < dm.size(); ++j) dm.get(j).getKey();
+                dm.add(new TestRecord(-1, "edt"));
+            });
+        }
+        for (Thread t : threads) {
+            t.join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse(t.isAlive());
+        }
+        EventQueue.invokeAndWait(() -> {});
+
+        EventQueue.invokeAndWait(() -> {
+            if (mirror.error != null) throw new AssertionError(mirror.error);
+            assertEquals(listener.events.size(), mirror.events);
+            assertEquals(dm.getSnapshot(), mirror.mirror);
+
+            // The objects added by each writer at the end of the list keep their order
+            int[] last = new int[writers];
+            Arrays.fill(last, -1);
+            for (Object o : mirror.mirror) {
+                TestRecord r = (TestRecord)o;
+                if (r.getKey() < 0) continue;
+                int writer = r.getKey() / steps;
+                assertTrue(r + " after " + last[writer], r.getKey() > last[writer]);
+                last[writer] = r.getKey();
+            }
+        });
+        assertEquals(writers * steps + 200, listener.events.size());
+    }
+}
@@ -0,0 +1,205 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the events notified by DataRecordSortedListManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class DataRecordSortedListManagerTest {
+
+    /** The data source */
+    private ArrayList<TestRecord> data;
+
+    /** The manager being tested */
+    private DataRecordSortedListManager<TestRecord> manager;
+
+    /** The listener recording the events of the manager */
+    private RecordingListener listener;
+
+
+    @Before
+    public void setUp() {
+        data = new ArrayList<>();
+        data.add(new TestRecord(4, "d"));
+        data.add(new TestRecord(2, "b"));
+        data.add(new TestRecord(6, "f"));
+        manager = new DataRecordSortedListManager<>(data, Comparator.comparingInt(TestRecord::getKey));
+        listener = new RecordingListener();
+        manager.addDataListListener(listener);
+    }
+
+    /**
+     * Returns the names of the objects in the manager, in order.
+     *
+     * @return  the names of the objects in the manager
+     */
+    private String names() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < manager.size(); ++i) sb.append(manager.get(i).getName());
+        return sb.toString();
+    }
+
+    @Test
+    public void testInitialOrder() {
+        assertEquals("bdf", names());
+    }
+
+    @Test
+    public void testObjectAdded() {
+        TestRecord c = new TestRecord(3, "c");
+        data.add(c);
+        manager.objectAdded(3, TestRecord.class, c);
+
+        assertEquals("bcdf", names());
+        assertEquals(Collections.singletonList("added 1 c(3)"), listener.take());
+        assertEquals(1, manager.getIndex(c));
+    }
+
+    @Test
+    public void testObjectRemoved() {
+        data.remove(0);
+        manager.objectRemoved(0, TestRecord.class);
+
+        assertEquals("bf", names());
+        assertEquals(Collections.singletonList("removed 1"), listener.take());
+    }
+
+    @Test
+    public void testObjectChangedInPlace() {
+        TestRecord d = data.get(0);
+        d.setKey(5);
+        manager.objectChanged(0, TestRecord.class, d);
+
+        assertEquals("bdf", names());
+        assertEquals(Collections.singletonList("changed 1 d(5)"), listener.take());
+    }
+
+    @Test
+    public void testObjectChangedMoved() {
+        TestRecord b = data.get(1);
+        b.setKey(10);
+        manager.objectChanged(1, TestRecord.class, b);
+
+        assertEquals("dfb", names());
+        assertEquals(Arrays.asList("removed 0", "added 2 b(10)"), listener.take());
+        assertEquals(2, manager.getIndex(b));
+
+        b.setKey(1);
+        manager.objectChanged(1, TestRecord.class, b);
+        assertEquals("bdf", names());
+        assertEquals(Arrays.asList("removed 2", "added 0 b(1)"), listener.take());
+    }
+
+    @Test
+    public void testObjectChangedWithEqualKeys() {
+        TestRecord x = new TestRecord(4, "x");
+        TestRecord y = new TestRecord(4, "y");
+        data.add(x);
+        manager.objectAdded(3, TestRecord.class, x);
+        data.add(y);
+        manager.objectAdded(4, TestRecord.class, y);
+        assertEquals("bdxyf", names());
+        listener.take();
+
+        x.setKey(7);
+        manager.objectChanged(3, TestRecord.class, x);
+        assertEquals("bdyfx", names());
+        assertEquals(Arrays.asList("removed 2", "added 4 x(7)"), listener.take());
+
+        data.remove(4);
+        manager.objectRemoved(4, TestRecord.class);
+        assertEquals("bdfx", names());
+        assertEquals(Collections.singletonList("removed 2"), listener.take());
+    }
+
+    @Test
+    public void testObjectsAddedContiguous() {
+        List<TestRecord> added = Arrays.asList(new TestRecord(5, "e2"), new TestRecord(5, "e1"));
+        data.addAll(added);
+        manager.objectsAdded(3, 4, TestRecord.class);
+
+        assertEquals("bde2e1f", names());
+        assertEquals(Collections.singletonList("added 2-3"), listener.take());
+    }
+
+    @Test
+    public void testObjectsAddedNotContiguous() {
+        data.addAll(Arrays.asList(new TestRecord(1, "a"), new TestRecord(7, "g")));
+        manager.objectsAdded(3, 4, TestRecord.class);
+
+        assertEquals("abdfg", names());
+        assertEquals(Collections.singletonList("changed"), listener.take());
+    }
+
+    @Test
+    public void testObjectsRemoved() {
+        data.subList(0, 2).clear();
+        manager.objectsRemoved(0, 1, TestRecord.class);
+
+        assertEquals("f", names());
+        assertEquals(Collections.singletonList("removed 0-1"), listener.take());
+    }
+
+    @Test
+    public void testObjectsChanged() {
+        data.get(0).setName("D");
+        data.get(2).setName("F");
+        manager.objectsChanged(new int[]{0, 2}, TestRecord.class);
+        assertEquals(Collections.singletonList("changed [1, 2]"), listener.take());
+
+        data.get(0).setKey(0);
+        manager.objectsChanged(new int[]{0}, TestRecord.class);
+        assertEquals("DbF", names());
+        assertEquals(Collections.singletonList("changed"), listener.take());
+    }
+
+    @Test
+    public void testListChanged() {
+        data.clear();
+        data.add(new TestRecord(1, "z"));
+        manager.listChanged(TestRecord.class);
+
+        assertEquals("z", names());
+        assertEquals(Collections.singletonList("changed"), listener.take());
+        assertSame(data.get(0), manager.get(0));
+    }
+}
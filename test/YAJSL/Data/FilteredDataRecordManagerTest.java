@@ -0,0 +1,102 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the events notified by FilteredDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class FilteredDataRecordManagerTest {
+
+    /** The data source */
+    private ArrayList<TestRecord> data;
+
+    /** The manager providing the objects */
+    private DataRecordListManager<TestRecord> source;
+
+    /** The manager being tested */
+    private FilteredDataRecordManager<TestRecord> manager;
+
+    /** The listener recording the events of the manager */
+    private RecordingListener listener;
+
+    /** The class notified by the last generic change */
+    private Class<?> changedType;
+
+
+    @Before
+    public void setUp() {
+        data = new ArrayList<>();
+        data.add(new TestRecord(1, "a"));
+        data.add(new TestRecord(2, "b"));
+        data.add(new TestRecord(3, "c"));
+        source = new DataRecordListManager<>(data);
+        manager = new FilteredDataRecordManager<>(source, r -> r.getKey() % 2 == 1);
+        listener = new RecordingListener() {
+            @Override
+            public void listChanged(Class<?> type) {
+                changedType = type;
+                super.listChanged(type);
+            }
+        };
+        manager.addDataListListener(listener);
+    }
+
+    @Test
+    public void testRefilterBeforeEventsNotifiesType() {
+        manager.refilter();
+        assertEquals(TestRecord.class, changedType);
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    public void testObjectChangedReadsSource() {
+        TestRecord replacement = new TestRecord(5, "e");
+        data.set(1, replacement);
+        manager.objectChanged(1, TestRecord.class, data.get(0));
+        assertEquals(3, manager.size());
+        assertEquals("[added 1 " + replacement + "]", listener.events.toString());
+    }
+
+    @Test
+    public void testObjectAddedReadsSource() {
+        TestRecord added = new TestRecord(7, "g");
+        data.add(0, added);
+        manager.objectAdded(0, TestRecord.class, null);
+        assertEquals(3, manager.size());
+        assertEquals("[added 0 " + added + "]", listener.events.toString());
+    }
+}
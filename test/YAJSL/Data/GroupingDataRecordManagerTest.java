@@ -0,0 +1,91 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests the aggregates computed by GroupingDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class GroupingDataRecordManagerTest {
+
+    /**
+     * A record with a nullable numeric field.
+     */
+    public static class ValueRecord extends TestRecord {
+
+        /** The numeric field (null = no value) */
+        private final Integer value;
+
+        public ValueRecord(String group, Integer value) {
+            super(0, group);
+            this.value = value;
+        }
+
+        public Integer getValue() {
+            return value;
+        }
+    }
+
+    @Test
+    public void testNullValuesAreSkipped() {
+        ArrayList<ValueRecord> data = new ArrayList<>();
+        data.add(new ValueRecord("a", 4));
+        data.add(new ValueRecord("a", null));
+        data.add(new ValueRecord("a", 2));
+        data.add(new ValueRecord("b", null));
+        DataRecordListManager<ValueRecord> source = new DataRecordListManager<>(data);
+        GroupingDataRecordManager<ValueRecord> manager = new GroupingDataRecordManager<>(source, "getName", "getValue");
+
+        assertEquals(2, manager.size());
+        GroupingDataRecordManager.Group a = manager.get(0);
+        assertEquals(3, a.getCount());
+        assertEquals(2, a.getValueCount());
+        assertEquals(6, a.getSum(), 0);
+        assertEquals(3, a.getAverage(), 0);
+        assertEquals(2, a.getMin(), 0);
+        assertEquals(4, a.getMax(), 0);
+
+        GroupingDataRecordManager.Group b = manager.get(1);
+        assertEquals(1, b.getCount());
+        assertEquals(0, b.getValueCount());
+        assertEquals(Double.NaN, b.getAverage(), 0);
+        assertEquals(Double.NaN, b.getMin(), 0);
+
+        data.remove(1);
+        manager.objectRemoved(1, ValueRecord.class);
+        assertEquals(2, a.getCount());
+        assertEquals(3, a.getAverage(), 0);
+    }
+}
@@ -0,0 +1,139 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests IdentityIndex against a linear identity search.
+ *
+ * @author Giuseppe Gallo
+ */
+public class IdentityIndexTest {
+
+    /**
+     * Returns the position of the given object in the list by identity (-1 = not found).
+     *
+     * @param list  the list
+     * @param object  the object to be found
+     * @return  the position of the given object in the list
+     */
+    private static int linearIndexOf(ArrayList<Object> list, Object object) {
+        for (int i = 0; i < list.size(); ++i) {
+            if (list.get(i) == object) return i;
+        }
+        return -1;
+    }
+
+    @Test
+    public void testRandomNotifiedModifications() {
+        Random random = new Random(42);
+        ArrayList<Object> list = new ArrayList<>();
+        ArrayList<Object> removed = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) list.add(new Object());
+        IdentityIndex<Object> index = new IdentityIndex<>(list);
+
+        for (int step = 0; step < 5000; ++step) {
+            int op = random.nextInt(6);
+            if (op == 0 || list.isEmpty()) {
+                int pos = random.nextInt(list.size() + 1);
+                list.add(pos, new Object());
+                index.added(pos);
+            } else if (op == 1) {
+                int pos = random.nextInt(list.size());
+                Object obj = list.remove(pos);
+                removed.add(obj);
+                index.removed(pos, obj);
+            } else if (op == 2) {
+                int pos = random.nextInt(list.size() + 1);
+                int count = 1 + random.nextInt(5);
+                for (int i = 0; i < count; ++i) list.add(pos, new Object());
+                index.added(pos, count);
+            } else if (op == 3) {
+                int pos = random.nextInt(list.size());
+                int count = Math.min(list.size() - pos, 1 + random.nextInt(5));
+                removed.addAll(list.subList(pos, pos + count));
+                index.removed(pos, count);
+                list.subList(pos, pos + count).clear();
+            } else if (op == 4) {
+                int pos = random.nextInt(list.size());
+                removed.add(list.set(pos, new Object()));
+                index.replaced(pos);
+            }
+
+            Object probe = list.isEmpty() ? new Object() : list.get(random.nextInt(list.size()));
+            assertEquals(linearIndexOf(list, probe), index.indexOf(probe));
+        }
+
+        for (Object obj : list) assertEquals(linearIndexOf(list, obj), index.indexOf(obj));
+        for (Object obj : removed) assertEquals(linearIndexOf(list, obj), index.indexOf(obj));
+    }
+
+    @Test
+    public void testDuplicates() {
+        Object a = new Object();
+        Object b = new Object();
+        ArrayList<Object> list = new ArrayList<>();
+        list.add(b);
+        list.add(a);
+        list.add(b);
+        IdentityIndex<Object> index = new IdentityIndex<>(list);
+        assertEquals(0, index.indexOf(b));
+
+        list.remove(0);
+        index.removed(0, b);
+        assertEquals(1, index.indexOf(b));
+        assertEquals(0, index.indexOf(a));
+    }
+
+    @Test
+    public void testNotNotifiedModifications() {
+        Object a = new Object();
+        Object b = new Object();
+        ArrayList<Object> list = new ArrayList<>();
+        list.add(a);
+        list.add(b);
+        IdentityIndex<Object> index = new IdentityIndex<>(list);
+        assertEquals(1, index.indexOf(b));
+
+        // Same size, different order
+        list.set(0, b);
+        list.set(1, a);
+        assertEquals(0, index.indexOf(b));
+        assertEquals(1, index.indexOf(a));
+
+        // Different size
+        list.add(0, new Object());
+        assertEquals(1, index.indexOf(b));
+    }
+}
@@ -0,0 +1,100 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the lookups of IndexedDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class IndexedDataRecordManagerTest {
+
+    /** The data source */
+    private ArrayList<TestRecord> data;
+
+    /** The manager being tested */
+    private IndexedDataRecordManager<TestRecord> manager;
+
+
+    @Before
+    public void setUp() {
+        data = new ArrayList<>();
+        data.add(new TestRecord(1, "a"));
+        data.add(new TestRecord(2, null));
+        data.add(new TestRecord(3, "c"));
+        manager = new IndexedDataRecordManager<>(new DataRecordListManager<>(data));
+        manager.addRangeIndex("getName");
+    }
+
+    @Test
+    public void testNullValueOnRangeIndex() {
+        assertSame(data.get(1), manager.find("getName", null));
+        assertEquals(1, manager.findAll("getName", null).size());
+        assertEquals(1, manager.indexOf("getName", null));
+        assertEquals(2, manager.findRange("getName", null, true, null, true).size());
+    }
+
+    @Test
+    public void testChangeToAndFromNull() {
+        data.get(0).setName(null);
+        manager.objectChanged(0, TestRecord.class, data.get(0));
+        assertEquals(2, manager.findAll("getName", null).size());
+        assertNull(manager.find("getName", "a"));
+
+        data.get(1).setName("b");
+        manager.objectChanged(1, TestRecord.class, data.get(1));
+        assertSame(data.get(1), manager.find("getName", "b"));
+        assertSame(data.get(0), manager.find("getName", null));
+    }
+
+    @Test
+    public void testDuplicateInstanceRemoval() {
+        TestRecord c = data.get(2);
+        data.add(c);
+        manager.objectAdded(3, TestRecord.class, c);
+        assertEquals(1, manager.findAll("getName", "c").size());
+
+        data.remove(3);
+        manager.objectRemoved(3, TestRecord.class);
+        assertSame(c, manager.find("getName", "c"));
+
+        data.remove(2);
+        manager.objectRemoved(2, TestRecord.class);
+        assertNull(manager.find("getName", "c"));
+        assertEquals(0, manager.findAll("getName", "c").size());
+    }
+}
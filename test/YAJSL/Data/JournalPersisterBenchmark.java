@@ -0,0 +1,160 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Measures the throughput of JournalPersister: durable stores per second with group commit,
+ * for a growing number of concurrent writers, against a baseline forcing every write to disk.
+ * <p>
+ * Usage: JournalPersisterBenchmark [writers] [stores per writer] [bytes per record]<br>
+ * (defaults: 16, 2000, 100). The results depend on the latency of fsync on the disk of the
+ * temporary directory.
+ *
+ * @author Giuseppe Gallo
+ */
+public class JournalPersisterBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args  the number of writers, the stores per writer and the bytes per record
+     * @throws Exception  in case of any problem
+     */
+    public static void main(String[] args) throws Exception {
+        int writers = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        int stores = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+        int bytes = (args.length > 2) ? Integer.parseInt(args[2]) : 100;
+
+        char[] name = new char[bytes];
+        Arrays.fill(name, 'x');
+        String payload = new String(name);
+
+        System.out.println("fsync per write: " + format(baseline(stores, bytes)));
+        for (int w = 1; w <= writers; w *= 2) {
+            System.out.println(w + " writer(s), group commit: " + run(w, stores, payload));
+        }
+    }
+
+    /**
+     * Stores records with the given number of concurrent writers.
+     *
+     * @param writers  the number of concurrent writers
+     * @param stores  the number of stores per writer
+     * @param payload  the content of the records
+     * @return  the description of the results
+     * @throws Exception  in case of any problem
+     */
+    private static String run(int writers, int stores, String payload) throws Exception {
+        Path directory = Files.createTempDirectory("journal-benchmark");
+        try {
+            JournalPersister journal = new JournalPersister(directory, JournalPersisterTest.CODEC);
+            ArrayList<CompletableFuture<Void>> done = new ArrayList<>();
+            long start = System.nanoTime();
+
+            for (int w = 0; w < writers; ++w) {
+                int first = w * stores;
+                done.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        for (int i = 0; i < stores; ++i) journal.store(new TestRecord(first + i, payload));
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }, r -> new Thread(r).start()));
+            }
+            CompletableFuture.allOf(done.toArray(new CompletableFuture<?>[0])).get();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            journal.close();
+            return format(writers * stores / seconds) + ", " + journal.getSyncCount() + " fsyncs, "
+                    + String.format("%.1f", (double)journal.getAppendCount() / journal.getSyncCount()) + " entries/fsync, "
+                    + journal.getBytesWritten() / 1024 + " KB";
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Appends records to a file forcing every write to disk.
+     *
+     * @param stores  the number of records
+     * @param bytes  the size of the records
+     * @return  the number of records per second
+     * @throws IOException  in case of any problem
+     */
+    private static double baseline(int stores, int bytes) throws IOException {
+        Path file = Files.createTempFile("journal-baseline", ".log");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bytes + 16);
+            long start = System.nanoTime();
+            for (int i = 0; i < stores; ++i) {
+                buffer.clear();
+                channel.write(buffer);
+                channel.force(false);
+            }
+            return stores / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Formats a throughput.
+     *
+     * @param perSecond  the number of operations per second
+     * @return  the throughput formatted
+     */
+    private static String format(double perSecond) {
+        return String.format("%,.0f stores/s", perSecond);
+    }
+
+    /**
+     * Deletes a directory and its content.
+     *
+     * @param directory  the directory
+     * @throws IOException  in case of any problem
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+}
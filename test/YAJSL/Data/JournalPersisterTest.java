@@ -0,0 +1,199 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the recovery of JournalPersister after crashes and compactions.
+ *
+ * @author Giuseppe Gallo
+ */
+public class JournalPersisterTest {
+
+    /** The codec writing the key and the name of the records */
+    final static JournalPersister.Codec CODEC = new JournalPersister.Codec() {
+        @Override
+        public String getKey(DataRecord record) {
+            return String.valueOf(((TestRecord)record).getKey());
+        }
+
+        @Override
+        public byte[] encode(DataRecord record) throws Exception {
+            return ((TestRecord)record).getName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    /** The directory of the journal */
+    private Path directory;
+
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    /**
+     * Opens the journal, replaying its content.
+     *
+     * @param objects  the map receiving the content of the objects, by key
+     * @param segmentSize  the maximum size of the segments
+     * @return  the journal
+     */
+    private JournalPersister open(LinkedHashMap<String, String> objects, long segmentSize) throws Exception {
+        JournalPersister journal = new JournalPersister(directory, CODEC, segmentSize, 0);
+        journal.recover((key, data) -> {
+            if (data == null) objects.remove(key);
+            else objects.put(key, new String(data, StandardCharsets.UTF_8));
+        });
+        return journal;
+    }
+
+    /**
+     * Returns the segments of the journal, by name.
+     */
+    private TreeMap<String, Path> segments() throws IOException {
+        TreeMap<String, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+            for (Path f : files) segments.put(f.getFileName().toString(), f);
+        }
+        return segments;
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        LinkedHashMap<String, String> objects = new LinkedHashMap<>();
+        JournalPersister journal = open(objects, JournalPersister.DEFAULT_SEGMENT_SIZE);
+        journal.store(new TestRecord(1, "a"));
+        journal.store(new TestRecord(2, "b"));
+        journal.store(new TestRecord(3, "c"));
+        journal.close();
+
+        Path segment = segments().firstEntry().getValue();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        objects.clear();
+        journal = open(objects, JournalPersister.DEFAULT_SEGMENT_SIZE);
+        assertEquals("{1=a, 2=b}", objects.toString());
+
+        journal.store(new TestRecord(3, "c"));
+        journal.close();
+
+        objects.clear();
+        open(objects, JournalPersister.DEFAULT_SEGMENT_SIZE).close();
+        assertEquals("{1=a, 2=b, 3=c}", objects.toString());
+    }
+
+    @Test
+    public void testReplayStopsAtCrcMismatch() throws Exception {
+        LinkedHashMap<String, String> objects = new LinkedHashMap<>();
+        JournalPersister journal = open(objects, JournalPersister.DEFAULT_SEGMENT_SIZE);
+        journal.store(new TestRecord(1, "a"));
+        journal.store(new TestRecord(2, "b"));
+        journal.store(new TestRecord(3, "c"));
+        journal.close();
+
+        // Each entry: size, CRC, operation, size of the key, key ("1") and content ("a")
+        int entrySize = 4 + 4 + 1 + 4 + 1 + 1;
+        Path segment = segments().firstEntry().getValue();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = entrySize + entrySize - 1;
+            file.seek(offset);
+            int b = file.read();
+            file.seek(offset);
+            file.write(b ^ 0x20);
+        }
+
+        objects.clear();
+        JournalPersister reopened = new JournalPersister(directory, CODEC, JournalPersister.DEFAULT_SEGMENT_SIZE, 0);
+        long count = reopened.recover((key, data) -> objects.put(key, new String(data, StandardCharsets.UTF_8)));
+        reopened.close();
+        assertEquals(1, count);
+        assertEquals("{1=a}", objects.toString());
+    }
+
+    @Test
+    public void testCompactionAndReplay() throws Exception {
+        LinkedHashMap<String, String> objects = new LinkedHashMap<>();
+        JournalPersister journal = open(objects, 64);
+        for (int i = 1; i <= 20; ++i) journal.store(new TestRecord(i, "r" + i));
+        for (int i = 2; i <= 20; i += 2) journal.delete(new TestRecord(i, "r" + i));
+        assertTrue(segments().size() > 2);
+
+        journal.compact().get(5, TimeUnit.SECONDS);
+        assertEquals(1, journal.getCompactionCount());
+        assertEquals(1, segments().size());
+        assertTrue(Files.exists(directory.resolve("snapshot.dat")));
+
+        journal.store(new TestRecord(1, "z"));
+        journal.store(new TestRecord(21, "r21"));
+        journal.close();
+
+        LinkedHashMap<String, String> expected = new LinkedHashMap<>();
+        for (int i = 1; i <= 19; i += 2) expected.put(String.valueOf(i), "r" + i);
+        expected.put("1", "z");
+        expected.put("21", "r21");
+
+        objects.clear();
+        journal = open(objects, 64);
+        assertEquals(expected, objects);
+
+        journal.compact().get(5, TimeUnit.SECONDS);
+        journal.close();
+
+        objects.clear();
+        open(objects, 64).close();
+        assertEquals(expected, objects);
+    }
+}
@@ -0,0 +1,153 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the free list and the flyweights of MappedDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class MappedDataRecordManagerTest {
+
+    /** The layout of the records */
+    private final RecordLayout layout = new RecordLayout().addInt("id").addString("name", 16);
+
+    /** The file of the records */
+    private Path file;
+
+    /** The manager being tested */
+    private MappedDataRecordManager manager;
+
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped", ".dat");
+        Files.delete(file);
+        manager = new MappedDataRecordManager(file, layout);
+        for (int i = 0; i < 6; ++i) manager.add().setInt("id", i);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Returns the ids of the records, in order.
+     */
+    private String ids() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < manager.size(); ++i) sb.append(manager.getInt(i, "getId"));
+        return sb.toString();
+    }
+
+    @Test
+    public void testFreeSlotsAreReusedLastFirst() throws Exception {
+        manager.delete(4);
+        manager.delete(1);
+        manager.delete(2);
+        assertEquals("025", ids());
+
+        assertEquals(4, manager.add().getSlot());
+        assertEquals(3, manager.add().getSlot());
+        assertEquals(1, manager.add().getSlot());
+        assertEquals(6, manager.add().getSlot());
+        assertEquals(7, manager.size());
+    }
+
+    @Test
+    public void testPositionsSkipFreeSlots() throws Exception {
+        manager.delete(0);
+        manager.delete(2);
+        assertEquals(4, manager.size());
+        assertEquals("1245", ids());
+        for (int i = 0; i < manager.size(); ++i) assertEquals(i, manager.getIndex(manager.get(i)));
+    }
+
+    @Test
+    public void testFreeListIsReloaded() throws Exception {
+        manager.delete(5);
+        manager.delete(3);
+        manager.delete(0);
+        manager.close();
+
+        manager = new MappedDataRecordManager(file, layout);
+        assertEquals("124", ids());
+        assertEquals(5, manager.add().getSlot());
+        assertEquals(3, manager.add().getSlot());
+        assertEquals(0, manager.add().getSlot());
+        assertEquals(6, manager.add().getSlot());
+    }
+
+    @Test
+    public void testReleasedFlyweightIsRejected() throws Exception {
+        MappedDataRecordManager.Record stale = manager.get(2);
+        stale.delete();
+        assertTrue(stale.isDeleted());
+
+        MappedDataRecordManager.Record reused = manager.add();
+        reused.set("name", "new");
+        assertEquals(stale.getSlot(), reused.getSlot());
+        assertTrue(stale.isDeleted());
+        assertFalse(reused.isDeleted());
+        assertFalse(stale.equals(reused));
+        assertEquals(-1, manager.getIndex(stale));
+
+        try {
+            stale.getString("name");
+            fail("Stale record read");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        try {
+            stale.setInt("id", 9);
+            fail("Stale record written");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        int size = manager.size();
+        stale.delete();
+        assertEquals(size, manager.size());
+        assertEquals("new", reused.getString("name"));
+    }
+}
@@ -0,0 +1,148 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the loading of pages by PagedDataRecordManager.
+ *
+ * @author Giuseppe Gallo
+ */
+public class PagedDataRecordManagerTest {
+
+    /**
+     * A page source counting its calls, failing the loads when required.
+     */
+    private static class CountingSource implements PagedDataRecordManager.PageSource<TestRecord> {
+
+        private final AtomicInteger loads = new AtomicInteger();
+        private final AtomicInteger sizes = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile int size = 10;
+
+        @Override
+        public int size() throws Exception {
+            sizes.incrementAndGet();
+            return size;
+        }
+
+        @Override
+        public List<TestRecord> load(int first, int count) throws Exception {
+            loads.incrementAndGet();
+            if (failing) throw new IllegalStateException("unavailable");
+            List<TestRecord> page = new ArrayList<>();
+            for (int i = first; i < first + count; ++i) page.add(new TestRecord(i, "r" + i));
+            return page;
+        }
+    }
+
+    /**
+     * Runs an action on the event dispatching thread, waiting for any event it posts.
+     */
+    private static void onEDT(Runnable action) throws Exception {
+        EventQueue.invokeAndWait(action);
+        EventQueue.invokeAndWait(() -> {});
+    }
+
+    @Test
+    public void testFailedPageIsNotRequestedAgainBeforeDelay() throws Exception {
+        CountingSource source = new CountingSource();
+        source.failing = true;
+        PagedDataRecordManager<TestRecord> dm = new PagedDataRecordManager<>(TestRecord.class, source, 5, 10, Runnable::run);
+
+        onEDT(() -> assertNull(dm.get(0)));
+        onEDT(() -> {
+            assertNull(dm.get(1));
+            assertNull(dm.get(2));
+            assertNotNull(dm.getLoadError(0));
+            assertNull(dm.getLoadError(5));
+        });
+        assertEquals(1, source.loads.get());
+
+        source.failing = false;
+        onEDT(() -> {
+            try {
+                dm.refresh();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            assertNull(dm.get(0));
+        });
+        onEDT(() -> {
+            assertEquals("r0", dm.get(0).getName());
+            assertNull(dm.getLoadError(0));
+        });
+        assertEquals(2, source.loads.get());
+    }
+
+    @Test
+    public void testRejectedLoadIsRecordedAsFailure() throws Exception {
+        CountingSource source = new CountingSource();
+        AtomicInteger rejected = new AtomicInteger();
+        PagedDataRecordManager<TestRecord> dm = new PagedDataRecordManager<>(TestRecord.class, source, 5, 10, r -> {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("shut down");
+        });
+
+        onEDT(() -> {
+            assertNull(dm.get(0));
+            assertTrue(dm.getLoadError(0) instanceof RejectedExecutionException);
+            assertNull(dm.get(1));
+        });
+        assertEquals(1, rejected.get());
+        assertEquals(0, source.loads.get());
+    }
+
+    @Test
+    public void testDeleteRefreshesOnExecutor() throws Exception {
+        CountingSource source = new CountingSource();
+        PagedDataRecordManager<TestRecord> dm = new PagedDataRecordManager<>(TestRecord.class, source, 5, 10, Runnable::run);
+        onEDT(() -> dm.get(0));
+        assertEquals(1, source.sizes.get());
+
+        source.size = 9;
+        dm.deleteAsync(0).get(5, TimeUnit.SECONDS);
+        onEDT(() -> {});
+        assertEquals(2, source.sizes.get());
+        assertEquals(9, dm.size());
+        assertEquals(0, dm.getLoadedPageCount());
+    }
+}
@@ -0,0 +1,92 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A DataListListener recording the events received as strings, for the tests.
+ *
+ * @author Giuseppe Gallo
+ */
+public class RecordingListener implements DataListListener {
+
+    /** The events received, in order */
+    public final List<String> events = new ArrayList<>();
+
+
+    @Override
+    public void listChanged(Class<?> type) {
+        events.add("changed");
+    }
+
+    @Override
+    public void objectAdded(int index, Class<?> type, Object object) {
+        events.add("added " + index + " " + object);
+    }
+
+    @Override
+    public void objectRemoved(int index, Class<?> type) {
+        events.add("removed " + index);
+    }
+
+    @Override
+    public void objectChanged(int index, Class<?> type, Object object) {
+        events.add("changed " + index + " " + object);
+    }
+
+    @Override
+    public void objectsAdded(int first, int last, Class<?> type) {
+        events.add("added " + first + "-" + last);
+    }
+
+    @Override
+    public void objectsRemoved(int first, int last, Class<?> type) {
+        events.add("removed " + first + "-" + last);
+    }
+
+    @Override
+    public void objectsChanged(int[] indices, Class<?> type) {
+        events.add("changed " + Arrays.toString(indices));
+    }
+
+    /**
+     * Returns the events received so far and forgets them.
+     *
+     * @return  the events received so far
+     */
+    public List<String> take() {
+        List<String> result = new ArrayList<>(events);
+        events.clear();
+        return result;
+    }
+}
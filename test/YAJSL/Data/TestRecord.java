@@ -0,0 +1,93 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+/**
+ * A minimal DataRecord used by the tests, with an integer key and a name.
+ *
+ * @author Giuseppe Gallo
+ */
+public class TestRecord implements DataRecord {
+
+    /** The key of the record */
+    private int key;
+
+    /** The name of the record */
+    private String name;
+
+    /** The number of times the record has been stored */
+    public int stored = 0;
+
+    /** The number of times the record has been deleted */
+    public int deleted = 0;
+
+
+    /**
+     * Allocates a new record.
+     *
+     * @param key  the key of the record
+     * @param name  the name of the record
+     */
+    public TestRecord(int key, String name) {
+        this.key = key;
+        this.name = name;
+    }
+
+    public int getKey() {
+        return key;
+    }
+
+    public void setKey(int key) {
+        this.key = key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void store() throws Exception {
+        ++stored;
+    }
+
+    @Override
+    public void delete() throws Exception {
+        ++deleted;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + key + ")";
+    }
+}
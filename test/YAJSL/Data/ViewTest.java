@@ -0,0 +1,319 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the keyed diff of the children performed by View when they are reloaded.
+ *
+ * @author Giuseppe Gallo
+ */
+public class ViewTest {
+
+    /**
+     * A child with a key.
+     */
+    public static class Child implements View.ViewChild {
+
+        /** The key of the child */
+        private final String key;
+
+        /** The parent of the child */
+        private final Parent parent;
+
+        public Child(Parent parent, String key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean isModified() {
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public View.ViewParent getParent(View view) {
+            return parent;
+        }
+
+        @Override
+        public void store() throws Exception {
+        }
+
+        @Override
+        public void delete() throws Exception {
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+
+    /**
+     * A parent returning a copy of its list of children.
+     */
+    public static class Parent implements View.ViewParent<Child> {
+
+        /** The children of the parent */
+        private final ArrayList<Child> children = new ArrayList<>();
+
+        /**
+         * Replaces the children with new instances with the given keys, reusing the
+         * current instances if required.
+         */
+        private void setChildren(boolean reuse, String... keys) {
+            ArrayList<Child> old = new ArrayList<>(children);
+            children.clear();
+            for (String key : keys) {
+                Child child = null;
+                if (reuse) {
+                    for (Child c : old) {
+                        if (c.key.equals(key)) child = c;
+                    }
+                }
+                children.add((child == null) ? new Child(this, key) : child);
+            }
+        }
+
+        @Override
+        public void removeChild(Child child) throws Exception {
+            children.remove(child);
+        }
+
+        @Override
+        public void notifyChange() throws Exception {
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Collection<Child> getChildren(View view) {
+            return new ArrayList<>(children);
+        }
+
+        @Override
+        public void store() throws Exception {
+        }
+
+        @Override
+        public void delete() throws Exception {
+        }
+    }
+
+    /**
+     * A listener applying the changes notified to a copy of the list of the view.
+     */
+    private class MirrorListener extends RecordingListener {
+
+        /** The copy of the list of the view */
+        private final ArrayList<Object> mirror = new ArrayList<>();
+
+        @Override
+        public void listChanged(Class<?> type) {
+            super.listChanged(type);
+            mirror.clear();
+            for (int i = 0; i < view.size(); ++i) mirror.add(view.get(i));
+        }
+
+        @Override
+        public void objectAdded(int index, Class<?> type, Object object) {
+            super.objectAdded(index, type, object);
+            mirror.add(index, object);
+        }
+
+        @Override
+        public void objectRemoved(int index, Class<?> type) {
+            super.objectRemoved(index, type);
+            mirror.remove(index);
+        }
+
+        @Override
+        public void objectChanged(int index, Class<?> type, Object object) {
+            super.objectChanged(index, type, object);
+            mirror.set(index, object);
+        }
+
+        @Override
+        public void objectsAdded(int first, int last, Class<?> type) {
+            super.objectsAdded(first, last, type);
+            for (int i = first; i <= last; ++i) mirror.add(i, view.get(i));
+        }
+
+        @Override
+        public void objectsRemoved(int first, int last, Class<?> type) {
+            super.objectsRemoved(first, last, type);
+            mirror.subList(first, last + 1).clear();
+        }
+
+        @Override
+        public void objectsChanged(int[] indices, Class<?> type) {
+            super.objectsChanged(indices, type);
+            for (int i : indices) mirror.set(i, view.get(i));
+        }
+    }
+
+    /** The parent of the children */
+    private Parent parent;
+
+    /** The view being tested */
+    private View<Parent, Child> view;
+
+    /** The listener recording the events of the view */
+    private MirrorListener listener;
+
+
+    @Before
+    public void setUp() {
+        parent = new Parent();
+        parent.setChildren(false, "a", "b", "c", "d");
+        view = new View<>(Child.class);
+        view.setParent(parent);
+        listener = new MirrorListener();
+        for (int i = 0; i < view.size(); ++i) listener.mirror.add(view.get(i));
+        view.addDataListListener(listener);
+    }
+
+    /**
+     * Reloads the children of the view, as done when the parent is notified as changed.
+     */
+    private void reload() {
+        view.objectChanged(0, Parent.class, parent);
+    }
+
+    /**
+     * Returns the keys of the children of the view, in order.
+     */
+    private String keys() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < view.size(); ++i) sb.append(view.get(i).getKey());
+        return sb.toString();
+    }
+
+    @Test
+    public void testRemoveAndAdd() {
+        parent.setChildren(true, "a", "c", "e", "d");
+        reload();
+        assertEquals("aced", keys());
+        assertEquals(Arrays.asList("removed 1", "added 2 e"), listener.events);
+        assertEquals(parent.children, listener.mirror);
+    }
+
+    @Test
+    public void testMoveKeepsLongestRun() {
+        parent.setChildren(true, "b", "c", "d", "a");
+        reload();
+        assertEquals("bcda", keys());
+        assertEquals(Arrays.asList("removed 0", "added 3 a"), listener.events);
+    }
+
+    @Test
+    public void testNewInstancesWithKeyGetterAreChanged() {
+        view.setKeyGetter("getKey");
+        parent.setChildren(false, "a", "b", "x", "d");
+        reload();
+        assertEquals(Arrays.asList("removed 2", "added 2 x", "changed [0, 1, 3]"), listener.events);
+        assertEquals(parent.children, listener.mirror);
+    }
+
+    @Test
+    public void testNewInstancesWithoutKeyGetterAreReplaced() {
+        parent.setChildren(false, "a", "b");
+        reload();
+        assertEquals(Arrays.asList("changed"), listener.events);
+        assertEquals("ab", keys());
+    }
+
+    @Test
+    public void testDuplicateKeysNotifyListChanged() {
+        view.setKeyGetter("getKey");
+        parent.setChildren(true, "a", "b", "b");
+        reload();
+        assertEquals(Arrays.asList("changed"), listener.events);
+        assertEquals("abb", keys());
+    }
+
+    @Test
+    public void testIdentityIndexFollowsDiff() {
+        view.setIdentityIndexEnabled(true);
+        parent.setChildren(true, "d", "a", "e", "c");
+        reload();
+        for (int i = 0; i < view.size(); ++i) assertEquals(i, view.getIndex(view.get(i)));
+    }
+
+    @Test
+    public void testDeleteNotifiesRemoval() throws Exception {
+        view.setIdentityIndexEnabled(true);
+        view.delete(1);
+        assertEquals("acd", keys());
+        assertEquals(Arrays.asList("removed 1"), listener.events);
+        assertEquals(parent.children, listener.mirror);
+        assertEquals(2, view.getIndex(view.get(2)));
+    }
+
+    @Test
+    public void testDeleteAsyncNotifiesRemoval() throws Exception {
+        view.deleteAsync(3).get(5, TimeUnit.SECONDS);
+        view.deleteAsync(0).get(5, TimeUnit.SECONDS);
+        assertEquals("bc", keys());
+        assertEquals(Arrays.asList("removed 3", "removed 0"), listener.events);
+        assertEquals(parent.children, listener.mirror);
+    }
+
+    @Test
+    public void testRandomDiffsReproduceChildren() {
+        Random random = new Random(42);
+        view.setKeyGetter("getKey");
+        String[] pool = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+        
+        for (int round = 0; round < 200; ++round) {
+            List<String> keys = new ArrayList<>(Arrays.asList(pool));
+            Collections.shuffle(keys, random);
+            keys = keys.subList(0, random.nextInt(pool.length + 1));
+            parent.setChildren(random.nextBoolean(), keys.toArray(new String[0]));
+            reload();
+            assertEquals(parent.children, listener.mirror);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Data;
+
+import java.awt.EventQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the futures returned by WriteBehindQueue.
+ *
+ * @author Giuseppe Gallo
+ */
+public class WriteBehindQueueTest {
+
+    @Test
+    public void testStoreAsyncCompletesOnEDT() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(60000, 100);
+        TestRecord record = new TestRecord(1, "a");
+        CompletableFuture<Void> first = queue.storeAsync(record);
+        CompletableFuture<Void> second = queue.storeAsync(record);
+        CompletableFuture<Boolean> onEDT = second.thenApply(v -> EventQueue.isDispatchThread());
+        assertFalse(first.isDone());
+        assertEquals(0, record.stored);
+
+        queue.flush();
+        assertTrue(onEDT.get(5, TimeUnit.SECONDS));
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, record.stored);
+        queue.close();
+    }
+
+    @Test
+    public void testDeleteAsyncReportsErrors() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(0, 100);
+        TestRecord record = new TestRecord(1, "a") {
+            @Override
+            public void delete() throws Exception {
+                throw new IllegalStateException("failed");
+            }
+        };
+
+        CompletableFuture<Void> future = queue.deleteAsync(record);
+        queue.flush();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(future.isCompletedExceptionally());
+        queue.close();
+    }
+
+    @Test
+    public void testDirectPersisterCompletesImmediately() {
+        TestRecord record = new TestRecord(1, "a");
+        CompletableFuture<Void> future = DataRecordPersister.DIRECT.storeAsync(record);
+        assertTrue(future.isDone());
+        assertEquals(1, record.stored);
+    }
+}
@@ -0,0 +1,308 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.Beans;
+
+import YAJSL.Data.DataRecordListManager;
+import YAJSL.Data.TestRecord;
+import YAJSL.Swing.Application;
+import YAJSL.Utils.Localizer;
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the incremental sorting and filtering of RecordRowSorter, comparing the rows shown
+ * after each change of the model with a full sort of the model.
+ *
+ * @author Giuseppe Gallo
+ */
+public class RecordRowSorterTest {
+
+    /** The column of the keys */
+    private static final int KEY = 0;
+
+    /** The column of the names */
+    private static final int NAME = 1;
+
+
+    /**
+     * Allocates a table showing the key and the name of the records.
+     *
+     * @param data  the records
+     * @return  the table
+     */
+    private static TableDataRecord<TestRecord> createTable(ArrayList<TestRecord> data) {
+        Properties props = new Properties();
+        props.setProperty(TableDataRecord.Model.PROP_UNIQUE_PREFIX, "sorter");
+        addColumn(props, 1, "key", "int", "getKey");
+        addColumn(props, 2, "name", null, "getName");
+
+        Application app = new Application() {
+            {
+                localizer = new Localizer(null, null, "", Locale.ENGLISH);
+            }
+
+            @Override
+            public Properties loadProperties() throws Exception {
+                return new Properties();
+            }
+
+            @Override
+            public void startup() throws Exception {
+            }
+
+            @Override
+            public void shutdown() throws Exception {
+            }
+
+            @Override
+            public void preShow() {
+            }
+        };
+
+        return new TableDataRecord<>(new DataRecordListManager<>(data), props, app, null);
+    }
+
+    /**
+     * Adds the properties of a column.
+     *
+     * @param props  the properties of the table
+     * @param order  the order of the column
+     * @param name  the name of the column
+     * @param type  the type of data of the column (null for strings)
+     * @param getter  the name of the getter method
+     */
+    private static void addColumn(Properties props, int order, String name, String type, String getter) {
+        String prefix = TableDataRecord.Model.PROP_COLUMN + order + "." + name + ".";
+        props.setProperty(prefix + TableDataRecord.Column.PROP_NAME, name);
+        props.setProperty(prefix + TableDataRecord.Column.PROP_LOCALIZATION_PREFIX, "sorter." + name);
+        props.setProperty(prefix + TableDataRecord.Column.PROP_METHOD_GET, getter);
+        if (type != null) props.setProperty(prefix + TableDataRecord.Column.PROP_DATATYPE, type);
+    }
+
+    /**
+     * Returns the sorter installed on a table.
+     *
+     * @param table  the table
+     * @return  the sorter
+     */
+    private static RecordRowSorter getSorter(TableDataRecord<TestRecord> table) {
+        RowSorter<?> sorter = table.getRowSorter();
+        assertTrue(sorter instanceof RecordRowSorter);
+        return (RecordRowSorter)sorter;
+    }
+
+    /**
+     * Allocates a filter showing the records whose key satisfies a condition.
+     *
+     * @param data  the records
+     * @param condition  the condition on the key
+     * @return  the filter
+     */
+    private static RowFilter<TableModel, Integer> keyFilter(List<TestRecord> data, IntPredicate condition) {
+        return new RowFilter<TableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                return condition.test(data.get(entry.getIdentifier()).getKey());
+            }
+        };
+    }
+
+    /**
+     * Checks the rows shown by the sorter against a full sort of the model: ascending
+     * by key, descending by name, keeping the order of the model for equal keys.
+     *
+     * @param sorter  the sorter
+     * @param data  the records
+     * @param condition  the condition on the key of the rows shown (null = all)
+     */
+    private static void check(RecordRowSorter sorter, List<TestRecord> data, IntPredicate condition) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < data.size(); ++row) {
+            if (condition == null || condition.test(data.get(row).getKey())) rows.add(row);
+        }
+        Comparator<Integer> byKey = Comparator.comparingInt(row -> data.get(row).getKey());
+        Comparator<Integer> byName = Comparator.comparing(row -> data.get(row).getName());
+        rows.sort(byKey.thenComparing(byName.reversed()));
+
+        assertEquals(data.size(), sorter.getModelRowCount());
+        assertEquals(rows.size(), sorter.getViewRowCount());
+        boolean[] shown = new boolean[data.size()];
+        for (int i = 0; i < rows.size(); ++i) {
+            int row = rows.get(i);
+            assertEquals("view row " + i, row, sorter.convertRowIndexToModel(i));
+            assertEquals("model row " + row, i, sorter.convertRowIndexToView(row));
+            shown[row] = true;
+        }
+        for (int row = 0; row < data.size(); ++row) {
+            if (!shown[row]) assertEquals("model row " + row, -1, sorter.convertRowIndexToView(row));
+        }
+    }
+
+    /**
+     * Sorts a table ascending by key and descending by name.
+     *
+     * @param sorter  the sorter
+     */
+    private static void sortByKeyAndName(RecordRowSorter sorter) {
+        sorter.setSortKeys(Arrays.asList(new RowSorter.SortKey(KEY, SortOrder.ASCENDING), new RowSorter.SortKey(NAME, SortOrder.DESCENDING)));
+    }
+
+    @Test
+    public void testRowsInsertedDeletedAndUpdated() throws Exception {
+        EventQueue.invokeAndWait(() -> {
+            ArrayList<TestRecord> data = new ArrayList<>(Arrays.asList(
+                    new TestRecord(5, "a"), new TestRecord(3, "b"), new TestRecord(8, "c"), new TestRecord(3, "d")));
+            TableDataRecord<TestRecord> table = createTable(data);
+            RecordRowSorter sorter = getSorter(table);
+            sortByKeyAndName(sorter);
+            check(sorter, data, null);
+            assertEquals(3, sorter.convertRowIndexToModel(0));
+
+            TestRecord added = new TestRecord(4, "e");
+            data.add(1, added);
+            table.objectAdded(1, TestRecord.class, added);
+            check(sorter, data, null);
+            assertEquals(1, sorter.convertRowIndexToModel(2));
+
+            data.remove(4);
+            table.objectRemoved(4, TestRecord.class);
+            check(sorter, data, null);
+
+            data.get(3).setKey(0);
+            table.objectChanged(3, TestRecord.class, data.get(3));
+            check(sorter, data, null);
+            assertEquals(3, sorter.convertRowIndexToModel(0));
+
+            data.add(new TestRecord(4, "f"));
+            data.add(new TestRecord(4, "g"));
+            table.objectsAdded(4, 5, TestRecord.class);
+            check(sorter, data, null);
+
+            data.subList(0, 2).clear();
+            table.objectsRemoved(0, 1, TestRecord.class);
+            check(sorter, data, null);
+        });
+    }
+
+    @Test
+    public void testFilterFollowsUpdates() throws Exception {
+        EventQueue.invokeAndWait(() -> {
+            ArrayList<TestRecord> data = new ArrayList<>();
+            for (int i = 0; i < 10; ++i) data.add(new TestRecord(9 - i, "r" + i));
+            TableDataRecord<TestRecord> table = createTable(data);
+            RecordRowSorter sorter = getSorter(table);
+            sortByKeyAndName(sorter);
+
+            IntPredicate even = key -> key % 2 == 0;
+            sorter.setRowFilter(keyFilter(data, even));
+            check(sorter, data, even);
+
+            // A row leaving the filter and a row entering it
+            data.get(1).setKey(3);
+            table.objectChanged(1, TestRecord.class, data.get(1));
+            check(sorter, data, even);
+            data.get(0).setKey(12);
+            table.objectChanged(0, TestRecord.class, data.get(0));
+            check(sorter, data, even);
+
+            TestRecord hidden = new TestRecord(7, "x");
+            data.add(2, hidden);
+            table.objectAdded(2, TestRecord.class, hidden);
+            check(sorter, data, even);
+            assertEquals(-1, sorter.convertRowIndexToView(2));
+
+            sorter.setRowFilter(null);
+            check(sorter, data, null);
+        });
+    }
+
+    @Test
+    public void testRandomChangesMatchFullSort() throws Exception {
+        EventQueue.invokeAndWait(() -> {
+            Random random = new Random(42);
+            ArrayList<TestRecord> data = new ArrayList<>();
+            for (int i = 0; i < 200; ++i) data.add(new TestRecord(random.nextInt(16), "n" + random.nextInt(8)));
+            TableDataRecord<TestRecord> table = createTable(data);
+            RecordRowSorter sorter = getSorter(table);
+            sortByKeyAndName(sorter);
+
+            IntPredicate condition = null;
+            for (int step = 0; step < 3000; ++step) {
+                if (step == 1000) {
+                    condition = key -> key % 3 != 0;
+                    sorter.setRowFilter(keyFilter(data, condition));
+                } else if (step == 2000) {
+                    condition = null;
+                    sorter.setRowFilter(null);
+                }
+
+                int action = random.nextInt(10);
+                if (data.size() < 10) action = 0;
+                if (action < 3) {
+                    int index = random.nextInt(data.size() + 1);
+                    TestRecord r = new TestRecord(random.nextInt(16), "n" + random.nextInt(8));
+                    data.add(index, r);
+                    table.objectAdded(index, TestRecord.class, r);
+                } else if (action < 6) {
+                    int index = random.nextInt(data.size());
+                    data.remove(index);
+                    table.objectRemoved(index, TestRecord.class);
+                } else if (action < 9) {
+                    int index = random.nextInt(data.size());
+                    TestRecord r = data.get(index);
+                    if (random.nextBoolean()) r.setKey(random.nextInt(16));
+                    else r.setName("n" + random.nextInt(8));
+                    table.objectChanged(index, TestRecord.class, r);
+                } else {
+                    int first = random.nextInt(data.size() - 3);
+                    int[] indices = { first, first + 1, first + 2 };
+                    for (int index : indices) data.get(index).setKey(random.nextInt(16));
+                    table.objectsChanged(indices, TestRecord.class);
+                }
+
+                check(sorter, data, condition);
+            }
+        });
+    }
+}
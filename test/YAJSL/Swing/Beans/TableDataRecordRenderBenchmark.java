@@ -0,0 +1,261 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Swing.Beans;
+
+import YAJSL.Data.DataRecord;
+import YAJSL.Data.DataRecordListManager;
+import YAJSL.Swing.Application;
+import YAJSL.Utils.Localizer;
+import java.awt.Color;
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Properties;
+import javax.swing.JScrollPane;
+
+/**
+ * Measures the bytes allocated by TableDataRecord for each cell rendered: every pass starts a new
+ * paint pass for the row styles and prepares the renderers of the visible rows, either repainting
+ * the same rows or scrolling a window of rows down the table.
+ * <p>
+ * Usage: TableDataRecordRenderBenchmark [rows] [visible rows] [passes]<br>
+ * (defaults: 2000, 40, 2000). The allocations are counted with the HotSpot ThreadMXBean,
+ * after a warm up run of the same length; a steady state without allocations prints 0 bytes per cell.
+ * The numeric renderers cache the texts of the values in direct-mapped tables of 4096 entries,
+ * so scrolling also counts the texts of the numbers formatted again after a collision.
+ *
+ * @author Giuseppe Gallo
+ */
+public class TableDataRecordRenderBenchmark {
+
+    /**
+     * The record shown in the table, with a column for each of the label-based renderers.
+     */
+    public static class Row implements DataRecord {
+
+        /** The colors used for the rows */
+        private static final Color[] COLORS = { Color.RED, Color.GREEN, Color.BLUE, Color.ORANGE };
+
+        /** The number of the row */
+        private final int number;
+
+        /** The name of the row */
+        private final String name;
+
+        /** The total of the row */
+        private final Double total;
+
+
+        /**
+         * Allocates a new row.
+         *
+         * @param number  the number of the row
+         */
+        public Row(int number) {
+            this.number = number;
+            this.name = "Row " + number;
+            this.total = number * 1.5;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return number;
+        }
+
+        public Double getTotal() {
+            return total;
+        }
+
+        public Color getColor() {
+            return COLORS[number % COLORS.length];
+        }
+
+        public Color getBackground() {
+            return (number % 3 == 0) ? Color.YELLOW : null;
+        }
+
+        @Override
+        public void store() throws Exception {
+        }
+
+        @Override
+        public void delete() throws Exception {
+        }
+    }
+
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args  the number of rows, the visible rows and the passes
+     * @throws Exception  in case of any problem
+     */
+    public static void main(String[] args) throws Exception {
+        int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        int visible = (args.length > 1) ? Integer.parseInt(args[1]) : 40;
+        int passes = (args.length > 2) ? Integer.parseInt(args[2]) : 2000;
+
+        EventQueue.invokeAndWait(() -> {
+            TableDataRecord<Row> table = createTable(rows, visible);
+
+            measure("repaint", table, visible, passes, 0);
+            measure("scroll", table, visible, passes, 7);
+        });
+    }
+
+    /**
+     * Renders the table twice, measuring the time and the bytes allocated by the second run.
+     *
+     * @param name  the name of the scenario
+     * @param table  the table
+     * @param visible  the number of visible rows
+     * @param passes  the number of passes
+     * @param step  the number of rows scrolled at each pass
+     */
+    private static void measure(String name, TableDataRecord<Row> table, int visible, int passes, int step) {
+        render(table, visible, passes, step);
+        long cells = (long)passes * visible * table.getColumnCount();
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        render(table, visible, passes, step);
+        long time = System.nanoTime() - start;
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        System.out.println(name + ": " + cells + " cells in " + (time / 1000000) + " ms, " + allocated + " bytes allocated, "
+                + String.format("%.2f", (double)allocated / cells) + " bytes per cell");
+    }
+
+    /**
+     * Prepares the renderers of the cells in a window of rows, moving it down the table at each pass.
+     *
+     * @param table  the table
+     * @param visible  the number of visible rows
+     * @param passes  the number of passes
+     * @param step  the number of rows scrolled at each pass
+     */
+    private static void render(TableDataRecord<Row> table, int visible, int passes, int step) {
+        int rows = table.getRowCount();
+        int columns = table.getColumnCount();
+
+        for (int pass = 0; pass < passes; ++pass) {
+            table.invalidateRowStyles();
+
+            int first = (pass * step) % (rows - visible);
+            for (int row = first; row < first + visible; ++row) {
+                for (int column = 0; column < columns; ++column) {
+                    table.prepareRenderer(table.getCellRenderer(row, column), row, column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocates a table with the given number of rows, inside a scroll pane showing the given number of rows.
+     *
+     * @param rows  the number of rows
+     * @param visible  the number of visible rows
+     * @return  the table
+     */
+    private static TableDataRecord<Row> createTable(int rows, int visible) {
+        ArrayList<Row> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; ++i) data.add(new Row(i));
+
+        Properties props = new Properties();
+        props.setProperty(TableDataRecord.Model.PROP_UNIQUE_PREFIX, "benchmark");
+        addColumn(props, 1, "name", null, "getName");
+        props.setProperty("column.1.name." + TableDataRecord.Column.PROP_METHOD_BACKGROUND, "getBackground");
+        addColumn(props, 2, "count", "int", "getCount");
+        addColumn(props, 3, "total", "java.lang.Double", "getTotal");
+        addColumn(props, 4, "color", "java.awt.Color", "getColor");
+
+        Application app = new Application() {
+            {
+                localizer = new Localizer(null, null, "", Locale.ENGLISH);
+            }
+
+            @Override
+            public Properties loadProperties() throws Exception {
+                return new Properties();
+            }
+
+            @Override
+            public void startup() throws Exception {
+            }
+
+            @Override
+            public void shutdown() throws Exception {
+            }
+
+            @Override
+            public void preShow() {
+            }
+        };
+
+        TableDataRecord<Row> table = new TableDataRecord<>(new DataRecordListManager<>(data), props, app, null);
+        JScrollPane pane = new JScrollPane(table);
+        pane.setSize(400, visible * table.getRowHeight() + table.getTableHeader().getPreferredSize().height);
+        pane.doLayout();
+        pane.getViewport().doLayout();
+
+        // A real paint pass sizes the row styles to the visible rows
+        BufferedImage image = new BufferedImage(400, pane.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        pane.paint(g);
+        g.dispose();
+
+        return table;
+    }
+
+    /**
+     * Adds the properties of a column.
+     *
+     * @param props  the properties of the table
+     * @param order  the order of the column
+     * @param name  the name of the column
+     * @param type  the type of data of the column (null for strings)
+     * @param getter  the name of the getter method
+     */
+    private static void addColumn(Properties props, int order, String name, String type, String getter) {
+        String prefix = TableDataRecord.Model.PROP_COLUMN + order + "." + name + ".";
+        props.setProperty(prefix + TableDataRecord.Column.PROP_NAME, name);
+        props.setProperty(prefix + TableDataRecord.Column.PROP_LOCALIZATION_PREFIX, "benchmark." + name);
+        props.setProperty(prefix + TableDataRecord.Column.PROP_METHOD_GET, getter);
+        if (type != null) props.setProperty(prefix + TableDataRecord.Column.PROP_DATATYPE, type);
+    }
+}
@@ -0,0 +1,98 @@
+/* 
+ * YAJSL - Yet Another Java Swing Library
+ *
+ * Copyright (c) 2013 Giuseppe Gallo
+ *
+ * LICENSED UNDER:
+ *
+ *  The MIT License (MIT)
+ *
+ *  Copyright (c) 2013 Giuseppe Gallo
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package YAJSL.Utils;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the translation of SimpleDateFormat patterns by DateFormatCache.
+ *
+ * @author Giuseppe Gallo
+ */
+public class DateFormatCacheTest {
+
+    /** The patterns compared with SimpleDateFormat */
+    private static final String[] PATTERNS = {
+        "dd-MMM-yyyy", "dd/MM/yy", "yyyyMMdd", "d MMMM yyyy", "EEE, d MMM yyyy HH:mm:ss Z",
+        "YYYY-'W'ww-u", "kk:mm", "KK:mm a", "h 'o''clock' a", "yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
+        "H:m:s.S", "EEEE dd.MM.yyyy", "D F", "MMMMM GGGG", "[yyyy] #dd {MM}", "''yy''"
+    };
+
+    /** The time zone used by the tests */
+    private static final String ZONE = "Europe/Rome";
+
+    @Test
+    public void testLegacyPatternsMatchSimpleDateFormat() {
+        Random random = new Random(42);
+
+        for (Locale locale : new Locale[] { Locale.ENGLISH, Locale.ITALIAN }) {
+            for (String pattern : PATTERNS) {
+                SimpleDateFormat legacy = new SimpleDateFormat(pattern, locale);
+                legacy.setTimeZone(TimeZone.getTimeZone(ZONE));
+                DateFormatCache cache = DateFormatCache.getLegacyInstance(pattern, locale, ZoneId.of(ZONE));
+
+                for (int i = 0; i < 2000; ++i) {
+                    Date date = new Date((long)(random.nextDouble() * 4000000000000L));
+                    assertEquals(pattern + " " + locale, legacy.format(date), cache.format(date));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLegacyPatternParsesFormattedText() {
+        DateFormatCache cache = DateFormatCache.getLegacyInstance("dd/MM/yyyy kk:mm", Locale.ENGLISH, ZoneId.of(ZONE));
+        LocalDateTime time = LocalDateTime.of(2024, 2, 29, 0, 15);
+
+        assertEquals("29/02/2024 24:15", cache.getFormatter().format(time));
+        assertEquals(time, cache.parse("29/02/2024 24:15"));
+        assertTrue(!cache.isDateOnly());
+        assertTrue(DateFormatCache.getLegacyInstance("dd 'at' MMM", Locale.ENGLISH).isDateOnly());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLegacyPatternIsRejected() {
+        DateFormatCache.getLegacyInstance("dd-MM-yyyy b", Locale.ENGLISH);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedQuoteIsRejected() {
+        DateFormatCache.getLegacyInstance("dd 'at", Locale.ENGLISH);
+    }
+}